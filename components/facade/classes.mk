@@ -17,6 +17,7 @@ CLASSES=\
 	jsaf.intf.io.IFileEx	\
 	jsaf.intf.io.IFileMetadata	\
 	jsaf.intf.io.IFilesystem	\
+	jsaf.intf.io.IMappableRandomAccess	\
 	jsaf.intf.io.IRandomAccess	\
 	jsaf.intf.io.IReader	\
 	jsaf.intf.juniper.system.IJunosSession	\
@@ -83,16 +84,33 @@ CLASSES=\
 	jsaf.intf.windows.wmi.ISWbemProperty	\
 	jsaf.intf.windows.wmi.ISWbemPropertySet	\
 	jsaf.intf.windows.wmi.IWmiProvider	\
+	jsaf.io.BatchReader	\
 	jsaf.io.CachedURLConnection	\
+	jsaf.io.CachingRandomAccess	\
+	jsaf.io.ChangeWatcher	\
+	jsaf.io.ContentSearcher	\
+	jsaf.io.DirectoryLister	\
+	jsaf.io.ExistenceCache	\
+	jsaf.io.FileEntry	\
+	jsaf.io.FileEntryCodec	\
+	jsaf.io.FilesystemSearcher	\
 	jsaf.io.LineIterator	\
 	jsaf.io.LittleEndian	\
+	jsaf.io.MappedRandomAccess	\
+	jsaf.io.MountTable	\
+	jsaf.io.ParallelDownload	\
+	jsaf.io.PathTrie	\
 	jsaf.io.PerishableReader	\
 	jsaf.io.ProgressInputStream	\
 	jsaf.io.ProgressOutputStream	\
 	jsaf.io.SimpleReader	\
 	jsaf.io.StreamLogger	\
 	jsaf.io.Streams	\
+	jsaf.io.TempArea	\
 	jsaf.io.TruncatedInputStream	\
+	jsaf.io.UnixFileEntry	\
+	jsaf.io.UnixFindSearcher	\
+	jsaf.io.WindowsFindSearcher	\
 	jsaf.io.XMLFilterStream	\
 	jsaf.protocol.JSAFURLStreamHandlerFactory	\
 	jsaf.protocol.memory.MemoryURLConnection	\
@@ -106,11 +124,28 @@ CLASSES=\
 	jsaf.provider.SessionFactory	\
 	jsaf.provider.windows.Timestamp	\
 	jsaf.provider.windows.identity.SID	\
+	jsaf.provider.windows.powershell.ModuleLoader	\
 	jsaf.provider.windows.powershell.PowershellException	\
 	jsaf.provider.windows.powershell.StringPipeline	\
 	jsaf.provider.windows.powershell.StringPropertyPipeline	\
+	jsaf.provider.windows.registry.CachingRegistry	\
+	jsaf.provider.windows.registry.HiveFile	\
+	jsaf.provider.windows.registry.OfflineRegistry	\
+	jsaf.provider.windows.registry.RegistryCache	\
 	jsaf.provider.windows.registry.RegistryException	\
+	jsaf.provider.windows.registry.RegistryLookup	\
+	jsaf.provider.windows.registry.RegistryQuery	\
+	jsaf.provider.windows.registry.RegistrySearcher	\
+	jsaf.provider.windows.registry.RegistrySnapshot	\
+	jsaf.provider.windows.registry.RegistryValue	\
+	jsaf.provider.windows.registry.WindowsRegistrySearcher	\
+	jsaf.provider.windows.wmi.WmiCache	\
 	jsaf.provider.windows.wmi.WmiException	\
+	jsaf.provider.windows.wmi.WmiObject	\
+	jsaf.provider.windows.wmi.WmiPool	\
+	jsaf.provider.windows.wmi.WmiProperty	\
+	jsaf.provider.windows.wmi.WmiStream	\
+	jsaf.provider.windows.wmi.Wql	\
 	jsaf.service.PortRegistry	\
 	jsaf.service.UnsupportedServiceException	\
 	jsaf.util.AbstractEnvironment	\
@@ -126,4 +161,7 @@ CLASSES=\
 	jsaf.util.Publisher	\
 	jsaf.util.SafeCLI	\
 	jsaf.util.Regex	\
-	jsaf.util.Strings
+	jsaf.util.SearchResult	\
+	jsaf.util.SpillableCollection	\
+	jsaf.util.Strings	\
+	jsaf.util.WorkStealingExecutor
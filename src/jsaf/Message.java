@@ -32,16 +32,23 @@ import jsaf.util.LogMessageConveyor;
   value = { @Locale("en_US") }
 )
 public enum Message {
+    ERROR_CHECKSUM,
     ERROR_EOF,
     ERROR_EOS,
     ERROR_EXCEPTION,
     ERROR_FACTORY_CLASS,
     ERROR_FACTORY_INITIALIZER,
+    ERROR_FS_SEARCH_UNANCHORED,
     ERROR_IO,
     ERROR_IO_NOT_DIR,
     ERROR_MEMORY_URL_MAPPING,
     ERROR_PROCESS_RETRY,
     ERROR_PROTOCOL,
+    ERROR_REGF,
+    ERROR_REGISTRY_HIVE,
+    ERROR_REGISTRY_SEARCH_HIVE,
+    ERROR_REGISTRY_SEARCH_TIMEOUT,
+    ERROR_SEARCH_CANCELLED,
     ERROR_SEARCH_CONDITION,
     ERROR_SEARCH_FIELD,
     ERROR_SESSION_INTEGRITY,
@@ -50,17 +57,30 @@ public enum Message {
     ERROR_TRUNCATE,
     ERROR_UNIX_FLAVOR,
     ERROR_URL,
+    ERROR_WMI_PROPERTY,
+    ERROR_WMI_TIMEOUT,
+    ERROR_WMI_VALUE,
+    STATUS_BATCH_MISSING,
     STATUS_COMMAND_OUTPUT_PROGRESS,
     STATUS_COMMAND_OUTPUT_TEMP,
+    STATUS_CONTENT_SEARCH_FALLBACK,
+    STATUS_CONTENT_SEARCH_LOCAL,
+    STATUS_DOWNLOAD_RESUME,
     STATUS_PROCESS_RETRY,
     STATUS_PUBLISHER_STOP,
+    STATUS_REGISTRY_LOOKUP_VIEWS,
+    STATUS_REGISTRY_SNAPSHOT,
+    STATUS_TEMP_SWEEP,
     STATUS_URL_CACHE,
     WARNING_COMMAND_OUTPUT,
+    WARNING_DOWNLOAD_RETRY,
+    WARNING_FS_LOOP,
     WARNING_MISSING_OUTPUT,
     WARNING_PERISHABLEIO_INTERRUPT,
     WARNING_READER_THREAD,
     WARNING_UNSAFE_CHARS,
-    WARNING_UNIX_FLAVOR;
+    WARNING_UNIX_FLAVOR,
+    WARNING_WMI_PREFETCH;
 
     private static IMessageConveyor baseConveyor;
     private static LogMessageConveyor conveyor;
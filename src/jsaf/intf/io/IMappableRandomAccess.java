@@ -0,0 +1,28 @@
+// Copyright (C) 2026 Arctic Wolf Networks, Inc.  All rights reserved.
+// This software is licensed under the LGPL 3.0 license available at http://www.gnu.org/licenses/lgpl.txt
+
+package jsaf.intf.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * An IRandomAccess that can expose regions of the underlying file directly as ByteBuffers. For local files this is
+ * typically a memory-mapped buffer; for remote files it is typically a view of a locally-cached block.
+ *
+ * @see jsaf.io.LittleEndian#getByteBuffer(IRandomAccess, long, int)
+ *
+ * @author David A. Solin
+ * @version %I% %G%
+ * @since 1.7.0
+ */
+public interface IMappableRandomAccess extends IRandomAccess {
+    /**
+     * Get a read-only ByteBuffer containing size bytes of the file starting at the specified position. The buffer's
+     * position is 0, its limit is the number of bytes available (which is less than size only at the end of the file),
+     * and its byte order is little-endian. The file pointer is not affected.
+     *
+     * @since 1.7.0
+     */
+    ByteBuffer map(long position, int size) throws IOException;
+}
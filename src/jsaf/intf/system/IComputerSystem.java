@@ -64,6 +64,42 @@ public interface IComputerSystem extends IServiceHost {
      */
     String PROP_FS_SEARCH_MAX_WARNINGS = "fs.search.maxWarnings";
 
+    /**
+     * Property governing the number of directories that a filesystem search may list concurrently. If unset (or 0), the
+     * number of available processors is used when PROP_LOCAL is true, and 1 otherwise.
+     *
+     * @since 1.7.0
+     */
+    String PROP_FS_SEARCH_PARALLELISM = "fs.search.parallelism";
+
+    /**
+     * Property governing the maximum number of concurrent directory listings for any single mount during a filesystem
+     * search. If unset (or 0), the only limit is PROP_FS_SEARCH_PARALLELISM.
+     *
+     * @since 1.7.0
+     */
+    String PROP_FS_SEARCH_MOUNT_CONCURRENCY = "fs.search.mountConcurrency";
+
+    /**
+     * Property governing the number of results that a filesystem search with no result limit holds in memory. Any
+     * further results are serialized to a temporary file, and read back when the results are iterated. If unset (or 0),
+     * all results are held in memory.
+     *
+     * @since 1.7.0
+     */
+    String PROP_FS_SEARCH_SPILL_THRESHOLD = "fs.search.spillThreshold";
+
+    /**
+     * Property governing the age (in milliseconds since its creation, and since its heartbeat was last touched) after
+     * which a session temp directory that was left behind by another session is deleted. If unset (or 0), the default of
+     * 24 hours applies. A negative value disables the sweep.
+     *
+     * @see jsaf.io.TempArea
+     *
+     * @since 1.7.0
+     */
+    String PROP_TEMP_SWEEP_AGE = "temp.sweepAge";
+
     /**
      * Property whose value indicates whether IFilesystem I/O will be high-performance (true), or subject to network
      * lag (false).
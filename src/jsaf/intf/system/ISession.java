@@ -310,7 +310,8 @@ public interface ISession extends IDisposable {
     void connect() throws SessionException;
 
     /**
-     * Disconnect the session.
+     * Disconnect the session. Implementations dispose of the session's temp area (if any) using
+     * jsaf.io.TempArea.disposeInstance, before closing the connection.
      *
      * @since 1.0
      */
@@ -73,6 +73,15 @@ public interface IUnixFilesystem extends IFilesystem {
 	 * @since 1.2
 	 */
 	public static final int FIELD_GROUP = 104;
+
+	/**
+	 * Condition field for Unix file modification time. Supports the following condition types:
+	 *   Condition.TYPE_EQUALITY - return files modified after the time specified by the Long value (in milliseconds
+	 *                             since 1970)
+	 *
+	 * @since 1.7.0
+	 */
+	public static final int FIELD_NEWER = 105;
     }
 
     /**
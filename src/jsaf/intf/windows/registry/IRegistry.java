@@ -251,8 +251,8 @@ public interface IRegistry extends ILoggable {
 	/**
 	 * Create a new Condition for an IRegistry search.
 	 */
-	public RegCondition(int type, int field, Object arg) {
-	    super(type, field, arg);
+	public RegCondition(int field, int type, Object arg) {
+	    super(field, type, arg);
 	}
 
 	/**
@@ -27,6 +27,38 @@ public interface IWindowsSession extends IComputerSystem {
      */
     String PROP_WMI_TIMEOUT = "wmi.timeout";
 
+    /**
+     * Property governing the number of objects that are transferred from the target at a time when a WMI query result is
+     * streamed (see jsaf.provider.windows.wmi.WmiStream).
+     *
+     * @since 1.7.0
+     */
+    String PROP_WMI_BATCH_SIZE = "wmi.batchSize";
+
+    /**
+     * Property governing the maximum number of query results that are held in a WMI cache (see
+     * jsaf.provider.windows.wmi.WmiCache).
+     *
+     * @since 1.7.0
+     */
+    String PROP_WMI_CACHE_SIZE = "wmi.cache.size";
+
+    /**
+     * Property governing the time (in milliseconds) for which a WMI cache retains a query result. Use a negative value to
+     * retain results until they are evicted or cleared.
+     *
+     * @since 1.7.0
+     */
+    String PROP_WMI_CACHE_TTL = "wmi.cache.ttl";
+
+    /**
+     * Property governing the number of WMI queries in any one namespace that may run concurrently using a WMI pool (see
+     * jsaf.provider.windows.wmi.WmiPool).
+     *
+     * @since 1.7.0
+     */
+    String PROP_WMI_POOL_SIZE = "wmi.pool.size";
+
     /**
      * Property indicating the default number of milliseconds to wait for output from a Powershell command, before quitting
      * and throwing an exception.
@@ -100,6 +132,30 @@ public interface IWindowsSession extends IComputerSystem {
      */
     String PROP_REGISTRY_SEARCH_TIMEOUT = "registry.search.timeout";
 
+    /**
+     * Property governing the number of registry subtrees that may be searched concurrently, each using its own
+     * runspace (see jsaf.provider.windows.registry.WindowsRegistrySearcher).
+     *
+     * @since 1.7.0
+     */
+    String PROP_REGISTRY_SEARCH_PARALLELISM = "registry.search.parallelism";
+
+    /**
+     * Property governing the maximum number of keys whose enumerations are held in a registry cache (see
+     * jsaf.provider.windows.registry.RegistryCache).
+     *
+     * @since 1.7.0
+     */
+    String PROP_REGISTRY_CACHE_SIZE = "registry.cache.size";
+
+    /**
+     * Property governing the time (in milliseconds) after a cached registry key enumeration has been validated, during
+     * which it will be used without checking the key's LastWriteTime. Use a negative value to always check.
+     *
+     * @since 1.7.0
+     */
+    String PROP_REGISTRY_CACHE_GRACE = "registry.cache.grace";
+
     /**
      * Name of the environment variable containing the processor architecture (when running in 32-bit mode on a 64-bit
      * machine, the value will actually be the emulated architecture).
@@ -0,0 +1,469 @@
+// Copyright (C) 2026 Arctic Wolf Networks, Inc.  All rights reserved.
+// This software is licensed under the LGPL 3.0 license available at http://www.gnu.org/licenses/lgpl.txt
+
+package jsaf.io;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+import org.slf4j.cal10n.LocLogger;
+
+import jsaf.Message;
+import jsaf.intf.io.IFile;
+import jsaf.intf.io.IFilesystem;
+import jsaf.intf.system.IComputerSystem;
+import jsaf.intf.system.ISession;
+import jsaf.intf.util.ILoggable;
+import jsaf.intf.windows.system.IWindowsSession;
+import jsaf.provider.windows.powershell.PowershellException;
+import jsaf.util.SafeCLI;
+import jsaf.util.Strings;
+
+/**
+ * Reads many files from a computer system at once. On Unix and Windows sessions, the files are packed on the target into
+ * a single archive (a gzipped tar file on Unix, a ZIP file on Windows) in the session's TempArea, which is transferred
+ * using a single IFile.getInputStream. On other systems (or if the archive cannot be created), the files are read one at
+ * a time, as are any files that are missing from the archive (e.g., because the archiving command failed).
+ *
+ * Either way, the files are returned as a Streams.Zipped, whose entries are named by the files' paths. Files that could
+ * not be read are absent. The local copy of the archive is deleted when the stream is closed using Streams.close.
+ *
+ * @author David A. Solin
+ * @version %I% %G%
+ * @since 1.7.0
+ */
+public class BatchReader implements ILoggable {
+    private static final int BLOCK = 512;
+
+    private IComputerSystem sys;
+    private IFilesystem fs;
+    private LocLogger logger;
+
+    /**
+     * Create a reader for files on the specified computer system.
+     */
+    public BatchReader(IComputerSystem sys) {
+	this.sys = sys;
+	fs = sys.getFilesystem();
+	logger = sys.getLogger();
+    }
+
+    /**
+     * Read the files at the specified (absolute) paths.
+     *
+     * @return a Streams.Zipped, which must be closed using Streams.close. Call getNextEntry to advance to each file.
+     */
+    public Streams.Zipped read(Collection<String> paths) throws IOException {
+	final File temp = File.createTempFile("batch", ".zip", sys.getWorkspace());
+	temp.deleteOnExit();
+	boolean success = false;
+	try {
+	    boolean packed = false;
+	    if (paths.size() > 1) {
+		try {
+		    packed = write(paths, temp, true);
+		} catch (IOException e) {
+		    logger.warn(Message.getMessage(Message.ERROR_EXCEPTION), e);
+		}
+	    }
+	    if (!packed) {
+		write(paths, temp, false);
+	    }
+	    InputStream in = new FileInputStream(temp) {
+		@Override
+		public void close() throws IOException {
+		    super.close();
+		    temp.delete();
+		}
+	    };
+	    success = true;
+	    return new Streams.Zipped(new ZipInputStream(new BufferedInputStream(in)));
+	} finally {
+	    if (!success) {
+		temp.delete();
+	    }
+	}
+    }
+
+    // Implement ILoggable
+
+    public LocLogger getLogger() {
+	return logger;
+    }
+
+    public void setLogger(LocLogger logger) {
+	this.logger = logger;
+    }
+
+    // Private
+
+    /**
+     * Write the files to the local ZIP file, replacing anything it already contains, so that if packing fails part-way
+     * through, the files can all be copied again without leaving duplicate or truncated entries behind.
+     *
+     * @param pack true to pack the files into an archive on the target, false to copy them one at a time
+     *
+     * @return false if packing was requested, but the system does not support it
+     */
+    private boolean write(Collection<String> paths, File temp, boolean pack) throws IOException {
+	ZipOutputStream out = new ZipOutputStream(new BufferedOutputStream(new FileOutputStream(temp)));
+	out.setLevel(Deflater.BEST_SPEED);
+	boolean success = false;
+	try {
+	    boolean result = true;
+	    if (pack) {
+		result = pack(paths, out);
+	    } else {
+		for (String path : paths) {
+		    copy(path, out);
+		}
+	    }
+	    success = true;
+	    return result;
+	} finally {
+	    if (success) {
+		out.close();
+	    } else {
+		try {
+		    out.close();
+		} catch (IOException e) {
+		}
+	    }
+	}
+    }
+
+    /**
+     * Pack the files into an archive on the target, transfer it, and copy its entries to the ZIP output. Files for which
+     * the archive contains no entry are then copied one at a time.
+     *
+     * @return false if the system does not support packing
+     */
+    private boolean pack(Collection<String> paths, ZipOutputStream out) throws IOException {
+	if (sys.getType() != ISession.Type.UNIX && !(sys instanceof IWindowsSession)) {
+	    return false;
+	}
+	List<String> args = new ArrayList<String>();
+	for (String path : paths) {
+	    try {
+		args.add(SafeCLI.checkArgument(path, sys));
+	    } catch (IllegalArgumentException e) {
+		copy(path, out);
+	    }
+	}
+	if (args.size() == 0) {
+	    return true;
+	}
+	Set<String> names = new HashSet<String>();
+	TempArea area = TempArea.getInstance(sys);
+	if (sys.getType() == ISession.Type.UNIX) {
+	    IFile archive = area.newFile("batch", ".tgz");
+	    try {
+		tar(args, archive.getPath());
+		InputStream in = new GZIPInputStream(new BufferedInputStream(archive.getInputStream()));
+		try {
+		    untar(in, out, names);
+		} finally {
+		    in.close();
+		}
+	    } finally {
+		area.release(archive);
+	    }
+	} else {
+	    IFile archive = area.newFile("batch", ".zip");
+	    try {
+		zip(args, archive.getPath());
+		ZipInputStream in = new ZipInputStream(new BufferedInputStream(archive.getInputStream()));
+		try {
+		    ZipEntry entry;
+		    while ((entry = in.getNextEntry()) != null) {
+			ZipEntry copy = new ZipEntry(entry.getName());
+			if (entry.getTime() != -1) {
+			    copy.setTime(entry.getTime());
+			}
+			out.putNextEntry(copy);
+			Streams.copy(in, out, false);
+			out.closeEntry();
+			names.add(entry.getName());
+		    }
+		} finally {
+		    in.close();
+		}
+	    } finally {
+		area.release(archive);
+	    }
+	}
+	int missing = 0;
+	for (String path : args) {
+	    if (!names.contains(path)) {
+		copy(path, out);
+		missing++;
+	    }
+	}
+	if (missing > 0) {
+	    logger.debug(Message.STATUS_BATCH_MISSING, missing, args.size());
+	}
+	return true;
+    }
+
+    /**
+     * Create a gzipped tar file of the (dereferenced) files on a Unix target. If the command would be too long, the files
+     * are split across several tar commands, whose output is concatenated.
+     */
+    private void tar(List<String> paths, String archive) throws IOException {
+	int max = sys.maxCommandLength();
+	StringBuffer cmd = new StringBuffer();
+	boolean append = false;
+	for (String path : paths) {
+	    String arg = new StringBuffer(" '").append(path).append("'").toString();
+	    if (cmd.length() > 0 && max > 0 && cmd.length() + arg.length() + archive.length() + 32 > max) {
+		tar(cmd.toString(), archive, append);
+		cmd = new StringBuffer();
+		append = true;
+	    }
+	    cmd.append(arg);
+	}
+	tar(cmd.toString(), archive, append);
+    }
+
+    private void tar(String args, String archive, boolean append) throws IOException {
+	StringBuffer cmd = new StringBuffer("tar chf -").append(args).append(" 2>/dev/null | gzip -c ");
+	cmd.append(append ? ">> '" : "> '").append(archive).append("'");
+	SafeCLI.exec(cmd.toString(), sys, ISession.Timeout.L);
+    }
+
+    /**
+     * Create a ZIP file of the files on a Windows target. The archive is opened for update, which creates it if it does
+     * not already exist.
+     */
+    private void zip(List<String> paths, String archive) throws IOException {
+	StringBuffer cmd = new StringBuffer("Add-Type -AssemblyName System.IO.Compression.FileSystem; ");
+	cmd.append("$zip = [System.IO.Compression.ZipFile]::Open('").append(archive).append("', 'Update'); ");
+	cmd.append("try { foreach ($p in @(");
+	for (int i=0; i < paths.size(); i++) {
+	    if (i > 0) {
+		cmd.append(",");
+	    }
+	    cmd.append("'").append(paths.get(i)).append("'");
+	}
+	cmd.append(")) { try { [void][System.IO.Compression.ZipFileExtensions]::CreateEntryFromFile($zip, $p, $p, 'Fastest') }");
+	cmd.append(" catch {} } } finally { $zip.Dispose() }");
+	try {
+	    ((IWindowsSession)sys).getRunspacePool().getRunspace().invoke(cmd.toString(), sys.getTimeout(ISession.Timeout.L));
+	} catch (PowershellException e) {
+	    throw new IOException(e.getMessage());
+	}
+    }
+
+    /**
+     * Copy the regular files in a tar stream to the ZIP output, adding their names to the set. Tar streams that were
+     * concatenated are read through (i.e., end-of-archive blocks are skipped). Leading delimiters, which tar strips from
+     * member names, are restored.
+     */
+    private void untar(InputStream in, ZipOutputStream out, Set<String> names) throws IOException {
+	String delim = fs.getDelimiter();
+	byte[] header = new byte[BLOCK];
+	String longName = null;
+	while (readBlock(in, header)) {
+	    if (header[0] == 0) {
+		continue; // end-of-archive block
+	    }
+	    long size = parseOctal(header, 124, 12);
+	    char type = (char)header[156];
+	    String name = longName;
+	    longName = null;
+	    if (name == null) {
+		name = parseString(header, 0, 100);
+		if ("ustar".equals(parseString(header, 257, 5))) {
+		    String prefix = parseString(header, 345, 155);
+		    if (prefix.length() > 0) {
+			name = prefix + "/" + name;
+		    }
+		}
+	    }
+	    switch(type) {
+	      case 'L': // GNU long name
+		longName = parseString(readData(in, size), 0, (int)size);
+		break;
+
+	      case 'x': { // POSIX extended header
+		String path = parsePaxPath(readData(in, size));
+		if (path != null) {
+		    longName = path;
+		}
+		break;
+	      }
+
+	      case '0':
+	      case '\0': {
+		if (!name.startsWith(delim)) {
+		    name = delim + name;
+		}
+		ZipEntry entry = new ZipEntry(name);
+		entry.setTime(parseOctal(header, 136, 12) * 1000L);
+		out.putNextEntry(entry);
+		copyData(in, out, size);
+		out.closeEntry();
+		names.add(name);
+		break;
+	      }
+
+	      default:
+		skipData(in, size);
+		break;
+	    }
+	}
+    }
+
+    private static boolean readBlock(InputStream in, byte[] block) throws IOException {
+	int offset = 0;
+	while (offset < block.length) {
+	    int len = in.read(block, offset, block.length - offset);
+	    if (len == -1) {
+		if (offset == 0) {
+		    return false;
+		}
+		throw new IOException(Message.getMessage(Message.ERROR_EOS));
+	    }
+	    offset += len;
+	}
+	return true;
+    }
+
+    private static byte[] readData(InputStream in, long size) throws IOException {
+	byte[] data = new byte[(int)size];
+	Streams.readFully(in, data);
+	skip(in, padding(size));
+	return data;
+    }
+
+    private static void copyData(InputStream in, ZipOutputStream out, long size) throws IOException {
+	byte[] buff = new byte[8192];
+	long remaining = size;
+	while (remaining > 0) {
+	    int len = in.read(buff, 0, (int)Math.min(buff.length, remaining));
+	    if (len == -1) {
+		throw new IOException(Message.getMessage(Message.ERROR_EOS));
+	    }
+	    out.write(buff, 0, len);
+	    remaining -= len;
+	}
+	skip(in, padding(size));
+    }
+
+    private static void skipData(InputStream in, long size) throws IOException {
+	skip(in, size + padding(size));
+    }
+
+    private static long padding(long size) {
+	return (BLOCK - (size % BLOCK)) % BLOCK;
+    }
+
+    private static void skip(InputStream in, long len) throws IOException {
+	while (len > 0) {
+	    long skipped = in.skip(len);
+	    if (skipped <= 0) {
+		if (in.read() == -1) {
+		    throw new IOException(Message.getMessage(Message.ERROR_EOS));
+		}
+		skipped = 1;
+	    }
+	    len -= skipped;
+	}
+    }
+
+    private static String parseString(byte[] buff, int offset, int len) {
+	int end = offset;
+	while (end < offset + len && end < buff.length && buff[end] != 0) {
+	    end++;
+	}
+	return new String(buff, offset, end - offset, Strings.UTF8);
+    }
+
+    private static long parseOctal(byte[] buff, int offset, int len) throws IOException {
+	long val = 0;
+	for (int i=offset; i < offset + len; i++) {
+	    byte b = buff[i];
+	    if (b == 0 || b == ' ') {
+		if (val > 0) {
+		    break;
+		}
+	    } else if (b >= '0' && b <= '7') {
+		val = (val << 3) + (b - '0');
+	    } else {
+		throw new IOException(Message.getMessage(Message.ERROR_IO, "tar", new String(buff, offset, len, Strings.ASCII)));
+	    }
+	}
+	return val;
+    }
+
+    /**
+     * Get the path from the records ("length key=value\n") of a POSIX extended header, or null if there is none.
+     */
+    private static String parsePaxPath(byte[] data) {
+	int offset = 0;
+	while (offset < data.length) {
+	    int sp = offset;
+	    while (sp < data.length && data[sp] != ' ') {
+		sp++;
+	    }
+	    int len;
+	    try {
+		len = Integer.parseInt(new String(data, offset, sp - offset, Strings.ASCII));
+	    } catch (NumberFormatException e) {
+		return null;
+	    }
+	    if (len <= 0 || offset + len > data.length) {
+		return null;
+	    }
+	    String record = new String(data, sp + 1, offset + len - sp - 2, Strings.UTF8);
+	    if (record.startsWith("path=")) {
+		return record.substring(5);
+	    }
+	    offset += len;
+	}
+	return null;
+    }
+
+    /**
+     * Read a single file directly, and copy it to the ZIP output.
+     */
+    private void copy(String path, ZipOutputStream out) throws IOException {
+	InputStream in = null;
+	try {
+	    IFile f = fs.getFile(path);
+	    in = f.getInputStream();
+	    ZipEntry entry = new ZipEntry(path);
+	    try {
+		entry.setTime(f.getLastModified().getTime());
+	    } catch (Exception e) {
+	    }
+	    out.putNextEntry(entry);
+	    Streams.copy(in, out, false);
+	    out.closeEntry();
+	} catch (IOException e) {
+	    logger.debug(Message.ERROR_IO, path, e.getMessage());
+	} finally {
+	    if (in != null) {
+		try {
+		    in.close();
+		} catch (IOException e) {
+		}
+	    }
+	}
+    }
+}
@@ -0,0 +1,355 @@
+// Copyright (C) 2026 Arctic Wolf Networks, Inc.  All rights reserved.
+// This software is licensed under the LGPL 3.0 license available at http://www.gnu.org/licenses/lgpl.txt
+
+package jsaf.io;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import jsaf.Message;
+import jsaf.intf.io.IMappableRandomAccess;
+import jsaf.intf.io.IRandomAccess;
+
+/**
+ * An IRandomAccess decorator that reads the underlying IRandomAccess in fixed-size blocks, and keeps the most recently
+ * used blocks in memory. This turns the many small reads made by binary parsers (e.g., LittleEndian.readUInt) into a
+ * small number of large reads, which matters a great deal when the underlying IRandomAccess is a remote file.
+ *
+ * When consecutive blocks are read in sequence, progressively larger runs of blocks are read ahead (up to the configured
+ * maximum). The prefetch method can be used to fetch several known ranges at once, in a single ordered pass over the
+ * underlying file, coalescing adjacent blocks into single reads.
+ *
+ * A mapped region that falls within a single block is returned as a view of the cached block, without copying.
+ *
+ * @author David A. Solin
+ * @version %I% %G%
+ * @since 1.7.0
+ */
+public class CachingRandomAccess implements IMappableRandomAccess {
+    /**
+     * The default block size (64KB).
+     */
+    public static final int DEFAULT_BLOCK_SIZE = 65536;
+
+    /**
+     * The default maximum number of cached blocks.
+     */
+    public static final int DEFAULT_MAX_BLOCKS = 64;
+
+    /**
+     * The default maximum number of blocks that will be read ahead during sequential access.
+     */
+    public static final int DEFAULT_MAX_READ_AHEAD = 8;
+
+    private IRandomAccess ra;
+    private int blockSize, maxBlocks, maxReadAhead, readAhead;
+    private long length, ptr, lastBlock;
+    private BlockMap blocks;
+    private long hits, misses, fetches;
+
+    /**
+     * Create a CachingRandomAccess with default settings.
+     */
+    public CachingRandomAccess(IRandomAccess ra) throws IOException {
+	this(ra, DEFAULT_BLOCK_SIZE, DEFAULT_MAX_BLOCKS, DEFAULT_MAX_READ_AHEAD);
+    }
+
+    /**
+     * Create a CachingRandomAccess.
+     *
+     * @param blockSize the size of a block, in bytes
+     * @param maxBlocks the maximum number of blocks to keep in memory
+     * @param maxReadAhead the maximum number of blocks to read ahead during sequential access (0 disables read-ahead)
+     */
+    public CachingRandomAccess(IRandomAccess ra, int blockSize, int maxBlocks, int maxReadAhead) throws IOException {
+	if (blockSize < 1 || maxBlocks < 1 || maxReadAhead < 0) {
+	    throw new IllegalArgumentException();
+	}
+	this.ra = ra;
+	this.blockSize = blockSize;
+	this.maxBlocks = maxBlocks;
+	this.maxReadAhead = Math.min(maxReadAhead, Math.max(0, maxBlocks / 2));
+	readAhead = 1;
+	length = ra.length();
+	ptr = ra.getFilePointer();
+	lastBlock = -2L;
+	blocks = new BlockMap();
+    }
+
+    /**
+     * Get the block size.
+     */
+    public int getBlockSize() {
+	return blockSize;
+    }
+
+    /**
+     * Get the number of block requests that were satisfied from memory.
+     */
+    public synchronized long getHits() {
+	return hits;
+    }
+
+    /**
+     * Get the number of block requests that required a read from the underlying IRandomAccess.
+     */
+    public synchronized long getMisses() {
+	return misses;
+    }
+
+    /**
+     * Get the number of reads performed against the underlying IRandomAccess.
+     */
+    public synchronized long getFetches() {
+	return fetches;
+    }
+
+    /**
+     * Fetch all the blocks covering the specified ranges that are not already in memory. The ranges are processed in
+     * order of offset, and runs of adjacent missing blocks are read with a single seek and read.
+     *
+     * @param offsets the starting offsets of the ranges
+     * @param lengths the lengths of the ranges
+     */
+    public synchronized void prefetch(long[] offsets, int[] lengths) throws IOException {
+	if (offsets.length != lengths.length) {
+	    throw new IllegalArgumentException();
+	}
+	long[] needed = new long[0];
+	int count = 0;
+	for (int i=0; i < offsets.length; i++) {
+	    if (lengths[i] <= 0 || offsets[i] >= length) {
+		continue;
+	    }
+	    long first = offsets[i] / blockSize;
+	    long last = (Math.min(length, offsets[i] + lengths[i]) - 1) / blockSize;
+	    for (long b=first; b <= last; b++) {
+		if (!blocks.containsKey(b)) {
+		    if (count == needed.length) {
+			needed = Arrays.copyOf(needed, Math.max(8, count * 2));
+		    }
+		    needed[count++] = b;
+		}
+	    }
+	}
+	Arrays.sort(needed, 0, count);
+	int unique = 0;
+	for (int i=0; i < count; i++) {
+	    if (unique == 0 || needed[unique - 1] != needed[i]) {
+		needed[unique++] = needed[i];
+	    }
+	}
+	//
+	// Never fetch more blocks than the cache can hold, or the earliest ones would be evicted by the latest.
+	//
+	int budget = maxBlocks;
+	for (int i=0; i < unique && budget > 0; ) {
+	    int run = 1;
+	    while (i + run < unique && needed[i + run] == needed[i] + run && run < budget) {
+		run++;
+	    }
+	    fetch(needed[i], run);
+	    budget -= run;
+	    i += run;
+	}
+    }
+
+    /**
+     * Discard all cached blocks.
+     */
+    public synchronized void invalidate() throws IOException {
+	blocks.clear();
+	length = ra.length();
+	lastBlock = -2L;
+	readAhead = 1;
+    }
+
+    // Implement IMappableRandomAccess
+
+    public synchronized ByteBuffer map(long position, int size) throws IOException {
+	int len = (int)Math.max(0L, Math.min((long)size, length - position));
+	if (len == 0) {
+	    return ByteBuffer.allocate(0).order(ByteOrder.LITTLE_ENDIAN);
+	}
+	long index = position / blockSize;
+	int blockOffset = (int)(position % blockSize);
+	if (blockOffset + len <= blockSize) {
+	    byte[] block = getBlock(index);
+	    if (block == null || block.length <= blockOffset) {
+		return ByteBuffer.allocate(0).order(ByteOrder.LITTLE_ENDIAN);
+	    }
+	    len = Math.min(len, block.length - blockOffset);
+	    return ByteBuffer.wrap(block, blockOffset, len).slice().asReadOnlyBuffer().order(ByteOrder.LITTLE_ENDIAN);
+	}
+	prefetch(new long[] {position}, new int[] {len});
+	byte[] buff = new byte[len];
+	long ptr = this.ptr;
+	try {
+	    this.ptr = position;
+	    len = Math.max(0, read(buff, 0, len));
+	} finally {
+	    this.ptr = ptr;
+	}
+	return ByteBuffer.wrap(buff, 0, len).slice().asReadOnlyBuffer().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    // Implement IRandomAccess
+
+    public synchronized void readFully(byte[] buff) throws IOException {
+	int offset = 0;
+	while (offset < buff.length) {
+	    int len = read(buff, offset, buff.length - offset);
+	    if (len == -1) {
+		throw new EOFException(Message.getMessage(Message.ERROR_EOF));
+	    }
+	    offset += len;
+	}
+    }
+
+    public synchronized void close() throws IOException {
+	blocks.clear();
+	ra.close();
+    }
+
+    public synchronized void seek(long pos) throws IOException {
+	ptr = pos;
+    }
+
+    public synchronized int read() throws IOException {
+	if (ptr >= length) {
+	    return -1;
+	}
+	byte[] block = getBlock(ptr / blockSize);
+	int blockOffset = (int)(ptr % blockSize);
+	if (block == null || blockOffset >= block.length) {
+	    return -1;
+	}
+	ptr++;
+	return 0xFF & block[blockOffset];
+    }
+
+    public int read(byte[] buff) throws IOException {
+	return read(buff, 0, buff.length);
+    }
+
+    public synchronized int read(byte[] buff, int offset, int len) throws IOException {
+	if (ptr >= length) {
+	    return -1;
+	}
+	int total = 0;
+	while (total < len && ptr < length) {
+	    byte[] block = getBlock(ptr / blockSize);
+	    if (block == null) {
+		break;
+	    }
+	    int blockOffset = (int)(ptr % blockSize);
+	    int n = Math.min(len - total, block.length - blockOffset);
+	    if (n <= 0) {
+		break;
+	    }
+	    System.arraycopy(block, blockOffset, buff, offset + total, n);
+	    total += n;
+	    ptr += n;
+	}
+	return total == 0 && len > 0 ? -1 : total;
+    }
+
+    public synchronized long length() throws IOException {
+	return length;
+    }
+
+    public synchronized long getFilePointer() throws IOException {
+	return ptr;
+    }
+
+    // Private
+
+    /**
+     * Get a block, reading it (and, for sequential access, subsequent blocks) from the underlying IRandomAccess if necessary.
+     *
+     * @return null if the file has been truncated at or before the start of the block
+     */
+    private byte[] getBlock(long index) throws IOException {
+	byte[] block = blocks.get(index);
+	if (block == null) {
+	    misses++;
+	    if (index == lastBlock + 1) {
+		readAhead = Math.min(Math.max(1, maxReadAhead), readAhead * 2);
+	    } else {
+		readAhead = 1;
+	    }
+	    int run = 1;
+	    long lastIndex = (length - 1) / blockSize;
+	    while (run < readAhead && index + run <= lastIndex && !blocks.containsKey(index + run)) {
+		run++;
+	    }
+	    if (!fetch(index, run)) {
+		return null;
+	    }
+	    block = blocks.get(index);
+	} else {
+	    hits++;
+	}
+	lastBlock = index;
+	return block;
+    }
+
+    /**
+     * Read count consecutive blocks, starting at the specified block index, in a single operation.
+     *
+     * @return false if no data could be read, because the file has been truncated at or before the start of the block
+     */
+    private boolean fetch(long index, int count) throws IOException {
+	long start = index * blockSize;
+	int len = (int)Math.min((long)count * blockSize, length - start);
+	if (len <= 0) {
+	    return false;
+	}
+	byte[] buff = new byte[len];
+	ra.seek(start);
+	int offset = 0;
+	while (offset < len) {
+	    int n = ra.read(buff, offset, len - offset);
+	    if (n == -1) {
+		break;
+	    }
+	    offset += n;
+	}
+	fetches++;
+	if (offset < len) {
+	    //
+	    // The file was truncated since its length was read
+	    //
+	    length = start + offset;
+	    if (offset == 0) {
+		return false;
+	    }
+	    buff = Arrays.copyOf(buff, offset);
+	    len = offset;
+	}
+	for (int i=0; i * blockSize < len; i++) {
+	    int from = i * blockSize;
+	    blocks.put(index + i, Arrays.copyOfRange(buff, from, Math.min(len, from + blockSize)));
+	}
+	return true;
+    }
+
+    /**
+     * An access-ordered LinkedHashMap which evicts the least-recently used block when full.
+     */
+    class BlockMap extends LinkedHashMap<Long, byte[]> {
+	BlockMap() {
+	    super(16, 0.75f, true);
+	}
+
+	@Override
+	protected boolean removeEldestEntry(Map.Entry<Long, byte[]> eldest) {
+	    return size() > maxBlocks;
+	}
+    }
+}
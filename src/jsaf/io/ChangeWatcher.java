@@ -0,0 +1,501 @@
+// Copyright (C) 2026 Arctic Wolf Networks, Inc.  All rights reserved.
+// This software is licensed under the LGPL 3.0 license available at http://www.gnu.org/licenses/lgpl.txt
+
+package jsaf.io;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.slf4j.cal10n.LocLogger;
+
+import jsaf.Message;
+import jsaf.intf.io.IFile;
+import jsaf.intf.io.IFileMetadata;
+import jsaf.intf.system.IComputerSystem;
+import jsaf.intf.unix.system.IUnixSession;
+import jsaf.intf.windows.system.IWindowsSession;
+import jsaf.provider.windows.Timestamp;
+import jsaf.util.SafeCLI;
+
+/**
+ * Reports the files that have been created, modified or deleted beneath a set of watched directories since the last
+ * checkpoint, by comparing their current state against a snapshot (a manifest of the type, size, modification time and
+ * inode of every entry) that is persisted to a local file between checkpoints.
+ *
+ * The first checkpoint of a directory records its complete state, and reports every entry as CREATED. On Linux and
+ * Windows, subsequent checkpoints only retrieve the entries whose modification times are later than the previous
+ * checkpoint (using find -newermt, or Get-ChildItem filtered on LastWriteTimeUtc), and re-list only the directories
+ * among them (whose modification time changes when entries are added, removed or renamed). On other systems, the whole
+ * tree is re-listed and compared against the snapshot.
+ *
+ * Changes to directories themselves are not reported; their effects are reported as changes to their children. A
+ * change that preserves a file's size, modification time and inode (e.g., a change of ownership) is not detected.
+ *
+ * @author David A. Solin
+ * @version %I% %G%
+ * @since 1.7.0
+ */
+public class ChangeWatcher {
+    /**
+     * Enumeration of kinds of changes.
+     */
+    public enum Kind {
+	CREATED,
+	MODIFIED,
+	DELETED;
+    }
+
+    /**
+     * A change to a file.
+     */
+    public static class Change {
+	private Kind kind;
+	private String path;
+	private IFile file;
+
+	Change(Kind kind, String path, IFile file) {
+	    this.kind = kind;
+	    this.path = path;
+	    this.file = file;
+	}
+
+	public Kind getKind() {
+	    return kind;
+	}
+
+	public String getPath() {
+	    return path;
+	}
+
+	/**
+	 * Get the file's current state, or null if it was deleted.
+	 */
+	public IFile getFile() {
+	    return file;
+	}
+
+	@Override
+	public String toString() {
+	    return kind + " " + path;
+	}
+    }
+
+    private static final int MAGIC = 0x4A534157;
+
+    private IComputerSystem sys;
+    private LocLogger logger;
+    private DirectoryLister lister;
+    private String delim;
+    private File manifestFile;
+    private Map<String, List<Pattern>> watches;
+    private Map<String, Snapshot> snapshots;
+
+    /**
+     * Create a watcher for the filesystem of the specified computer system.
+     *
+     * @param manifest the local file in which snapshots are persisted between checkpoints (it will be read if it exists)
+     */
+    public ChangeWatcher(IComputerSystem sys, File manifest) throws IOException {
+	this.sys = sys;
+	logger = sys.getLogger();
+	lister = new DirectoryLister(sys);
+	lister.setMaxAge(0L);
+	delim = sys.getFilesystem().getDelimiter();
+	manifestFile = manifest;
+	watches = new HashMap<String, List<Pattern>>();
+	snapshots = new HashMap<String, Snapshot>();
+	if (manifest.isFile()) {
+	    load();
+	}
+    }
+
+    /**
+     * Watch a directory, reporting changes to all the entries beneath it whose paths match the specified pattern (or all
+     * entries, if the pattern is null). A directory can be watched with several patterns.
+     */
+    public synchronized void watch(String dir, Pattern pattern) {
+	List<Pattern> patterns = watches.get(dir);
+	if (patterns == null) {
+	    patterns = new ArrayList<Pattern>();
+	    watches.put(dir, patterns);
+	}
+	if (pattern == null) {
+	    patterns.clear();
+	    patterns.add(null);
+	} else if (!patterns.contains(null)) {
+	    patterns.add(pattern);
+	}
+    }
+
+    /**
+     * Stop watching a directory, and discard its snapshot.
+     */
+    public synchronized void unwatch(String dir) {
+	watches.remove(dir);
+	snapshots.remove(dir);
+    }
+
+    /**
+     * Determine the changes in all the watched directories since the last checkpoint, and persist the new snapshot.
+     */
+    public synchronized List<Change> checkpoint() throws IOException {
+	List<Change> changes = new ArrayList<Change>();
+	for (Map.Entry<String, List<Pattern>> entry : watches.entrySet()) {
+	    String dir = entry.getKey();
+	    long now = sys.getTime();
+	    Snapshot snapshot = snapshots.get(dir);
+	    List<Change> delta = new ArrayList<Change>();
+	    if (snapshot == null) {
+		snapshot = new Snapshot();
+		for (FileEntry f : scan(dir)) {
+		    snapshot.records.put(f.getPath(), new Record(f));
+		    delta.add(new Change(Kind.CREATED, f.getPath(), f));
+		}
+		snapshots.put(dir, snapshot);
+	    } else {
+		List<FileEntry> modified = null;
+		try {
+		    modified = modifiedSince(dir, snapshot.timestamp);
+		} catch (IOException e) {
+		    logger.warn(Message.ERROR_IO, dir, e.getMessage());
+		}
+		if (modified == null) {
+		    compare(snapshot, scan(dir), delta);
+		} else {
+		    update(dir, snapshot, modified, delta);
+		}
+	    }
+	    snapshot.timestamp = now;
+	    for (Change change : delta) {
+		if (matches(change.getPath(), entry.getValue())) {
+		    changes.add(change);
+		}
+	    }
+	}
+	save();
+	return changes;
+    }
+
+    // Private
+
+    /**
+     * Retrieve all the entries beneath a directory.
+     */
+    private Collection<FileEntry> scan(String dir) throws IOException {
+	try {
+	    if (sys instanceof IUnixSession && ((IUnixSession)sys).getFlavor() == IUnixSession.Flavor.LINUX) {
+		return lister.find(new StringBuffer("'").append(SafeCLI.checkArgument(dir, sys)).append("' -mindepth 1").toString());
+	    } else if (sys instanceof IWindowsSession) {
+		StringBuffer cmd = new StringBuffer("Get-ChildItem -LiteralPath '").append(SafeCLI.checkArgument(dir, sys));
+		return lister.getChildItem(cmd.append("' -Recurse -Force").toString());
+	    }
+	} catch (IllegalArgumentException e) {
+	    logger.debug(e.getMessage());
+	} catch (IOException e) {
+	    logger.warn(Message.ERROR_IO, dir, e.getMessage());
+	}
+	List<FileEntry> entries = new ArrayList<FileEntry>();
+	walk(dir, entries);
+	return entries;
+    }
+
+    /**
+     * Recursively list a directory (without following links).
+     */
+    private void walk(String dir, List<FileEntry> entries) throws IOException {
+	for (IFile f : lister.listFiles(dir)) {
+	    FileEntry entry = toEntry(f);
+	    entries.add(entry);
+	    if (entry.getType() == IFileMetadata.Type.DIRECTORY) {
+		walk(entry.getPath(), entries);
+	    }
+	}
+    }
+
+    /**
+     * Retrieve the entries beneath a directory that have been modified since the specified (target system) time, or
+     * null if that cannot be done in a single operation.
+     */
+    private List<FileEntry> modifiedSince(String dir, long time) throws IOException {
+	try {
+	    if (sys instanceof IUnixSession && ((IUnixSession)sys).getFlavor() == IUnixSession.Flavor.LINUX) {
+		//
+		// Allow a second's slack for filesystem timestamp granularity; unchanged entries are filtered out later.
+		//
+		StringBuffer args = new StringBuffer("'").append(SafeCLI.checkArgument(dir, sys)).append("'");
+		args.append(" -newermt '@").append(time / 1000L - 1).append("'");
+		return lister.find(args.toString());
+	    } else if (sys instanceof IWindowsSession) {
+		StringBuffer cmd = new StringBuffer("Get-ChildItem -LiteralPath '").append(SafeCLI.checkArgument(dir, sys));
+		cmd.append("' -Recurse -Force | Where-Object {$_.LastWriteTimeUtc -ge [DateTime]::FromFileTimeUtc(");
+		cmd.append(Timestamp.toWindowsTimestamp(time - 1000L)).append(")}");
+		return lister.getChildItem(cmd.toString());
+	    }
+	} catch (IllegalArgumentException e) {
+	    logger.debug(e.getMessage());
+	}
+	return null;
+    }
+
+    /**
+     * Apply the modified entries to the snapshot, re-listing any modified directories to discover added and removed
+     * entries.
+     */
+    private void update(String dir, Snapshot snapshot, List<FileEntry> modified, List<Change> delta) throws IOException {
+	Set<String> dirs = new HashSet<String>();
+	dirs.add(dir);
+	Set<String> seen = new HashSet<String>();
+	for (FileEntry f : modified) {
+	    if (f.getPath().equals(dir)) {
+		continue;
+	    } else if (f.getType() == IFileMetadata.Type.DIRECTORY) {
+		dirs.add(f.getPath());
+	    }
+	    if (seen.add(f.getPath())) {
+		record(snapshot, f, delta);
+	    }
+	}
+	for (String path : dirs) {
+	    if (!path.equals(dir) && !snapshot.records.containsKey(path)) {
+		continue; // deleted since it was found
+	    }
+	    Set<String> children = new HashSet<String>();
+	    IFile[] files = null;
+	    try {
+		files = lister.listFiles(path);
+	    } catch (IOException e) {
+		if (path.equals(dir)) {
+		    throw e;
+		}
+		continue; // removed since it was found; the change will be picked up by its parent's listing
+	    }
+	    for (IFile f : files) {
+		FileEntry entry = toEntry(f);
+		children.add(entry.getPath());
+		if (seen.add(entry.getPath()) && record(snapshot, entry, delta) == Kind.CREATED &&
+		    entry.getType() == IFileMetadata.Type.DIRECTORY) {
+		    //
+		    // A directory that was moved into place may contain entries that are older than the last checkpoint.
+		    //
+		    for (FileEntry child : scan(entry.getPath())) {
+			if (seen.add(child.getPath())) {
+			    record(snapshot, child, delta);
+			}
+		    }
+		}
+	    }
+	    String prefix = path.endsWith(delim) ? path : path + delim;
+	    List<String> removed = new ArrayList<String>();
+	    for (String child : descendants(snapshot, prefix).keySet()) {
+		if (child.indexOf(delim, prefix.length()) == -1 && !children.contains(child)) {
+		    removed.add(child);
+		}
+	    }
+	    for (String child : removed) {
+		remove(snapshot, child, delta);
+	    }
+	}
+    }
+
+    /**
+     * Compare a complete scan against the snapshot.
+     */
+    private void compare(Snapshot snapshot, Collection<FileEntry> entries, List<Change> delta) {
+	Set<String> paths = new HashSet<String>();
+	for (FileEntry f : entries) {
+	    paths.add(f.getPath());
+	    record(snapshot, f, delta);
+	}
+	List<String> removed = new ArrayList<String>();
+	for (String path : snapshot.records.keySet()) {
+	    if (!paths.contains(path)) {
+		removed.add(path);
+	    }
+	}
+	for (String path : removed) {
+	    snapshot.records.remove(path);
+	    delta.add(new Change(Kind.DELETED, path, null));
+	}
+    }
+
+    /**
+     * Record the current state of an entry in the snapshot, adding a change (for anything other than a directory) if it
+     * differs from the previous state.
+     *
+     * @return the kind of change, or null if there was no change
+     */
+    private Kind record(Snapshot snapshot, FileEntry f, List<Change> delta) {
+	Record record = new Record(f);
+	Record previous = snapshot.records.put(f.getPath(), record);
+	Kind kind = null;
+	if (previous == null) {
+	    kind = Kind.CREATED;
+	} else if (!previous.equals(record)) {
+	    kind = Kind.MODIFIED;
+	}
+	if (kind == Kind.CREATED || (kind == Kind.MODIFIED && !record.directory)) {
+	    delta.add(new Change(kind, f.getPath(), f));
+	}
+	return kind;
+    }
+
+    /**
+     * Remove an entry, and all its descendants, from the snapshot.
+     */
+    private void remove(Snapshot snapshot, String path, List<Change> delta) {
+	snapshot.records.remove(path);
+	delta.add(new Change(Kind.DELETED, path, null));
+	SortedMap<String, Record> descendants = descendants(snapshot, path + delim);
+	for (String child : descendants.keySet()) {
+	    delta.add(new Change(Kind.DELETED, child, null));
+	}
+	descendants.clear();
+    }
+
+    private SortedMap<String, Record> descendants(Snapshot snapshot, String prefix) {
+	return snapshot.records.subMap(prefix, prefix + Character.MAX_VALUE);
+    }
+
+    private boolean matches(String path, List<Pattern> patterns) {
+	for (Pattern p : patterns) {
+	    if (p == null || p.matcher(path).find()) {
+		return true;
+	    }
+	}
+	return false;
+    }
+
+    private FileEntry toEntry(IFile f) throws IOException {
+	if (f instanceof FileEntry) {
+	    return (FileEntry)f;
+	}
+	Date lm = f.getLastModified();
+	return new FileEntry(sys.getFilesystem(), f.getPath(), IFile.Flags.READONLY, f.getType(), f.isDirectory(),
+	    f.isDirectory() ? 0L : f.length(), lm == null ? FileEntry.UNKNOWN : lm.getTime(), FileEntry.UNKNOWN,
+	    FileEntry.UNKNOWN, f.isLink() ? f.getLinkPath() : null);
+    }
+
+    private void load() throws IOException {
+	DataInputStream in = null;
+	try {
+	    in = new DataInputStream(new GZIPInputStream(new FileInputStream(manifestFile)));
+	    if (in.readInt() != MAGIC) {
+		throw new IOException(manifestFile.getPath());
+	    }
+	    for (int i = in.readInt(); i > 0; i--) {
+		String dir = in.readUTF();
+		Snapshot snapshot = new Snapshot();
+		snapshot.timestamp = in.readLong();
+		for (int j = in.readInt(); j > 0; j--) {
+		    String path = in.readUTF();
+		    snapshot.records.put(path, new Record(in.readBoolean(), in.readLong(), in.readLong(), in.readLong()));
+		}
+		snapshots.put(dir, snapshot);
+	    }
+	} finally {
+	    if (in != null) {
+		try {
+		    in.close();
+		} catch (IOException e) {
+		}
+	    }
+	}
+    }
+
+    /**
+     * Write the snapshots to a temporary file, then move it into place.
+     */
+    private void save() throws IOException {
+	File temp = new File(manifestFile.getPath() + ".tmp");
+	DataOutputStream out = new DataOutputStream(new GZIPOutputStream(new FileOutputStream(temp)));
+	try {
+	    out.writeInt(MAGIC);
+	    out.writeInt(snapshots.size());
+	    for (Map.Entry<String, Snapshot> entry : snapshots.entrySet()) {
+		out.writeUTF(entry.getKey());
+		Snapshot snapshot = entry.getValue();
+		out.writeLong(snapshot.timestamp);
+		out.writeInt(snapshot.records.size());
+		for (Map.Entry<String, Record> rec : snapshot.records.entrySet()) {
+		    out.writeUTF(rec.getKey());
+		    Record record = rec.getValue();
+		    out.writeBoolean(record.directory);
+		    out.writeLong(record.size);
+		    out.writeLong(record.mtime);
+		    out.writeLong(record.inode);
+		}
+	    }
+	} finally {
+	    out.close();
+	}
+	if (manifestFile.exists() && !manifestFile.delete()) {
+	    throw new IOException(manifestFile.getPath());
+	}
+	if (!temp.renameTo(manifestFile)) {
+	    throw new IOException(temp.getPath());
+	}
+    }
+
+    /**
+     * The state of all the entries beneath a watched directory.
+     */
+    static class Snapshot {
+	long timestamp;
+	TreeMap<String, Record> records;
+
+	Snapshot() {
+	    records = new TreeMap<String, Record>();
+	}
+    }
+
+    /**
+     * The recorded state of an entry.
+     */
+    static class Record {
+	boolean directory;
+	long size, mtime, inode;
+
+	Record(FileEntry f) {
+	    this(f.getType() == IFileMetadata.Type.DIRECTORY, f.length(), f.getLastModified() == null ?
+		FileEntry.UNKNOWN : f.getLastModified().getTime(), f.getInode());
+	}
+
+	Record(boolean directory, long size, long mtime, long inode) {
+	    this.directory = directory;
+	    this.size = directory ? 0L : size;
+	    this.mtime = mtime;
+	    this.inode = inode;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+	    if (obj instanceof Record) {
+		Record other = (Record)obj;
+		return directory == other.directory && size == other.size && mtime == other.mtime && inode == other.inode;
+	    }
+	    return false;
+	}
+
+	@Override
+	public int hashCode() {
+	    return (int)(mtime ^ size ^ inode);
+	}
+    }
+}
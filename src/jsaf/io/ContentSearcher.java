@@ -0,0 +1,530 @@
+// Copyright (C) 2026 Arctic Wolf Networks, Inc.  All rights reserved.
+// This software is licensed under the LGPL 3.0 license available at http://www.gnu.org/licenses/lgpl.txt
+
+package jsaf.io;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.slf4j.cal10n.LocLogger;
+
+import jsaf.Message;
+import jsaf.intf.io.IFilesystem;
+import jsaf.intf.io.IReader;
+import jsaf.intf.system.IComputerSystem;
+import jsaf.intf.system.ISession;
+import jsaf.intf.unix.system.IUnixSession;
+import jsaf.intf.util.ILoggable;
+import jsaf.intf.util.ISearchable;
+import jsaf.intf.windows.system.IWindowsSession;
+import jsaf.provider.windows.powershell.PowershellException;
+import jsaf.util.Regex;
+import jsaf.util.SafeCLI;
+import jsaf.util.SearchResult;
+import jsaf.util.Strings;
+
+/**
+ * Searches the contents of files for lines matching a regular expression, returning only the matching lines (with their
+ * line numbers and byte offsets) rather than the contents of the files.
+ *
+ * Where possible, the match is performed on the target: using grep on Unix sessions of the LINUX, MACOSX and FREEBSD
+ * flavors (if the expression can be translated into a POSIX extended regular expression), and using Select-String on
+ * Windows sessions. Lines returned by the target are re-checked against the expression using Java's semantics. Files
+ * that cannot be searched on the target (including those in a batch whose command failed) are streamed, and scanned
+ * locally a chunk at a time.
+ *
+ * File contents are assumed to be encoded in UTF-8 (or ASCII). The byte offset of a match is UNKNOWN when the target
+ * cannot report it (BSD grep and Select-String).
+ *
+ * @author David A. Solin
+ * @version %I% %G%
+ * @since 1.7.0
+ */
+public class ContentSearcher implements ILoggable {
+    /**
+     * Value of an unknown byte offset.
+     */
+    public static final long UNKNOWN = -1L;
+
+    private static final int CHUNK_SIZE = 65536;
+
+    private IComputerSystem sys;
+    private IFilesystem fs;
+    private LocLogger logger;
+    private int limit = ISearchable.UNLIMITED;
+
+    /**
+     * Create a searcher for files on the specified computer system.
+     */
+    public ContentSearcher(IComputerSystem sys) {
+	this.sys = sys;
+	fs = sys.getFilesystem();
+	logger = sys.getLogger();
+    }
+
+    /**
+     * Sets the maximum number of matching lines that will be returned by any single search.
+     *
+     * @param limit the desired limit, or ISearchable.UNLIMITED
+     */
+    public void setResultLimit(int limit) {
+	this.limit = limit;
+    }
+
+    /**
+     * Search the specified files for lines containing a match for the pattern (i.e., for which Matcher.find returns
+     * true). Files that cannot be read are reported as errors of the result.
+     */
+    public ISearchable.IResult<Match> search(Collection<String> paths, Pattern p) {
+	SearchResult<Match> result = new SearchResult<Match>(limit, 0, 0);
+	List<String> local = new ArrayList<String>();
+	if (sys.getType() == ISession.Type.UNIX && sys instanceof IUnixSession) {
+	    grep(paths, p, result, local);
+	} else if (sys instanceof IWindowsSession) {
+	    selectString(paths, p, result, local);
+	} else {
+	    local.addAll(paths);
+	}
+	for (String path : local) {
+	    if (result.isFull()) {
+		break;
+	    }
+	    InputStream in = null;
+	    try {
+		in = fs.getInputStream(path);
+		scan(path, in, p, result);
+	    } catch (IOException e) {
+		result.addError(Message.getMessage(Message.ERROR_IO, path, e.getMessage()));
+	    } finally {
+		if (in != null) {
+		    try {
+			in.close();
+		    } catch (IOException e) {
+		    }
+		}
+	    }
+	}
+	return result;
+    }
+
+    /**
+     * Scan a stream for lines containing a match for the pattern, adding them to the result. The stream is read in
+     * chunks, and a line is only decoded once its end (or the end of the stream) has been reached.
+     *
+     * @return false if the scan stopped because the result is full
+     */
+    public static boolean scan(String path, InputStream in, Pattern p, SearchResult<Match> result) throws IOException {
+	ByteArrayOutputStream partial = new ByteArrayOutputStream();
+	byte[] buff = new byte[CHUNK_SIZE];
+	long lineNumber = 1, offset = 0;
+	boolean first = true;
+	int len;
+	while ((len = in.read(buff)) != -1) {
+	    int start = 0;
+	    if (first && len > 0) {
+		first = false;
+		if (len >= 3 && buff[0] == (byte)0xEF && buff[1] == (byte)0xBB && buff[2] == (byte)0xBF) {
+		    start = 3; // UTF-8 BOM
+		    offset = 3;
+		}
+	    }
+	    for (int i=start; i < len; i++) {
+		if (buff[i] == '\n') {
+		    byte[] line;
+		    if (partial.size() == 0) {
+			line = new byte[i - start];
+			System.arraycopy(buff, start, line, 0, line.length);
+		    } else {
+			partial.write(buff, start, i - start);
+			line = partial.toByteArray();
+			partial.reset();
+		    }
+		    if (!match(path, lineNumber++, offset, line, p, result)) {
+			return false;
+		    }
+		    offset += line.length + 1;
+		    start = i + 1;
+		}
+	    }
+	    partial.write(buff, start, len - start);
+	}
+	if (partial.size() > 0) {
+	    return match(path, lineNumber, offset, partial.toByteArray(), p, result);
+	}
+	return true;
+    }
+
+    /**
+     * A line containing a match.
+     */
+    public static class Match {
+	private String path, line;
+	private long lineNumber, offset;
+
+	Match(String path, long lineNumber, long offset, String line) {
+	    this.path = path;
+	    this.lineNumber = lineNumber;
+	    this.offset = offset;
+	    this.line = line;
+	}
+
+	/**
+	 * Get the path of the file containing the line.
+	 */
+	public String getPath() {
+	    return path;
+	}
+
+	/**
+	 * Get the number of the line (the first line of a file is line 1).
+	 */
+	public long getLineNumber() {
+	    return lineNumber;
+	}
+
+	/**
+	 * Get the offset (in bytes) of the start of the line from the start of the file, or UNKNOWN.
+	 */
+	public long getOffset() {
+	    return offset;
+	}
+
+	/**
+	 * Get the line (without its line terminator).
+	 */
+	public String getLine() {
+	    return line;
+	}
+
+	@Override
+	public String toString() {
+	    return new StringBuffer(path).append(":").append(lineNumber).append(":").append(line).toString();
+	}
+    }
+
+    // Implement ILoggable
+
+    public LocLogger getLogger() {
+	return logger;
+    }
+
+    public void setLogger(LocLogger logger) {
+	this.logger = logger;
+    }
+
+    // Private
+
+    private static boolean match(String path, long lineNumber, long offset, byte[] bytes, Pattern p,
+		SearchResult<Match> result) {
+
+	int len = bytes.length;
+	if (len > 0 && bytes[len - 1] == '\r') {
+	    len--;
+	}
+	String line = new String(bytes, 0, len, Strings.UTF8);
+	if (p.matcher(line).find()) {
+	    return result.add(new Match(path, lineNumber, offset, line));
+	}
+	return true;
+    }
+
+    /**
+     * Adapt a POSIX extended regular expression, so that an end-of-line anchor also matches before a carriage return
+     * (since the local scanner strips the CR from the end of a CRLF-terminated line).
+     */
+    private static String toLineRegex(String ere) {
+	StringBuffer sb = new StringBuffer();
+	int len = ere.length();
+	for (int i=0; i < len; i++) {
+	    char ch = ere.charAt(i);
+	    switch(ch) {
+	      case '\\':
+		sb.append(ch);
+		if (++i < len) {
+		    sb.append(ere.charAt(i));
+		}
+		break;
+
+	      case '[': {
+		int end = i + 1;
+		if (end < len && ere.charAt(end) == '^') end++;
+		if (end < len && ere.charAt(end) == ']') end++;
+		while (end < len && ere.charAt(end) != ']') {
+		    end++;
+		}
+		end = Math.min(end, len - 1);
+		sb.append(ere.substring(i, end + 1));
+		i = end;
+		break;
+	      }
+
+	      case '$':
+		sb.append("[\r]?$"); // a literal CR
+		break;
+
+	      default:
+		sb.append(ch);
+		break;
+	    }
+	}
+	return sb.toString();
+    }
+
+    /**
+     * Search the files using grep, in as few commands as the maximum command length allows. Files that cannot be searched
+     * using grep (including all the files of a command that fails) are added to the local list.
+     */
+    private void grep(Collection<String> paths, Pattern p, SearchResult<Match> result, List<String> local) {
+	IUnixSession.Flavor flavor = ((IUnixSession)sys).getFlavor();
+	boolean gnu = flavor == IUnixSession.Flavor.LINUX;
+	boolean bsd = flavor == IUnixSession.Flavor.MACOSX || flavor == IUnixSession.Flavor.FREEBSD;
+	String ere = null;
+	if (gnu || bsd) {
+	    try {
+		ere = SafeCLI.checkArgument(toLineRegex(UnixFindSearcher.toExtended(p.pattern())), sys);
+	    } catch (IllegalArgumentException e) {
+		logger.debug(Message.STATUS_CONTENT_SEARCH_LOCAL, p.pattern());
+	    }
+	}
+	if (ere == null) {
+	    local.addAll(paths);
+	    return;
+	}
+	StringBuffer prefix = new StringBuffer("grep -a -E -H -n --null");
+	if (gnu) {
+	    prefix.append(" -b");
+	}
+	if ((p.flags() & Pattern.CASE_INSENSITIVE) == Pattern.CASE_INSENSITIVE) {
+	    prefix.append(" -i");
+	}
+	prefix.append(" -e '").append(ere).append("' --");
+	int max = sys.maxCommandLength();
+	StringBuffer cmd = new StringBuffer(prefix);
+	List<String> batch = new ArrayList<String>();
+	for (String path : paths) {
+	    String arg;
+	    try {
+		arg = new StringBuffer(" '").append(SafeCLI.checkArgument(path, sys)).append("'").toString();
+	    } catch (IllegalArgumentException e) {
+		local.add(path);
+		continue;
+	    }
+	    if (batch.size() > 0 && max > 0 && cmd.length() + arg.length() > max) {
+		grep(cmd.toString(), batch, gnu, p, result, local);
+		cmd = new StringBuffer(prefix);
+		batch = new ArrayList<String>();
+	    }
+	    cmd.append(arg);
+	    batch.add(path);
+	}
+	if (batch.size() > 0) {
+	    grep(cmd.toString(), batch, gnu, p, result, local);
+	}
+    }
+
+    /**
+     * Run a single grep command. If the command fails, its files are added to the local list.
+     */
+    private void grep(String cmd, List<String> batch, boolean offsets, Pattern p, SearchResult<Match> result,
+		List<String> local) {
+
+	if (result.isFull()) {
+	    return;
+	}
+	MatchHandler out = new MatchHandler(offsets, p, result);
+	UnixFindSearcher.ErrorHandler err = new UnixFindSearcher.ErrorHandler();
+	try {
+	    SafeCLI.exec(cmd, SafeCLI.ANSI_C, null, sys, sys.getTimeout(ISession.Timeout.XL), out, err);
+	} catch (IOException e) {
+	    logger.debug(Message.STATUS_CONTENT_SEARCH_FALLBACK, e.getMessage());
+	    local.addAll(batch);
+	    return;
+	}
+	for (Match match : out.getMatches()) {
+	    if (!result.add(match)) {
+		break;
+	    }
+	}
+	for (String line : err.getLines()) {
+	    result.addError(Message.getMessage(Message.WARNING_COMMAND_OUTPUT, line));
+	}
+    }
+
+    /**
+     * Search the files using Select-String, in as few commands as the maximum command length allows. Files that cannot be
+     * searched using Select-String (including all the files of a command that fails) are added to the local list.
+     */
+    private void selectString(Collection<String> paths, Pattern p, SearchResult<Match> result, List<String> local) {
+	StringBuffer suffix = new StringBuffer(" -Pattern '");
+	suffix.append(Regex.posix2Powershell(p.pattern()).replace("'", "''")).append("'");
+	if ((p.flags() & Pattern.CASE_INSENSITIVE) != Pattern.CASE_INSENSITIVE) {
+	    suffix.append(" -CaseSensitive");
+	}
+	suffix.append(" -ErrorAction SilentlyContinue -ErrorVariable errs");
+	suffix.append(" | ForEach-Object {\"{0}`t{1}`t{2}\" -f $_.Path,$_.LineNumber,$_.Line};");
+	suffix.append(" foreach ($e in $errs) {\"E`t{0}\" -f $e.Exception.Message}");
+	String prefix = "$errs = @(); Select-String -LiteralPath ";
+	int max = sys.maxCommandLength();
+	StringBuffer cmd = new StringBuffer(prefix);
+	List<String> batch = new ArrayList<String>();
+	for (String path : paths) {
+	    String arg;
+	    try {
+		arg = new StringBuffer("'").append(SafeCLI.checkArgument(path, sys)).append("'").toString();
+	    } catch (IllegalArgumentException e) {
+		local.add(path);
+		continue;
+	    }
+	    if (batch.size() > 0 && max > 0 && cmd.length() + arg.length() + suffix.length() + 1 > max) {
+		selectString(cmd.append(suffix).toString(), batch, p, result, local);
+		cmd = new StringBuffer(prefix);
+		batch = new ArrayList<String>();
+	    }
+	    if (batch.size() > 0) {
+		cmd.append(",");
+	    }
+	    cmd.append(arg);
+	    batch.add(path);
+	}
+	if (batch.size() > 0) {
+	    selectString(cmd.append(suffix).toString(), batch, p, result, local);
+	}
+    }
+
+    /**
+     * Run a single Select-String command. If the command fails, its files are added to the local list.
+     */
+    private void selectString(String cmd, List<String> batch, Pattern p, SearchResult<Match> result, List<String> local) {
+	if (result.isFull()) {
+	    return;
+	}
+	String data;
+	try {
+	    data = ((IWindowsSession)sys).getRunspacePool().getRunspace().invoke(cmd, sys.getTimeout(ISession.Timeout.XL));
+	} catch (PowershellException e) {
+	    logger.debug(Message.STATUS_CONTENT_SEARCH_FALLBACK, e.getMessage());
+	    local.addAll(batch);
+	    return;
+	}
+	if (data != null) {
+	    for (String line : data.split("\r?\n")) {
+		if (line.length() == 0) {
+		    continue;
+		} else if (line.startsWith("E\t")) {
+		    result.addError(Message.getMessage(Message.WARNING_COMMAND_OUTPUT, line.substring(2)));
+		    continue;
+		}
+		String[] fields = line.split("\t", 3);
+		if (fields.length == 3 && p.matcher(fields[2]).find()) {
+		    try {
+			if (!result.add(new Match(fields[0], Long.parseLong(fields[1]), UNKNOWN, fields[2]))) {
+			    break;
+			}
+		    } catch (NumberFormatException e) {
+			result.addError(Message.getMessage(Message.WARNING_COMMAND_OUTPUT, line));
+		    }
+		}
+	    }
+	}
+    }
+
+    /**
+     * Parses the output of grep --null as it arrives: each record is a path, a NUL, the line number, a colon, the byte
+     * offset and a colon (if offsets were requested), and the line.
+     */
+    class MatchHandler implements SafeCLI.IReaderHandler {
+	private boolean offsets;
+	private Pattern p;
+	private SearchResult<Match> result;
+	private List<Match> matches;
+
+	MatchHandler(boolean offsets, Pattern p, SearchResult<Match> result) {
+	    this.offsets = offsets;
+	    this.p = p;
+	    this.result = result;
+	}
+
+	List<Match> getMatches() {
+	    return matches;
+	}
+
+	// Implement SafeCLI.IReaderHandler
+
+	public void handle(IReader reader) throws IOException {
+	    matches = new ArrayList<Match>();
+	    ByteArrayOutputStream record = new ByteArrayOutputStream();
+	    byte[] buff = new byte[8192];
+	    int len;
+	    while ((len = reader.read(buff)) != -1) {
+		int start = 0;
+		for (int i=0; i < len; i++) {
+		    if (buff[i] == '\n') {
+			record.write(buff, start, i - start);
+			start = i + 1;
+			if (!isFull()) {
+			    record(record.toByteArray());
+			}
+			record.reset();
+		    }
+		}
+		record.write(buff, start, len - start);
+	    }
+	    if (record.size() > 0 && !isFull()) {
+		record(record.toByteArray());
+	    }
+	}
+
+	// Private
+
+	/**
+	 * Once the result limit has been reached, the remaining output is drained and discarded.
+	 */
+	private boolean isFull() {
+	    return limit != ISearchable.UNLIMITED && result.size() + matches.size() >= limit;
+	}
+
+	private void record(byte[] bytes) {
+	    int nul = 0;
+	    while (nul < bytes.length && bytes[nul] != 0) {
+		nul++;
+	    }
+	    if (nul == bytes.length) {
+		result.addError(Message.getMessage(Message.WARNING_COMMAND_OUTPUT, new String(bytes, Strings.UTF8)));
+		return;
+	    }
+	    String path = new String(bytes, 0, nul, Strings.UTF8);
+	    String rest = new String(bytes, nul + 1, bytes.length - nul - 1, Strings.UTF8);
+	    try {
+		int ptr = rest.indexOf(":");
+		long lineNumber = Long.parseLong(rest.substring(0, ptr));
+		long offset = UNKNOWN;
+		if (offsets) {
+		    int end = rest.indexOf(":", ptr + 1);
+		    offset = Long.parseLong(rest.substring(ptr + 1, end));
+		    ptr = end;
+		}
+		String line = rest.substring(ptr + 1);
+		if (line.endsWith("\r")) {
+		    line = line.substring(0, line.length() - 1);
+		}
+		if (lineNumber == 1 && line.startsWith("\uFEFF")) {
+		    line = line.substring(1); // UTF-8 BOM
+		    if (offset != UNKNOWN) {
+			offset += 3;
+		    }
+		}
+		if (p.matcher(line).find()) {
+		    matches.add(new Match(path, lineNumber, offset, line));
+		}
+	    } catch (RuntimeException e) {
+		// NumberFormatException or StringIndexOutOfBoundsException
+		result.addError(Message.getMessage(Message.WARNING_COMMAND_OUTPUT, path));
+	    }
+	}
+    }
+}
@@ -0,0 +1,411 @@
+// Copyright (C) 2026 Arctic Wolf Networks, Inc.  All rights reserved.
+// This software is licensed under the LGPL 3.0 license available at http://www.gnu.org/licenses/lgpl.txt
+
+package jsaf.io;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import org.slf4j.cal10n.LocLogger;
+
+import jsaf.Message;
+import jsaf.intf.io.IFile;
+import jsaf.intf.io.IFileMetadata;
+import jsaf.intf.io.IFilesystem;
+import jsaf.intf.system.IComputerSystem;
+import jsaf.intf.system.ISession;
+import jsaf.intf.unix.system.IUnixSession;
+import jsaf.intf.windows.system.IWindowsSession;
+import jsaf.provider.windows.Timestamp;
+import jsaf.provider.windows.powershell.PowershellException;
+import jsaf.util.Regex;
+import jsaf.util.SafeCLI;
+import jsaf.util.Strings;
+
+/**
+ * Lists directories on a computer system, returning the children together with their basic metadata (as FileEntry
+ * objects), so that no further round-trips are required to find out their types, sizes or timestamps.
+ *
+ * Where possible, a single command is used to produce the listing: GNU find on Linux, and Get-ChildItem on Windows. Name
+ * patterns are pushed down to the command when they can be translated (to a glob using Regex.toGlob, or for Powershell to
+ * a .NET regular expression using Regex.posix2Powershell), and the results are always re-filtered locally using the
+ * Pattern itself. Otherwise, the IFile's own listFiles method is used.
+ *
+ * Listings are cached per directory, and re-used for as long as the directory's modification time is unchanged (which
+ * means no entries have been added, removed or renamed) and the listing is no older than the maximum age.
+ *
+ * @author David A. Solin
+ * @version %I% %G%
+ * @since 1.7.0
+ */
+public class DirectoryLister {
+    /**
+     * The default maximum age (in milliseconds) of a cached listing (1 minute). Though the set of names in a directory
+     * can be validated using its modification time, the metadata of the children cannot.
+     */
+    public static final long DEFAULT_MAX_AGE = 60000L;
+
+    /**
+     * The default maximum number of cached listings.
+     */
+    public static final int DEFAULT_MAX_LISTINGS = 1000;
+
+    private static final int FILE_ATTRIBUTE_DIRECTORY = 0x10;
+    private static final int FILE_ATTRIBUTE_REPARSE_POINT = 0x400;
+
+    private IComputerSystem sys;
+    private IFilesystem fs;
+    private LocLogger logger;
+    private boolean caseInsensitive;
+    private long maxAge;
+    private int maxListings;
+    private Map<String, Listing> cache;
+    private long hits, misses, pushdowns;
+
+    /**
+     * Create a lister for the filesystem of the specified computer system.
+     */
+    public DirectoryLister(IComputerSystem sys) {
+	this.sys = sys;
+	fs = sys.getFilesystem();
+	logger = sys.getLogger();
+	caseInsensitive = "\\".equals(fs.getDelimiter());
+	maxAge = DEFAULT_MAX_AGE;
+	maxListings = DEFAULT_MAX_LISTINGS;
+	cache = new LinkedHashMap<String, Listing>(16, 0.75f, true) {
+	    @Override
+	    protected boolean removeEldestEntry(Map.Entry<String, Listing> eldest) {
+		return size() > maxListings;
+	    }
+	};
+    }
+
+    /**
+     * Set the maximum age (in milliseconds) of a cached listing.
+     */
+    public void setMaxAge(long maxAge) {
+	this.maxAge = maxAge;
+    }
+
+    /**
+     * List the names of the children of a directory.
+     */
+    public String[] list(String dir) throws IOException {
+	IFile[] files = listFiles(dir, null);
+	String[] names = new String[files.length];
+	for (int i=0; i < files.length; i++) {
+	    names[i] = files[i].getName();
+	}
+	return names;
+    }
+
+    /**
+     * List all the children of a directory.
+     */
+    public IFile[] listFiles(String dir) throws IOException {
+	return listFiles(dir, null);
+    }
+
+    /**
+     * List the children of a directory whose names match the specified pattern (or all the children, if p is null).
+     */
+    public IFile[] listFiles(String dir, Pattern p) throws IOException {
+	IFile f = fs.getFile(dir, IFile.Flags.NOCACHE);
+	if (!f.exists()) {
+	    throw new FileNotFoundException(dir);
+	}
+	Date lm = f.getLastModified();
+	long mtime = lm == null ? FileEntry.UNKNOWN : lm.getTime();
+	String key = key(dir);
+	synchronized(cache) {
+	    Listing listing = cache.get(key);
+	    if (listing == null && p != null) {
+		listing = cache.get(key(dir, p));
+	    }
+	    if (listing != null) {
+		if (listing.isValid(mtime)) {
+		    hits++;
+		    return filter(listing.files, p);
+		}
+		cache.remove(key);
+		if (p != null) {
+		    cache.remove(key(dir, p));
+		}
+	    }
+	    misses++;
+	}
+	IFile[] files = null;
+	boolean pushdown = false;
+	try {
+	    if (sys instanceof IWindowsSession) {
+		files = listPowershell(dir, p);
+		pushdown = p != null;
+	    } else if (sys instanceof IUnixSession && ((IUnixSession)sys).getFlavor() == IUnixSession.Flavor.LINUX) {
+		String glob = p == null ? null : toGlob(p);
+		files = listFind(dir, glob, p == null ? false : (p.flags() & Pattern.CASE_INSENSITIVE) != 0);
+		pushdown = glob != null;
+	    }
+	} catch (IllegalArgumentException e) {
+	    logger.debug(e.getMessage());
+	} catch (IOException e) {
+	    logger.warn(Message.ERROR_IO, dir, e.getMessage());
+	}
+	if (files == null) {
+	    files = f.listFiles();
+	}
+	if (mtime != FileEntry.UNKNOWN) {
+	    synchronized(cache) {
+		if (pushdown) {
+		    pushdowns++;
+		    cache.put(key(dir, p), new Listing(files, mtime));
+		} else {
+		    cache.put(key, new Listing(files, mtime));
+		}
+	    }
+	}
+	return filter(files, p);
+    }
+
+    /**
+     * Forget any cached listings of the specified directory.
+     */
+    public void invalidate(String dir) {
+	String prefix = key(dir);
+	synchronized(cache) {
+	    cache.remove(prefix);
+	    prefix = prefix + "\0";
+	    List<String> keys = new ArrayList<String>();
+	    for (String key : cache.keySet()) {
+		if (key.startsWith(prefix)) {
+		    keys.add(key);
+		}
+	    }
+	    for (String key : keys) {
+		cache.remove(key);
+	    }
+	}
+    }
+
+    /**
+     * Forget all cached listings.
+     */
+    public void clear() {
+	synchronized(cache) {
+	    cache.clear();
+	}
+    }
+
+    /**
+     * Get the number of listings that were satisfied from the cache.
+     */
+    public long getHits() {
+	synchronized(cache) {
+	    return hits;
+	}
+    }
+
+    /**
+     * Get the number of listings that had to be retrieved from the target.
+     */
+    public long getMisses() {
+	synchronized(cache) {
+	    return misses;
+	}
+    }
+
+    /**
+     * Get the number of listings that were retrieved with the name pattern pushed down to the target.
+     */
+    public long getPushdowns() {
+	synchronized(cache) {
+	    return pushdowns;
+	}
+    }
+
+    // Internal
+
+    /**
+     * Run GNU find with the specified arguments (i.e., starting points and expression), printing the metadata of each
+     * entry as NUL-terminated fields (which cannot be confused with any character in a file name).
+     */
+    List<FileEntry> find(String args) throws IOException {
+	StringBuffer cmd = new StringBuffer("find ").append(args);
+	cmd.append(" -printf '%y\\0%Y\\0%s\\0%T@\\0%A@\\0%i\\0%p\\0%l\\0'");
+	SafeCLI.ExecData data = SafeCLI.execDataRaw(cmd.toString(), SafeCLI.ANSI_C, null, sys, sys.getTimeout(ISession.Timeout.M));
+	byte[] buff = data.getData();
+	if (data.getExitCode() != 0 || buff == null ||
+	    buff.length >= sys.getProperties().getIntProperty(IComputerSystem.PROP_PROCESS_MAXBUFFLEN)) {
+	    throw new IOException(cmd.toString());
+	}
+	List<String> fields = new ArrayList<String>();
+	for (int start=0, end=0; end < buff.length; end++) {
+	    if (buff[end] == 0) {
+		fields.add(new String(buff, start, end - start, Strings.UTF8));
+		start = end + 1;
+	    }
+	}
+	if (fields.size() % 8 != 0) {
+	    throw new IOException(cmd.toString());
+	}
+	List<FileEntry> entries = new ArrayList<FileEntry>(fields.size() / 8);
+	PathTrie paths = new PathTrie(fs.getDelimiter());
+	for (int i=0; i < fields.size(); i+=8) {
+	    List<String> entry = fields.subList(i, i + 8);
+	    IFileMetadata.Type type = "l".equals(entry.get(0)) ? IFileMetadata.Type.LINK :
+		"d".equals(entry.get(0)) ? IFileMetadata.Type.DIRECTORY : IFileMetadata.Type.FILE;
+	    boolean directory = type == IFileMetadata.Type.LINK ? "d".equals(entry.get(1)) : type == IFileMetadata.Type.DIRECTORY;
+	    try {
+		entries.add(new FileEntry(fs, paths.intern(entry.get(6)), IFile.Flags.READONLY, type, directory, Long.parseLong(entry.get(2)),
+		    toMillis(entry.get(3)), toMillis(entry.get(4)), Long.parseLong(entry.get(5)),
+		    type == IFileMetadata.Type.LINK ? entry.get(7) : null));
+	    } catch (NumberFormatException e) {
+		throw new IOException(cmd.toString());
+	    }
+	}
+	return entries;
+    }
+
+    /**
+     * Run the specified Get-ChildItem pipeline, and collect the metadata of each resulting item.
+     */
+    List<FileEntry> getChildItem(String pipeline) throws IOException {
+	StringBuffer cmd = new StringBuffer(pipeline);
+	cmd.append(" | ForEach-Object {\"{0}`t{1}`t{2}`t{3}`t{4}\" -f [int]$_.Attributes,$_.Length,");
+	cmd.append("$_.LastWriteTimeUtc.ToFileTimeUtc(),$_.LastAccessTimeUtc.ToFileTimeUtc(),$_.FullName}");
+	String data;
+	try {
+	    IWindowsSession session = (IWindowsSession)sys;
+	    data = session.getRunspacePool().getRunspace().invoke(cmd.toString(), sys.getTimeout(ISession.Timeout.M));
+	} catch (PowershellException e) {
+	    throw new IOException(e.getMessage());
+	}
+	List<FileEntry> entries = new ArrayList<FileEntry>();
+	PathTrie paths = new PathTrie(fs.getDelimiter());
+	if (data != null) {
+	    for (String line : data.split("\r?\n")) {
+		if (line.length() > 0) {
+		    entries.add(toEntry(fs, paths, line));
+		}
+	    }
+	}
+	return entries;
+    }
+
+    /**
+     * Create a FileEntry from a line of tab-delimited item metadata: attributes, length, last write and last access
+     * FILETIMEs, and full name. The path is interned in the specified PathTrie.
+     */
+    static FileEntry toEntry(IFilesystem fs, PathTrie paths, String line) throws IOException {
+	String[] fields = line.split("\t", 5);
+	if (fields.length != 5) {
+	    throw new IOException(line);
+	}
+	try {
+	    int attrs = Integer.parseInt(fields[0]);
+	    boolean directory = (attrs & FILE_ATTRIBUTE_DIRECTORY) != 0;
+	    IFileMetadata.Type type = (attrs & FILE_ATTRIBUTE_REPARSE_POINT) != 0 ? IFileMetadata.Type.LINK :
+		directory ? IFileMetadata.Type.DIRECTORY : IFileMetadata.Type.FILE;
+	    long length = fields[1].length() == 0 ? 0L : Long.parseLong(fields[1]);
+	    long mtime = Timestamp.getTime(new BigInteger(fields[2]));
+	    long atime = Timestamp.getTime(new BigInteger(fields[3]));
+	    return new FileEntry(fs, paths.intern(fields[4]), IFile.Flags.READONLY, type, directory, length, mtime, atime,
+		FileEntry.UNKNOWN, null);
+	} catch (NumberFormatException e) {
+	    throw new IOException(line);
+	}
+    }
+
+    // Private
+
+    /**
+     * List a directory using GNU find.
+     */
+    private IFile[] listFind(String dir, String glob, boolean ignoreCase) throws IOException {
+	StringBuffer args = new StringBuffer("'").append(SafeCLI.checkArgument(dir, sys)).append("'");
+	args.append(" -mindepth 1 -maxdepth 1");
+	if (glob != null) {
+	    args.append(ignoreCase ? " -iname '" : " -name '").append(SafeCLI.checkArgument(glob, sys)).append("'");
+	}
+	List<FileEntry> entries = find(args.toString());
+	return entries.toArray(new IFile[entries.size()]);
+    }
+
+    /**
+     * List a directory using Get-ChildItem, pushing the pattern down as a filter (if it can be expressed as a glob) or
+     * else as a .NET regular expression.
+     */
+    private IFile[] listPowershell(String dir, Pattern p) throws IOException {
+	StringBuffer cmd = new StringBuffer("Get-ChildItem -LiteralPath '").append(SafeCLI.checkArgument(dir, sys));
+	cmd.append("' -Force");
+	if (p != null) {
+	    String glob = toGlob(p);
+	    if (glob == null) {
+		String regex = Regex.posix2Powershell(p.pattern()).replace("'", "''");
+		cmd.append(" | Where-Object {$_.Name -match '").append(regex).append("'}");
+	    } else {
+		cmd.append(" -Filter '").append(SafeCLI.checkArgument(glob, sys)).append("'");
+	    }
+	}
+	List<FileEntry> entries = getChildItem(cmd.toString());
+	return entries.toArray(new IFile[entries.size()]);
+    }
+
+    /**
+     * Convert a Pattern to a glob, or return null if that is not possible.
+     */
+    private String toGlob(Pattern p) {
+	try {
+	    String glob = Regex.toGlob(p);
+	    return glob.length() == 0 ? null : glob;
+	} catch (IllegalArgumentException e) {
+	    return null;
+	}
+    }
+
+    private IFile[] filter(IFile[] files, Pattern p) {
+	if (p == null) {
+	    return files;
+	}
+	List<IFile> result = new ArrayList<IFile>();
+	for (IFile f : files) {
+	    if (p.matcher(f.getName()).find()) {
+		result.add(f);
+	    }
+	}
+	return result.toArray(new IFile[result.size()]);
+    }
+
+    private long toMillis(String seconds) {
+	return (long)(Double.parseDouble(seconds) * 1000);
+    }
+
+    private String key(String dir) {
+	return caseInsensitive ? dir.toLowerCase() : dir;
+    }
+
+    private String key(String dir, Pattern p) {
+	return new StringBuffer(key(dir)).append("\0").append(p.flags()).append(":").append(p.pattern()).toString();
+    }
+
+    class Listing {
+	IFile[] files;
+	long mtime, timestamp;
+
+	Listing(IFile[] files, long mtime) {
+	    this.files = files;
+	    this.mtime = mtime;
+	    timestamp = System.currentTimeMillis();
+	}
+
+	boolean isValid(long mtime) {
+	    return this.mtime == mtime && System.currentTimeMillis() - timestamp < maxAge;
+	}
+    }
+}
@@ -0,0 +1,347 @@
+// Copyright (C) 2026 Arctic Wolf Networks, Inc.  All rights reserved.
+// This software is licensed under the LGPL 3.0 license available at http://www.gnu.org/licenses/lgpl.txt
+
+package jsaf.io;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import jsaf.intf.io.IFile;
+import jsaf.intf.io.IFilesystem;
+
+/**
+ * A cache of the results of file lookups against an IFilesystem, which records both files that exist and files that do
+ * not, so that repeated probes of the same paths do not each require a round-trip to the target. It is intended to be
+ * used for the lifetime of a session.
+ *
+ * Once several paths have been probed in the same directory, the directory is listed, and the cached listing is used to
+ * resolve further lookups of its children without a round-trip (a name that is absent from the listing does not exist).
+ * Likewise, a path whose ancestor is known not to exist is known not to exist.
+ *
+ * Lookups with the IFile.Flags.NOCACHE or IFile.Flags.READVOLATILE flags always go to the IFilesystem, and are not
+ * recorded.
+ *
+ * @author David A. Solin
+ * @version %I% %G%
+ * @since 1.7.0
+ */
+public class ExistenceCache {
+    /**
+     * The default time (in milliseconds) for which a lookup result remains valid (5 minutes).
+     */
+    public static final long DEFAULT_TTL = 300000L;
+
+    /**
+     * The default maximum number of cached paths.
+     */
+    public static final int DEFAULT_MAX_ENTRIES = 10000;
+
+    /**
+     * The default number of cache misses in a single directory, after which the directory will be listed.
+     */
+    public static final int DEFAULT_LISTING_THRESHOLD = 3;
+
+    private IFilesystem fs;
+    private String delim;
+    private boolean caseInsensitive;
+    private long ttl;
+    private int maxEntries, listingThreshold;
+    private LruMap<String, Entry> entries;
+    private LruMap<String, Listing> listings;
+    private LruMap<String, Integer> dirMisses;
+    private long hits, misses, listingHits, bypasses;
+
+    /**
+     * Create a cache with default settings.
+     */
+    public ExistenceCache(IFilesystem fs) {
+	this(fs, DEFAULT_TTL, DEFAULT_MAX_ENTRIES, DEFAULT_LISTING_THRESHOLD);
+    }
+
+    /**
+     * Create a cache.
+     *
+     * @param ttl the time (in milliseconds) for which a lookup result remains valid, or 0 for no expiration
+     * @param maxEntries the maximum number of paths (and directory listings) to remember
+     * @param listingThreshold the number of cache misses in a directory after which it will be listed (0 to never list)
+     */
+    public ExistenceCache(IFilesystem fs, long ttl, int maxEntries, int listingThreshold) {
+	if (ttl < 0 || maxEntries < 1 || listingThreshold < 0) {
+	    throw new IllegalArgumentException();
+	}
+	this.fs = fs;
+	this.ttl = ttl;
+	this.maxEntries = maxEntries;
+	this.listingThreshold = listingThreshold;
+	delim = fs.getDelimiter();
+	caseInsensitive = "\\".equals(delim);
+	entries = new LruMap<String, Entry>();
+	listings = new LruMap<String, Listing>();
+	dirMisses = new LruMap<String, Integer>();
+    }
+
+    /**
+     * Determine whether the file at the specified path exists.
+     */
+    public boolean exists(String path) throws IOException {
+	return getFile(path, IFile.Flags.READONLY) != null;
+    }
+
+    /**
+     * Get the file at the specified path, or null if it does not exist.
+     */
+    public IFile getFile(String path, IFile.Flags flags) throws IOException {
+	if (flags == IFile.Flags.NOCACHE || flags == IFile.Flags.READVOLATILE) {
+	    synchronized(this) {
+		bypasses++;
+	    }
+	    IFile f = fs.getFile(path, flags);
+	    return f.exists() ? f : null;
+	}
+	path = normalize(path);
+	String key = key(path);
+	synchronized(this) {
+	    Entry entry = entries.get(key);
+	    if (entry != null && !entry.isValid()) {
+		entries.remove(key);
+		entry = null;
+	    }
+	    if (entry != null && (entry.file == null || entry.flags == flags)) {
+		hits++;
+		return entry.file;
+	    }
+	    if (entry == null && knownAbsent(path)) {
+		hits++;
+		listingHits++;
+		entries.put(key, new Entry(null, flags));
+		return null;
+	    }
+	    misses++;
+	}
+	IFile f = fs.getFile(path, flags);
+	boolean exists = f.exists();
+	String parent = getParent(path);
+	boolean list = false;
+	synchronized(this) {
+	    entries.put(key, new Entry(exists ? f : null, flags));
+	    if (!exists && parent != null && listingThreshold > 0) {
+		Integer count = dirMisses.get(key(parent));
+		int n = count == null ? 1 : count.intValue() + 1;
+		if (n >= listingThreshold) {
+		    dirMisses.remove(key(parent));
+		    list = true;
+		} else {
+		    dirMisses.put(key(parent), new Integer(n));
+		}
+	    }
+	}
+	if (list) {
+	    list(parent);
+	}
+	return exists ? f : null;
+    }
+
+    /**
+     * Record the contents of a directory that the caller has already listed, which will be used to resolve lookups of
+     * its children.
+     */
+    public void putListing(String dir, String[] names) {
+	Set<String> set = new HashSet<String>();
+	for (String name : names) {
+	    set.add(key(name));
+	}
+	synchronized(this) {
+	    listings.put(key(normalize(dir)), new Listing(set));
+	}
+    }
+
+    /**
+     * Forget anything known about the specified path (e.g., after creating or deleting the file), and the listing of its
+     * parent directory.
+     */
+    public synchronized void invalidate(String path) {
+	path = normalize(path);
+	entries.remove(key(path));
+	listings.remove(key(path));
+	String parent = getParent(path);
+	if (parent != null) {
+	    listings.remove(key(parent));
+	}
+    }
+
+    /**
+     * Forget everything.
+     */
+    public synchronized void clear() {
+	entries.clear();
+	listings.clear();
+	dirMisses.clear();
+    }
+
+    /**
+     * Get the number of lookups that were resolved without a round-trip.
+     */
+    public synchronized long getHits() {
+	return hits;
+    }
+
+    /**
+     * Get the number of lookups that were resolved by the absence of the name from a cached directory listing (or of an
+     * ancestor directory). These are also counted as hits.
+     */
+    public synchronized long getListingHits() {
+	return listingHits;
+    }
+
+    /**
+     * Get the number of cacheable lookups that required a round-trip.
+     */
+    public synchronized long getMisses() {
+	return misses;
+    }
+
+    /**
+     * Get the number of lookups that bypassed the cache because of their flags.
+     */
+    public synchronized long getBypasses() {
+	return bypasses;
+    }
+
+    /**
+     * Get the fraction of cacheable lookups that were hits, or 0 if there have been none.
+     */
+    public synchronized double getHitRate() {
+	long total = hits + misses;
+	return total == 0 ? 0.0 : (double)hits / total;
+    }
+
+    // Private
+
+    /**
+     * List a directory and cache the result. A directory that does not exist is recorded as such.
+     */
+    private void list(String dir) throws IOException {
+	IFile f = fs.getFile(dir, IFile.Flags.READONLY);
+	if (!f.exists()) {
+	    synchronized(this) {
+		entries.put(key(dir), new Entry(null, IFile.Flags.READONLY));
+	    }
+	} else if (f.isDirectory()) {
+	    putListing(dir, f.list());
+	}
+    }
+
+    /**
+     * Determine from the cached listings whether the path is known not to exist. Must be called while synchronized.
+     */
+    private boolean knownAbsent(String path) {
+	String child = path;
+	String parent = getParent(child);
+	while (parent != null) {
+	    String parentKey = key(parent);
+	    Listing listing = listings.get(parentKey);
+	    if (listing != null) {
+		if (listing.isValid()) {
+		    return !listing.names.contains(key(getName(child)));
+		}
+		listings.remove(parentKey);
+	    }
+	    Entry entry = entries.get(parentKey);
+	    if (entry != null && entry.isValid() && entry.file == null) {
+		return true;
+	    }
+	    child = parent;
+	    parent = getParent(child);
+	}
+	return false;
+    }
+
+    private String normalize(String path) {
+	while (path.length() > 1 && path.endsWith(delim) && !isRoot(path)) {
+	    path = path.substring(0, path.length() - delim.length());
+	}
+	return path;
+    }
+
+    private String key(String s) {
+	return caseInsensitive ? s.toLowerCase() : s;
+    }
+
+    private boolean isRoot(String path) {
+	if (caseInsensitive) {
+	    return path.length() == 3 && path.charAt(1) == ':' && path.endsWith(delim);
+	} else {
+	    return delim.equals(path);
+	}
+    }
+
+    /**
+     * Get the parent path, or null if the path is a root.
+     */
+    private String getParent(String path) {
+	if (isRoot(path)) {
+	    return null;
+	}
+	int ptr = path.lastIndexOf(delim);
+	if (ptr == -1) {
+	    return null;
+	} else if (ptr == 0) {
+	    return delim;
+	} else if (caseInsensitive && ptr == 2 && path.charAt(1) == ':') {
+	    return path.substring(0, 3);
+	} else {
+	    return path.substring(0, ptr);
+	}
+    }
+
+    private String getName(String path) {
+	return path.substring(path.lastIndexOf(delim) + delim.length());
+    }
+
+    class Entry {
+	IFile file;
+	IFile.Flags flags;
+	long expires;
+
+	Entry(IFile file, IFile.Flags flags) {
+	    this.file = file;
+	    this.flags = flags;
+	    expires = ttl == 0 ? Long.MAX_VALUE : System.currentTimeMillis() + ttl;
+	}
+
+	boolean isValid() {
+	    return System.currentTimeMillis() < expires;
+	}
+    }
+
+    class Listing {
+	Set<String> names;
+	long expires;
+
+	Listing(Set<String> names) {
+	    this.names = names;
+	    expires = ttl == 0 ? Long.MAX_VALUE : System.currentTimeMillis() + ttl;
+	}
+
+	boolean isValid() {
+	    return System.currentTimeMillis() < expires;
+	}
+    }
+
+    /**
+     * An access-ordered LinkedHashMap which evicts the least-recently used entry when full.
+     */
+    class LruMap<K, V> extends LinkedHashMap<K, V> {
+	LruMap() {
+	    super(16, 0.75f, true);
+	}
+
+	@Override
+	protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+	    return size() > maxEntries;
+	}
+    }
+}
@@ -0,0 +1,236 @@
+// Copyright (C) 2026 Arctic Wolf Networks, Inc.  All rights reserved.
+// This software is licensed under the LGPL 3.0 license available at http://www.gnu.org/licenses/lgpl.txt
+
+package jsaf.io;
+
+import java.io.InputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Date;
+import java.util.regex.Pattern;
+
+import jsaf.intf.io.IFile;
+import jsaf.intf.io.IFileEx;
+import jsaf.intf.io.IFilesystem;
+import jsaf.intf.io.IRandomAccess;
+
+/**
+ * An IFile whose basic metadata (type, size, timestamps and link target) was collected in bulk, for example as part of
+ * a directory listing or a search, so that it can be queried without any further round-trips to the target. Operations
+ * that require more than that metadata (reading, writing, listing, extended attributes) are delegated to the IFile
+ * obtained from the IFilesystem, which is only retrieved when first needed.
+ *
+ * The path may be supplied as a PathTrie.Node, so that large numbers of entries can share the storage of their parent
+ * directories' paths; in that case the path String is only created when it is requested.
+ *
+ * @author David A. Solin
+ * @version %I% %G%
+ * @since 1.7.0
+ */
+public class FileEntry implements IFile {
+    /**
+     * Value of fields whose value is unknown.
+     */
+    public static final long UNKNOWN = -1L;
+
+    private IFilesystem fs;
+    private PathTrie.Node node;
+    private IFile.Flags flags;
+    private Type type;
+    private boolean directory;
+    private long length, lastModified, accessTime, inode;
+    private String linkPath;
+    private IFile file;
+
+    /**
+     * Create a FileEntry.
+     *
+     * @param type the type of the file itself
+     * @param directory true if the file is a directory, or a link to a directory
+     * @param length the size of the file, in bytes
+     * @param lastModified the modification time (in milliseconds since 1970), or UNKNOWN
+     * @param accessTime the access time (in milliseconds since 1970), or UNKNOWN
+     * @param inode the file's inode number (or other unique file identifier), or UNKNOWN
+     * @param linkPath the link target, for a link
+     */
+    public FileEntry(IFilesystem fs, String path, IFile.Flags flags, Type type, boolean directory, long length,
+		long lastModified, long accessTime, long inode, String linkPath) {
+
+	this(fs, new PathTrie.Node(null, path), flags, type, directory, length, lastModified, accessTime, inode, linkPath);
+    }
+
+    /**
+     * Create a FileEntry whose path is represented by a PathTrie.Node.
+     *
+     * @see PathTrie
+     */
+    public FileEntry(IFilesystem fs, PathTrie.Node node, IFile.Flags flags, Type type, boolean directory, long length,
+		long lastModified, long accessTime, long inode, String linkPath) {
+
+	this.fs = fs;
+	this.node = node;
+	this.flags = flags;
+	this.type = type;
+	this.directory = directory;
+	this.length = length;
+	this.lastModified = lastModified;
+	this.accessTime = accessTime;
+	this.inode = inode;
+	this.linkPath = linkPath;
+    }
+
+    /**
+     * Get the file's inode number (or other unique file identifier), or UNKNOWN.
+     */
+    public long getInode() {
+	return inode;
+    }
+
+    /**
+     * Get the flags with which the file was retrieved.
+     */
+    public IFile.Flags getFlags() {
+	return flags;
+    }
+
+    // Implement IFileMetadata
+
+    public Type getType() {
+	return type;
+    }
+
+    public String getLinkPath() throws IllegalStateException {
+	if (type != Type.LINK) {
+	    throw new IllegalStateException(type.toString());
+	}
+	return linkPath;
+    }
+
+    public long length() {
+	return length;
+    }
+
+    public String getPath() {
+	return node.getPath(fs.getDelimiter());
+    }
+
+    public String getCanonicalPath() throws IOException {
+	if (type == Type.LINK) {
+	    return getFile().getCanonicalPath();
+	}
+	return getPath();
+    }
+
+    public IFileEx getExtended() throws IOException {
+	return getFile().getExtended();
+    }
+
+    public Date getAccessTime() {
+	return accessTime == UNKNOWN ? null : new Date(accessTime);
+    }
+
+    public Date getLastModified() {
+	return lastModified == UNKNOWN ? null : new Date(lastModified);
+    }
+
+    // Implement IFile
+
+    public String getName() {
+	if (node.getParent() != null) {
+	    return node.getName();
+	}
+	String path = node.getName();
+	String delim = fs.getDelimiter();
+	int ptr = path.lastIndexOf(delim);
+	return ptr == -1 ? path : path.substring(ptr + delim.length());
+    }
+
+    public String getParent() {
+	if (node.getParent() != null) {
+	    return node.getParent().getPath(fs.getDelimiter());
+	}
+	String path = node.getName();
+	String delim = fs.getDelimiter();
+	int ptr = path.lastIndexOf(delim);
+	if (ptr == -1) {
+	    return path;
+	} else if (ptr == 0 || (ptr == 2 && path.charAt(1) == ':')) {
+	    return path.substring(0, ptr + delim.length());
+	} else {
+	    return path.substring(0, ptr);
+	}
+    }
+
+    public boolean exists() {
+	return true;
+    }
+
+    public boolean isLink() {
+	return type == Type.LINK;
+    }
+
+    public boolean isDirectory() {
+	return directory;
+    }
+
+    public boolean isFile() {
+	return !directory;
+    }
+
+    public boolean mkdir() {
+	return false;
+    }
+
+    public InputStream getInputStream() throws IOException {
+	return getFile().getInputStream();
+    }
+
+    public OutputStream getOutputStream(boolean append) throws IOException {
+	return getFile().getOutputStream(append);
+    }
+
+    public IRandomAccess getRandomAccess(String mode) throws IllegalArgumentException, IOException {
+	return getFile().getRandomAccess(mode);
+    }
+
+    public String[] list() throws IOException {
+	return getFile().list();
+    }
+
+    public IFile[] listFiles() throws IOException {
+	return getFile().listFiles();
+    }
+
+    public IFile[] listFiles(Pattern p) throws IOException {
+	return getFile().listFiles(p);
+    }
+
+    public IFile getChild(String name) throws IOException {
+	return getFile().getChild(name);
+    }
+
+    public IFile getCanonicalFile() throws IOException {
+	if (type == Type.LINK) {
+	    return getFile().getCanonicalFile();
+	}
+	return this;
+    }
+
+    public void delete() throws IOException {
+	getFile().delete();
+    }
+
+    @Override
+    public String toString() {
+	return getPath();
+    }
+
+    // Private
+
+    private synchronized IFile getFile() throws IOException {
+	if (file == null) {
+	    file = fs.getFile(getPath(), flags);
+	}
+	return file;
+    }
+}
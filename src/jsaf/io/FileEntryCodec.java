@@ -0,0 +1,166 @@
+// Copyright (C) 2026 Arctic Wolf Networks, Inc.  All rights reserved.
+// This software is licensed under the LGPL 3.0 license available at http://www.gnu.org/licenses/lgpl.txt
+
+package jsaf.io;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.Date;
+
+import jsaf.identity.IdentityException;
+import jsaf.intf.io.IFile;
+import jsaf.intf.io.IFileMetadata.Type;
+import jsaf.intf.io.IFilesystem;
+import jsaf.intf.unix.identity.IDirectory;
+import jsaf.intf.unix.io.IUnixFileInfo.UnixType;
+import jsaf.util.SpillableCollection;
+import jsaf.util.Strings;
+
+/**
+ * A SpillableCollection.Codec for IFile search results. FileEntry and UnixFileEntry instances are serialized with all of
+ * their metadata, and are reconstituted (with interned paths) without any access to the target. Any other kind of IFile
+ * is serialized with its basic metadata (type, length, times and link target), and is reconstituted as a FileEntry. Only
+ * files whose metadata cannot be read are serialized by path, and retrieved from the IFilesystem when they are read.
+ *
+ * @author David A. Solin
+ * @version %I% %G%
+ * @since 1.7.0
+ */
+public class FileEntryCodec implements SpillableCollection.Codec<IFile> {
+    private static final int PATH = 0;
+    private static final int ENTRY = 1;
+    private static final int UNIX_ENTRY = 2;
+
+    private IFilesystem fs;
+    private IDirectory directory;
+    private PathTrie paths;
+
+    /**
+     * Create a codec for files of the specified filesystem.
+     *
+     * @param directory the IDirectory with which to reconstitute UnixFileEntry instances (may be null)
+     */
+    public FileEntryCodec(IFilesystem fs, IDirectory directory) {
+	this.fs = fs;
+	this.directory = directory;
+	paths = new PathTrie(fs.getDelimiter());
+    }
+
+    // Implement SpillableCollection.Codec<IFile>
+
+    public void write(IFile file, DataOutput out) throws IOException {
+	FileEntry entry = file instanceof FileEntry ? (FileEntry)file : toEntry(file);
+	if (entry != null) {
+	    out.writeByte(entry instanceof UnixFileEntry ? UNIX_ENTRY : ENTRY);
+	    writeString(entry.getPath(), out);
+	    out.writeByte(entry.getFlags() == null ? -1 : entry.getFlags().ordinal());
+	    out.writeByte(entry.getType().ordinal());
+	    out.writeBoolean(entry.isDirectory());
+	    out.writeLong(entry.length());
+	    out.writeLong(toLong(entry.getLastModified()));
+	    out.writeLong(toLong(entry.getAccessTime()));
+	    out.writeLong(entry.getInode());
+	    writeString(entry.isLink() ? entry.getLinkPath() : null, out);
+	    if (entry instanceof UnixFileEntry) {
+		UnixFileEntry unix = (UnixFileEntry)entry;
+		out.writeByte(unix.getUnixType().ordinal());
+		out.writeInt(unix.getMode());
+		writeString(unix.getUserOwner().getId().toString(), out);
+		String name = null;
+		try {
+		    name = unix.getUserOwner().getName();
+		} catch (IdentityException e) {
+		}
+		writeString(name, out);
+		writeString(unix.getGroupOwner().getId().toString(), out);
+		name = null;
+		try {
+		    name = unix.getGroupOwner().getName();
+		} catch (IdentityException e) {
+		}
+		writeString(name, out);
+		out.writeLong(toLong(unix.getLastChanged()));
+	    }
+	} else {
+	    out.writeByte(PATH);
+	    writeString(file.getPath(), out);
+	}
+    }
+
+    public IFile read(DataInput in) throws IOException {
+	int tag = in.readByte();
+	String path = readString(in);
+	if (tag == PATH) {
+	    return fs.getFile(path);
+	}
+	int flags = in.readByte();
+	Type type = Type.values()[in.readByte()];
+	boolean isDirectory = in.readBoolean();
+	long length = in.readLong();
+	long lastModified = in.readLong();
+	long accessTime = in.readLong();
+	long inode = in.readLong();
+	String linkPath = readString(in);
+	IFile.Flags f = flags == -1 ? null : IFile.Flags.values()[flags];
+	if (tag == ENTRY) {
+	    return new FileEntry(fs, paths.intern(path), f, type, isDirectory, length, lastModified, accessTime, inode,
+				 linkPath);
+	}
+	UnixType unixType = UnixType.values()[in.readByte()];
+	int mode = in.readInt();
+	BigInteger uid = new BigInteger(readString(in));
+	String userName = readString(in);
+	BigInteger gid = new BigInteger(readString(in));
+	String groupName = readString(in);
+	long lastChanged = in.readLong();
+	return new UnixFileEntry(fs, paths.intern(path), f, unixType, isDirectory, length, lastModified, accessTime, inode,
+				 linkPath, directory, mode, uid, userName, gid, groupName, lastChanged);
+    }
+
+    // Private
+
+    /**
+     * Capture the basic metadata of an IFile in a FileEntry, or return null if the metadata cannot be read.
+     */
+    private FileEntry toEntry(IFile file) {
+	try {
+	    Type type = file.getType();
+	    String linkPath = type == Type.LINK ? file.getLinkPath() : null;
+	    return new FileEntry(fs, file.getPath(), IFile.Flags.READONLY, type, file.isDirectory(), file.length(),
+				 toLong(file.getLastModified()), toLong(file.getAccessTime()), FileEntry.UNKNOWN, linkPath);
+	} catch (IOException e) {
+	    return null;
+	} catch (IllegalStateException e) {
+	    return null;
+	}
+    }
+
+    private static long toLong(Date date) {
+	return date == null ? FileEntry.UNKNOWN : date.getTime();
+    }
+
+    /**
+     * Write a (possibly null) String as a length-prefixed UTF-8 sequence. Unlike DataOutput.writeUTF, there is no 64K limit.
+     */
+    private static void writeString(String s, DataOutput out) throws IOException {
+	if (s == null) {
+	    out.writeInt(-1);
+	} else {
+	    byte[] buff = s.getBytes(Strings.UTF8);
+	    out.writeInt(buff.length);
+	    out.write(buff);
+	}
+    }
+
+    private static String readString(DataInput in) throws IOException {
+	int len = in.readInt();
+	if (len == -1) {
+	    return null;
+	}
+	byte[] buff = new byte[len];
+	in.readFully(buff);
+	return new String(buff, Strings.UTF8);
+    }
+}
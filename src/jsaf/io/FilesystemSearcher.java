@@ -0,0 +1,666 @@
+// Copyright (C) 2026 Arctic Wolf Networks, Inc.  All rights reserved.
+// This software is licensed under the LGPL 3.0 license available at http://www.gnu.org/licenses/lgpl.txt
+
+package jsaf.io;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.slf4j.cal10n.LocLogger;
+
+import jsaf.Message;
+import jsaf.intf.io.IFile;
+import jsaf.intf.io.IFileMetadata;
+import jsaf.intf.io.IFilesystem;
+import jsaf.intf.io.IFilesystem.FSCondition;
+import jsaf.intf.io.IFilesystem.IMount;
+import jsaf.intf.system.IComputerSystem;
+import jsaf.intf.unix.identity.IDirectory;
+import jsaf.intf.util.IDisposable;
+import jsaf.intf.util.IProperty;
+import jsaf.intf.util.ISearchable;
+import jsaf.intf.util.ISearchable.Condition;
+import jsaf.util.Regex;
+import jsaf.util.SearchResult;
+import jsaf.util.SpillableCollection;
+import jsaf.util.WorkStealingExecutor;
+
+/**
+ * A generic ISearchable for any IFilesystem, which walks directory trees using IFile.listFiles, listing sibling
+ * directories concurrently on a WorkStealingExecutor.
+ *
+ * The following FSCondition fields are supported:
+ *   FIELD_DEPTH      - TYPE_EQUALITY: the number of directory levels to descend beneath a matching directory (default 0,
+ *                      or unlimited for FIELD_PATH searches)
+ *   FIELD_DIRNAME    - TYPE_EQUALITY, TYPE_ANY or TYPE_PATTERN: the directories to search
+ *   FIELD_PATH       - TYPE_PATTERN: return files and directories whose paths match
+ *   FIELD_BASENAME   - TYPE_EQUALITY, TYPE_INEQUALITY or TYPE_PATTERN: return files whose names match
+ *   FIELD_FILETYPE   - TYPE_EQUALITY: return only files of the specified FILETYPE_*
+ *   FIELD_FSTYPE     - TYPE_EQUALITY: descend only into mounts of the specified type
+ *   FIELD_FOLLOW_LINKS, FIELD_XDEV, FIELD_LOCAL
+ *
+ * When no FIELD_BASENAME or FIELD_PATH condition is present, the search returns the matching directories themselves.
+ * When links are followed, a link to a directory which is an ancestor of the link is skipped with a warning.
+ *
+ * @author David A. Solin
+ * @version %I% %G%
+ * @since 1.7.0
+ */
+public class FilesystemSearcher implements ISearchable<IFile>, IDisposable {
+    private IFilesystem fs;
+    private IProperty props;
+    private LocLogger logger;
+    private String delim;
+    private int limit = UNLIMITED;
+    private int parallelism, mountConcurrency;
+    private int active = 0;
+    private WorkStealingExecutor executor;
+    private Map<String, Semaphore> mountPermits;
+    private MountTable mountTable;
+
+    /**
+     * Create a searcher for the filesystem of the specified computer system, configured by its properties.
+     */
+    public FilesystemSearcher(IComputerSystem sys) {
+	this(sys.getFilesystem(), sys.getProperties(), MountTable.getInstance(sys));
+    }
+
+    /**
+     * Create a searcher for the specified filesystem.
+     *
+     * @param props properties supplying PROP_FS_SEARCH_* configuration values (see IComputerSystem)
+     */
+    public FilesystemSearcher(IFilesystem fs, IProperty props) {
+	this(fs, props, new MountTable(fs));
+    }
+
+    private FilesystemSearcher(IFilesystem fs, IProperty props, MountTable mountTable) {
+	this.fs = fs;
+	this.props = props;
+	logger = fs.getLogger();
+	delim = fs.getDelimiter();
+	parallelism = props.getIntProperty(IComputerSystem.PROP_FS_SEARCH_PARALLELISM);
+	if (parallelism <= 0) {
+	    parallelism = props.getBooleanProperty(IComputerSystem.PROP_LOCAL) ? Runtime.getRuntime().availableProcessors() : 1;
+	}
+	mountConcurrency = props.getIntProperty(IComputerSystem.PROP_FS_SEARCH_MOUNT_CONCURRENCY);
+	mountPermits = new HashMap<String, Semaphore>();
+	this.mountTable = mountTable;
+    }
+
+    /**
+     * Get the cached mount table used by this searcher (e.g., in order to refresh it).
+     */
+    public MountTable getMountTable() {
+	return mountTable;
+    }
+
+    /**
+     * Override the number of directories that may be listed concurrently. Searches that are in progress are unaffected;
+     * the change takes effect once no search is running.
+     */
+    public synchronized void setParallelism(int parallelism) {
+	if (parallelism < 1) {
+	    throw new IllegalArgumentException(Integer.toString(parallelism));
+	}
+	this.parallelism = parallelism;
+    }
+
+    /**
+     * Override the maximum number of concurrent directory listings on any single mount (0 for no limit).
+     */
+    public synchronized void setMountConcurrency(int mountConcurrency) {
+	this.mountConcurrency = mountConcurrency;
+	mountPermits.clear();
+    }
+
+    // Implement ISearchable<IFile>
+
+    public void setResultLimit(int limit) {
+	this.limit = limit;
+    }
+
+    public IResult<IFile> search(List<Condition> conditions) {
+	Walk walk = new Walk(conditions);
+	walk.start();
+	return walk.await();
+    }
+
+    public List<IResult<IFile>> searches(List<List<Condition>> conditionLists) {
+	List<Walk> walks = new ArrayList<Walk>();
+	for (List<Condition> conditions : conditionLists) {
+	    Walk walk = new Walk(conditions);
+	    walk.start();
+	    walks.add(walk);
+	}
+	List<IResult<IFile>> results = new ArrayList<IResult<IFile>>();
+	for (Walk walk : walks) {
+	    results.add(walk.await());
+	}
+	return results;
+    }
+
+    // Implement IDisposable
+
+    public synchronized void dispose() {
+	if (executor != null) {
+	    executor.dispose();
+	    executor = null;
+	}
+    }
+
+    // Implement ILoggable
+
+    public LocLogger getLogger() {
+	return logger;
+    }
+
+    public void setLogger(LocLogger logger) {
+	this.logger = logger;
+    }
+
+    // Internal
+
+    /**
+     * Create an empty SearchResult for a search with the specified result limit. When there is no limit and
+     * PROP_FS_SEARCH_SPILL_THRESHOLD is set, the results beyond the threshold are spilled to a temporary file.
+     *
+     * @param directory the IDirectory with which to reconstitute spilled UnixFileEntry results (may be null)
+     */
+    static SearchResult<IFile> newResult(IFilesystem fs, IProperty props, IDirectory directory, int limit) {
+	int maxErrors = props.getIntProperty(IComputerSystem.PROP_FS_SEARCH_MAX_ERRORS);
+	int maxWarnings = props.getIntProperty(IComputerSystem.PROP_FS_SEARCH_MAX_WARNINGS);
+	int threshold = props.getIntProperty(IComputerSystem.PROP_FS_SEARCH_SPILL_THRESHOLD);
+	if (limit == UNLIMITED && threshold > 0) {
+	    SpillableCollection<IFile> items = new SpillableCollection<IFile>(threshold, new FileEntryCodec(fs, directory), null);
+	    return new SearchResult<IFile>(items, limit, maxErrors, maxWarnings);
+	} else {
+	    return new SearchResult<IFile>(limit, maxErrors, maxWarnings);
+	}
+    }
+
+    /**
+     * Compute the deepest literal directory from which a search for the specified (single-alternation) path pattern
+     * must begin. Returns null if the pattern is not left-anchored.
+     */
+    static String getSearchRoot(String regex, String delim) {
+	if (!regex.startsWith("^")) {
+	    return null;
+	}
+	String prefix = Regex.unescapeRegex(Regex.findLongestNonRegexPrefix(Pattern.compile(regex.substring(1))));
+	int ptr = prefix.lastIndexOf(delim);
+	if (ptr == -1) {
+	    return null;
+	}
+	String root = prefix.substring(0, ptr);
+	if (root.length() == 0 || root.endsWith(":")) {
+	    root = root + delim; // filesystem root
+	}
+	return root;
+    }
+
+    /**
+     * Get the executor for a new search. The executor is only replaced (to apply a new parallelism) between searches.
+     */
+    private synchronized WorkStealingExecutor acquireExecutor() {
+	if (executor != null && active == 0 && executor.getParallelism() != parallelism) {
+	    executor.dispose();
+	    executor = null;
+	}
+	if (executor == null) {
+	    executor = new WorkStealingExecutor("FilesystemSearcher", parallelism);
+	    executor.setLogger(logger);
+	}
+	active++;
+	return executor;
+    }
+
+    private synchronized void releaseExecutor() {
+	active--;
+    }
+
+    private synchronized Semaphore getPermits(IMount mount) {
+	if (mountConcurrency <= 0 || mount == null) {
+	    return null;
+	}
+	Semaphore permits = mountPermits.get(mount.getPath());
+	if (permits == null) {
+	    permits = new Semaphore(mountConcurrency);
+	    mountPermits.put(mount.getPath(), permits);
+	}
+	return permits;
+    }
+
+    /**
+     * A directory visited by a Walk. Nodes are linked to their parents, so that link cycles can be detected.
+     */
+    static class Node {
+	Node parent;
+	String path, canonicalPath;
+	IMount mount;
+	int level;  // levels below the search root
+	int anchor; // levels below the nearest matching directory, or -1 if there is none
+
+	Node(Node parent, String path, String canonicalPath, IMount mount, int level, int anchor) {
+	    this.parent = parent;
+	    this.path = path;
+	    this.canonicalPath = canonicalPath;
+	    this.mount = mount;
+	    this.level = level;
+	    this.anchor = anchor;
+	}
+
+	Node findAncestor(String canonicalPath) {
+	    for (Node node = this; node != null; node = node.parent) {
+		if (node.canonicalPath.equals(canonicalPath)) {
+		    return node;
+		}
+	    }
+	    return null;
+	}
+    }
+
+    /**
+     * The state of a single search.
+     */
+    class Walk {
+	private SearchResult<IFile> result;
+	private Collection<IMount> mounts;
+	private List<String> roots;
+	private Pattern dirPattern, pathPattern, basePattern;
+	private String baseEquals, baseNotEquals, filetype, fstype;
+	private boolean followLinks, xdev, localOnly;
+	private int maxDepth = 0;
+	private WorkStealingExecutor walkExecutor;
+	private AtomicInteger pending;
+	private CountDownLatch done;
+
+	Walk(List<Condition> conditions) {
+	    result = newResult(fs, props, null, limit);
+	    roots = new ArrayList<String>();
+	    pending = new AtomicInteger(0);
+	    done = new CountDownLatch(1);
+	    boolean depthSet = false;
+	    for (Condition condition : conditions) {
+		switch(condition.getField()) {
+		  case Condition.FIELD_DEPTH:
+		    maxDepth = ((Integer)condition.getValue()).intValue();
+		    depthSet = true;
+		    break;
+
+		  case FSCondition.FIELD_DIRNAME:
+		    switch(condition.getType()) {
+		      case Condition.TYPE_EQUALITY:
+			roots.add((String)condition.getValue());
+			break;
+		      case Condition.TYPE_ANY:
+			for (Object obj : (Collection<?>)condition.getValue()) {
+			    roots.add((String)obj);
+			}
+			break;
+		      case Condition.TYPE_PATTERN:
+			dirPattern = (Pattern)condition.getValue();
+			break;
+		      default:
+			throw new UnsupportedSearchConditionException(condition);
+		    }
+		    break;
+
+		  case FSCondition.FIELD_PATH:
+		    if (condition.getType() == Condition.TYPE_PATTERN) {
+			pathPattern = (Pattern)condition.getValue();
+		    } else {
+			throw new UnsupportedSearchConditionException(condition);
+		    }
+		    break;
+
+		  case FSCondition.FIELD_BASENAME:
+		    switch(condition.getType()) {
+		      case Condition.TYPE_EQUALITY:
+			baseEquals = (String)condition.getValue();
+			break;
+		      case Condition.TYPE_INEQUALITY:
+			baseNotEquals = (String)condition.getValue();
+			break;
+		      case Condition.TYPE_PATTERN:
+			basePattern = (Pattern)condition.getValue();
+			break;
+		      default:
+			throw new UnsupportedSearchConditionException(condition);
+		    }
+		    break;
+
+		  case FSCondition.FIELD_FILETYPE:
+		    filetype = (String)condition.getValue();
+		    break;
+
+		  case FSCondition.FIELD_FSTYPE:
+		    fstype = (String)condition.getValue();
+		    break;
+
+		  case FSCondition.FIELD_FOLLOW_LINKS:
+		    followLinks = true;
+		    break;
+
+		  case FSCondition.FIELD_XDEV:
+		    xdev = true;
+		    break;
+
+		  case FSCondition.FIELD_LOCAL:
+		    localOnly = true;
+		    break;
+
+		  default:
+		    throw new UnsupportedSearchFieldException(condition);
+		}
+	    }
+	    if (pathPattern != null && !depthSet) {
+		maxDepth = Condition.DEPTH_UNLIMITED;
+	    }
+	}
+
+	void start() {
+	    walkExecutor = acquireExecutor();
+	    try {
+		mounts = mountTable.getMounts();
+	    } catch (IOException e) {
+		result.addError(Message.getMessage(Message.ERROR_IO, fs.toString(), e.getMessage()));
+		mounts = new ArrayList<IMount>();
+	    }
+	    if (dirPattern != null) {
+		addRoots(dirPattern);
+	    } else if (pathPattern != null && roots.size() == 0) {
+		addRoots(pathPattern);
+	    }
+	    pending.incrementAndGet();
+	    try {
+		for (String root : roots) {
+		    try {
+			IMount mount = mountTable.getMount(root);
+			if (!acceptMount(mount)) {
+			    continue;
+			}
+			IFile dir = fs.getFile(root);
+			if (dir.exists() && dir.isDirectory()) {
+			    int anchor = dirPattern == null || matches(dirPattern, root) ? 0 : -1;
+			    Node node = new Node(null, root, dir.getCanonicalPath(), mount, 0, anchor);
+			    if (anchor == 0 && isResultDirectory()) {
+				offer(dir, node);
+			    }
+			    submit(dir, node);
+			}
+		    } catch (IOException e) {
+			result.addError(Message.getMessage(Message.ERROR_IO, root, e.getMessage()));
+		    }
+		}
+	    } finally {
+		finish();
+	    }
+	}
+
+	IResult<IFile> await() {
+	    try {
+		done.await();
+	    } catch (InterruptedException e) {
+		result.addError(Message.getMessage(Message.ERROR_EXCEPTION));
+		Thread.currentThread().interrupt();
+	    }
+	    return result;
+	}
+
+	// Private
+
+	private void addRoots(Pattern p) {
+	    for (String alt : Regex.getAlternations(p)) {
+		String root = getSearchRoot(alt, delim);
+		if (root != null) {
+		    if (!roots.contains(root)) {
+			roots.add(root);
+		    }
+		} else if (props.getBooleanProperty(IComputerSystem.PROP_FS_SEARCH_ALLOW_UNANCHORED)) {
+		    for (IMount mount : mounts) {
+			if (!roots.contains(mount.getPath())) {
+			    roots.add(mount.getPath());
+			}
+		    }
+		} else {
+		    result.addError(Message.getMessage(Message.ERROR_FS_SEARCH_UNANCHORED, alt));
+		}
+	    }
+	}
+
+	private boolean acceptMount(IMount mount) {
+	    if (mount == null) {
+		return !localOnly && fstype == null;
+	    } else if (localOnly && !mount.local()) {
+		return false;
+	    } else if (fstype != null && !fstype.equals(mount.getType())) {
+		return false;
+	    }
+	    return true;
+	}
+
+	/**
+	 * Submit a directory to be visited. The task finishes when it completes, or when it is cancelled because the
+	 * executor has been disposed.
+	 */
+	private void submit(final IFile dir, final Node node) {
+	    if (result.isFull()) {
+		return;
+	    }
+	    pending.incrementAndGet();
+	    FutureTask<Object> task = new FutureTask<Object>(new Runnable() {
+		public void run() {
+		    try {
+			visit(dir, node);
+		    } catch (RuntimeException e) {
+			logger.warn(Message.getMessage(Message.ERROR_EXCEPTION), e);
+		    }
+		}
+	    }, null) {
+		@Override
+		protected void done() {
+		    if (isCancelled()) {
+			result.addError(Message.getMessage(Message.ERROR_SEARCH_CANCELLED, node.path));
+		    }
+		    finish();
+		}
+	    };
+	    try {
+		walkExecutor.execute(task);
+	    } catch (RejectedExecutionException e) {
+		task.cancel(false);
+	    }
+	}
+
+	private void finish() {
+	    if (pending.decrementAndGet() == 0) {
+		releaseExecutor();
+		done.countDown();
+	    }
+	}
+
+	/**
+	 * List a directory, offer its children to the result, and submit its qualifying subdirectories.
+	 */
+	private void visit(IFile dir, Node node) {
+	    if (result.isFull()) {
+		return;
+	    }
+	    IFile[] children = null;
+	    Semaphore permits = getPermits(node.mount);
+	    try {
+		if (permits != null) {
+		    permits.acquire();
+		}
+		try {
+		    children = dir.listFiles();
+		} finally {
+		    if (permits != null) {
+			permits.release();
+		    }
+		}
+	    } catch (InterruptedException e) {
+		result.addError(Message.getMessage(Message.ERROR_IO, node.path, e.getClass().getName()));
+		Thread.currentThread().interrupt();
+		return;
+	    } catch (IOException e) {
+		result.addError(Message.getMessage(Message.ERROR_IO, node.path, e.getMessage()));
+		return;
+	    }
+	    if (children == null) {
+		return;
+	    }
+	    for (IFile child : children) {
+		if (result.isFull()) {
+		    return;
+		}
+		try {
+		    boolean link = child.isLink();
+		    boolean directory = child.isDirectory();
+		    if (directory && (followLinks || !link)) {
+			Node childNode = newNode(node, child, link);
+			if (childNode != null) {
+			    if (isResultDirectory()) {
+				offer(child, childNode);
+			    } else {
+				offerDescendant(child, node, true);
+			    }
+			    if (shouldDescend(childNode)) {
+				submit(child, childNode);
+			    }
+			    continue;
+			}
+		    }
+		    offerDescendant(child, node, directory);
+		} catch (IOException e) {
+		    result.addError(Message.getMessage(Message.ERROR_IO, child.getPath(), e.getMessage()));
+		}
+	    }
+	}
+
+	/**
+	 * Determine whether two mounts are the same, by path. The MountTable replaces its IMount instances whenever it is
+	 * refreshed, which may happen during a long walk.
+	 */
+	private boolean sameMount(IMount m1, IMount m2) {
+	    if (m1 == null || m2 == null) {
+		return m1 == m2;
+	    }
+	    return m1.getPath().equals(m2.getPath());
+	}
+
+	/**
+	 * Create a Node for a subdirectory, or return null if the subdirectory must not be traversed.
+	 */
+	private Node newNode(Node parent, IFile child, boolean link) throws IOException {
+	    String path = child.getPath();
+	    String canonicalPath = null;
+	    if (link) {
+		canonicalPath = child.getCanonicalPath();
+		Node ancestor = parent.findAncestor(canonicalPath);
+		if (ancestor != null) {
+		    result.addWarning(Message.getMessage(Message.WARNING_FS_LOOP, path, ancestor.path));
+		    return null;
+		}
+	    } else {
+		canonicalPath = new StringBuffer(parent.canonicalPath).append(parent.canonicalPath.endsWith(delim) ? "" : delim)
+			.append(child.getName()).toString();
+	    }
+	    IMount mount = mountTable.getMount(link ? canonicalPath : path);
+	    if (!sameMount(mount, parent.mount)) {
+		if (xdev || !acceptMount(mount)) {
+		    return null;
+		}
+	    }
+	    int anchor = parent.anchor == -1 ? -1 : parent.anchor + 1;
+	    if (dirPattern != null && matches(dirPattern, path)) {
+		anchor = 0;
+	    }
+	    return new Node(parent, path, canonicalPath, mount, parent.level + 1, anchor);
+	}
+
+	private boolean shouldDescend(Node node) {
+	    if (pathPattern != null) {
+		return (maxDepth == Condition.DEPTH_UNLIMITED || node.level <= maxDepth) && mayMatchBelow(pathPattern, node.path);
+	    }
+	    if (node.anchor != -1 && (maxDepth == Condition.DEPTH_UNLIMITED || node.anchor <= maxDepth)) {
+		return true;
+	    }
+	    return dirPattern != null && mayMatchBelow(dirPattern, node.path);
+	}
+
+	private boolean isResultDirectory() {
+	    return pathPattern == null && baseEquals == null && baseNotEquals == null && basePattern == null;
+	}
+
+	/**
+	 * Offer a child of the directory represented by parent, whose own qualification is not determined by a Node.
+	 */
+	private void offerDescendant(IFile child, Node parent, boolean directory) throws IOException {
+	    if (pathPattern != null) {
+		if ((maxDepth == Condition.DEPTH_UNLIMITED || parent.level <= maxDepth) && matches(pathPattern, child.getPath())) {
+		    offer(child, parent);
+		}
+	    } else if (!directory && !isResultDirectory() && qualifies(parent)) {
+		String name = child.getName();
+		if (baseEquals != null && !baseEquals.equals(name)) {
+		    return;
+		} else if (baseNotEquals != null && baseNotEquals.equals(name)) {
+		    return;
+		} else if (basePattern != null && !basePattern.matcher(name).find()) {
+		    return;
+		}
+		offer(child, parent);
+	    }
+	}
+
+	private boolean qualifies(Node dir) {
+	    return dir.anchor != -1 && (maxDepth == Condition.DEPTH_UNLIMITED || dir.anchor <= maxDepth);
+	}
+
+	private void offer(IFile file, Node node) throws IOException {
+	    if (isResultDirectory() && !qualifies(node)) {
+		return;
+	    }
+	    if (filetype != null) {
+		if (IFilesystem.FILETYPE_DIR.equals(filetype)) {
+		    if (!file.isDirectory()) return;
+		} else if (IFilesystem.FILETYPE_LINK.equals(filetype)) {
+		    if (!file.isLink()) return;
+		} else if (IFilesystem.FILETYPE_FILE.equals(filetype)) {
+		    if (file.getType() != IFileMetadata.Type.FILE) return;
+		}
+	    }
+	    result.add(file);
+	}
+
+	private boolean matches(Pattern p, String path) {
+	    return p.matcher(path).find();
+	}
+
+	/**
+	 * Determine whether the pattern could match any path beneath the specified directory. If matching the directory
+	 * path (plus a delimiter) never reached the end of the input, then no longer input can produce a match either.
+	 */
+	private boolean mayMatchBelow(Pattern p, String dirPath) {
+	    String s = dirPath.endsWith(delim) ? dirPath : dirPath + delim;
+	    if (!p.pattern().startsWith("^")) {
+		return true;
+	    }
+	    Matcher m = p.matcher(s);
+	    return m.lookingAt() || m.hitEnd();
+	}
+    }
+}
@@ -7,7 +7,10 @@ import java.io.EOFException;
 import java.io.InputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 
+import jsaf.intf.io.IMappableRandomAccess;
 import jsaf.intf.io.IRandomAccess;
 
 import jsaf.Message;
@@ -352,6 +355,141 @@ public class LittleEndian {
 	return getSzUTF16LEString(buff, 0, len);
     }
 
+    /**
+     * Get a ByteBuffer view of size bytes of an IRandomAccess, starting at the specified position. If the IRandomAccess is
+     * an IMappableRandomAccess (e.g., a MappedRandomAccess or CachingRandomAccess), no copy of the data is made. Otherwise,
+     * the bytes are read into a new buffer, and the file pointer is restored afterwards.
+     *
+     * The returned buffer is little-endian ordered, its position is 0 and its limit is the number of bytes available.
+     *
+     * @since 1.7.0
+     */
+    public static final ByteBuffer getByteBuffer(IRandomAccess ra, long position, int size) throws IOException {
+	if (ra instanceof IMappableRandomAccess) {
+	    return ((IMappableRandomAccess)ra).map(position, size);
+	}
+	int len = (int)Math.max(0L, Math.min((long)size, ra.length() - position));
+	byte[] buff = new byte[len];
+	long ptr = ra.getFilePointer();
+	try {
+	    ra.seek(position);
+	    ra.readFully(buff);
+	} finally {
+	    ra.seek(ptr);
+	}
+	return ByteBuffer.wrap(buff).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Get a signed 2-byte short at the specified absolute offset in the buffer, irrespective of the buffer's byte order.
+     * The buffer's position is not affected.
+     *
+     * @since 1.7.0
+     */
+    public static final short getShort(ByteBuffer buff, int offset) {
+	short s = buff.getShort(offset);
+	return buff.order() == ByteOrder.LITTLE_ENDIAN ? s : Short.reverseBytes(s);
+    }
+
+    /**
+     * @since 1.7.0
+     */
+    public static final short getUShort(ByteBuffer buff, int offset) {
+	return getShort(buff, offset);
+    }
+
+    /**
+     * Get a signed 4-byte int at the specified absolute offset in the buffer, irrespective of the buffer's byte order.
+     * The buffer's position is not affected.
+     *
+     * @since 1.7.0
+     */
+    public static final int getInt(ByteBuffer buff, int offset) {
+	int i = buff.getInt(offset);
+	return buff.order() == ByteOrder.LITTLE_ENDIAN ? i : Integer.reverseBytes(i);
+    }
+
+    /**
+     * @since 1.7.0
+     */
+    public static final int getUInt(ByteBuffer buff, int offset) {
+	return getInt(buff, offset);
+    }
+
+    /**
+     * Get a signed 8-byte long at the specified absolute offset in the buffer, irrespective of the buffer's byte order.
+     * The buffer's position is not affected.
+     *
+     * @since 1.7.0
+     */
+    public static final long getLong(ByteBuffer buff, int offset) {
+	long l = buff.getLong(offset);
+	return buff.order() == ByteOrder.LITTLE_ENDIAN ? l : Long.reverseBytes(l);
+    }
+
+    /**
+     * @since 1.7.0
+     */
+    public static final long getULong(ByteBuffer buff, int offset) {
+	return getLong(buff, offset);
+    }
+
+    /**
+     * Read an unsigned 2-byte short from the buffer's current position, advancing the position.
+     *
+     * @since 1.7.0
+     */
+    public static final short readUShort(ByteBuffer buff) {
+	short s = getShort(buff, buff.position());
+	buff.position(buff.position() + 2);
+	return s;
+    }
+
+    /**
+     * Read an unsigned 4-byte int (AKA DWORD) from the buffer's current position, advancing the position.
+     *
+     * @since 1.7.0
+     */
+    public static final int readUInt(ByteBuffer buff) {
+	int i = getInt(buff, buff.position());
+	buff.position(buff.position() + 4);
+	return i;
+    }
+
+    /**
+     * Read an unsigned 8-byte long from the buffer's current position, advancing the position.
+     *
+     * @since 1.7.0
+     */
+    public static final long readULong(ByteBuffer buff) {
+	long l = getLong(buff, buff.position());
+	buff.position(buff.position() + 8);
+	return l;
+    }
+
+    /**
+     * Fetch a null-terminated UTF16LE String from a buffer, without copying its bytes into an intermediate array. If the
+     * length is unknown, pass in a -1 and this method will find the length. If offset+len exceeds the limit of the buffer,
+     * the string ends at the limit. The buffer's position is not affected.
+     *
+     * @since 1.7.0
+     */
+    public static final String getSzUTF16LEString(ByteBuffer buff, int offset, int len) {
+	int end = buff.limit() - 1;
+	if (len >= 0 && offset + len <= buff.limit()) {
+	    end = offset + len - 1;
+	}
+	StringBuilder sb = new StringBuilder();
+	for (int i=offset; i < end; i+=2) {
+	    char ch = (char)(0xFFFF & getShort(buff, i));
+	    if (ch == 0) {
+		break;
+	    }
+	    sb.append(ch);
+	}
+	return sb.toString();
+    }
+
     /**
      * Get a byte[] padding to 32-bit align within the buffer from the offset.
      *
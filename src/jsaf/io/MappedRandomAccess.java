@@ -0,0 +1,78 @@
+// Copyright (C) 2026 Arctic Wolf Networks, Inc.  All rights reserved.
+// This software is licensed under the LGPL 3.0 license available at http://www.gnu.org/licenses/lgpl.txt
+
+package jsaf.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+import jsaf.intf.io.IMappableRandomAccess;
+
+/**
+ * An IMappableRandomAccess for a local file, whose map method returns memory-mapped buffers.
+ *
+ * @author David A. Solin
+ * @version %I% %G%
+ * @since 1.7.0
+ */
+public class MappedRandomAccess implements IMappableRandomAccess {
+    private RandomAccessFile raf;
+    private FileChannel channel;
+
+    /**
+     * Open the specified file.
+     *
+     * @param mode "r" or "rw", as for java.io.RandomAccessFile
+     */
+    public MappedRandomAccess(File f, String mode) throws IOException {
+	raf = new RandomAccessFile(f, mode);
+	channel = raf.getChannel();
+    }
+
+    // Implement IMappableRandomAccess
+
+    public ByteBuffer map(long position, int size) throws IOException {
+	long len = Math.max(0L, Math.min((long)size, channel.size() - position));
+	ByteBuffer buff = channel.map(FileChannel.MapMode.READ_ONLY, position, len);
+	buff.order(ByteOrder.LITTLE_ENDIAN);
+	return buff;
+    }
+
+    // Implement IRandomAccess
+
+    public void readFully(byte[] buff) throws IOException {
+	raf.readFully(buff);
+    }
+
+    public void close() throws IOException {
+	raf.close();
+    }
+
+    public void seek(long pos) throws IOException {
+	raf.seek(pos);
+    }
+
+    public int read() throws IOException {
+	return raf.read();
+    }
+
+    public int read(byte[] buff) throws IOException {
+	return raf.read(buff);
+    }
+
+    public int read(byte[] buff, int offset, int len) throws IOException {
+	return raf.read(buff, offset, len);
+    }
+
+    public long length() throws IOException {
+	return raf.length();
+    }
+
+    public long getFilePointer() throws IOException {
+	return raf.getFilePointer();
+    }
+}
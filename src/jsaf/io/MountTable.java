@@ -0,0 +1,219 @@
+// Copyright (C) 2026 Arctic Wolf Networks, Inc.  All rights reserved.
+// This software is licensed under the LGPL 3.0 license available at http://www.gnu.org/licenses/lgpl.txt
+
+package jsaf.io;
+
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import jsaf.intf.io.IFilesystem;
+import jsaf.intf.io.IFilesystem.IMount;
+import jsaf.intf.system.IComputerSystem;
+
+/**
+ * A cache of the mount table of an IFilesystem, indexed by a trie of path segments so that the mount on which a path
+ * resides (i.e., the mount with the longest matching path prefix) can be found in time proportional to the depth of the
+ * path, rather than the number of mounts. It is intended to be used for the lifetime of a session (see getInstance), so
+ * that all the searchers of a session share it; the mounts are re-read from the IFilesystem when the TTL expires, or when
+ * refresh is called. The IFilesystem is only weakly referenced, so the table does not keep its session alive.
+ *
+ * Paths of filesystems whose delimiter is a backslash are matched case-insensitively.
+ *
+ * @author David A. Solin
+ * @version %I% %G%
+ * @since 1.7.0
+ */
+public class MountTable {
+    /**
+     * The default time (in milliseconds) for which the mount table remains valid (5 minutes).
+     */
+    public static final long DEFAULT_TTL = 300000L;
+
+    private static final Map<IComputerSystem, MountTable> INSTANCES = new WeakHashMap<IComputerSystem, MountTable>();
+
+    /**
+     * Get the MountTable for the filesystem of the specified computer system, creating it if necessary.
+     */
+    public static MountTable getInstance(IComputerSystem sys) {
+	synchronized(INSTANCES) {
+	    MountTable table = INSTANCES.get(sys);
+	    if (table == null) {
+		table = new MountTable(sys.getFilesystem());
+		INSTANCES.put(sys, table);
+	    }
+	    return table;
+	}
+    }
+
+    private WeakReference<IFilesystem> ref;
+    private String delim;
+    private boolean caseInsensitive;
+    private long ttl;
+    private volatile Snapshot snapshot;
+
+    /**
+     * Create a mount table with the default TTL.
+     */
+    public MountTable(IFilesystem fs) {
+	this(fs, DEFAULT_TTL);
+    }
+
+    /**
+     * Create a mount table.
+     *
+     * @param ttl the time (in milliseconds) for which the mount table remains valid, or 0 for no expiration
+     */
+    public MountTable(IFilesystem fs, long ttl) {
+	if (ttl < 0) {
+	    throw new IllegalArgumentException(Long.toString(ttl));
+	}
+	ref = new WeakReference<IFilesystem>(fs);
+	this.ttl = ttl;
+	delim = fs.getDelimiter();
+	caseInsensitive = "\\".equals(delim);
+    }
+
+    /**
+     * Discard the cached mounts, so that they will be re-read from the IFilesystem when next needed.
+     */
+    public void refresh() {
+	snapshot = null;
+    }
+
+    /**
+     * Get all the filesystem mounts.
+     */
+    public Collection<IMount> getMounts() throws IOException {
+	return getSnapshot().mounts;
+    }
+
+    /**
+     * Find the mount on which the specified path resides, or null if there is none.
+     */
+    public IMount getMount(String path) throws IOException {
+	IMount result = null;
+	Node node = getSnapshot().root;
+	for (String segment : split(path)) {
+	    if ((node = node.children.get(segment)) == null) {
+		break;
+	    } else if (node.mount != null) {
+		result = node.mount;
+	    }
+	}
+	return result;
+    }
+
+    /**
+     * Get the mounts whose paths are descendants of (but not the same as) the specified directory path.
+     */
+    public Collection<IMount> getMountsBeneath(String path) throws IOException {
+	Node node = getSnapshot().root;
+	for (String segment : split(path)) {
+	    if ((node = node.children.get(segment)) == null) {
+		return Collections.<IMount>emptyList();
+	    }
+	}
+	List<IMount> result = new ArrayList<IMount>();
+	for (Node child : node.children.values()) {
+	    child.collect(result);
+	}
+	return result;
+    }
+
+    // Private
+
+    /**
+     * Get the current snapshot of the mount table, reading the mounts from the IFilesystem if necessary. A snapshot is
+     * never modified once it has been built, so lookups need not be synchronized.
+     */
+    private Snapshot getSnapshot() throws IOException {
+	Snapshot s = snapshot;
+	if (s == null || !s.isValid()) {
+	    synchronized(this) {
+		s = snapshot;
+		if (s == null || !s.isValid()) {
+		    IFilesystem fs = ref.get();
+		    if (fs == null) {
+			throw new IllegalStateException();
+		    }
+		    snapshot = s = new Snapshot(fs.getMounts());
+		}
+	    }
+	}
+	return s;
+    }
+
+    /**
+     * Split a path into its segments. A leading delimiter yields an empty first segment, and trailing delimiters are
+     * ignored, so that "/" is [""] and "/usr/" is ["", "usr"].
+     */
+    private List<String> split(String path) {
+	if (caseInsensitive) {
+	    path = path.toLowerCase();
+	}
+	List<String> segments = new ArrayList<String>();
+	int start = 0, ptr;
+	while ((ptr = path.indexOf(delim, start)) != -1) {
+	    segments.add(path.substring(start, ptr));
+	    start = ptr + delim.length();
+	}
+	segments.add(path.substring(start));
+	while (segments.size() > 1 && segments.get(segments.size() - 1).length() == 0) {
+	    segments.remove(segments.size() - 1);
+	}
+	return segments;
+    }
+
+    class Snapshot {
+	Collection<IMount> mounts;
+	Node root;
+	long loaded;
+
+	Snapshot(Collection<IMount> mounts) {
+	    this.mounts = Collections.unmodifiableCollection(new ArrayList<IMount>(mounts));
+	    root = new Node();
+	    for (IMount mount : mounts) {
+		Node node = root;
+		for (String segment : split(mount.getPath())) {
+		    Node child = node.children.get(segment);
+		    if (child == null) {
+			child = new Node();
+			node.children.put(segment, child);
+		    }
+		    node = child;
+		}
+		node.mount = mount;
+	    }
+	    loaded = System.currentTimeMillis();
+	}
+
+	boolean isValid() {
+	    return ttl == 0 || System.currentTimeMillis() - loaded < ttl;
+	}
+    }
+
+    static class Node {
+	Map<String, Node> children;
+	IMount mount;
+
+	Node() {
+	    children = new HashMap<String, Node>(4);
+	}
+
+	void collect(List<IMount> result) {
+	    if (mount != null) {
+		result.add(mount);
+	    }
+	    for (Node child : children.values()) {
+		child.collect(result);
+	    }
+	}
+    }
+}
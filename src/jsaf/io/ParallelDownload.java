@@ -0,0 +1,483 @@
+// Copyright (C) 2026 Arctic Wolf Networks, Inc.  All rights reserved.
+// This software is licensed under the LGPL 3.0 license available at http://www.gnu.org/licenses/lgpl.txt
+
+package jsaf.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.RandomAccessFile;
+import java.security.MessageDigest;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.slf4j.cal10n.LocLogger;
+
+import jsaf.Message;
+import jsaf.intf.io.IFile;
+import jsaf.intf.io.IRandomAccess;
+import jsaf.intf.util.ILoggable;
+import jsaf.util.Bytes;
+import jsaf.util.Checksum;
+
+/**
+ * Downloads a (large) remote IFile to a local file, by splitting it into fixed-size chunks that are fetched concurrently
+ * using several IRandomAccess handles.
+ *
+ * Progress is recorded in a state file alongside the local file (with the suffix ".part"), so that if the download fails
+ * (for example, because the session was disconnected), a subsequent download of the same IFile to the same local file
+ * will only fetch the chunks that are still missing. The state file is discarded if the remote file's length or
+ * modification time has changed in the meantime. A chunk that fails to read is retried using a fresh IRandomAccess.
+ *
+ * A checksum of the whole file is computed in a single pass as the contiguous prefix of completed chunks grows, and
+ * can be verified against an expected value.
+ *
+ * @author David A. Solin
+ * @version %I% %G%
+ * @since 1.7.0
+ */
+public class ParallelDownload implements ILoggable {
+    /**
+     * The default chunk size (4MB).
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 4194304;
+
+    /**
+     * The default number of concurrent IRandomAccess handles.
+     */
+    public static final int DEFAULT_PARALLELISM = 4;
+
+    /**
+     * The default number of times a failed chunk will be retried.
+     */
+    public static final int DEFAULT_RETRIES = 3;
+
+    /**
+     * The suffix of the state file used to resume a partial download.
+     */
+    public static final String STATE_SUFFIX = ".part";
+
+    private static final int MAGIC = 0x4A534450;
+    private static final int HEADER_LEN = 24;
+
+    private LocLogger logger;
+    private IFile remote;
+    private File local, stateFile;
+    private int chunkSize, parallelism, retries;
+    private Checksum.Algorithm algorithm;
+    private String expected;
+
+    //
+    // Download state, guarded by this
+    //
+    private boolean started, finished, mismatch;
+    private long length;
+    private int chunks, next, frontier;
+    private boolean[] done;
+    private Map<Integer, byte[]> pending;
+    private MessageDigest digest;
+    private RandomAccessFile out, state;
+    private IOException error;
+    private String checksum;
+
+    /**
+     * Create a download of the specified remote file to the specified local file.
+     */
+    public ParallelDownload(IFile remote, File local) {
+	this.remote = remote;
+	this.local = local;
+	stateFile = new File(local.getPath() + STATE_SUFFIX);
+	chunkSize = DEFAULT_CHUNK_SIZE;
+	parallelism = DEFAULT_PARALLELISM;
+	retries = DEFAULT_RETRIES;
+	algorithm = Checksum.Algorithm.SHA256;
+	logger = Message.getLogger();
+    }
+
+    /**
+     * Set the chunk size. Changing the chunk size invalidates any partial download.
+     */
+    public void setChunkSize(int chunkSize) {
+	if (chunkSize < 1) {
+	    throw new IllegalArgumentException(Integer.toString(chunkSize));
+	}
+	this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Set the number of chunks that will be fetched concurrently.
+     */
+    public void setParallelism(int parallelism) {
+	if (parallelism < 1) {
+	    throw new IllegalArgumentException(Integer.toString(parallelism));
+	}
+	this.parallelism = parallelism;
+    }
+
+    /**
+     * Set the number of times a failed chunk will be retried before the download fails.
+     */
+    public void setRetries(int retries) {
+	this.retries = Math.max(0, retries);
+    }
+
+    /**
+     * Set the checksum algorithm (the default is SHA-256), and optionally the expected (hex) checksum. If an expected
+     * checksum is specified and does not match, the download fails, and will be started over if attempted again.
+     */
+    public void setChecksum(Checksum.Algorithm algorithm, String expected) {
+	this.algorithm = algorithm;
+	this.expected = expected;
+    }
+
+    /**
+     * Get the (hex) checksum of the downloaded file, or null if the download has not completed successfully.
+     */
+    public synchronized String getChecksum() {
+	return checksum;
+    }
+
+    /**
+     * Download the file, blocking until it is complete.
+     *
+     * @return the (hex) checksum of the file
+     */
+    public String download() throws IOException {
+	return await(start());
+    }
+
+    /**
+     * Start downloading the file in the background, and return a stream of its contents, in order. Reads block until
+     * the requested bytes have been downloaded. If the download fails (or its checksum does not match), the stream's
+     * read methods throw the corresponding IOException.
+     */
+    public InputStream getInputStream() throws IOException {
+	final Thread[] workers = start();
+	Thread finisher = new Thread(new Runnable() {
+	    public void run() {
+		try {
+		    await(workers);
+		} catch (IOException e) {
+		    // surfaced through the stream
+		}
+	    }
+	}, "ParallelDownload " + remote.getPath());
+	finisher.setDaemon(true);
+	finisher.start();
+	return new OrderedInputStream();
+    }
+
+    // Implement ILoggable
+
+    public LocLogger getLogger() {
+	return logger;
+    }
+
+    public void setLogger(LocLogger logger) {
+	this.logger = logger;
+    }
+
+    // Private
+
+    /**
+     * Open the local files (resuming from the state file if possible), and start the worker threads.
+     */
+    private synchronized Thread[] start() throws IOException {
+	if (started) {
+	    throw new IllegalStateException();
+	}
+	started = true;
+	length = remote.length();
+	Date lm = remote.getLastModified();
+	long mtime = lm == null ? 0L : lm.getTime();
+	chunks = (int)((length + chunkSize - 1) / chunkSize);
+	done = new boolean[chunks];
+	pending = new HashMap<Integer, byte[]>();
+	digest = Checksum.getMessageDigest(algorithm);
+	try {
+	    boolean resume = stateFile.isFile() && local.isFile() && local.length() == length &&
+		stateFile.length() == (long)HEADER_LEN + chunks;
+	    out = new RandomAccessFile(local, "rw");
+	    state = new RandomAccessFile(stateFile, "rw");
+	    if (resume) {
+		resume = state.readInt() == MAGIC && state.readLong() == length && state.readLong() == mtime &&
+		    state.readInt() == chunkSize;
+	    }
+	    int count = 0;
+	    if (resume) {
+		byte[] flags = new byte[chunks];
+		state.readFully(flags);
+		for (int i=0; i < chunks; i++) {
+		    if (done[i] = flags[i] != 0) {
+			count++;
+		    }
+		}
+		logger.info(Message.STATUS_DOWNLOAD_RESUME, remote.getPath(), count, chunks);
+	    } else {
+		out.setLength(length);
+		state.setLength(0);
+		state.writeInt(MAGIC);
+		state.writeLong(length);
+		state.writeLong(mtime);
+		state.writeInt(chunkSize);
+		state.write(new byte[chunks]);
+	    }
+	    advance();
+	} catch (IOException e) {
+	    error = e;
+	    close();
+	    throw e;
+	}
+	int n = Math.max(1, Math.min(parallelism, chunks));
+	Thread[] workers = new Thread[n];
+	for (int i=0; i < n; i++) {
+	    workers[i] = new Thread(new Worker(), "ParallelDownload " + remote.getPath() + " #" + i);
+	    workers[i].setDaemon(true);
+	    workers[i].start();
+	}
+	return workers;
+    }
+
+    /**
+     * Wait for the workers to finish, then verify the checksum and clean up.
+     */
+    private String await(Thread[] workers) throws IOException {
+	try {
+	    for (Thread worker : workers) {
+		worker.join();
+	    }
+	} catch (InterruptedException e) {
+	    for (Thread worker : workers) {
+		worker.interrupt();
+	    }
+	    fail(new InterruptedIOException(e.getMessage()));
+	}
+	synchronized(this) {
+	    try {
+		if (error != null) {
+		    throw error;
+		}
+		String actual = Bytes.toHexString(digest.digest());
+		if (expected != null && !expected.equalsIgnoreCase(actual)) {
+		    mismatch = true;
+		    error = new IOException(Message.getMessage(Message.ERROR_CHECKSUM, remote.getPath(), expected, actual));
+		    throw error;
+		}
+		checksum = actual;
+		return checksum;
+	    } finally {
+		close();
+		if (checksum != null || mismatch) {
+		    //
+		    // Either the download is complete, or it completed with the wrong checksum (in which case it must start
+		    // over), so the state file is no longer needed.
+		    //
+		    stateFile.delete();
+		}
+		finished = true;
+		notifyAll();
+	    }
+	}
+    }
+
+    /**
+     * Claim the next chunk that has not yet been downloaded, or return -1 if there are none (or the download failed).
+     */
+    private synchronized int next() {
+	while (error == null && next < chunks) {
+	    int index = next++;
+	    if (!done[index]) {
+		return index;
+	    }
+	}
+	return -1;
+    }
+
+    /**
+     * Record a downloaded chunk.
+     */
+    private synchronized void complete(int index, byte[] buff) throws IOException {
+	out.seek((long)index * chunkSize);
+	out.write(buff);
+	state.seek(HEADER_LEN + index);
+	state.write(1);
+	done[index] = true;
+	if (index == frontier) {
+	    digest.update(buff);
+	    frontier++;
+	    advance();
+	} else if (pending.size() < parallelism) {
+	    pending.put(new Integer(index), buff);
+	}
+	notifyAll();
+    }
+
+    /**
+     * Extend the checksum over any completed chunks following the frontier. Chunks that were not kept in memory are
+     * read back from the local file.
+     */
+    private void advance() throws IOException {
+	while (frontier < chunks && done[frontier]) {
+	    byte[] buff = pending.remove(new Integer(frontier));
+	    if (buff == null) {
+		long offset = (long)frontier * chunkSize;
+		buff = new byte[(int)Math.min((long)chunkSize, length - offset)];
+		out.seek(offset);
+		out.readFully(buff);
+	    }
+	    digest.update(buff);
+	    frontier++;
+	}
+    }
+
+    /**
+     * Get the number of contiguous bytes that have been downloaded.
+     */
+    private synchronized long available() {
+	return Math.min(length, (long)frontier * chunkSize);
+    }
+
+    private synchronized void fail(IOException e) {
+	if (error == null) {
+	    error = e;
+	}
+	notifyAll();
+    }
+
+    private void close() {
+	pending.clear();
+	try {
+	    if (out != null) {
+		out.close();
+	    }
+	} catch (IOException e) {
+	}
+	try {
+	    if (state != null) {
+		state.close();
+	    }
+	} catch (IOException e) {
+	}
+    }
+
+    /**
+     * Fetches chunks using its own IRandomAccess handle.
+     */
+    class Worker implements Runnable {
+	Worker() {
+	}
+
+	public void run() {
+	    IRandomAccess ra = null;
+	    try {
+		int index;
+		while ((index = next()) != -1) {
+		    long offset = (long)index * chunkSize;
+		    byte[] buff = new byte[(int)Math.min((long)chunkSize, length - offset)];
+		    for (int attempt=0; ; attempt++) {
+			try {
+			    if (ra == null) {
+				ra = remote.getRandomAccess("r");
+			    }
+			    ra.seek(offset);
+			    ra.readFully(buff);
+			    break;
+			} catch (IOException e) {
+			    close(ra);
+			    ra = null;
+			    if (attempt >= retries || Thread.currentThread().isInterrupted()) {
+				throw e;
+			    }
+			    logger.warn(Message.WARNING_DOWNLOAD_RETRY, index, remote.getPath(), e.getMessage());
+			}
+		    }
+		    complete(index, buff);
+		}
+	    } catch (IOException e) {
+		fail(e);
+	    } finally {
+		close(ra);
+	    }
+	}
+
+	private void close(IRandomAccess ra) {
+	    if (ra != null) {
+		try {
+		    ra.close();
+		} catch (IOException e) {
+		}
+	    }
+	}
+    }
+
+    /**
+     * Reads the local file in order, as the contiguous downloaded prefix grows.
+     */
+    class OrderedInputStream extends InputStream {
+	private RandomAccessFile in;
+	private long ptr;
+
+	OrderedInputStream() throws IOException {
+	    in = new RandomAccessFile(local, "r");
+	    ptr = 0;
+	}
+
+	@Override
+	public int read() throws IOException {
+	    byte[] b = new byte[1];
+	    return read(b, 0, 1) == -1 ? -1 : 0xFF & b[0];
+	}
+
+	@Override
+	public int read(byte[] buff, int offset, int len) throws IOException {
+	    if (len == 0) {
+		return 0;
+	    }
+	    long avail = waitFor(ptr);
+	    if (avail <= ptr) {
+		return -1;
+	    }
+	    in.seek(ptr);
+	    int n = in.read(buff, offset, (int)Math.min((long)len, avail - ptr));
+	    if (n > 0) {
+		ptr += n;
+	    }
+	    return n;
+	}
+
+	@Override
+	public int available() throws IOException {
+	    return (int)Math.min((long)Integer.MAX_VALUE, Math.max(0L, ParallelDownload.this.available() - ptr));
+	}
+
+	@Override
+	public void close() throws IOException {
+	    in.close();
+	}
+
+	/**
+	 * Wait until there are bytes available past pos, or the download has finished. Returns the number of contiguous
+	 * bytes available.
+	 */
+	private long waitFor(long pos) throws IOException {
+	    synchronized(ParallelDownload.this) {
+		while (true) {
+		    if (error != null) {
+			throw error;
+		    }
+		    long avail = ParallelDownload.this.available();
+		    if (avail > pos || finished) {
+			return avail;
+		    }
+		    try {
+			ParallelDownload.this.wait();
+		    } catch (InterruptedException e) {
+			throw new InterruptedIOException(e.getMessage());
+		    }
+		}
+	    }
+	}
+    }
+}
@@ -0,0 +1,163 @@
+// Copyright (C) 2026 Arctic Wolf Networks, Inc.  All rights reserved.
+// This software is licensed under the LGPL 3.0 license available at http://www.gnu.org/licenses/lgpl.txt
+
+package jsaf.io;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A compact representation of a large set of file paths, in which each path is stored as a reference to the (shared)
+ * node of its parent directory, plus its own name. Directory nodes are interned, so a directory containing many
+ * results is stored only once, and a path String is only created when it is requested.
+ *
+ * A path which cannot be reproduced exactly from its segments (e.g., one with a trailing or repeated delimiter) is
+ * stored whole.
+ *
+ * @author David A. Solin
+ * @version %I% %G%
+ * @since 1.7.0
+ */
+public class PathTrie {
+    private String delim;
+    private Map<String, Node> roots;
+    private int size;
+
+    /**
+     * Create an empty trie for paths with the specified delimiter.
+     */
+    public PathTrie(String delim) {
+	this.delim = delim;
+	roots = new HashMap<String, Node>();
+    }
+
+    /**
+     * Get the Node for the specified path. The node's ancestors are interned, but the node itself is not (i.e., interning
+     * the same path twice will return two equivalent Nodes that share the same parent).
+     */
+    public Node intern(String path) {
+	int ptr = path.lastIndexOf(delim);
+	if (ptr == -1 || ptr + delim.length() == path.length()) {
+	    return new Node(null, path);
+	}
+	String dir = path.substring(0, ptr);
+	if (dir.length() == 0 || dir.endsWith(delim) || dir.endsWith(":")) {
+	    dir = path.substring(0, ptr + delim.length()); // the parent is a root
+	}
+	Node parent;
+	synchronized(this) {
+	    parent = internDirectory(dir);
+	}
+	if (parent == null) {
+	    return new Node(null, path);
+	}
+	return new Node(parent, path.substring(ptr + delim.length()));
+    }
+
+    /**
+     * Get the number of interned directory nodes.
+     */
+    public synchronized int size() {
+	return size;
+    }
+
+    /**
+     * A path, represented by its parent and name.
+     */
+    public static class Node {
+	private Node parent;
+	private String name;
+	private Map<String, Node> children;
+
+	Node(Node parent, String name) {
+	    this.parent = parent;
+	    this.name = name;
+	}
+
+	/**
+	 * Get the node of the parent directory, or null if this node is a root (or was stored whole).
+	 */
+	public Node getParent() {
+	    return parent;
+	}
+
+	/**
+	 * Get the name of the file (or for a root, the whole path).
+	 */
+	public String getName() {
+	    return name;
+	}
+
+	/**
+	 * Materialize the path.
+	 */
+	public String getPath(String delim) {
+	    if (parent == null) {
+		return name;
+	    }
+	    int len = name.length();
+	    int depth = 0;
+	    for (Node node = parent; node != null; node = node.parent) {
+		len += node.name.length() + delim.length();
+		depth++;
+	    }
+	    Node[] nodes = new Node[depth];
+	    Node node = parent;
+	    for (int i=depth-1; i >= 0; i--) {
+		nodes[i] = node;
+		node = node.parent;
+	    }
+	    StringBuffer sb = new StringBuffer(len);
+	    for (int i=0; i < depth; i++) {
+		sb.append(nodes[i].name);
+		if (!nodes[i].name.endsWith(delim)) {
+		    sb.append(delim);
+		}
+	    }
+	    return sb.append(name).toString();
+	}
+    }
+
+    // Private
+
+    /**
+     * Get the interned node for a directory path, or null if the path cannot be reproduced from segments. Must be called
+     * while synchronized.
+     */
+    private Node internDirectory(String dir) {
+	int ptr = dir.lastIndexOf(delim);
+	if (ptr == -1 || ptr + delim.length() == dir.length()) {
+	    //
+	    // A root
+	    //
+	    Node root = roots.get(dir);
+	    if (root == null) {
+		root = new Node(null, dir);
+		roots.put(dir, root);
+		size++;
+	    }
+	    return root;
+	}
+	String parentDir = dir.substring(0, ptr);
+	if (parentDir.length() == 0 || parentDir.endsWith(":")) {
+	    parentDir = dir.substring(0, ptr + delim.length());
+	} else if (parentDir.endsWith(delim)) {
+	    return null; // repeated delimiter
+	}
+	Node parent = internDirectory(parentDir);
+	if (parent == null) {
+	    return null;
+	}
+	String name = dir.substring(ptr + delim.length());
+	if (parent.children == null) {
+	    parent.children = new HashMap<String, Node>(4);
+	}
+	Node node = parent.children.get(name);
+	if (node == null) {
+	    node = new Node(parent, name);
+	    parent.children.put(name, node);
+	    size++;
+	}
+	return node;
+    }
+}
@@ -0,0 +1,374 @@
+// Copyright (C) 2026 Arctic Wolf Networks, Inc.  All rights reserved.
+// This software is licensed under the LGPL 3.0 license available at http://www.gnu.org/licenses/lgpl.txt
+
+package jsaf.io;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.WeakHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.slf4j.cal10n.LocLogger;
+
+import jsaf.JSAFSystem;
+import jsaf.Message;
+import jsaf.intf.io.IFile;
+import jsaf.intf.io.IFilesystem;
+import jsaf.intf.system.IComputerSystem;
+import jsaf.intf.system.ISession;
+import jsaf.intf.util.IDisposable;
+import jsaf.intf.windows.system.IWindowsSession;
+import jsaf.provider.windows.powershell.PowershellException;
+import jsaf.util.SafeCLI;
+import jsaf.util.Strings;
+
+/**
+ * A session-scoped area for temporary files on a target computer system. The area is a single directory, created (with
+ * a name that is unique to the session, and which encodes its creation time) beneath the system's temp directory the
+ * first time it is needed. Files in the area are named using a counter, so creating one requires no round-trip to the
+ * target. Callers should release each file as soon as it is no longer needed, typically in a finally block; released
+ * files are deleted in batches, using a single command per batch. A caller that needs a file to be gone right away
+ * should delete it using IFile.delete() instead.
+ *
+ * When the session is disconnected, the area is disposed (see disposeInstance), and the whole directory is deleted with
+ * a single recursive delete. While the area exists, a heartbeat file in it is touched periodically. When the directory
+ * is first created, any other session temp directories that were created, and whose heartbeat was last touched, longer
+ * than IComputerSystem.PROP_TEMP_SWEEP_AGE ago (i.e., that were left behind by sessions that have ended abnormally)
+ * are deleted.
+ *
+ * @author David A. Solin
+ * @version %I% %G%
+ * @since 1.7.0
+ */
+public class TempArea implements IDisposable {
+    /**
+     * The prefix of the names of session temp directories.
+     */
+    public static final String PREFIX = "jsaf_";
+
+    /**
+     * The name of the heartbeat file in a session temp directory.
+     */
+    public static final String HEARTBEAT = "heartbeat";
+
+    /**
+     * The default age (in milliseconds) after which an abandoned session temp directory is deleted (24 hours).
+     */
+    public static final long DEFAULT_SWEEP_AGE = 86400000L;
+
+    /**
+     * The number of released files that will be deleted together.
+     */
+    public static final int BATCH_SIZE = 32;
+
+    private static final Pattern NAME = Pattern.compile("^" + PREFIX + "([0-9a-z]+)_[0-9a-z]+$");
+    private static final Map<IComputerSystem, TempArea> INSTANCES = new WeakHashMap<IComputerSystem, TempArea>();
+    private static final Random RANDOM = new Random();
+
+    /**
+     * Get the TempArea for the specified computer system, creating it if necessary.
+     */
+    public static TempArea getInstance(IComputerSystem sys) {
+	synchronized(INSTANCES) {
+	    TempArea area = INSTANCES.get(sys);
+	    if (area == null) {
+		area = new TempArea(sys);
+		INSTANCES.put(sys, area);
+	    }
+	    return area;
+	}
+    }
+
+    /**
+     * Dispose of the TempArea for the specified computer system, if it has one, deleting its directory. Session
+     * implementations call this from ISession.disconnect(), before the connection is closed.
+     */
+    public static void disposeInstance(IComputerSystem sys) {
+	TempArea area = null;
+	synchronized(INSTANCES) {
+	    area = INSTANCES.get(sys);
+	}
+	if (area != null) {
+	    area.dispose();
+	}
+    }
+
+    private WeakReference<IComputerSystem> ref;
+    private LocLogger logger;
+    private String path;
+    private int counter;
+    private List<String> released;
+    private Heartbeat heartbeat;
+
+    /**
+     * Create a TempArea for the specified computer system. The directory is not created until it is needed.
+     */
+    public TempArea(IComputerSystem sys) {
+	ref = new WeakReference<IComputerSystem>(sys);
+	logger = sys.getLogger();
+	released = new ArrayList<String>();
+    }
+
+    /**
+     * Get the path of the area's directory, creating it if necessary.
+     */
+    public synchronized String getPath() throws IOException {
+	if (path == null) {
+	    IComputerSystem sys = getSystem();
+	    IFilesystem fs = sys.getFilesystem();
+	    String base = sys.getTempDir();
+	    String delim = fs.getDelimiter();
+	    if (!base.endsWith(delim)) {
+		base = base + delim;
+	    }
+	    String time = Long.toString(System.currentTimeMillis(), 36);
+	    for (int attempt=0; path == null; attempt++) {
+		String candidate = new StringBuffer(base).append(PREFIX).append(time).append("_")
+			.append(Integer.toString(RANDOM.nextInt(Integer.MAX_VALUE), 36)).toString();
+		if (fs.getFile(candidate, IFile.Flags.READWRITE).mkdir()) {
+		    path = candidate;
+		} else if (attempt > 2) {
+		    throw new IOException(Message.getMessage(Message.ERROR_IO, candidate, "mkdir"));
+		}
+	    }
+	    long maxAge = sys.getProperties().getLongProperty(IComputerSystem.PROP_TEMP_SWEEP_AGE);
+	    long age = maxAge == 0 ? DEFAULT_SWEEP_AGE : Math.abs(maxAge);
+	    heartbeat = new Heartbeat(path + delim + HEARTBEAT);
+	    heartbeat.run();
+	    long period = Math.max(1L, age / 4);
+	    JSAFSystem.schedule(heartbeat, period, period);
+	    if (maxAge >= 0) {
+		sweep(base, age);
+	    }
+	}
+	return path;
+    }
+
+    /**
+     * Get a new (non-existent) file in the area. The file is not created on the target.
+     *
+     * @param suffix the file name suffix, or null for ".tmp"
+     */
+    public IFile newFile(String prefix, String suffix) throws IOException {
+	IFilesystem fs = getSystem().getFilesystem();
+	String dir = getPath();
+	int n;
+	synchronized(this) {
+	    n = counter++;
+	}
+	StringBuffer sb = new StringBuffer(dir).append(fs.getDelimiter());
+	sb.append(prefix).append(Integer.toString(n, 36)).append(suffix == null ? ".tmp" : suffix);
+	return fs.getFile(sb.toString(), IFile.Flags.READWRITE);
+    }
+
+    /**
+     * Indicate that a file in the area is no longer needed. It will be deleted with the next batch, or with the area's
+     * directory, whichever comes first.
+     */
+    public void release(IFile file) {
+	List<String> batch = null;
+	synchronized(this) {
+	    if (path == null) {
+		//
+		// The area's directory (and everything in it) has already been deleted.
+		//
+		return;
+	    }
+	    released.add(file.getPath());
+	    if (released.size() >= BATCH_SIZE) {
+		batch = released;
+		released = new ArrayList<String>();
+	    }
+	}
+	if (batch != null) {
+	    try {
+		delete(batch, false);
+	    } catch (Exception e) {
+		logger.warn(Message.getMessage(Message.ERROR_IO, batch.get(0), e.getMessage()));
+	    }
+	}
+    }
+
+    // Implement IDisposable
+
+    /**
+     * Delete the area's directory and everything in it.
+     */
+    public void dispose() {
+	String dir;
+	synchronized(this) {
+	    dir = path;
+	    path = null;
+	    released.clear();
+	    if (heartbeat != null) {
+		JSAFSystem.cancelTask(heartbeat);
+		heartbeat = null;
+	    }
+	}
+	IComputerSystem sys = ref.get();
+	if (sys != null) {
+	    synchronized(INSTANCES) {
+		if (INSTANCES.get(sys) == this) {
+		    INSTANCES.remove(sys);
+		}
+	    }
+	    if (dir != null) {
+		List<String> paths = new ArrayList<String>();
+		paths.add(dir);
+		try {
+		    delete(paths, true);
+		} catch (Exception e) {
+		    logger.warn(Message.getMessage(Message.ERROR_IO, dir, e.getMessage()));
+		}
+	    }
+	}
+    }
+
+    // Implement ILoggable
+
+    public LocLogger getLogger() {
+	return logger;
+    }
+
+    public void setLogger(LocLogger logger) {
+	this.logger = logger;
+    }
+
+    // Private
+
+    private IComputerSystem getSystem() throws IllegalStateException {
+	IComputerSystem sys = ref.get();
+	if (sys == null) {
+	    throw new IllegalStateException();
+	}
+	return sys;
+    }
+
+    /**
+     * Delete the session temp directories in the base directory that were created more than maxAge milliseconds ago, and
+     * whose heartbeat has not been touched within maxAge milliseconds, other than this area's own. A directory's own
+     * modification time is not considered, because it only changes when entries are added or removed.
+     */
+    private void sweep(String base, long maxAge) {
+	IComputerSystem sys = getSystem();
+	IFilesystem fs = sys.getFilesystem();
+	List<String> orphans = new ArrayList<String>();
+	try {
+	    long now = System.currentTimeMillis();
+	    long remoteNow = sys.getTime();
+	    for (IFile f : fs.getFile(base).listFiles(NAME)) {
+		if (f.getPath().equals(path) || !f.isDirectory()) {
+		    continue;
+		}
+		Matcher m = NAME.matcher(f.getName());
+		if (!m.matches() || now - Long.parseLong(m.group(1), 36) <= maxAge) {
+		    continue;
+		}
+		IFile hb = fs.getFile(f.getPath() + fs.getDelimiter() + HEARTBEAT, IFile.Flags.NOCACHE);
+		if (hb.exists()) {
+		    Date mtime = hb.getLastModified();
+		    if (mtime == null || remoteNow - mtime.getTime() <= maxAge) {
+			continue;
+		    }
+		}
+		orphans.add(f.getPath());
+	    }
+	    if (orphans.size() > 0) {
+		logger.debug(Message.STATUS_TEMP_SWEEP, orphans.size(), base);
+		delete(orphans, true);
+	    }
+	} catch (Exception e) {
+	    logger.warn(Message.getMessage(Message.ERROR_IO, base, e.getMessage()));
+	}
+    }
+
+    /**
+     * Delete the specified files (or, if recursive, directories) using a single command.
+     */
+    private void delete(List<String> paths, boolean recursive) throws Exception {
+	IComputerSystem sys = getSystem();
+	long timeout = sys.getTimeout(ISession.Timeout.M);
+	if (sys.getType() == ISession.Type.UNIX) {
+	    StringBuffer cmd = new StringBuffer(recursive ? "rm -rf" : "rm -f");
+	    for (String p : paths) {
+		cmd.append(" '").append(SafeCLI.checkArgument(p, sys)).append("'");
+	    }
+	    SafeCLI.exec(cmd.toString(), sys, timeout);
+	} else if (sys instanceof IWindowsSession) {
+	    StringBuffer cmd = new StringBuffer("Remove-Item -Force -ErrorAction SilentlyContinue");
+	    if (recursive) {
+		cmd.append(" -Recurse");
+	    }
+	    cmd.append(" -LiteralPath ");
+	    for (int i=0; i < paths.size(); i++) {
+		if (i > 0) {
+		    cmd.append(",");
+		}
+		cmd.append("'").append(SafeCLI.checkArgument(paths.get(i), sys)).append("'");
+	    }
+	    try {
+		((IWindowsSession)sys).getRunspacePool().getRunspace().invoke(cmd.toString(), timeout);
+	    } catch (PowershellException e) {
+		throw new IOException(e.getMessage());
+	    }
+	} else {
+	    IFilesystem fs = sys.getFilesystem();
+	    for (String p : paths) {
+		delete(fs.getFile(p, IFile.Flags.READWRITE));
+	    }
+	}
+    }
+
+    /**
+     * Delete a file or directory one item at a time, for systems on which no command is available.
+     */
+    private void delete(IFile f) throws IOException {
+	if (f.isDirectory() && !f.isLink()) {
+	    for (IFile child : f.listFiles()) {
+		delete(child);
+	    }
+	}
+	f.delete();
+    }
+
+    /**
+     * Periodically rewrites the heartbeat file, so that the area is not mistaken for an abandoned one by the sweep of
+     * another session. The task cancels itself once the computer system has been garbage-collected.
+     */
+    class Heartbeat implements Runnable {
+	private String path;
+
+	Heartbeat(String path) {
+	    this.path = path;
+	}
+
+	public void run() {
+	    IComputerSystem sys = ref.get();
+	    if (sys == null) {
+		JSAFSystem.cancelTask(this);
+	    } else if (sys.isConnected()) {
+		OutputStream out = null;
+		try {
+		    out = sys.getFilesystem().getFile(path, IFile.Flags.READWRITE).getOutputStream(false);
+		    out.write(Long.toString(System.currentTimeMillis()).getBytes(Strings.ASCII));
+		} catch (IOException e) {
+		    logger.warn(Message.getMessage(Message.ERROR_IO, path, e.getMessage()));
+		} finally {
+		    if (out != null) {
+			try {
+			    out.close();
+			} catch (IOException e) {
+			}
+		    }
+		}
+	    }
+	}
+    }
+}
@@ -0,0 +1,208 @@
+// Copyright (C) 2026 Arctic Wolf Networks, Inc.  All rights reserved.
+// This software is licensed under the LGPL 3.0 license available at http://www.gnu.org/licenses/lgpl.txt
+
+package jsaf.io;
+
+import java.math.BigInteger;
+import java.util.Collection;
+import java.util.Date;
+
+import jsaf.identity.IdentityException;
+import jsaf.intf.io.IFile;
+import jsaf.intf.io.IFileEx;
+import jsaf.intf.io.IFilesystem;
+import jsaf.intf.unix.identity.IDirectory;
+import jsaf.intf.unix.identity.IGroup;
+import jsaf.intf.unix.identity.IUser;
+import jsaf.intf.unix.io.IUnixFileInfo;
+import jsaf.intf.unix.io.IUnixFilesystem.FilePermission;
+
+/**
+ * A FileEntry for a Unix file, which also carries the file's mode, ownership and inode change time, so that its
+ * IUnixFileInfo can be queried without any further round-trips to the target.
+ *
+ * @author David A. Solin
+ * @version %I% %G%
+ * @since 1.7.0
+ */
+public class UnixFileEntry extends FileEntry implements IUnixFileInfo {
+    private IDirectory directory;
+    private UnixType unixType;
+    private int mode;
+    private Owner user, group;
+    private long lastChanged;
+
+    /**
+     * Create a UnixFileEntry.
+     *
+     * @param directory the IDirectory used to resolve the groups of the user owner (may be null)
+     * @param mode the permission bits of the file (including the set-UID, set-GID and sticky bits)
+     * @param userName the name of the user owner, or null if unknown
+     * @param groupName the name of the group owner, or null if unknown
+     * @param lastChanged the inode change time (in milliseconds since 1970), or UNKNOWN
+     *
+     * @see FileEntry
+     * @see PathTrie
+     */
+    public UnixFileEntry(IFilesystem fs, PathTrie.Node path, IFile.Flags flags, UnixType unixType, boolean isDirectory, long length,
+		long lastModified, long accessTime, long inode, String linkPath, IDirectory directory, int mode, BigInteger uid,
+		String userName, BigInteger gid, String groupName, long lastChanged) {
+
+	super(fs, path, flags, getType(unixType), isDirectory, length, lastModified, accessTime, inode, linkPath);
+	this.directory = directory;
+	this.unixType = unixType;
+	this.mode = mode;
+	user = new Owner(uid, userName);
+	group = new Owner(gid, groupName);
+	this.lastChanged = lastChanged;
+    }
+
+    /**
+     * Get the permission bits of the file.
+     */
+    public int getMode() {
+	return mode;
+    }
+
+    /**
+     * Test whether the specified permission bit is set.
+     */
+    public boolean hasPermission(FilePermission perm) {
+	return (mode & perm.bits()) == perm.bits();
+    }
+
+    @Override
+    public IFileEx getExtended() {
+	return this;
+    }
+
+    // Implement IUnixFileInfo
+
+    public UnixType getUnixType() {
+	return unixType;
+    }
+
+    public Permissions getPermissions() {
+	return new Perms();
+    }
+
+    public IUser getUserOwner() {
+	return user;
+    }
+
+    public IGroup getGroupOwner() {
+	return group;
+    }
+
+    public boolean sUid() {
+	return hasPermission(FilePermission.SETUID);
+    }
+
+    public boolean sGid() {
+	return hasPermission(FilePermission.SETGID);
+    }
+
+    public boolean sticky() {
+	return hasPermission(FilePermission.STICKY);
+    }
+
+    public Boolean hasPosixAcl() {
+	return null;
+    }
+
+    public Date getLastChanged() {
+	return lastChanged == UNKNOWN ? null : new Date(lastChanged);
+    }
+
+    // Private
+
+    private static Type getType(UnixType unixType) {
+	switch(unixType) {
+	  case DIR:
+	    return Type.DIRECTORY;
+	  case LINK:
+	    return Type.LINK;
+	  default:
+	    return Type.FILE;
+	}
+    }
+
+    /**
+     * Permissions backed by the mode bits.
+     */
+    class Perms implements Permissions {
+	public Group user() {
+	    return new PermGroup(6);
+	}
+
+	public Group group() {
+	    return new PermGroup(3);
+	}
+
+	public Group world() {
+	    return new PermGroup(0);
+	}
+
+	@Override
+	public String toString() {
+	    StringBuffer sb = new StringBuffer();
+	    for (int shift=6; shift >= 0; shift-=3) {
+		PermGroup g = new PermGroup(shift);
+		sb.append(g.read() ? "r" : "-").append(g.write() ? "w" : "-").append(g.execute() ? "x" : "-");
+	    }
+	    return sb.toString();
+	}
+    }
+
+    class PermGroup implements Permissions.Group {
+	private int shift;
+
+	PermGroup(int shift) {
+	    this.shift = shift;
+	}
+
+	public boolean read() {
+	    return ((mode >> shift) & 04) != 0;
+	}
+
+	public boolean write() {
+	    return ((mode >> shift) & 02) != 0;
+	}
+
+	public boolean execute() {
+	    return ((mode >> shift) & 01) != 0;
+	}
+    }
+
+    /**
+     * A user or group owner, identified by the ID and name reported along with the file.
+     */
+    class Owner implements IUser, IGroup {
+	private BigInteger id;
+	private String name;
+
+	Owner(BigInteger id, String name) {
+	    this.id = id;
+	    this.name = name;
+	}
+
+	public BigInteger getId() {
+	    return id;
+	}
+
+	public String getName() throws IdentityException {
+	    if (name == null) {
+		throw new IdentityException(id.toString());
+	    }
+	    return name;
+	}
+
+	public Collection<IGroup> getGroups() throws IdentityException {
+	    IUser u = directory == null ? null : directory.getUser(id);
+	    if (u == null) {
+		throw new IdentityException(id.toString());
+	    }
+	    return u.getGroups();
+	}
+    }
+}
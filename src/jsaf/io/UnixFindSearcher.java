@@ -0,0 +1,956 @@
+// Copyright (C) 2026 Arctic Wolf Networks, Inc.  All rights reserved.
+// This software is licensed under the LGPL 3.0 license available at http://www.gnu.org/licenses/lgpl.txt
+
+package jsaf.io;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.slf4j.cal10n.LocLogger;
+
+import jsaf.Message;
+import jsaf.intf.io.IFile;
+import jsaf.intf.io.IFileMetadata;
+import jsaf.intf.io.IFilesystem;
+import jsaf.intf.io.IFilesystem.FSCondition;
+import jsaf.intf.io.IFilesystem.IMount;
+import jsaf.intf.io.IReader;
+import jsaf.intf.system.IComputerSystem;
+import jsaf.intf.system.ISession;
+import jsaf.intf.unix.io.IUnixFileInfo;
+import jsaf.intf.unix.io.IUnixFilesystem;
+import jsaf.intf.unix.io.IUnixFilesystem.FilePermission;
+import jsaf.intf.unix.io.IUnixFilesystem.UnixFSCondition;
+import jsaf.intf.unix.system.IUnixSession;
+import jsaf.intf.util.ILoggable;
+import jsaf.intf.util.IProperty;
+import jsaf.intf.util.ISearchable;
+import jsaf.intf.util.ISearchable.Condition;
+import jsaf.util.Regex;
+import jsaf.util.SafeCLI;
+import jsaf.util.SearchResult;
+import jsaf.util.Strings;
+
+/**
+ * An ISearchable for the filesystem of a Unix session, which compiles each list of search conditions into a single
+ * invocation of find, and parses its NUL-delimited output as it is streamed from the target.
+ *
+ * The conditions are pushed down to find wherever the session's Flavor supports an equivalent expression:
+ *   FIELD_DEPTH      - -mindepth/-maxdepth (GNU and BSD find)
+ *   FIELD_DIRNAME    - the starting points (for a TYPE_PATTERN, the literal directory prefixes of its alternations)
+ *   FIELD_PATH       - -regex (GNU and BSD find, when the pattern can be expressed as a POSIX extended regex)
+ *   FIELD_BASENAME   - -name (when the value or pattern can be expressed as a glob)
+ *   FIELD_FILETYPE   - -type
+ *   FIELD_FSTYPE, FIELD_LOCAL - -prune of the mounts that do not qualify
+ *   FIELD_FOLLOW_LINKS, FIELD_XDEV - -L, -xdev
+ *   FIELD_PERM       - -perm
+ *   FIELD_USER, FIELD_GROUP - -uid/-gid (GNU and BSD find) or -user/-group
+ *   FIELD_NEWER      - -newermt (GNU find), otherwise -mtime (to the day)
+ *
+ * On Linux, GNU find's -printf is used to emit every field of IUnixFileInfo along with each path, and the results are
+ * UnixFileEntry instances. Elsewhere only the paths are emitted (using -print0, or printf where find has no -print0),
+ * and the results are obtained from the IFilesystem. In either case, each result is re-checked against the conditions
+ * locally, so that conditions that could not be expressed to find (exactly) are still applied, with the same semantics
+ * as the FilesystemSearcher.
+ *
+ * @author David A. Solin
+ * @version %I% %G%
+ * @since 1.7.0
+ */
+public class UnixFindSearcher implements ISearchable<IFile>, ILoggable {
+    /**
+     * The -printf format used with GNU find: type, target type, mode, uid, gid, user, group, size, mtime, atime, ctime,
+     * inode, path and link target, each terminated by a NUL.
+     */
+    static final String PRINTF = "%y\\0%Y\\0%m\\0%U\\0%G\\0%u\\0%g\\0%s\\0%T@\\0%A@\\0%C@\\0%i\\0%p\\0%l\\0";
+    static final int PRINTF_FIELDS = 14;
+
+    private static final String DELIM = IUnixFilesystem.DELIM_STR;
+
+    private IUnixSession session;
+    private IFilesystem fs;
+    private IProperty props;
+    private LocLogger logger;
+    private IUnixSession.Flavor flavor;
+    private int limit = UNLIMITED;
+    private MountTable mountTable;
+
+    /**
+     * Create a searcher for the filesystem of the specified Unix session.
+     */
+    public UnixFindSearcher(IUnixSession session) {
+	this.session = session;
+	fs = session.getFilesystem();
+	props = session.getProperties();
+	logger = session.getLogger();
+	flavor = session.getFlavor();
+	mountTable = MountTable.getInstance(session);
+    }
+
+    /**
+     * Get the cached mount table used by this searcher (e.g., in order to refresh it).
+     */
+    public MountTable getMountTable() {
+	return mountTable;
+    }
+
+    // Implement ISearchable<IFile>
+
+    public void setResultLimit(int limit) {
+	this.limit = limit;
+    }
+
+    public IResult<IFile> search(List<Condition> conditions) {
+	return new Query(conditions).run();
+    }
+
+    public List<IResult<IFile>> searches(List<List<Condition>> conditionLists) {
+	List<IResult<IFile>> results = new ArrayList<IResult<IFile>>();
+	for (List<Condition> conditions : conditionLists) {
+	    results.add(search(conditions));
+	}
+	return results;
+    }
+
+    // Implement ILoggable
+
+    public LocLogger getLogger() {
+	return logger;
+    }
+
+    public void setLogger(LocLogger logger) {
+	this.logger = logger;
+    }
+
+    // Internal
+
+    /**
+     * Translate a Java regular expression into a POSIX extended regular expression that matches any complete path
+     * containing a match (i.e., with the semantics of Matcher.find under find's -regex, which must match a whole path).
+     *
+     * @throws IllegalArgumentException if the expression uses a construct that has no POSIX equivalent
+     */
+    static String toExtendedRegex(String regex) throws IllegalArgumentException {
+	return new StringBuffer(".*(").append(toExtended(regex)).append(").*").toString();
+    }
+
+    /**
+     * Translate a Java regular expression into an equivalent POSIX extended regular expression.
+     *
+     * @throws IllegalArgumentException if the expression uses a construct that has no POSIX equivalent
+     */
+    static String toExtended(String regex) throws IllegalArgumentException {
+	StringBuffer sb = new StringBuffer();
+	int len = regex.length();
+	for (int i=0; i < len; i++) {
+	    char ch = regex.charAt(i);
+	    switch(ch) {
+	      case '\\':
+		if (++i == len) {
+		    throw new IllegalArgumentException(regex);
+		}
+		ch = regex.charAt(i);
+		switch(ch) {
+		  case 'd':
+		    sb.append("[0-9]");
+		    break;
+		  case 'D':
+		    sb.append("[^0-9]");
+		    break;
+		  case 'w':
+		    sb.append("[[:alnum:]_]");
+		    break;
+		  case 'W':
+		    sb.append("[^[:alnum:]_]");
+		    break;
+		  case 's':
+		    sb.append("[[:space:]]");
+		    break;
+		  case 'S':
+		    sb.append("[^[:space:]]");
+		    break;
+		  default:
+		    if (Character.isLetterOrDigit(ch)) {
+			throw new IllegalArgumentException(regex); // back-references, \b, \Q, \n, ...
+		    }
+		    sb.append('\\').append(ch);
+		    break;
+		}
+		break;
+
+	      case '[': {
+		int end = i + 1;
+		if (end < len && regex.charAt(end) == '^') end++;
+		if (end < len && regex.charAt(end) == ']') end++;
+		while (end < len && regex.charAt(end) != ']') {
+		    char c = regex.charAt(end);
+		    if (c == '\\' || c == '[' || (c == '&' && end + 1 < len && regex.charAt(end + 1) == '&')) {
+			throw new IllegalArgumentException(regex);
+		    }
+		    end++;
+		}
+		if (end == len) {
+		    throw new IllegalArgumentException(regex);
+		}
+		sb.append(regex.substring(i, end + 1));
+		i = end;
+		break;
+	      }
+
+	      case '(':
+		if (i + 1 < len && regex.charAt(i + 1) == '?') {
+		    throw new IllegalArgumentException(regex); // non-capturing groups, flags and look-arounds
+		}
+		sb.append(ch);
+		break;
+
+	      case '*':
+	      case '+':
+	      case '?':
+	      case '}':
+		if (i + 1 < len && (regex.charAt(i + 1) == '?' || regex.charAt(i + 1) == '+')) {
+		    throw new IllegalArgumentException(regex); // reluctant and possessive quantifiers
+		}
+		sb.append(ch);
+		break;
+
+	      default:
+		sb.append(ch);
+		break;
+	    }
+	}
+	return sb.toString();
+    }
+
+    /**
+     * Escape the glob metacharacters in a literal file name.
+     */
+    static String escapeGlob(String s) {
+	StringBuffer sb = new StringBuffer();
+	for (int i=0; i < s.length(); i++) {
+	    char ch = s.charAt(i);
+	    switch(ch) {
+	      case '*':
+	      case '?':
+	      case '[':
+	      case '\\':
+		sb.append('\\');
+		break;
+	    }
+	    sb.append(ch);
+	}
+	return sb.toString();
+    }
+
+    // Private
+
+    private boolean isGnu() {
+	return flavor == IUnixSession.Flavor.LINUX;
+    }
+
+    private boolean isBsd() {
+	return flavor == IUnixSession.Flavor.MACOSX || flavor == IUnixSession.Flavor.FREEBSD;
+    }
+
+    private String quote(String arg) {
+	return new StringBuffer("'").append(SafeCLI.checkArgument(arg, session)).append("'").toString();
+    }
+
+    private static long toMillis(String seconds) {
+	return (long)(Double.parseDouble(seconds) * 1000);
+    }
+
+    /**
+     * Find the mount on which the specified path resides, or null if it cannot be determined.
+     */
+    private IMount getMount(String path) {
+	try {
+	    return mountTable.getMount(path);
+	} catch (IOException e) {
+	    return null;
+	}
+    }
+
+    /**
+     * Determine whether the path is the same as, or a descendant of, the specified directory.
+     */
+    private static boolean isAncestor(String dir, String path) {
+	if (!path.startsWith(dir)) {
+	    return false;
+	}
+	return path.length() == dir.length() || dir.endsWith(DELIM) || path.startsWith(DELIM, dir.length());
+    }
+
+    /**
+     * A single search, compiled from a list of conditions.
+     */
+    class Query {
+	private SearchResult<IFile> result;
+	private List<String> roots;
+	private Pattern dirPattern, pathPattern, basePattern;
+	private String baseEquals, baseNotEquals, filetype, fstype;
+	private boolean followLinks, xdev, localOnly;
+	private int maxDepth = 0, perms = 0;
+	private List<Condition> owners;
+	private Long newer;
+	private PathTrie paths;
+
+	Query(List<Condition> conditions) {
+	    result = FilesystemSearcher.newResult(fs, props, session.getDirectory(), limit);
+	    roots = new ArrayList<String>();
+	    owners = new ArrayList<Condition>();
+	    paths = new PathTrie(DELIM);
+	    boolean depthSet = false;
+	    for (Condition condition : conditions) {
+		switch(condition.getField()) {
+		  case Condition.FIELD_DEPTH:
+		    maxDepth = ((Integer)condition.getValue()).intValue();
+		    depthSet = true;
+		    break;
+
+		  case FSCondition.FIELD_DIRNAME:
+		    switch(condition.getType()) {
+		      case Condition.TYPE_EQUALITY:
+			roots.add((String)condition.getValue());
+			break;
+		      case Condition.TYPE_ANY:
+			for (Object obj : (Collection<?>)condition.getValue()) {
+			    roots.add((String)obj);
+			}
+			break;
+		      case Condition.TYPE_PATTERN:
+			dirPattern = (Pattern)condition.getValue();
+			break;
+		      default:
+			throw new UnsupportedSearchConditionException(condition);
+		    }
+		    break;
+
+		  case FSCondition.FIELD_PATH:
+		    if (condition.getType() == Condition.TYPE_PATTERN) {
+			pathPattern = (Pattern)condition.getValue();
+		    } else {
+			throw new UnsupportedSearchConditionException(condition);
+		    }
+		    break;
+
+		  case FSCondition.FIELD_BASENAME:
+		    switch(condition.getType()) {
+		      case Condition.TYPE_EQUALITY:
+			baseEquals = (String)condition.getValue();
+			break;
+		      case Condition.TYPE_INEQUALITY:
+			baseNotEquals = (String)condition.getValue();
+			break;
+		      case Condition.TYPE_PATTERN:
+			basePattern = (Pattern)condition.getValue();
+			break;
+		      default:
+			throw new UnsupportedSearchConditionException(condition);
+		    }
+		    break;
+
+		  case FSCondition.FIELD_FILETYPE:
+		    filetype = (String)condition.getValue();
+		    break;
+
+		  case FSCondition.FIELD_FSTYPE:
+		    fstype = (String)condition.getValue();
+		    break;
+
+		  case FSCondition.FIELD_FOLLOW_LINKS:
+		    followLinks = true;
+		    break;
+
+		  case FSCondition.FIELD_XDEV:
+		    xdev = true;
+		    break;
+
+		  case FSCondition.FIELD_LOCAL:
+		    localOnly = true;
+		    break;
+
+		  case UnixFSCondition.FIELD_PERM:
+		    if (condition.getType() == Condition.TYPE_EQUALITY) {
+			perms |= ((FilePermission)condition.getValue()).bits();
+		    } else {
+			throw new UnsupportedSearchConditionException(condition);
+		    }
+		    break;
+
+		  case UnixFSCondition.FIELD_USER:
+		  case UnixFSCondition.FIELD_GROUP:
+		    switch(condition.getType()) {
+		      case Condition.TYPE_EQUALITY:
+		      case Condition.TYPE_INEQUALITY:
+		      case Condition.TYPE_ANY:
+		      case Condition.TYPE_NONE:
+			owners.add(condition);
+			break;
+		      default:
+			throw new UnsupportedSearchConditionException(condition);
+		    }
+		    break;
+
+		  case UnixFSCondition.FIELD_NEWER:
+		    if (condition.getType() == Condition.TYPE_EQUALITY) {
+			newer = (Long)condition.getValue();
+		    } else {
+			throw new UnsupportedSearchConditionException(condition);
+		    }
+		    break;
+
+		  default:
+		    throw new UnsupportedSearchFieldException(condition);
+		}
+	    }
+	    if (pathPattern != null && !depthSet) {
+		maxDepth = Condition.DEPTH_UNLIMITED;
+	    }
+	}
+
+	IResult<IFile> run() {
+	    Collection<IMount> mounts;
+	    try {
+		mounts = mountTable.getMounts();
+	    } catch (IOException e) {
+		result.addError(Message.getMessage(Message.ERROR_IO, fs.toString(), e.getMessage()));
+		mounts = new ArrayList<IMount>();
+	    }
+	    if (dirPattern != null) {
+		addRoots(dirPattern, mounts);
+	    } else if (pathPattern != null && roots.size() == 0) {
+		addRoots(pathPattern, mounts);
+	    }
+	    List<String> starts = new ArrayList<String>();
+	    List<String> pruned = new ArrayList<String>();
+	    for (String root : roots) {
+		String start = normalize(root);
+		if (acceptMount(getMount(start)) && !starts.contains(start)) {
+		    starts.add(start);
+		}
+	    }
+	    if (starts.size() == 0) {
+		return result;
+	    }
+	    if (!xdev && (localOnly || fstype != null)) {
+		for (String start : starts) {
+		    try {
+			for (IMount mount : mountTable.getMountsBeneath(start)) {
+			    if (!acceptMount(mount) && !pruned.contains(mount.getPath())) {
+				pruned.add(mount.getPath());
+			    }
+			}
+		    } catch (IOException e) {
+			// already reported
+		    }
+		}
+	    }
+	    //
+	    // Sort the starting points longest-first, so that each result can be attributed to its deepest starting point.
+	    //
+	    Collections.sort(starts, new Comparator<String>() {
+		public int compare(String s1, String s2) {
+		    return s2.length() - s1.length();
+		}
+	    });
+	    String cmd;
+	    try {
+		cmd = compile(starts, pruned);
+	    } catch (IllegalArgumentException e) {
+		result.addError(e.getMessage());
+		return result;
+	    }
+	    RecordHandler out = new RecordHandler(starts);
+	    ErrorHandler err = new ErrorHandler();
+	    try {
+		SafeCLI.exec(cmd, SafeCLI.ANSI_C, null, session, session.getTimeout(ISession.Timeout.XL), out, err);
+		if (out.isTruncated()) {
+		    result.addError(Message.getMessage(Message.ERROR_EOS));
+		}
+	    } catch (IOException e) {
+		result.addError(Message.getMessage(Message.ERROR_IO, cmd, e.getMessage()));
+	    }
+	    for (String line : err.getLines()) {
+		if (line.indexOf("loop") != -1) {
+		    result.addWarning(Message.getMessage(Message.WARNING_COMMAND_OUTPUT, line));
+		} else {
+		    result.addError(Message.getMessage(Message.WARNING_COMMAND_OUTPUT, line));
+		}
+	    }
+	    return result;
+	}
+
+	// Private
+
+	/**
+	 * Compile the conditions into a find command.
+	 */
+	private String compile(List<String> starts, List<String> pruned) {
+	    boolean gnu = isGnu(), bsd = isBsd();
+	    StringBuffer cmd = new StringBuffer("find");
+	    if (followLinks) {
+		cmd.append(" -L");
+	    }
+	    String pathRegex = null;
+	    if (pathPattern != null && (gnu || bsd)) {
+		try {
+		    if ((pathPattern.flags() & ~Pattern.CASE_INSENSITIVE) == 0) {
+			pathRegex = toExtendedRegex(pathPattern.pattern());
+			quote(pathRegex);
+		    }
+		} catch (IllegalArgumentException e) {
+		    // cannot be pushed down (or quoted); the pattern will only be applied locally
+		    pathRegex = null;
+		}
+		if (pathRegex != null && bsd) {
+		    cmd.append(" -E");
+		}
+	    }
+	    for (String start : starts) {
+		cmd.append(" ").append(quote(start));
+	    }
+
+	    //
+	    // Options
+	    //
+	    if (xdev) {
+		cmd.append(" -xdev");
+	    }
+	    if (gnu || bsd) {
+		if (!isResultDirectory()) {
+		    cmd.append(" -mindepth 1");
+		}
+		if (maxDepth != Condition.DEPTH_UNLIMITED && (pathPattern != null || dirPattern == null)) {
+		    cmd.append(" -maxdepth ").append(isResultDirectory() ? maxDepth : maxDepth + 1);
+		}
+	    }
+	    if (pathRegex != null && gnu) {
+		cmd.append(" -regextype posix-extended");
+	    }
+	    if (pruned.size() > 0) {
+		cmd.append(" \\(");
+		for (int i=0; i < pruned.size(); i++) {
+		    if (i > 0) {
+			cmd.append(" -o");
+		    }
+		    cmd.append(" -path ").append(quote(escapeGlob(pruned.get(i))));
+		}
+		cmd.append(" \\) -prune -o");
+	    }
+
+	    //
+	    // Tests
+	    //
+	    List<String> tests = new ArrayList<String>();
+	    if (isResultDirectory()) {
+		tests.add("-type d");
+	    } else if (pathPattern == null) {
+		tests.add("! -type d");
+	    }
+	    if (IFilesystem.FILETYPE_DIR.equals(filetype)) {
+		tests.add("-type d");
+	    } else if (IFilesystem.FILETYPE_LINK.equals(filetype)) {
+		tests.add("-type l");
+	    } else if (IFilesystem.FILETYPE_FILE.equals(filetype)) {
+		tests.add("-type f");
+	    }
+	    if (pathRegex != null) {
+		boolean ci = (pathPattern.flags() & Pattern.CASE_INSENSITIVE) != 0;
+		tests.add(new StringBuffer(ci ? "-iregex " : "-regex ").append(quote(pathRegex)).toString());
+	    }
+	    if (baseEquals != null) {
+		tests.add(new StringBuffer("-name ").append(quote(escapeGlob(baseEquals))).toString());
+	    }
+	    if (baseNotEquals != null) {
+		tests.add(new StringBuffer("! -name ").append(quote(escapeGlob(baseNotEquals))).toString());
+	    }
+	    if (basePattern != null) {
+		boolean ci = (basePattern.flags() & Pattern.CASE_INSENSITIVE) != 0;
+		if (!ci || gnu || bsd) {
+		    try {
+			String glob = Regex.toGlob(basePattern);
+			tests.add(new StringBuffer(ci ? "-iname " : "-name ").append(quote(glob)).toString());
+		    } catch (IllegalArgumentException e) {
+			// cannot be pushed down; the pattern will only be applied locally
+		    }
+		}
+	    }
+	    if (perms != 0) {
+		tests.add(new StringBuffer("-perm -").append(Integer.toOctalString(perms)).toString());
+	    }
+	    for (Condition condition : owners) {
+		boolean user = condition.getField() == UnixFSCondition.FIELD_USER;
+		String test = (gnu || bsd) ? (user ? "-uid " : "-gid ") : (user ? "-user " : "-group ");
+		List<BigInteger> ids = getIds(condition);
+		StringBuffer sb = new StringBuffer();
+		if (isNegated(condition)) {
+		    sb.append("! ");
+		}
+		if (ids.size() == 1) {
+		    sb.append(test).append(ids.get(0));
+		} else {
+		    sb.append("\\(");
+		    for (int i=0; i < ids.size(); i++) {
+			if (i > 0) {
+			    sb.append(" -o");
+			}
+			sb.append(" ").append(test).append(ids.get(i));
+		    }
+		    sb.append(" \\)");
+		}
+		if (ids.size() > 0) {
+		    tests.add(sb.toString());
+		} else if (!isNegated(condition)) {
+		    tests.add("! -name '*'"); // matches nothing
+		}
+	    }
+	    if (newer != null) {
+		if (gnu) {
+		    tests.add(new StringBuffer("-newermt '@").append(newer.longValue() / 1000L).append("'").toString());
+		} else {
+		    long days = (session.getTime() - newer.longValue()) / 86400000L + 2;
+		    tests.add(new StringBuffer("-mtime -").append(Math.max(days, 1L)).toString());
+		}
+	    }
+	    if (tests.size() > 0) {
+		cmd.append(" \\(");
+		for (String test : tests) {
+		    cmd.append(" ").append(test);
+		}
+		cmd.append(" \\)");
+	    }
+
+	    //
+	    // Output
+	    //
+	    if (gnu) {
+		cmd.append(" -printf '").append(PRINTF).append("'");
+	    } else if (bsd) {
+		cmd.append(" -print0");
+	    } else {
+		cmd.append(" -exec printf '%s\\000' {} +");
+	    }
+	    return cmd.toString();
+	}
+
+	private void addRoots(Pattern p, Collection<IMount> mounts) {
+	    for (String alt : Regex.getAlternations(p)) {
+		String root = FilesystemSearcher.getSearchRoot(alt, DELIM);
+		if (root != null) {
+		    if (!roots.contains(root)) {
+			roots.add(root);
+		    }
+		} else if (props.getBooleanProperty(IComputerSystem.PROP_FS_SEARCH_ALLOW_UNANCHORED)) {
+		    for (IMount mount : mounts) {
+			if (!roots.contains(mount.getPath())) {
+			    roots.add(mount.getPath());
+			}
+		    }
+		} else {
+		    result.addError(Message.getMessage(Message.ERROR_FS_SEARCH_UNANCHORED, alt));
+		}
+	    }
+	}
+
+	private boolean acceptMount(IMount mount) {
+	    if (mount == null) {
+		return !localOnly && fstype == null;
+	    } else if (localOnly && !mount.local()) {
+		return false;
+	    } else if (fstype != null && !fstype.equals(mount.getType())) {
+		return false;
+	    }
+	    return true;
+	}
+
+	private boolean isResultDirectory() {
+	    return pathPattern == null && baseEquals == null && baseNotEquals == null && basePattern == null;
+	}
+
+	private List<BigInteger> getIds(Condition condition) {
+	    List<BigInteger> ids = new ArrayList<BigInteger>();
+	    switch(condition.getType()) {
+	      case Condition.TYPE_EQUALITY:
+	      case Condition.TYPE_INEQUALITY:
+		ids.add((BigInteger)condition.getValue());
+		break;
+	      default:
+		for (Object obj : (Collection<?>)condition.getValue()) {
+		    ids.add((BigInteger)obj);
+		}
+		break;
+	    }
+	    return ids;
+	}
+
+	private boolean isNegated(Condition condition) {
+	    return condition.getType() == Condition.TYPE_INEQUALITY || condition.getType() == Condition.TYPE_NONE;
+	}
+
+	private String normalize(String path) {
+	    while (path.length() > 1 && path.endsWith(DELIM)) {
+		path = path.substring(0, path.length() - 1);
+	    }
+	    return path;
+	}
+
+	/**
+	 * Get the number of directory levels between the starting point and the path.
+	 */
+	private int getLevel(String start, String path) {
+	    if (path.equals(start)) {
+		return 0;
+	    }
+	    int level = 0;
+	    for (int i = DELIM.equals(start) ? 0 : start.length(); i < path.length(); i++) {
+		if (path.charAt(i) == IUnixFilesystem.DELIM_CH) {
+		    level++;
+		}
+	    }
+	    return level;
+	}
+
+	private String getParent(String path) {
+	    int ptr = path.lastIndexOf(DELIM);
+	    return ptr <= 0 ? DELIM : path.substring(0, ptr);
+	}
+
+	/**
+	 * Determine whether a directory at the specified level beneath the starting point qualifies as (or lies within
+	 * FIELD_DEPTH levels of) a searched directory.
+	 */
+	private boolean qualifies(String start, String dir, int level) {
+	    if (dirPattern == null) {
+		return maxDepth == Condition.DEPTH_UNLIMITED || level <= maxDepth;
+	    }
+	    for (int anchor=0; level - anchor >= 0; anchor++) {
+		if (maxDepth != Condition.DEPTH_UNLIMITED && anchor > maxDepth) {
+		    break;
+		}
+		if (dirPattern.matcher(dir).find()) {
+		    return true;
+		}
+		dir = getParent(dir);
+	    }
+	    return false;
+	}
+
+	/**
+	 * Apply the conditions locally to a result of the find command. For FileEntry results, this re-checks everything
+	 * that was pushed down to find; otherwise, only those conditions that need no further information from the target
+	 * (or that could not be pushed down exactly) are checked.
+	 */
+	private boolean accept(String start, String path, IFile file) throws IOException {
+	    int level = getLevel(start, path);
+	    FileEntry entry = file instanceof FileEntry ? (FileEntry)file : null;
+	    if (pathPattern != null) {
+		if (level == 0 || (maxDepth != Condition.DEPTH_UNLIMITED && level > maxDepth + 1)) {
+		    return false;
+		} else if (!pathPattern.matcher(path).find()) {
+		    return false;
+		}
+	    } else if (isResultDirectory()) {
+		if ((entry != null && !entry.isDirectory()) || !qualifies(start, path, level)) {
+		    return false;
+		}
+	    } else {
+		if (level == 0 || (entry != null && entry.isDirectory()) || !qualifies(start, getParent(path), level - 1)) {
+		    return false;
+		}
+		String name = path.substring(path.lastIndexOf(DELIM) + 1);
+		if (baseEquals != null && !baseEquals.equals(name)) {
+		    return false;
+		} else if (baseNotEquals != null && baseNotEquals.equals(name)) {
+		    return false;
+		} else if (basePattern != null && !basePattern.matcher(name).find()) {
+		    return false;
+		}
+	    }
+	    if (entry != null) {
+		if (IFilesystem.FILETYPE_DIR.equals(filetype)) {
+		    if (!entry.isDirectory()) return false;
+		} else if (IFilesystem.FILETYPE_LINK.equals(filetype)) {
+		    if (!entry.isLink()) return false;
+		} else if (IFilesystem.FILETYPE_FILE.equals(filetype)) {
+		    if (entry.getType() != IFileMetadata.Type.FILE) return false;
+		}
+	    }
+	    if (entry instanceof UnixFileEntry) {
+		UnixFileEntry unixEntry = (UnixFileEntry)entry;
+		if ((unixEntry.getMode() & perms) != perms) {
+		    return false;
+		}
+		for (Condition condition : owners) {
+		    boolean user = condition.getField() == UnixFSCondition.FIELD_USER;
+		    BigInteger id = user ? unixEntry.getUserOwner().getId() : unixEntry.getGroupOwner().getId();
+		    if (getIds(condition).contains(id) == isNegated(condition)) {
+			return false;
+		    }
+		}
+	    }
+	    if (newer != null && (entry != null || !isGnu())) {
+		Date lastModified = file.getLastModified();
+		if (lastModified != null && lastModified.getTime() <= newer.longValue()) {
+		    return false;
+		}
+	    }
+	    return true;
+	}
+
+	/**
+	 * Parses NUL-delimited records from the output of the find command as they arrive, and adds those that are
+	 * accepted directly to the result, so neither the output nor the accepted files are ever buffered in their
+	 * entirety (beyond what the result itself retains in memory).
+	 *
+	 * If SafeCLI retries the command, the records accepted during earlier attempts are skipped, since they are already
+	 * in the result (find reports an unchanged tree in the same order).
+	 */
+	class RecordHandler implements SafeCLI.IReaderHandler {
+	    private List<String> starts;
+	    private int fieldsPerRecord;
+	    private int added, accepted;
+	    private boolean truncated;
+
+	    RecordHandler(List<String> starts) {
+		this.starts = starts;
+		fieldsPerRecord = isGnu() ? PRINTF_FIELDS : 1;
+		added = 0;
+	    }
+
+	    boolean isTruncated() {
+		return truncated;
+	    }
+
+	    // Implement SafeCLI.IReaderHandler
+
+	    public void handle(IReader reader) throws IOException {
+		accepted = 0;
+		truncated = false;
+		List<String> fields = new ArrayList<String>(fieldsPerRecord);
+		ByteArrayOutputStream field = new ByteArrayOutputStream();
+		byte[] buff = new byte[8192];
+		int len;
+		while ((len = reader.read(buff)) != -1) {
+		    int start = 0;
+		    for (int i=0; i < len; i++) {
+			if (buff[i] == 0) {
+			    field.write(buff, start, i - start);
+			    start = i + 1;
+			    fields.add(new String(field.toByteArray(), Strings.UTF8));
+			    field.reset();
+			    if (fields.size() == fieldsPerRecord) {
+				if (!isFull()) {
+				    record(fields);
+				}
+				fields.clear();
+			    }
+			}
+		    }
+		    field.write(buff, start, len - start);
+		}
+		truncated = field.size() > 0 || fields.size() > 0;
+	    }
+
+	    // Private
+
+	    /**
+	     * Once the result limit has been reached, the remaining output is drained and discarded (the process cannot
+	     * be stopped without it appearing to SafeCLI to have hung).
+	     */
+	    private boolean isFull() {
+		return result.isFull();
+	    }
+
+	    private void record(List<String> fields) throws IOException {
+		String path = fields.get(fieldsPerRecord == 1 ? 0 : 12);
+		String start = null;
+		for (String s : starts) {
+		    if (isAncestor(s, path)) {
+			start = s;
+			break;
+		    }
+		}
+		if (start == null) {
+		    return;
+		}
+		IFile file;
+		if (fieldsPerRecord == 1) {
+		    file = fs.getFile(path);
+		} else {
+		    try {
+			file = newEntry(fields);
+		    } catch (IllegalArgumentException e) {
+			throw new IOException(Message.getMessage(Message.ERROR_IO, path, e.getMessage()));
+		    }
+		}
+		if (accept(start, path, file) && ++accepted > added) {
+		    if (result.add(file)) {
+			added++;
+		    }
+		}
+	    }
+
+	    /**
+	     * Create a UnixFileEntry from the fields of a GNU find -printf record.
+	     *
+	     * @throws IllegalArgumentException (including NumberFormatException) if the record is malformed
+	     */
+	    private UnixFileEntry newEntry(List<String> fields) throws IllegalArgumentException {
+		char y = fields.get(0).length() == 1 ? fields.get(0).charAt(0) : '?';
+		IUnixFileInfo.UnixType unixType;
+		if (y == 'f') {
+		    unixType = IUnixFileInfo.UnixType.REGULAR;
+		} else {
+		    try {
+			unixType = IUnixFileInfo.UnixType.getUnixType(y);
+		    } catch (IllegalArgumentException e) {
+			unixType = IUnixFileInfo.UnixType.REGULAR; // e.g., a Solaris door
+		    }
+		}
+		boolean directory = unixType == IUnixFileInfo.UnixType.DIR ||
+		    (unixType == IUnixFileInfo.UnixType.LINK && "d".equals(fields.get(1)));
+		String linkPath = unixType == IUnixFileInfo.UnixType.LINK ? fields.get(13) : null;
+		return new UnixFileEntry(fs, paths.intern(fields.get(12)), IFile.Flags.READONLY, unixType, directory,
+		    Long.parseLong(fields.get(7)), toMillis(fields.get(8)), toMillis(fields.get(9)), Long.parseLong(fields.get(11)),
+		    linkPath, session.getDirectory(), Integer.parseInt(fields.get(2), 8), new BigInteger(fields.get(3)),
+		    fields.get(5), new BigInteger(fields.get(4)), fields.get(6), toMillis(fields.get(10)));
+	    }
+	}
+    }
+
+    /**
+     * Collects the lines of the find command's error stream.
+     */
+    static class ErrorHandler implements SafeCLI.IReaderHandler {
+	private List<String> lines = new ArrayList<String>();
+
+	synchronized List<String> getLines() {
+	    return new ArrayList<String>(lines);
+	}
+
+	// Implement SafeCLI.IReaderHandler
+
+	public void handle(IReader reader) throws IOException {
+	    synchronized(this) {
+		lines.clear();
+	    }
+	    String line;
+	    while ((line = reader.readLine()) != null) {
+		if (line.length() > 0) {
+		    synchronized(this) {
+			lines.add(line);
+		    }
+		}
+	    }
+	}
+    }
+}
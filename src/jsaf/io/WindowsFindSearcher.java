@@ -0,0 +1,504 @@
+// Copyright (C) 2026 Arctic Wolf Networks, Inc.  All rights reserved.
+// This software is licensed under the LGPL 3.0 license available at http://www.gnu.org/licenses/lgpl.txt
+
+package jsaf.io;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.slf4j.cal10n.LocLogger;
+
+import jsaf.Message;
+import jsaf.intf.io.IFile;
+import jsaf.intf.io.IFilesystem;
+import jsaf.intf.io.IFilesystem.FSCondition;
+import jsaf.intf.io.IFilesystem.IMount;
+import jsaf.intf.system.IComputerSystem;
+import jsaf.intf.system.ISession;
+import jsaf.intf.util.ILoggable;
+import jsaf.intf.util.IProperty;
+import jsaf.intf.util.ISearchable;
+import jsaf.intf.util.ISearchable.Condition;
+import jsaf.intf.windows.io.IWindowsFilesystem;
+import jsaf.intf.windows.powershell.IRunspace;
+import jsaf.intf.windows.system.IWindowsSession;
+import jsaf.provider.windows.powershell.ModuleLoader;
+import jsaf.provider.windows.powershell.PowershellException;
+import jsaf.util.Regex;
+import jsaf.util.SafeCLI;
+import jsaf.util.SearchResult;
+import jsaf.util.Strings;
+
+/**
+ * An ISearchable for the filesystem of a Windows session, which compiles each list of search conditions into a single
+ * invocation of a Powershell function that walks the directory trees on the target using the .NET DirectoryInfo API,
+ * so that only the matching items (rather than every directory listing) are returned.
+ *
+ * The function is defined in a module (WindowsFindSearcher.psm1) that is loaded once into each runspace that is used.
+ * Each matching item is written as a single compact line of metadata to a file in the session's TempArea, which is then
+ * read a line at a time, creating a FileEntry for each item. Patterns are converted using Regex.posix2Powershell and
+ * matched case-insensitively on the target, and path and basename patterns are re-checked locally.
+ *
+ * The supported FSCondition fields and their semantics are the same as for the FilesystemSearcher, except that
+ * FIELD_FSTYPE and FIELD_LOCAL are only applied to the search roots. Reparse points are only followed if FIELD_FOLLOW_LINKS
+ * is specified (and only when Powershell can report their targets); with FIELD_XDEV, reparse points to other volumes are
+ * not followed. The walk consumes no more than IWindowsSession.PROP_FS_SEARCH_MAX_CPU percent of a CPU on the target,
+ * and must complete within IWindowsSession.PROP_FS_SEARCH_TIMEOUT milliseconds.
+ *
+ * @author David A. Solin
+ * @version %I% %G%
+ * @since 1.7.0
+ */
+public class WindowsFindSearcher implements ISearchable<IFile>, ILoggable {
+    static final String MODULE = "WindowsFindSearcher.psm1";
+
+    private static final String DELIM = IWindowsFilesystem.DELIM_STR;
+
+    private IWindowsSession session;
+    private IFilesystem fs;
+    private IProperty props;
+    private LocLogger logger;
+    private int limit = UNLIMITED;
+    private MountTable mountTable;
+
+    /**
+     * Create a searcher for the filesystem of the specified Windows session.
+     */
+    public WindowsFindSearcher(IWindowsSession session) {
+	this.session = session;
+	fs = session.getFilesystem();
+	props = session.getProperties();
+	logger = session.getLogger();
+	mountTable = MountTable.getInstance(session);
+    }
+
+    /**
+     * Get the cached mount table used by this searcher (e.g., in order to refresh it).
+     */
+    public MountTable getMountTable() {
+	return mountTable;
+    }
+
+    // Implement ISearchable<IFile>
+
+    public void setResultLimit(int limit) {
+	this.limit = limit;
+    }
+
+    public IResult<IFile> search(List<Condition> conditions) {
+	return new Query(conditions).run();
+    }
+
+    public List<IResult<IFile>> searches(List<List<Condition>> conditionLists) {
+	List<IResult<IFile>> results = new ArrayList<IResult<IFile>>();
+	for (List<Condition> conditions : conditionLists) {
+	    results.add(search(conditions));
+	}
+	return results;
+    }
+
+    // Implement ILoggable
+
+    public LocLogger getLogger() {
+	return logger;
+    }
+
+    public void setLogger(LocLogger logger) {
+	this.logger = logger;
+    }
+
+    // Internal
+
+    /**
+     * Compute the maximum number of directory levels beneath the specified search root at which a path matching the
+     * (single-alternation) pattern could lie, or -1 if there is no limit. Every element of the pattern that could match
+     * a delimiter adds a level, and a repetition of such an element means there is no limit.
+     */
+    static int getMaxLevels(String regex, String root) {
+	int bound = 0;
+	boolean delim = false; // whether the last element could match a delimiter
+	int len = regex.length();
+	for (int i=0; i < len; i++) {
+	    char ch = regex.charAt(i);
+	    switch(ch) {
+	      case '\\':
+		delim = false;
+		if (++i < len) {
+		    switch(regex.charAt(i)) {
+		      case '\\': // an escaped delimiter
+		      case 'D':
+		      case 'S':
+		      case 'W':
+		      case 'P':
+			delim = true;
+			break;
+		    }
+		}
+		break;
+	      case '[': {
+		int end = i + 1;
+		boolean negated = end < len && regex.charAt(end) == '^';
+		boolean excludesDelim = false;
+		while (end < len && regex.charAt(end) != ']') {
+		    if (regex.charAt(end) == '\\') {
+			if (end + 1 < len && regex.charAt(end + 1) == '\\') {
+			    excludesDelim = negated;
+			}
+			end++;
+		    }
+		    end++;
+		}
+		i = end;
+		delim = !excludesDelim;
+		break;
+	      }
+	      case '.':
+	      case ')':
+		delim = true;
+		break;
+	      case '*':
+	      case '+':
+	      case '{':
+		if (delim) {
+		    return -1;
+		}
+		if (ch == '{') {
+		    while (i + 1 < len && regex.charAt(i + 1) != '}') {
+			i++;
+		    }
+		    i++;
+		}
+		continue;
+	      case '?':
+	      case '(':
+	      case '|':
+	      case '^':
+	      case '$':
+		continue;
+	      default:
+		delim = false;
+		break;
+	    }
+	    if (delim) {
+		bound++;
+	    }
+	}
+	String dir = root.endsWith(DELIM) ? root.substring(0, root.length() - 1) : root;
+	int rootLevels = 0;
+	for (int i=0; i < dir.length(); i++) {
+	    if (dir.charAt(i) == IWindowsFilesystem.DELIM_CH) {
+		rootLevels++;
+	    }
+	}
+	return Math.max(0, bound - rootLevels);
+    }
+
+    // Private
+
+    /**
+     * Get a runspace into which the module has been loaded.
+     */
+    private IRunspace getRunspace() throws PowershellException {
+	return ModuleLoader.getRunspace(session.getRunspacePool(), WindowsFindSearcher.class, MODULE);
+    }
+
+    private String quote(String s) {
+	return new StringBuffer("'").append(SafeCLI.checkArgument(s, session)).append("'").toString();
+    }
+
+    private String quoteRegex(Pattern p) {
+	return new StringBuffer("'").append(Regex.posix2Powershell(p.pattern()).replace("'", "''")).append("'").toString();
+    }
+
+    /**
+     * A single search, compiled from a list of conditions.
+     */
+    class Query {
+	private SearchResult<IFile> result;
+	private List<String> roots;
+	private Pattern dirPattern, pathPattern, basePattern;
+	private String baseEquals, baseNotEquals, filetype, fstype;
+	private boolean followLinks, xdev, localOnly;
+	private int maxDepth = 0, maxLevels = -1;
+
+	Query(List<Condition> conditions) {
+	    result = FilesystemSearcher.newResult(fs, props, null, limit);
+	    roots = new ArrayList<String>();
+	    boolean depthSet = false;
+	    for (Condition condition : conditions) {
+		switch(condition.getField()) {
+		  case Condition.FIELD_DEPTH:
+		    maxDepth = ((Integer)condition.getValue()).intValue();
+		    depthSet = true;
+		    break;
+
+		  case FSCondition.FIELD_DIRNAME:
+		    switch(condition.getType()) {
+		      case Condition.TYPE_EQUALITY:
+			roots.add((String)condition.getValue());
+			break;
+		      case Condition.TYPE_ANY:
+			for (Object obj : (Collection<?>)condition.getValue()) {
+			    roots.add((String)obj);
+			}
+			break;
+		      case Condition.TYPE_PATTERN:
+			dirPattern = (Pattern)condition.getValue();
+			break;
+		      default:
+			throw new UnsupportedSearchConditionException(condition);
+		    }
+		    break;
+
+		  case FSCondition.FIELD_PATH:
+		    if (condition.getType() == Condition.TYPE_PATTERN) {
+			pathPattern = (Pattern)condition.getValue();
+		    } else {
+			throw new UnsupportedSearchConditionException(condition);
+		    }
+		    break;
+
+		  case FSCondition.FIELD_BASENAME:
+		    switch(condition.getType()) {
+		      case Condition.TYPE_EQUALITY:
+			baseEquals = (String)condition.getValue();
+			break;
+		      case Condition.TYPE_INEQUALITY:
+			baseNotEquals = (String)condition.getValue();
+			break;
+		      case Condition.TYPE_PATTERN:
+			basePattern = (Pattern)condition.getValue();
+			break;
+		      default:
+			throw new UnsupportedSearchConditionException(condition);
+		    }
+		    break;
+
+		  case FSCondition.FIELD_FILETYPE:
+		    filetype = (String)condition.getValue();
+		    if (!IFilesystem.FILETYPE_FILE.equals(filetype) && !IFilesystem.FILETYPE_DIR.equals(filetype) &&
+			!IFilesystem.FILETYPE_LINK.equals(filetype)) {
+			throw new UnsupportedSearchConditionException(condition);
+		    }
+		    break;
+
+		  case FSCondition.FIELD_FSTYPE:
+		    fstype = (String)condition.getValue();
+		    break;
+
+		  case FSCondition.FIELD_FOLLOW_LINKS:
+		    followLinks = true;
+		    break;
+
+		  case FSCondition.FIELD_XDEV:
+		    xdev = true;
+		    break;
+
+		  case FSCondition.FIELD_LOCAL:
+		    localOnly = true;
+		    break;
+
+		  default:
+		    throw new UnsupportedSearchFieldException(condition);
+		}
+	    }
+	    if (pathPattern != null && !depthSet) {
+		maxDepth = Condition.DEPTH_UNLIMITED;
+	    }
+	}
+
+	IResult<IFile> run() {
+	    Collection<IMount> mounts;
+	    try {
+		mounts = mountTable.getMounts();
+	    } catch (IOException e) {
+		result.addError(Message.getMessage(Message.ERROR_IO, fs.toString(), e.getMessage()));
+		mounts = new ArrayList<IMount>();
+	    }
+	    if (dirPattern != null) {
+		addRoots(dirPattern, mounts);
+	    } else if (pathPattern != null && roots.size() == 0) {
+		addRoots(pathPattern, mounts);
+	    }
+	    StringBuffer cmd = new StringBuffer("Find-JsafFileSystemEntries -Roots ");
+	    int count = 0;
+	    try {
+		for (String root : roots) {
+		    if (acceptMount(getMount(root))) {
+			if (count++ > 0) {
+			    cmd.append(",");
+			}
+			cmd.append(quote(root));
+		    }
+		}
+	    } catch (IllegalArgumentException e) {
+		result.addError(e.getMessage());
+		return result;
+	    }
+	    if (count == 0) {
+		return result;
+	    }
+	    if (dirPattern != null) {
+		cmd.append(" -DirPattern ").append(quoteRegex(dirPattern));
+	    }
+	    if (pathPattern != null) {
+		cmd.append(" -PathPattern ").append(quoteRegex(pathPattern));
+	    }
+	    if (basePattern != null) {
+		cmd.append(" -BasePattern ").append(quoteRegex(basePattern));
+	    }
+	    if (baseEquals != null) {
+		cmd.append(" -BaseEquals '").append(baseEquals.replace("'", "''")).append("'");
+	    }
+	    if (baseNotEquals != null) {
+		cmd.append(" -BaseNotEquals '").append(baseNotEquals.replace("'", "''")).append("'");
+	    }
+	    if (filetype != null) {
+		cmd.append(" -FileType ").append(filetype);
+	    }
+	    cmd.append(" -MaxDepth ").append(maxDepth == Condition.DEPTH_UNLIMITED ? -1 : maxDepth);
+	    cmd.append(" -MaxLevels ").append(maxLevels);
+	    if (followLinks) {
+		cmd.append(" -FollowLinks");
+	    }
+	    if (xdev) {
+		cmd.append(" -XDev");
+	    }
+	    cmd.append(" -MaxCpu ").append(props.getIntProperty(IWindowsSession.PROP_FS_SEARCH_MAX_CPU));
+	    if (pathPattern == null && basePattern == null) {
+		//
+		// Only when no item can be rejected by the local re-check can the target stop at the limit.
+		//
+		cmd.append(" -Limit ").append(limit);
+	    }
+
+	    long timeout = props.getLongProperty(IWindowsSession.PROP_FS_SEARCH_TIMEOUT);
+	    if (timeout <= 0) {
+		timeout = session.getTimeout(ISession.Timeout.XL);
+	    }
+	    //
+	    // The output is written to a file in the session's TempArea as it is produced, and then read a line at a time,
+	    // so that neither the output nor the results need be held in memory in their entirety.
+	    //
+	    TempArea area = TempArea.getInstance(session);
+	    IFile temp = null;
+	    BufferedReader reader = null;
+	    try {
+		temp = area.newFile("find", ".out");
+		StringBuffer redirected = new StringBuffer("$w = New-Object System.IO.StreamWriter(").append(quote(temp.getPath()));
+		redirected.append(", $false, (New-Object System.Text.UTF8Encoding($false))); try { ").append(cmd);
+		redirected.append(" | ForEach-Object { $w.WriteLine($_) } } finally { $w.Close() }");
+		getRunspace().invoke(redirected.toString(), timeout);
+		reader = new BufferedReader(new InputStreamReader(temp.getInputStream(), Strings.UTF8));
+		PathTrie paths = new PathTrie(DELIM);
+		String line;
+		while ((line = reader.readLine()) != null) {
+		    if (line.length() == 0) {
+			continue;
+		    } else if (line.startsWith("E\t")) {
+			String[] fields = line.split("\t", 3);
+			result.addError(Message.getMessage(Message.ERROR_IO, fields[1], fields.length > 2 ? fields[2] : ""));
+		    } else if (line.startsWith("W\t")) {
+			String[] fields = line.split("\t", 3);
+			result.addWarning(Message.getMessage(Message.WARNING_FS_LOOP, fields[1], fields.length > 2 ? fields[2] : ""));
+		    } else {
+			try {
+			    FileEntry entry = DirectoryLister.toEntry(fs, paths, line);
+			    if (accept(entry) && !result.add(entry)) {
+				break;
+			    }
+			} catch (IOException e) {
+			    result.addError(Message.getMessage(Message.ERROR_IO, line, e.getMessage()));
+			}
+		    }
+		}
+	    } catch (PowershellException e) {
+		result.addError(Message.getMessage(Message.ERROR_IO, cmd.toString(), e.getMessage()));
+	    } catch (IOException e) {
+		result.addError(Message.getMessage(Message.ERROR_IO, cmd.toString(), e.getMessage()));
+	    } finally {
+		if (reader != null) {
+		    try {
+			reader.close();
+		    } catch (IOException e) {
+		    }
+		}
+		if (temp != null) {
+		    area.release(temp);
+		}
+	    }
+	    return result;
+	}
+
+	// Private
+
+	private void addRoots(Pattern p, Collection<IMount> mounts) {
+	    boolean bounded = true;
+	    for (String alt : Regex.getAlternations(p)) {
+		String root = FilesystemSearcher.getSearchRoot(alt, DELIM);
+		if (root != null) {
+		    if (!roots.contains(root)) {
+			roots.add(root);
+		    }
+		    int levels = getMaxLevels(alt, root);
+		    if (levels == -1) {
+			bounded = false;
+		    } else {
+			maxLevels = Math.max(maxLevels, levels);
+		    }
+		} else if (props.getBooleanProperty(IComputerSystem.PROP_FS_SEARCH_ALLOW_UNANCHORED)) {
+		    bounded = false;
+		    for (IMount mount : mounts) {
+			if (!roots.contains(mount.getPath())) {
+			    roots.add(mount.getPath());
+			}
+		    }
+		} else {
+		    result.addError(Message.getMessage(Message.ERROR_FS_SEARCH_UNANCHORED, alt));
+		}
+	    }
+	    if (!bounded) {
+		maxLevels = -1;
+	    }
+	}
+
+	/**
+	 * Find the mount on which the specified path resides, or null if it cannot be determined.
+	 */
+	private IMount getMount(String path) {
+	    try {
+		return mountTable.getMount(path);
+	    } catch (IOException e) {
+		return null;
+	    }
+	}
+
+	private boolean acceptMount(IMount mount) {
+	    if (mount == null) {
+		return !localOnly && fstype == null;
+	    } else if (localOnly && !mount.local()) {
+		return false;
+	    } else if (fstype != null && !fstype.equals(mount.getType())) {
+		return false;
+	    }
+	    return true;
+	}
+
+	/**
+	 * Re-check the path and basename patterns, using Java's regular expression semantics.
+	 */
+	private boolean accept(FileEntry entry) {
+	    if (pathPattern != null) {
+		return pathPattern.matcher(entry.getPath()).find();
+	    } else if (basePattern != null) {
+		return basePattern.matcher(entry.getName()).find();
+	    }
+	    return true;
+	}
+    }
+}
@@ -4,29 +4,29 @@
 package jsaf.provider.windows;
 
 import java.math.BigInteger;
-import java.text.SimpleDateFormat;
 import java.text.ParseException;
 
 /**
  * A utility for dealing with Windows timestamps.
  *
+ * All the methods of this class are thread-safe.
+ *
  * @author David A. Solin
  * @version %I% %G%
  */
 public class Timestamp {
-    private final static BigInteger CNANOS_1601to1970	= new BigInteger("116444736000000000");
-    private final static BigInteger TEN_K		= new BigInteger("10000");
-    private final static BigInteger MILLIS_1601to1970	= new BigInteger("11644473600000");
-    private final static SimpleDateFormat WMIDATEFORMAT = new SimpleDateFormat("yyyyMMddHHmmssZ");
+    private final static long CNANOS_1601to1970	= 116444736000000000L;
+    private final static long TEN_K		= 10000L;
+    private final static long MILLIS_1601to1970	= 11644473600000L;
+    private final static long SECONDS_PER_DAY	= 86400L;
+    private final static long MICROS_PER_SECOND	= 1000000L;
 
     /**
      * Given a Java timestamp, return a Windows-style timestamp, converted to a String.  Note that the last 4
      * digits will always be 0, as there is only enough information to express the time in milliseconds.
      */
     public static String toWindowsTimestamp(long javaTS) {
-	BigInteger tm = new BigInteger(new Long(javaTS).toString());
-	tm = tm.multiply(TEN_K); // 10K 100 nanosecs in one millisec
-	return tm.add(CNANOS_1601to1970).toString();
+	return Long.toString(javaTS * TEN_K + CNANOS_1601to1970); // 10K 100 nanosecs in one millisec
     }
 
     /**
@@ -34,28 +34,80 @@ public class Timestamp {
      * digit will always be a 0, as there is only enough information to express the time in microseconds.
      */
     public static BigInteger toWindowsTimestamp(String wmistr) throws NumberFormatException, ParseException {
-	StringBuffer sb = new StringBuffer(wmistr.substring(0,14));
-	sb.append(wmistr.substring(21,22));
-	int utcMinOffset = Integer.parseInt(wmistr.substring(22).trim());
-	int utcHrs = utcMinOffset/60;
-	int utcMins = utcMinOffset % 60;
-	String s = String.format("%02d%02d", utcHrs, utcMins);
-	sb.append(s);
-	long secondsSince1970 = WMIDATEFORMAT.parse(sb.toString()).getTime()/1000L;
-	StringBuffer sb2 = new StringBuffer(Long.toString(secondsSince1970));
-	BigInteger tm = new BigInteger(sb2.append(wmistr.substring(15, 21)).append("0").toString()); //cnanos
-	return tm.add(CNANOS_1601to1970);
+	return BigInteger.valueOf(getEpochMicros(wmistr) * 10L + CNANOS_1601to1970);
+    }
+
+    /**
+     * Given a WBEM timestamp of the form yyyyMMddHHmmss.SSSSSSsutc (where sutc is the sign and number of minutes of the
+     * offset from UTC), return the number of microseconds since 1970 (UTC). The timestamp is parsed directly, without
+     * any intermediate objects.
+     *
+     * @throws NumberFormatException if the string is not a valid WBEM timestamp (e.g., if it is an interval, or if any
+     *                               of its fields are unspecified)
+     */
+    public static long getEpochMicros(String wmistr) throws NumberFormatException {
+	if (wmistr.length() != 25 || wmistr.charAt(14) != '.') {
+	    throw new NumberFormatException(wmistr);
+	}
+	int year = digits(wmistr, 0, 4);
+	int month = digits(wmistr, 4, 2);
+	int day = digits(wmistr, 6, 2);
+	int hour = digits(wmistr, 8, 2);
+	int minute = digits(wmistr, 10, 2);
+	int second = digits(wmistr, 12, 2);
+	int micros = digits(wmistr, 15, 6);
+	int offset = digits(wmistr, 22, 3);
+	switch(wmistr.charAt(21)) {
+	  case '+':
+	    break;
+	  case '-':
+	    offset = -offset;
+	    break;
+	  default:
+	    throw new NumberFormatException(wmistr);
+	}
+	if (month < 1 || month > 12 || day < 1 || day > 31 || hour > 23 || minute > 59 || second > 60) {
+	    throw new NumberFormatException(wmistr);
+	}
+	long seconds = getEpochDay(year, month, day) * SECONDS_PER_DAY + hour * 3600L + (minute - offset) * 60L + second;
+	return seconds * MICROS_PER_SECOND + micros;
     }
 
     /**
      * Given the number of 100-nanosecond ticks since 1601, return the number of milliseconds since 1970.
      */
     public static long getTime(BigInteger timestamp) {
-	String s = timestamp.toString(10);
-	if (s.length() > 4) {
-	    s = s.substring(0, s.length()-4); // divide by 10k
+	return timestamp.longValue() / TEN_K - MILLIS_1601to1970;
+    }
+
+    // Private
+
+    /**
+     * Parse a fixed-length field of decimal digits.
+     */
+    private static int digits(String s, int offset, int len) throws NumberFormatException {
+	int n = 0;
+	for (int i=offset; i < offset + len; i++) {
+	    int digit = s.charAt(i) - '0';
+	    if (digit < 0 || digit > 9) {
+		throw new NumberFormatException(s);
+	    }
+	    n = 10 * n + digit;
+	}
+	return n;
+    }
+
+    /**
+     * Compute the number of days between 1970-01-01 and the specified date, in the proleptic Gregorian calendar.
+     */
+    private static long getEpochDay(long year, int month, int day) {
+	if (month <= 2) {
+	    year--;
 	}
-	BigInteger tm = new BigInteger(s).subtract(MILLIS_1601to1970);
-	return tm.longValue();
+	long era = (year >= 0 ? year : year - 399) / 400;
+	long yoe = year - era * 400;
+	long doy = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+	long doe = yoe * 365 + yoe / 4 - yoe / 100 + doy;
+	return era * 146097 + doe - 719468;
     }
 }
@@ -0,0 +1,89 @@
+// Copyright (C) 2026 Arctic Wolf Networks, Inc.  All rights reserved.
+// This software is licensed under the LGPL 3.0 license available at http://www.gnu.org/licenses/lgpl.txt
+
+package jsaf.provider.windows.powershell;
+
+import java.io.InputStream;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+import jsaf.intf.windows.powershell.IRunspace;
+import jsaf.intf.windows.powershell.IRunspacePool;
+import jsaf.intf.windows.system.IWindowsSession;
+
+/**
+ * Loads Powershell modules (packaged as class resources) into runspaces, keeping track of the modules that have already
+ * been loaded so that each module is loaded only once into each runspace. Runspace IDs are only unique within a single
+ * IRunspacePool, so the modules are tracked separately for each pool; a pool's entries are discarded when the pool is
+ * garbage-collected.
+ *
+ * @author David A. Solin
+ * @version %I% %G%
+ * @since 1.7.0
+ */
+public class ModuleLoader {
+    private static final Map<IRunspacePool, Set<String>> LOADED = new WeakHashMap<IRunspacePool, Set<String>>();
+
+    /**
+     * Get a runspace from the pool, into which the module has been loaded.
+     *
+     * @param clazz the class relative to which the module resource is located
+     * @param module the name of the module resource
+     */
+    public static IRunspace getRunspace(IRunspacePool pool, Class<?> clazz, String module) throws PowershellException {
+	IRunspace runspace = pool.getRunspace();
+	load(pool, runspace, clazz, module);
+	return runspace;
+    }
+
+    /**
+     * Get a runspace for the specified view from the pool, into which the module has been loaded.
+     *
+     * @param clazz the class relative to which the module resource is located
+     * @param module the name of the module resource
+     */
+    public static IRunspace getRunspace(IRunspacePool pool, IWindowsSession.View view, Class<?> clazz, String module)
+		throws PowershellException {
+
+	IRunspace runspace = pool.getRunspace(view);
+	load(pool, runspace, clazz, module);
+	return runspace;
+    }
+
+    /**
+     * Load the module into a runspace of the pool, unless it has already been loaded.
+     *
+     * @param clazz the class relative to which the module resource is located
+     * @param module the name of the module resource
+     */
+    public static void load(IRunspacePool pool, IRunspace runspace, Class<?> clazz, String module)
+		throws PowershellException {
+
+	Set<String> loaded;
+	synchronized(LOADED) {
+	    loaded = LOADED.get(pool);
+	    if (loaded == null) {
+		loaded = new HashSet<String>();
+		LOADED.put(pool, loaded);
+	    }
+	}
+	String key = new StringBuffer(runspace.getId()).append(":").append(clazz.getName()).append(":").append(module).toString();
+	synchronized(loaded) {
+	    if (!loaded.contains(key)) {
+		InputStream in = clazz.getResourceAsStream(module);
+		try {
+		    runspace.loadModule(in);
+		} finally {
+		    try {
+			in.close();
+		    } catch (IOException e) {
+		    }
+		}
+		loaded.add(key);
+	    }
+	}
+    }
+}
@@ -0,0 +1,276 @@
+// Copyright (C) 2026 Arctic Wolf Networks, Inc.  All rights reserved.
+// This software is licensed under the LGPL 3.0 license available at http://www.gnu.org/licenses/lgpl.txt
+
+package jsaf.provider.windows.registry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.regex.Pattern;
+
+import org.slf4j.cal10n.LocLogger;
+
+import jsaf.intf.util.ISearchable;
+import jsaf.intf.windows.registry.IExpandStringValue;
+import jsaf.intf.windows.registry.IKey;
+import jsaf.intf.windows.registry.IRegistry;
+import jsaf.intf.windows.registry.IStringValue;
+import jsaf.intf.windows.registry.IValue;
+import jsaf.intf.windows.system.IWindowsSession;
+
+/**
+ * An IRegistry decorator that answers key enumerations (listSubkeys, listValues and getValue) using a RegistryCache.
+ * Keys returned by a CachingRegistry wrap the keys of the underlying registry; all other calls are delegated to it.
+ *
+ * @author David A. Solin
+ * @version %I% %G%
+ * @since 1.7.0
+ */
+public class CachingRegistry implements IRegistry {
+    private IRegistry registry;
+    private RegistryCache cache;
+
+    /**
+     * Create a CachingRegistry for the registry of the specified view of a session, using the session's shared cache for
+     * that view.
+     */
+    public CachingRegistry(IWindowsSession session, IWindowsSession.View view) {
+	this(session.getRegistry(view), RegistryCache.getInstance(session, view));
+    }
+
+    /**
+     * Create a CachingRegistry.
+     *
+     * @param registry the underlying registry
+     * @param cache the cache, which must correspond to the same session and view as the underlying registry
+     */
+    public CachingRegistry(IRegistry registry, RegistryCache cache) {
+	this.registry = registry;
+	this.cache = cache;
+    }
+
+    /**
+     * Get the RegistryCache used by this registry.
+     */
+    public RegistryCache getCache() {
+	return cache;
+    }
+
+    // Implement ILoggable
+
+    public LocLogger getLogger() {
+	return registry.getLogger();
+    }
+
+    public void setLogger(LocLogger logger) {
+	registry.setLogger(logger);
+    }
+
+    // Implement IRegistry
+
+    public IKey getHive(Hive hive) {
+	return wrap(registry.getHive(hive));
+    }
+
+    public IKey getKey(String fullPath) throws NoSuchElementException, RegistryException {
+	return wrap(registry.getKey(fullPath));
+    }
+
+    public IKey[] getKeys(String[] fullPaths) throws RegistryException {
+	return wrap(registry.getKeys(fullPaths));
+    }
+
+    public IKey getKey(Hive hive, String path) throws NoSuchElementException, RegistryException {
+	return wrap(registry.getKey(hive, path));
+    }
+
+    public IKey[] getKeys(Hive hive, String[] paths) throws RegistryException {
+	return wrap(registry.getKeys(hive, paths));
+    }
+
+    public IKey[] enumSubkeys(IKey key) throws RegistryException {
+	return wrap(registry.enumSubkeys(unwrap(key)));
+    }
+
+    public IValue getValue(IKey key, String name) throws NoSuchElementException, RegistryException {
+	return wrap(key).getValue(name);
+    }
+
+    public IValue[] enumValues(IKey key) throws RegistryException {
+	return wrap(key).listValues();
+    }
+
+    public IValue[] enumValues(Hive hive, String[] paths) throws RegistryException {
+	List<IValue> values = new ArrayList<IValue>();
+	for (IKey key : getKeys(hive, paths)) {
+	    if (key != null) {
+		for (IValue value : key.listValues()) {
+		    values.add(value);
+		}
+	    }
+	}
+	return values.toArray(new IValue[values.size()]);
+    }
+
+    public String getStringValue(Hive hive, String subkey, String value) throws RegistryException {
+	try {
+	    IValue val = getKey(hive, subkey).getValue(value);
+	    switch(val.getType()) {
+	      case REG_SZ:
+		return ((IStringValue)val).getData();
+	      case REG_EXPAND_SZ:
+		return ((IExpandStringValue)val).getData();
+	    }
+	} catch (NoSuchElementException e) {
+	}
+	return null;
+    }
+
+    /**
+     * Load a registry file into the underlying registry. The cached entries for the mount point and its parent are
+     * discarded.
+     */
+    public void load(String filePath, Hive hive, String keyPath) throws RegistryException {
+	registry.load(filePath, hive, keyPath);
+	keyPath = HiveFile.trim(keyPath);
+	cache.invalidateTree(hive, keyPath);
+	int ptr = keyPath.lastIndexOf(DELIM_STR);
+	cache.invalidate(hive, ptr == -1 ? "" : keyPath.substring(0, ptr));
+    }
+
+    public ISearchable<IKey> getSearcher() {
+	return registry.getSearcher();
+    }
+
+    // Private
+
+    private IKey wrap(IKey key) {
+	if (key == null || key instanceof CachedKey) {
+	    return key;
+	}
+	return new CachedKey(key);
+    }
+
+    private IKey[] wrap(IKey[] keys) {
+	IKey[] result = new IKey[keys.length];
+	for (int i=0; i < keys.length; i++) {
+	    result[i] = wrap(keys[i]);
+	}
+	return result;
+    }
+
+    private IKey unwrap(IKey key) {
+	return key instanceof CachedKey ? ((CachedKey)key).key : key;
+    }
+
+    /**
+     * An IKey whose enumerations are read through the cache.
+     */
+    class CachedKey implements IKey {
+	private IKey key;
+
+	CachedKey(IKey key) {
+	    this.key = key;
+	}
+
+	@Override
+	public String toString() {
+	    return key.toString();
+	}
+
+	public Hive getHive() {
+	    return key.getHive();
+	}
+
+	public String getPath() {
+	    return key.getPath();
+	}
+
+	public String getName() {
+	    return key.getName();
+	}
+
+	public boolean hasSubkey(String name) {
+	    try {
+		for (String s : cache.getSubkeys(key)) {
+		    if (s.equalsIgnoreCase(name)) {
+			return true;
+		    }
+		}
+		return false;
+	    } catch (RegistryException e) {
+		return key.hasSubkey(name);
+	    }
+	}
+
+	public String[] listSubkeys() throws RegistryException {
+	    return cache.getSubkeys(key).clone();
+	}
+
+	public String[] listSubkeys(Pattern p) throws RegistryException {
+	    List<String> names = new ArrayList<String>();
+	    for (String s : cache.getSubkeys(key)) {
+		if (p.matcher(s).find()) {
+		    names.add(s);
+		}
+	    }
+	    return names.toArray(new String[names.size()]);
+	}
+
+	public IKey getSubkey(String name) throws NoSuchElementException, RegistryException {
+	    return wrap(key.getSubkey(name));
+	}
+
+	public boolean hasValue(String name) {
+	    try {
+		return findValue(name) != null;
+	    } catch (RegistryException e) {
+		return key.hasValue(name);
+	    }
+	}
+
+	public IValue[] listValues() throws RegistryException {
+	    return cache.getValues(key).clone();
+	}
+
+	public IValue[] listValues(Pattern p) throws RegistryException {
+	    List<IValue> values = new ArrayList<IValue>();
+	    for (IValue value : cache.getValues(key)) {
+		if (p.matcher(nameOf(value)).find()) {
+		    values.add(value);
+		}
+	    }
+	    return values.toArray(new IValue[values.size()]);
+	}
+
+	public IValue getValue(String name) throws NoSuchElementException, RegistryException {
+	    IValue value = findValue(name);
+	    if (value == null) {
+		throw new NoSuchElementException(name);
+	    }
+	    return value;
+	}
+
+	// Private
+
+	private IValue findValue(String name) throws RegistryException {
+	    if (name == null) {
+		name = "";
+	    }
+	    for (IValue value : cache.getValues(key)) {
+		if (nameOf(value).equalsIgnoreCase(name)) {
+		    return value;
+		}
+	    }
+	    return null;
+	}
+
+	/**
+	 * Get the name of a value, which is "" (rather than null) for a default value.
+	 */
+	private String nameOf(IValue value) throws RegistryException {
+	    String name = value.getName();
+	    return name == null ? "" : name;
+	}
+    }
+}
@@ -0,0 +1,565 @@
+// Copyright (C) 2026 Arctic Wolf Networks, Inc.  All rights reserved.
+// This software is licensed under the LGPL 3.0 license available at http://www.gnu.org/licenses/lgpl.txt
+
+package jsaf.provider.windows.registry;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.regex.Pattern;
+
+import jsaf.Message;
+import jsaf.intf.io.IRandomAccess;
+import jsaf.intf.windows.registry.IKey;
+import jsaf.intf.windows.registry.IRegistry;
+import jsaf.intf.windows.registry.IValue;
+import jsaf.io.LittleEndian;
+import jsaf.io.MappedRandomAccess;
+
+/**
+ * A reader for registry hive files (i.e., the REGF format used by Windows for the files that back the registry, and by
+ * RegSaveKey), which requires no access to a live registry.
+ *
+ * The hive bins are obtained from the IRandomAccess as a single ByteBuffer, which is memory-mapped if the IRandomAccess is
+ * an IMappableRandomAccess. Cells (nk, vk, lf, lh, li, ri and db records) are decoded only as keys and values are
+ * accessed, so opening even a very large hive is cheap.
+ *
+ * Changes recorded in transaction logs (.LOG1/.LOG2 files) are not applied, so a hive file copied from a running system
+ * may be missing its most recent modifications.
+ *
+ * @author David A. Solin
+ * @version %I% %G%
+ * @since 1.7.0
+ */
+public class HiveFile {
+    private static final int BASE_BLOCK_SIZE	= 4096;
+    private static final int REGF		= 0x66676572; // "regf"
+    private static final int MAX_SEGMENT	= 16344;
+
+    private static final int KEY_COMP_NAME	= 0x0020;
+    private static final int VALUE_COMP_NAME	= 0x0001;
+
+    private String name;
+    private IRandomAccess ra;
+    private ByteBuffer bins;
+    private int minorVersion;
+    private IRegistry.Hive hive;
+    private String base;
+    private Key root;
+
+    /**
+     * Open a local hive file using a memory-mapped MappedRandomAccess.
+     *
+     * @param hive the hive in which the file's root key appears
+     * @param path the path of the file's root key beneath the hive (use "" for the hive itself)
+     */
+    public HiveFile(File f, IRegistry.Hive hive, String path) throws IOException, RegistryException {
+	this(new MappedRandomAccess(f, "r"), f.getPath(), hive, path);
+    }
+
+    /**
+     * Open a hive file.
+     *
+     * @param name a name for the file, for use in error messages
+     * @param hive the hive in which the file's root key appears
+     * @param path the path of the file's root key beneath the hive (use "" for the hive itself)
+     */
+    public HiveFile(IRandomAccess ra, String name, IRegistry.Hive hive, String path) throws IOException, RegistryException {
+	this.ra = ra;
+	this.name = name;
+	this.hive = hive;
+	base = trim(path);
+	ByteBuffer header = LittleEndian.getByteBuffer(ra, 0, BASE_BLOCK_SIZE);
+	if (header.limit() < BASE_BLOCK_SIZE || LittleEndian.getInt(header, 0) != REGF) {
+	    throw new RegistryException(Message.getMessage(Message.ERROR_REGF, name, "signature"));
+	}
+	minorVersion = LittleEndian.getInt(header, 24);
+	int rootCell = LittleEndian.getInt(header, 36);
+	long size = 0xFFFFFFFFL & LittleEndian.getInt(header, 40);
+	size = Math.min(size, ra.length() - BASE_BLOCK_SIZE);
+	if (size > Integer.MAX_VALUE) {
+	    throw new RegistryException(Message.getMessage(Message.ERROR_REGF, name, Long.toString(size)));
+	}
+	bins = LittleEndian.getByteBuffer(ra, BASE_BLOCK_SIZE, (int)size);
+	try {
+	    root = newKey(rootCell, base);
+	} catch (IndexOutOfBoundsException e) {
+	    throw new RegistryException(Message.getMessage(Message.ERROR_REGF, name, Integer.toHexString(rootCell)));
+	}
+    }
+
+    /**
+     * Get the hive in which the file's root key appears.
+     */
+    public IRegistry.Hive getHive() {
+	return hive;
+    }
+
+    /**
+     * Get the path of the file's root key beneath the hive.
+     */
+    public String getPath() {
+	return base;
+    }
+
+    /**
+     * Get the file's root key.
+     */
+    public Key getRoot() {
+	return root;
+    }
+
+    /**
+     * Get a key using its path relative to the file's root key.
+     */
+    public Key getKey(String path) throws NoSuchElementException, RegistryException {
+	Key key = root;
+	for (String segment : trim(path).split(IRegistry.ESCAPED_DELIM)) {
+	    if (segment.length() > 0) {
+		key = key.getSubkey(segment);
+	    }
+	}
+	return key;
+    }
+
+    /**
+     * Release the underlying IRandomAccess.
+     */
+    public void close() throws IOException {
+	bins = null;
+	ra.close();
+    }
+
+    /**
+     * A key in the hive file.
+     */
+    public class Key implements IKey {
+	private int cell;
+	private String path, name;
+
+	Key(int cell, String path, String name) {
+	    this.cell = cell;
+	    this.path = path;
+	    this.name = name;
+	}
+
+	/**
+	 * Get the key's LastWriteTime, as a Windows FILETIME (the number of 100-nanosecond intervals since 1601).
+	 */
+	public long getLastWriteTime() {
+	    return LittleEndian.getLong(bins, cell + 4);
+	}
+
+	/**
+	 * Get the number of (non-volatile) subkeys of the key, without enumerating them.
+	 */
+	public int getSubkeyCount() {
+	    return LittleEndian.getInt(bins, cell + 20);
+	}
+
+	/**
+	 * Get the number of values of the key, without enumerating them.
+	 */
+	public int getValueCount() {
+	    return LittleEndian.getInt(bins, cell + 36);
+	}
+
+	// Implement IKey
+
+	@Override
+	public String toString() {
+	    return path.length() == 0 ? hive.getName() : hive.getName() + IRegistry.DELIM_STR + path;
+	}
+
+	public IRegistry.Hive getHive() {
+	    return hive;
+	}
+
+	public String getPath() {
+	    return path;
+	}
+
+	public String getName() {
+	    return name;
+	}
+
+	public boolean hasSubkey(String name) {
+	    try {
+		return findSubkey(name) != -1;
+	    } catch (RegistryException e) {
+		return false;
+	    }
+	}
+
+	public String[] listSubkeys() throws RegistryException {
+	    return listSubkeys(null);
+	}
+
+	public String[] listSubkeys(Pattern p) throws RegistryException {
+	    List<String> names = new ArrayList<String>();
+	    try {
+		List<Integer> cells = new ArrayList<Integer>();
+		collectSubkeys(LittleEndian.getInt(bins, cell + 28), cells, 0);
+		for (int nk : cells) {
+		    String s = keyName(nk);
+		    if (p == null || p.matcher(s).find()) {
+			names.add(s);
+		    }
+		}
+	    } catch (IndexOutOfBoundsException e) {
+		throw corrupt(cell);
+	    }
+	    return names.toArray(new String[names.size()]);
+	}
+
+	public Key getSubkey(String name) throws NoSuchElementException, RegistryException {
+	    int nk = findSubkey(name);
+	    if (nk == -1) {
+		throw new NoSuchElementException(name);
+	    }
+	    String s = keyName(nk);
+	    return new Key(nk, path.length() == 0 ? s : path + IRegistry.DELIM_STR + s, s);
+	}
+
+	public boolean hasValue(String name) {
+	    try {
+		return findValue(name) != -1;
+	    } catch (RegistryException e) {
+		return false;
+	    }
+	}
+
+	public IValue[] listValues() throws RegistryException {
+	    return listValues(null);
+	}
+
+	public IValue[] listValues(Pattern p) throws RegistryException {
+	    List<IValue> values = new ArrayList<IValue>();
+	    try {
+		int count = getValueCount();
+		int list = count == 0 ? 0 : cell(LittleEndian.getInt(bins, cell + 40));
+		for (int i=0; i < count; i++) {
+		    int vk = cell(LittleEndian.getInt(bins, list + 4*i));
+		    if (p == null || p.matcher(valueName(vk)).find()) {
+			values.add(newValue(vk));
+		    }
+		}
+	    } catch (IndexOutOfBoundsException e) {
+		throw corrupt(cell);
+	    }
+	    return values.toArray(new IValue[values.size()]);
+	}
+
+	public IValue getValue(String name) throws NoSuchElementException, RegistryException {
+	    int vk = findValue(name);
+	    if (vk == -1) {
+		throw new NoSuchElementException(name);
+	    }
+	    try {
+		return newValue(vk);
+	    } catch (IndexOutOfBoundsException e) {
+		throw corrupt(vk);
+	    }
+	}
+
+	// Private
+
+	/**
+	 * Find the nk cell of the named subkey, or -1. The hints in lf lists and the hashes in lh lists are used to avoid
+	 * decoding the names of most non-matching subkeys.
+	 */
+	private int findSubkey(String name) throws RegistryException {
+	    try {
+		if (getSubkeyCount() == 0) {
+		    return -1;
+		}
+		return findSubkey(LittleEndian.getInt(bins, cell + 28), name, hash(name), 0);
+	    } catch (IndexOutOfBoundsException e) {
+		throw corrupt(cell);
+	    }
+	}
+
+	private int findSubkey(int offset, String name, long hash, int depth) throws RegistryException {
+	    int list = cell(offset);
+	    int sig = LittleEndian.getUShort(bins, list) & 0xFFFF;
+	    int count = LittleEndian.getUShort(bins, list + 2) & 0xFFFF;
+	    switch(sig) {
+	      case 0x666C: // lf
+	      case 0x686C: // lh
+		for (int i=0; i < count; i++) {
+		    int entry = list + 4 + 8*i;
+		    if (hash != -1) {
+			int hint = LittleEndian.getInt(bins, entry + 4);
+			if (sig == 0x686C) {
+			    if (hint != (int)hash) {
+				continue;
+			    }
+			} else if (!hintMatches(hint, name)) {
+			    continue;
+			}
+		    }
+		    int nk = cell(LittleEndian.getInt(bins, entry));
+		    if (keyName(nk).equalsIgnoreCase(name)) {
+			return nk;
+		    }
+		}
+		return -1;
+
+	      case 0x696C: // li
+		for (int i=0; i < count; i++) {
+		    int nk = cell(LittleEndian.getInt(bins, list + 4 + 4*i));
+		    if (keyName(nk).equalsIgnoreCase(name)) {
+			return nk;
+		    }
+		}
+		return -1;
+
+	      case 0x6972: // ri
+		if (depth > 0) {
+		    throw corrupt(list);
+		}
+		for (int i=0; i < count; i++) {
+		    int nk = findSubkey(LittleEndian.getInt(bins, list + 4 + 4*i), name, hash, depth + 1);
+		    if (nk != -1) {
+			return nk;
+		    }
+		}
+		return -1;
+
+	      default:
+		throw corrupt(list);
+	    }
+	}
+
+	/**
+	 * Collect the nk cells of all the subkeys in a subkey list.
+	 */
+	private void collectSubkeys(int offset, List<Integer> cells, int depth) throws RegistryException {
+	    if (getSubkeyCount() == 0) {
+		return;
+	    }
+	    int list = cell(offset);
+	    int sig = LittleEndian.getUShort(bins, list) & 0xFFFF;
+	    int count = LittleEndian.getUShort(bins, list + 2) & 0xFFFF;
+	    switch(sig) {
+	      case 0x666C: // lf
+	      case 0x686C: // lh
+		for (int i=0; i < count; i++) {
+		    cells.add(cell(LittleEndian.getInt(bins, list + 4 + 8*i)));
+		}
+		break;
+
+	      case 0x696C: // li
+		for (int i=0; i < count; i++) {
+		    cells.add(cell(LittleEndian.getInt(bins, list + 4 + 4*i)));
+		}
+		break;
+
+	      case 0x6972: // ri
+		if (depth > 0) {
+		    throw corrupt(list);
+		}
+		for (int i=0; i < count; i++) {
+		    collectSubkeys(LittleEndian.getInt(bins, list + 4 + 4*i), cells, depth + 1);
+		}
+		break;
+
+	      default:
+		throw corrupt(list);
+	    }
+	}
+
+	/**
+	 * Find the vk cell of the named value (null or "" for the default value), or -1.
+	 */
+	private int findValue(String name) throws RegistryException {
+	    if (name == null) {
+		name = "";
+	    }
+	    try {
+		int count = getValueCount();
+		if (count == 0) {
+		    return -1;
+		}
+		int list = cell(LittleEndian.getInt(bins, cell + 40));
+		for (int i=0; i < count; i++) {
+		    int vk = cell(LittleEndian.getInt(bins, list + 4*i));
+		    if (valueName(vk).equalsIgnoreCase(name)) {
+			return vk;
+		    }
+		}
+		return -1;
+	    } catch (IndexOutOfBoundsException e) {
+		throw corrupt(cell);
+	    }
+	}
+
+	private IValue newValue(int vk) throws RegistryException {
+	    return RegistryValue.newInstance(this, valueName(vk), LittleEndian.getInt(bins, vk + 12), valueData(vk));
+	}
+    }
+
+    // Private
+
+    private Key newKey(int offset, String path) throws RegistryException {
+	int nk = cell(offset);
+	keyName(nk); // validates the signature
+	String name = hive.getName();
+	if (path.length() > 0) {
+	    int ptr = path.lastIndexOf(IRegistry.DELIM_STR);
+	    name = ptr == -1 ? path : path.substring(ptr + 1);
+	}
+	return new Key(nk, path, name);
+    }
+
+    /**
+     * Get the position of the data of the cell at the specified offset (relative to the start of the hive bins).
+     */
+    private int cell(int offset) throws RegistryException {
+	if (offset < 0 || offset + 4 >= bins.limit()) {
+	    throw corrupt(offset);
+	}
+	return offset + 4;
+    }
+
+    /**
+     * Get the size of the data of the cell at the specified data position.
+     */
+    private int cellSize(int pos) {
+	return Math.abs(LittleEndian.getInt(bins, pos - 4)) - 4;
+    }
+
+    private String keyName(int nk) throws RegistryException {
+	if (LittleEndian.getUShort(bins, nk) != 0x6B6E) { // nk
+	    throw corrupt(nk);
+	}
+	int flags = LittleEndian.getUShort(bins, nk + 2);
+	int len = LittleEndian.getUShort(bins, nk + 72) & 0xFFFF;
+	return decodeName(nk + 76, len, (flags & KEY_COMP_NAME) == KEY_COMP_NAME);
+    }
+
+    private String valueName(int vk) throws RegistryException {
+	if (LittleEndian.getUShort(bins, vk) != 0x6B76) { // vk
+	    throw corrupt(vk);
+	}
+	int len = LittleEndian.getUShort(bins, vk + 2) & 0xFFFF;
+	int flags = LittleEndian.getUShort(bins, vk + 16);
+	return decodeName(vk + 20, len, (flags & VALUE_COMP_NAME) == VALUE_COMP_NAME);
+    }
+
+    private String decodeName(int pos, int len, boolean compressed) {
+	if (compressed) {
+	    char[] chars = new char[len];
+	    for (int i=0; i < len; i++) {
+		chars[i] = (char)(bins.get(pos + i) & 0xFF);
+	    }
+	    return new String(chars);
+	} else {
+	    char[] chars = new char[len / 2];
+	    for (int i=0; i < chars.length; i++) {
+		chars[i] = (char)(LittleEndian.getUShort(bins, pos + 2*i) & 0xFFFF);
+	    }
+	    return new String(chars);
+	}
+    }
+
+    /**
+     * Get the raw data of a value, which may be resident in the vk record itself, in a single data cell, or (for large
+     * values in hives of version 1.4 and later) in the segments of a db record. Except for segmented data, which must be
+     * assembled, the result is a slice of the hive bins.
+     */
+    private ByteBuffer valueData(int vk) throws RegistryException {
+	int size = LittleEndian.getInt(bins, vk + 4);
+	if ((size & 0x80000000) != 0) {
+	    size = Math.min(4, size & 0x7FFFFFFF);
+	    return slice(vk + 8, size);
+	} else if (size == 0) {
+	    return slice(vk, 0);
+	}
+	int data = cell(LittleEndian.getInt(bins, vk + 8));
+	if (size > MAX_SEGMENT && minorVersion > 3 && LittleEndian.getUShort(bins, data) == 0x6264) { // db
+	    int count = LittleEndian.getUShort(bins, data + 2) & 0xFFFF;
+	    int list = cell(LittleEndian.getInt(bins, data + 4));
+	    byte[] buff = new byte[size];
+	    int offset = 0;
+	    for (int i=0; i < count && offset < size; i++) {
+		int segment = cell(LittleEndian.getInt(bins, list + 4*i));
+		int len = Math.min(Math.min(MAX_SEGMENT, cellSize(segment)), size - offset);
+		read(segment, buff, offset, len);
+		offset += len;
+	    }
+	    if (offset < size) {
+		throw corrupt(data);
+	    }
+	    return ByteBuffer.wrap(buff);
+	}
+	return slice(data, Math.min(size, cellSize(data)));
+    }
+
+    private ByteBuffer slice(int pos, int len) {
+	ByteBuffer dup = bins.duplicate();
+	dup.position(pos);
+	dup.limit(pos + len);
+	return dup.slice();
+    }
+
+    private void read(int pos, byte[] buff, int offset, int len) {
+	ByteBuffer dup = bins.duplicate();
+	dup.position(pos);
+	dup.get(buff, offset, len);
+    }
+
+    private RegistryException corrupt(int offset) {
+	return new RegistryException(Message.getMessage(Message.ERROR_REGF, name, "0x" + Integer.toHexString(offset)));
+    }
+
+    /**
+     * Compute the lh hash of a name, or -1 if the name contains non-ASCII characters (whose upper-case forms might not be
+     * computed the same way as Windows does).
+     */
+    private static long hash(String name) {
+	int hash = 0;
+	for (int i=0; i < name.length(); i++) {
+	    char ch = name.charAt(i);
+	    if (ch > 0x7F) {
+		return -1;
+	    }
+	    hash = 37 * hash + Character.toUpperCase(ch);
+	}
+	return 0xFFFFFFFFL & hash;
+    }
+
+    /**
+     * Test whether an lf hint (the first four characters of a name) is consistent with a (pure ASCII) name.
+     */
+    private static boolean hintMatches(int hint, String name) {
+	for (int i=0; i < 4; i++) {
+	    char ch = (char)((hint >> (8*i)) & 0xFF);
+	    if (i >= name.length()) {
+		return ch == 0;
+	    } else if (Character.toUpperCase(ch) != Character.toUpperCase(name.charAt(i))) {
+		return false;
+	    }
+	}
+	return true;
+    }
+
+    /**
+     * Strip leading and trailing delimiters from a registry key path (null is treated as "").
+     */
+    static String trim(String path) {
+	if (path == null) {
+	    return "";
+	}
+	while (path.startsWith(IRegistry.DELIM_STR)) {
+	    path = path.substring(1);
+	}
+	while (path.endsWith(IRegistry.DELIM_STR)) {
+	    path = path.substring(0, path.length() - 1);
+	}
+	return path;
+    }
+}
@@ -0,0 +1,336 @@
+// Copyright (C) 2026 Arctic Wolf Networks, Inc.  All rights reserved.
+// This software is licensed under the LGPL 3.0 license available at http://www.gnu.org/licenses/lgpl.txt
+
+package jsaf.provider.windows.registry;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+
+import org.slf4j.cal10n.LocLogger;
+
+import jsaf.Message;
+import jsaf.intf.util.IDisposable;
+import jsaf.intf.util.ISearchable;
+import jsaf.intf.windows.registry.IExpandStringValue;
+import jsaf.intf.windows.registry.IKey;
+import jsaf.intf.windows.registry.IRegistry;
+import jsaf.intf.windows.registry.IStringValue;
+import jsaf.intf.windows.registry.IValue;
+
+/**
+ * An IRegistry composed of key trees that are held locally -- registry hive files (see HiveFile) and exported subtrees
+ * (see RegistrySnapshot) -- which can be used to evaluate a registry without any access to the system from which they
+ * were obtained. Each tree is mounted at the path of its root key; keys above the mount points are synthesized, and have
+ * no values.
+ *
+ * @author David A. Solin
+ * @version %I% %G%
+ * @since 1.7.0
+ */
+public class OfflineRegistry implements IRegistry, IDisposable {
+    private LocLogger logger;
+    private List<IKey> roots;
+    private List<HiveFile> files;
+    private RegistrySearcher searcher;
+
+    /**
+     * Create an empty OfflineRegistry. Use the load methods to mount hive files.
+     */
+    public OfflineRegistry(LocLogger logger) {
+	this.logger = logger;
+	roots = new ArrayList<IKey>();
+	files = new ArrayList<HiveFile>();
+    }
+
+    /**
+     * Mount an open HiveFile, at its own hive and path. The file will be closed when the registry is disposed.
+     */
+    public synchronized void load(HiveFile file) {
+	files.add(file);
+	roots.add(file.getRoot());
+    }
+
+    /**
+     * Mount a key tree (e.g., the root key of a RegistrySnapshot), at the key's own hive and path.
+     */
+    public synchronized void load(IKey root) {
+	roots.add(root);
+    }
+
+    // Implement IDisposable
+
+    /**
+     * Close all the mounted hive files.
+     */
+    public synchronized void dispose() {
+	if (searcher != null) {
+	    searcher.dispose();
+	    searcher = null;
+	}
+	for (HiveFile file : files) {
+	    try {
+		file.close();
+	    } catch (IOException e) {
+		logger.warn(Message.getMessage(Message.ERROR_EXCEPTION), e);
+	    }
+	}
+	files.clear();
+	roots.clear();
+    }
+
+    // Implement ILoggable
+
+    public LocLogger getLogger() {
+	return logger;
+    }
+
+    public void setLogger(LocLogger logger) {
+	this.logger = logger;
+    }
+
+    // Implement IRegistry
+
+    public IKey getHive(Hive hive) {
+	try {
+	    return getKey(hive, "");
+	} catch (NoSuchElementException e) {
+	} catch (RegistryException e) {
+	    logger.warn(Message.getMessage(Message.ERROR_EXCEPTION), e);
+	}
+	return new MountPointKey(hive, "");
+    }
+
+    public IKey getKey(String fullPath) throws NoSuchElementException, RegistryException {
+	int ptr = fullPath.indexOf(DELIM_STR);
+	if (ptr == -1) {
+	    return getHive(Hive.fromName(fullPath));
+	}
+	return getKey(Hive.fromName(fullPath.substring(0, ptr)), fullPath.substring(ptr + 1));
+    }
+
+    public IKey[] getKeys(String[] fullPaths) throws RegistryException {
+	IKey[] keys = new IKey[fullPaths.length];
+	for (int i=0; i < fullPaths.length; i++) {
+	    try {
+		keys[i] = getKey(fullPaths[i]);
+	    } catch (NoSuchElementException e) {
+	    }
+	}
+	return keys;
+    }
+
+    /**
+     * Return a key from a hive. The key is read from the mounted tree with the longest path that contains it.
+     */
+    public IKey getKey(Hive hive, String path) throws NoSuchElementException, RegistryException {
+	path = HiveFile.trim(path);
+	IKey root = null;
+	synchronized(this) {
+	    for (IKey key : roots) {
+		if (key.getHive() == hive && isAncestorOrSelf(key.getPath(), path)) {
+		    if (root == null || key.getPath().length() > root.getPath().length()) {
+			root = key;
+		    }
+		}
+	    }
+	}
+	if (root != null) {
+	    IKey key = root;
+	    for (String segment : path.substring(root.getPath().length()).split(ESCAPED_DELIM)) {
+		if (segment.length() > 0) {
+		    key = key.getSubkey(segment);
+		}
+	    }
+	    return key;
+	} else if (listMountPointChildren(hive, path).length > 0) {
+	    return new MountPointKey(hive, path);
+	} else {
+	    throw new NoSuchElementException(hive.getName() + DELIM_STR + path);
+	}
+    }
+
+    public IKey[] getKeys(Hive hive, String[] paths) throws RegistryException {
+	IKey[] keys = new IKey[paths.length];
+	for (int i=0; i < paths.length; i++) {
+	    try {
+		keys[i] = getKey(hive, paths[i]);
+	    } catch (NoSuchElementException e) {
+	    }
+	}
+	return keys;
+    }
+
+    public IKey[] enumSubkeys(IKey key) throws RegistryException {
+	String[] names = key.listSubkeys();
+	IKey[] keys = new IKey[names.length];
+	for (int i=0; i < names.length; i++) {
+	    keys[i] = key.getSubkey(names[i]);
+	}
+	return keys;
+    }
+
+    public IValue getValue(IKey key, String name) throws NoSuchElementException, RegistryException {
+	return key.getValue(name);
+    }
+
+    public IValue[] enumValues(IKey key) throws RegistryException {
+	return key.listValues();
+    }
+
+    public IValue[] enumValues(Hive hive, String[] paths) throws RegistryException {
+	List<IValue> values = new ArrayList<IValue>();
+	for (IKey key : getKeys(hive, paths)) {
+	    if (key != null) {
+		values.addAll(Arrays.asList(key.listValues()));
+	    }
+	}
+	return values.toArray(new IValue[values.size()]);
+    }
+
+    public String getStringValue(Hive hive, String subkey, String value) throws RegistryException {
+	try {
+	    IValue val = getKey(hive, subkey).getValue(value);
+	    switch(val.getType()) {
+	      case REG_SZ:
+		return ((IStringValue)val).getData();
+	      case REG_EXPAND_SZ:
+		return ((IExpandStringValue)val).getData();
+	    }
+	} catch (NoSuchElementException e) {
+	}
+	return null;
+    }
+
+    /**
+     * Load a local registry hive file, and mount it at the specified hive and key path.
+     *
+     * @param filePath the path to a hive file on the local machine
+     */
+    public void load(String filePath, Hive hive, String keyPath) throws RegistryException {
+	try {
+	    load(new HiveFile(new File(filePath), hive, keyPath));
+	} catch (IOException e) {
+	    throw new RegistryException(e);
+	}
+    }
+
+    /**
+     * Returns a RegistrySearcher for the mounted key trees.
+     */
+    public synchronized ISearchable<IKey> getSearcher() {
+	if (searcher == null) {
+	    searcher = new RegistrySearcher(this, Runtime.getRuntime().availableProcessors());
+	}
+	return searcher;
+    }
+
+    // Private
+
+    /**
+     * Get the names of the child keys of the path that lie on the way to mount points beneath it.
+     */
+    private synchronized String[] listMountPointChildren(Hive hive, String path) {
+	TreeSet<String> names = new TreeSet<String>(String.CASE_INSENSITIVE_ORDER);
+	for (IKey root : roots) {
+	    String mount = root.getPath();
+	    if (root.getHive() == hive && mount.length() > path.length() && isAncestorOrSelf(path, mount)) {
+		String rest = path.length() == 0 ? mount : mount.substring(path.length() + 1);
+		int ptr = rest.indexOf(DELIM_STR);
+		names.add(ptr == -1 ? rest : rest.substring(0, ptr));
+	    }
+	}
+	return names.toArray(new String[names.size()]);
+    }
+
+    /**
+     * Test whether the ancestor path is the same as, or an ancestor of, the path (case-insensitively).
+     */
+    private static boolean isAncestorOrSelf(String ancestor, String path) {
+	if (ancestor.length() == 0) {
+	    return true;
+	} else if (!path.regionMatches(true, 0, ancestor, 0, ancestor.length())) {
+	    return false;
+	}
+	return path.length() == ancestor.length() || path.charAt(ancestor.length()) == DELIM_CH;
+    }
+
+    /**
+     * A synthesized key that lies above one or more mount points.
+     */
+    class MountPointKey implements IKey {
+	private Hive hive;
+	private String path;
+
+	MountPointKey(Hive hive, String path) {
+	    this.hive = hive;
+	    this.path = path;
+	}
+
+	@Override
+	public String toString() {
+	    return path.length() == 0 ? hive.getName() : hive.getName() + DELIM_STR + path;
+	}
+
+	public Hive getHive() {
+	    return hive;
+	}
+
+	public String getPath() {
+	    return path;
+	}
+
+	public String getName() {
+	    int ptr = path.lastIndexOf(DELIM_STR);
+	    return path.length() == 0 ? hive.getName() : path.substring(ptr + 1);
+	}
+
+	public boolean hasSubkey(String name) {
+	    for (String s : listMountPointChildren(hive, path)) {
+		if (s.equalsIgnoreCase(name)) {
+		    return true;
+		}
+	    }
+	    return false;
+	}
+
+	public String[] listSubkeys() {
+	    return listMountPointChildren(hive, path);
+	}
+
+	public String[] listSubkeys(Pattern p) {
+	    List<String> names = new ArrayList<String>();
+	    for (String s : listMountPointChildren(hive, path)) {
+		if (p.matcher(s).find()) {
+		    names.add(s);
+		}
+	    }
+	    return names.toArray(new String[names.size()]);
+	}
+
+	public IKey getSubkey(String name) throws NoSuchElementException, RegistryException {
+	    return getKey(hive, path.length() == 0 ? name : path + DELIM_STR + name);
+	}
+
+	public boolean hasValue(String name) {
+	    return false;
+	}
+
+	public IValue[] listValues() {
+	    return new IValue[0];
+	}
+
+	public IValue[] listValues(Pattern p) {
+	    return new IValue[0];
+	}
+
+	public IValue getValue(String name) throws NoSuchElementException {
+	    throw new NoSuchElementException(name);
+	}
+    }
+}
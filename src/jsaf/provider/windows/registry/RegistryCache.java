@@ -0,0 +1,343 @@
+// Copyright (C) 2026 Arctic Wolf Networks, Inc.  All rights reserved.
+// This software is licensed under the LGPL 3.0 license available at http://www.gnu.org/licenses/lgpl.txt
+
+package jsaf.provider.windows.registry;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.slf4j.cal10n.LocLogger;
+
+import jsaf.Message;
+import jsaf.intf.util.ILoggable;
+import jsaf.intf.windows.powershell.IRunspace;
+import jsaf.intf.windows.registry.IKey;
+import jsaf.intf.windows.registry.IRegistry;
+import jsaf.intf.windows.registry.IValue;
+import jsaf.intf.windows.system.IWindowsSession;
+import jsaf.provider.windows.powershell.ModuleLoader;
+import jsaf.provider.windows.powershell.PowershellException;
+import jsaf.util.SafeCLI;
+
+/**
+ * A session-level cache of registry key enumerations (subkey names and values), for a single view of the registry. The
+ * cache is shared by all the CachingRegistry instances for the same IWindowsSession and view (see getInstance).
+ *
+ * A cached entry is revalidated by comparing the key's LastWriteTime (which is read using a function defined in
+ * RegistryCache.psm1) with the LastWriteTime that was read when the entry was loaded, rather than by re-enumerating the
+ * key. Entries that have been validated within the grace period (IWindowsSession.PROP_REGISTRY_CACHE_GRACE) are used
+ * without revalidation, and the revalidate method can be used to check many entries using a single call. The number of
+ * entries is bounded (IWindowsSession.PROP_REGISTRY_CACHE_SIZE); the least-recently used entries are evicted first.
+ *
+ * @author David A. Solin
+ * @version %I% %G%
+ * @since 1.7.0
+ */
+public class RegistryCache implements ILoggable {
+    /**
+     * The default maximum number of cached keys.
+     */
+    public static final int DEFAULT_SIZE = 10000;
+
+    /**
+     * The default period (in milliseconds) after a validation during which an entry is used without revalidation.
+     */
+    public static final long DEFAULT_GRACE = 5000L;
+
+    static final String MODULE = "RegistryCache.psm1";
+
+    private static final int KEY_WOW64_64KEY = 0x0100;
+    private static final int KEY_WOW64_32KEY = 0x0200;
+    private static final int BATCH_SIZE = 256;
+    private static final long UNKNOWN = -1L;
+
+    private static final Map<IWindowsSession, Map<IWindowsSession.View, RegistryCache>> INSTANCES =
+	new WeakHashMap<IWindowsSession, Map<IWindowsSession.View, RegistryCache>>();
+
+    /**
+     * Get the RegistryCache for the specified session and view, creating it if necessary.
+     */
+    public static RegistryCache getInstance(IWindowsSession session, IWindowsSession.View view) {
+	synchronized(INSTANCES) {
+	    Map<IWindowsSession.View, RegistryCache> caches = INSTANCES.get(session);
+	    if (caches == null) {
+		caches = new HashMap<IWindowsSession.View, RegistryCache>();
+		INSTANCES.put(session, caches);
+	    }
+	    RegistryCache cache = caches.get(view);
+	    if (cache == null) {
+		cache = new RegistryCache(session, view);
+		caches.put(view, cache);
+	    }
+	    return cache;
+	}
+    }
+
+    private WeakReference<IWindowsSession> ref;
+    private IWindowsSession.View view;
+    private LocLogger logger;
+    private long grace;
+    private Map<String, CacheEntry> entries;
+
+    /**
+     * Create a RegistryCache for the specified session and view, sized and configured using the session's properties.
+     */
+    public RegistryCache(IWindowsSession session, IWindowsSession.View view) {
+	ref = new WeakReference<IWindowsSession>(session);
+	this.view = view;
+	logger = session.getLogger();
+	int n = session.getProperties().getIntProperty(IWindowsSession.PROP_REGISTRY_CACHE_SIZE);
+	final int size = n > 0 ? n : DEFAULT_SIZE;
+	long g = session.getProperties().getLongProperty(IWindowsSession.PROP_REGISTRY_CACHE_GRACE);
+	grace = g == 0 ? DEFAULT_GRACE : Math.max(0L, g);
+	entries = new LinkedHashMap<String, CacheEntry>(256, 0.75f, true) {
+	    @Override
+	    protected boolean removeEldestEntry(Map.Entry<String, CacheEntry> eldest) {
+		return size() > size;
+	    }
+	};
+    }
+
+    /**
+     * Get the names of the subkeys of a key, from the cache if possible.
+     *
+     * @param key a key of the (uncached) registry to which this cache corresponds
+     */
+    public String[] getSubkeys(IKey key) throws RegistryException {
+	CacheEntry entry = getValidEntry(key);
+	String[] subkeys = entry.subkeys;
+	if (subkeys == null) {
+	    subkeys = key.listSubkeys();
+	    synchronized(this) {
+		entry.subkeys = subkeys;
+	    }
+	}
+	return subkeys;
+    }
+
+    /**
+     * Get the values of a key, from the cache if possible.
+     *
+     * @param key a key of the (uncached) registry to which this cache corresponds
+     */
+    public IValue[] getValues(IKey key) throws RegistryException {
+	CacheEntry entry = getValidEntry(key);
+	IValue[] values = entry.values;
+	if (values == null) {
+	    values = key.listValues();
+	    synchronized(this) {
+		entry.values = values;
+	    }
+	}
+	return values;
+    }
+
+    /**
+     * Revalidate the cached entries for the specified keys, using a single call to read all their LastWriteTimes. Entries
+     * whose keys have changed are discarded.
+     */
+    public void revalidate(Collection<IKey> keys) throws RegistryException {
+	List<CacheEntry> stale = new ArrayList<CacheEntry>();
+	synchronized(this) {
+	    for (IKey key : keys) {
+		CacheEntry entry = entries.get(toString(key.getHive(), key.getPath()));
+		if (entry != null) {
+		    stale.add(entry);
+		}
+	    }
+	}
+	if (stale.size() > 0) {
+	    long[] times = getLastWriteTimes(stale);
+	    long now = System.currentTimeMillis();
+	    synchronized(this) {
+		for (int i=0; i < times.length; i++) {
+		    CacheEntry entry = stale.get(i);
+		    if (times[i] != UNKNOWN && times[i] == entry.lastWriteTime) {
+			entry.validated = now;
+		    } else if (entries.get(entry.id) == entry) {
+			entries.remove(entry.id);
+		    }
+		}
+	    }
+	}
+    }
+
+    /**
+     * Discard the cached entry for a key.
+     */
+    public synchronized void invalidate(IRegistry.Hive hive, String path) {
+	entries.remove(toString(hive, path));
+    }
+
+    /**
+     * Discard the cached entries for a key and all of its descendants.
+     */
+    public synchronized void invalidateTree(IRegistry.Hive hive, String path) {
+	String id = toString(hive, path);
+	String prefix = id + IRegistry.DELIM_STR;
+	Iterator<String> iter = entries.keySet().iterator();
+	while (iter.hasNext()) {
+	    String s = iter.next();
+	    if (s.equals(id) || s.startsWith(prefix)) {
+		iter.remove();
+	    }
+	}
+    }
+
+    /**
+     * Discard all the cached entries.
+     */
+    public synchronized void clear() {
+	entries.clear();
+    }
+
+    // Implement ILoggable
+
+    public LocLogger getLogger() {
+	return logger;
+    }
+
+    public void setLogger(LocLogger logger) {
+	this.logger = logger;
+    }
+
+    // Private
+
+    /**
+     * Get the entry for a key, revalidating it if its grace period has expired, or replacing it if it is stale. The
+     * LastWriteTime of a new entry is read before the key is enumerated, so that a change made during the enumeration
+     * will be noticed by the next revalidation.
+     */
+    private CacheEntry getValidEntry(IKey key) throws RegistryException {
+	String id = toString(key.getHive(), key.getPath());
+	CacheEntry entry;
+	synchronized(this) {
+	    entry = entries.get(id);
+	}
+	long now = System.currentTimeMillis();
+	if (entry != null) {
+	    if (now - entry.validated <= grace) {
+		return entry;
+	    }
+	    long lastWriteTime = getLastWriteTimes(Collections.singletonList(entry))[0];
+	    if (lastWriteTime != UNKNOWN && lastWriteTime == entry.lastWriteTime) {
+		entry.validated = now;
+		return entry;
+	    }
+	    entry = new CacheEntry(id, key.getHive(), key.getPath(), lastWriteTime, now);
+	} else {
+	    entry = new CacheEntry(id, key.getHive(), key.getPath(), UNKNOWN, now);
+	    entry.lastWriteTime = getLastWriteTimes(Collections.singletonList(entry))[0];
+	}
+	synchronized(this) {
+	    entries.put(id, entry);
+	}
+	return entry;
+    }
+
+    /**
+     * Read the LastWriteTimes of the keys of the specified entries.
+     */
+    private long[] getLastWriteTimes(List<CacheEntry> list) throws RegistryException {
+	IWindowsSession session = ref.get();
+	if (session == null) {
+	    throw new IllegalStateException();
+	}
+	long[] times = new long[list.size()];
+	try {
+	    IRunspace runspace = getRunspace(session);
+	    long timeout = session.getTimeout(IWindowsSession.Timeout.M);
+	    for (int start=0; start < list.size(); start+=BATCH_SIZE) {
+		int end = Math.min(list.size(), start + BATCH_SIZE);
+		List<Integer> indexes = new ArrayList<Integer>();
+		IRegistry.Hive hive = null;
+		StringBuffer paths = new StringBuffer();
+		for (int i=start; i < end; i++) {
+		    CacheEntry entry = list.get(i);
+		    times[i] = UNKNOWN;
+		    if (hive != null && entry.hive != hive) {
+			invoke(runspace, hive, paths, indexes, times, timeout);
+			indexes.clear();
+			paths = new StringBuffer();
+		    }
+		    hive = entry.hive;
+		    try {
+			String path = SafeCLI.checkArgument(entry.path, session);
+			if (paths.length() > 0) {
+			    paths.append(",");
+			}
+			paths.append("'").append(path).append("'");
+			indexes.add(i);
+		    } catch (IllegalArgumentException e) {
+			// the entry cannot be validated
+		    }
+		}
+		if (indexes.size() > 0) {
+		    invoke(runspace, hive, paths, indexes, times, timeout);
+		}
+	    }
+	} catch (PowershellException e) {
+	    throw new RegistryException(e);
+	}
+	return times;
+    }
+
+    private void invoke(IRunspace runspace, IRegistry.Hive hive, StringBuffer paths, List<Integer> indexes, long[] times,
+		long timeout) throws PowershellException {
+
+	if (indexes.size() == 0) {
+	    return;
+	}
+	StringBuffer cmd = new StringBuffer("Get-JsafRegistryLastWriteTime -Hive ").append(hive.getId());
+	cmd.append(" -Wow ").append(view == IWindowsSession.View._32BIT ? KEY_WOW64_32KEY : KEY_WOW64_64KEY);
+	cmd.append(" -Paths @(").append(paths).append(")");
+	String data = runspace.invoke(cmd.toString(), timeout);
+	if (data != null) {
+	    String[] lines = data.split("\r\n|\r|\n");
+	    for (int i=0; i < lines.length && i < indexes.size(); i++) {
+		try {
+		    times[indexes.get(i)] = Long.parseLong(lines[i].trim());
+		} catch (NumberFormatException e) {
+		    logger.debug(Message.ERROR_IO, hive.getName(), lines[i]);
+		}
+	    }
+	}
+    }
+
+    /**
+     * Get a runspace into which the module has been loaded.
+     */
+    private IRunspace getRunspace(IWindowsSession session) throws PowershellException {
+	return ModuleLoader.getRunspace(session.getRunspacePool(), RegistryCache.class, MODULE);
+    }
+
+    private static String toString(IRegistry.Hive hive, String path) {
+	path = HiveFile.trim(path);
+	return path.length() == 0 ? hive.getName() : hive.getName() + IRegistry.DELIM_STR + path.toLowerCase();
+    }
+
+    static class CacheEntry {
+	String id, path;
+	IRegistry.Hive hive;
+	long lastWriteTime;
+	volatile long validated;
+	String[] subkeys;
+	IValue[] values;
+
+	CacheEntry(String id, IRegistry.Hive hive, String path, long lastWriteTime, long validated) {
+	    this.id = id;
+	    this.hive = hive;
+	    this.path = HiveFile.trim(path);
+	    this.lastWriteTime = lastWriteTime;
+	    this.validated = validated;
+	}
+    }
+}
@@ -0,0 +1,458 @@
+// Copyright (C) 2026 Arctic Wolf Networks, Inc.  All rights reserved.
+// This software is licensed under the LGPL 3.0 license available at http://www.gnu.org/licenses/lgpl.txt
+
+package jsaf.provider.windows.registry;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.regex.Pattern;
+
+import org.slf4j.cal10n.LocLogger;
+
+import jsaf.Message;
+import jsaf.intf.util.ILoggable;
+import jsaf.intf.windows.powershell.IRunspace;
+import jsaf.intf.windows.registry.IKey;
+import jsaf.intf.windows.registry.IRegistry;
+import jsaf.intf.windows.registry.IValue;
+import jsaf.intf.windows.system.IWindowsSession;
+import jsaf.provider.windows.powershell.ModuleLoader;
+import jsaf.provider.windows.powershell.PowershellException;
+import jsaf.util.Base64;
+import jsaf.util.Strings;
+
+/**
+ * Resolves a batch of registry lookups -- each a hive, key path and (optionally) value name -- in several views of the
+ * registry of a session (by default, both the 32-bit and 64-bit views), using a single Powershell invocation. The
+ * function that performs the lookups (defined in RegistryLookup.psm1) opens each key beneath a base key for the view,
+ * so WOW64 redirection is handled on the target, rather than by making a separate round-trip to each view's IRegistry.
+ * Opening a base key for a view requires .NET 4.0; on targets where the function reports that it cannot do so, the
+ * lookups are made using the IRegistry for each view instead.
+ *
+ * The keys of the results hold the values that were looked up. Any other information about a key (such as its subkeys,
+ * or values that were not requested) is obtained from the IRegistry for the view, when it is needed.
+ *
+ * @author David A. Solin
+ * @version %I% %G%
+ * @since 1.7.0
+ */
+public class RegistryLookup implements ILoggable {
+    static final String MODULE = "RegistryLookup.psm1";
+
+    private static final String ALL = "*";
+
+    private IWindowsSession session;
+    private LocLogger logger;
+    private boolean unsupported = false;
+
+    /**
+     * Create a RegistryLookup for the specified session.
+     */
+    public RegistryLookup(IWindowsSession session) {
+	this.session = session;
+	logger = session.getLogger();
+    }
+
+    /**
+     * Perform the lookups in each of the views supported by the session.
+     */
+    public List<Result> lookup(List<Request> requests) throws RegistryException {
+	List<IWindowsSession.View> views = new ArrayList<IWindowsSession.View>();
+	for (IWindowsSession.View view : new IWindowsSession.View[] {IWindowsSession.View._32BIT, IWindowsSession.View._64BIT}) {
+	    if (session.supports(view)) {
+		views.add(view);
+	    }
+	}
+	return lookup(requests, views.toArray(new IWindowsSession.View[views.size()]));
+    }
+
+    /**
+     * Perform the lookups in the specified views.
+     *
+     * @return the results, ordered by request and then by view
+     */
+    public List<Result> lookup(List<Request> requests, IWindowsSession.View... views) throws RegistryException {
+	List<Result> results = new ArrayList<Result>();
+	if (requests.size() == 0 || views.length == 0) {
+	    return results;
+	}
+	if (unsupported) {
+	    return lookupViews(requests, views);
+	}
+	StringBuffer cmd = new StringBuffer("Get-JsafRegistryValues -Requests ");
+	for (int i=0; i < requests.size(); i++) {
+	    Request request = requests.get(i);
+	    if (i > 0) {
+		cmd.append(",");
+	    }
+	    cmd.append("'").append(RegistrySnapshot.getRegistryName(request.hive));
+	    cmd.append(",").append(encode(request.path));
+	    cmd.append(",").append(request.name == null ? ALL : encode(request.name)).append("'");
+	}
+	cmd.append(" -Views ");
+	Result[][] table = new Result[requests.size()][views.length];
+	for (int i=0; i < views.length; i++) {
+	    if (i > 0) {
+		cmd.append(",");
+	    }
+	    cmd.append(getViewName(views[i]));
+	    for (int j=0; j < requests.size(); j++) {
+		table[j][i] = new Result(requests.get(j), views[i]);
+	    }
+	}
+	String data;
+	try {
+	    data = getRunspace().invoke(cmd.toString(), session.getTimeout(IWindowsSession.Timeout.L));
+	} catch (PowershellException e) {
+	    throw new RegistryException(e);
+	}
+	if (data != null) {
+	    for (String line : data.split("\r?\n")) {
+		if (line.length() == 0) {
+		    continue;
+		} else if ("U".equals(line)) {
+		    logger.debug(Message.STATUS_REGISTRY_LOOKUP_VIEWS);
+		    unsupported = true;
+		    return lookupViews(requests, views);
+		}
+		String[] fields = line.split("\t", -1);
+		try {
+		    Result result = table[Integer.parseInt(fields[1])][indexOf(views, fields[2])];
+		    switch(fields[0].charAt(0)) {
+		      case 'K':
+			result.key = new Key(result.request.hive, result.request.path, result.view, result.request.name == null);
+			break;
+		      case 'V': {
+			byte[] buff = Base64.decode(fields[5]);
+			String name = new String(Base64.decode(fields[3]), Strings.UTF8);
+			result.key.addValue(RegistryValue.newInstance(result.key, name, Integer.parseInt(fields[4]), buff));
+			break;
+		      }
+		      case 'E':
+			result.error = fields.length > 3 ? fields[3] : "";
+			break;
+		    }
+		} catch (IOException e) {
+		    logger.warn(Message.ERROR_IO, line, e.getMessage());
+		} catch (RuntimeException e) {
+		    logger.warn(Message.ERROR_IO, line, e.getMessage());
+		}
+	    }
+	}
+	for (Result[] row : table) {
+	    for (Result result : row) {
+		results.add(result);
+	    }
+	}
+	return results;
+    }
+
+    // Implement ILoggable
+
+    public LocLogger getLogger() {
+	return logger;
+    }
+
+    public void setLogger(LocLogger logger) {
+	this.logger = logger;
+    }
+
+    /**
+     * A registry lookup.
+     */
+    public static class Request {
+	private IRegistry.Hive hive;
+	private String path, name;
+
+	/**
+	 * Create a request for all the values of a key.
+	 */
+	public Request(IRegistry.Hive hive, String path) {
+	    this(hive, path, null);
+	}
+
+	/**
+	 * Create a request for a single value of a key.
+	 *
+	 * @param name the name of the value ("" for the default value), or null for all values
+	 */
+	public Request(IRegistry.Hive hive, String path, String name) {
+	    this.hive = hive;
+	    this.path = HiveFile.trim(path);
+	    this.name = name;
+	}
+
+	public IRegistry.Hive getHive() {
+	    return hive;
+	}
+
+	public String getPath() {
+	    return path;
+	}
+
+	/**
+	 * Get the requested value name, or null if all the values were requested.
+	 */
+	public String getName() {
+	    return name;
+	}
+    }
+
+    /**
+     * The result of a lookup in a single view.
+     */
+    public class Result {
+	private Request request;
+	private IWindowsSession.View view;
+	private Key key;
+	private String error;
+
+	Result(Request request, IWindowsSession.View view) {
+	    this.request = request;
+	    this.view = view;
+	}
+
+	public Request getRequest() {
+	    return request;
+	}
+
+	public IWindowsSession.View getView() {
+	    return view;
+	}
+
+	/**
+	 * Get the key, or null if it does not exist in the view (or could not be read).
+	 */
+	public IKey getKey() {
+	    return key;
+	}
+
+	/**
+	 * Get the requested value, or null if the key or value does not exist, or if no value name was requested.
+	 */
+	public IValue getValue() {
+	    if (key == null || request.name == null) {
+		return null;
+	    }
+	    return key.findValue(request.name);
+	}
+
+	/**
+	 * Get the error that prevented the lookup, or null if there was none.
+	 */
+	public String getError() {
+	    return error;
+	}
+    }
+
+    /**
+     * A key in a view, holding the values that were looked up.
+     */
+    class Key implements IKey {
+	private IRegistry.Hive hive;
+	private String path;
+	private IWindowsSession.View view;
+	private boolean complete;
+	private List<IValue> values;
+	private IKey live;
+
+	Key(IRegistry.Hive hive, String path, IWindowsSession.View view, boolean complete) {
+	    this.hive = hive;
+	    this.path = path;
+	    this.view = view;
+	    this.complete = complete;
+	    values = new ArrayList<IValue>();
+	}
+
+	@Override
+	public String toString() {
+	    return path.length() == 0 ? hive.getName() : hive.getName() + IRegistry.DELIM_STR + path;
+	}
+
+	public IRegistry.Hive getHive() {
+	    return hive;
+	}
+
+	public String getPath() {
+	    return path;
+	}
+
+	public String getName() {
+	    return path.length() == 0 ? hive.getName() : path.substring(path.lastIndexOf(IRegistry.DELIM_STR) + 1);
+	}
+
+	public boolean hasSubkey(String name) {
+	    try {
+		return getLiveKey().hasSubkey(name);
+	    } catch (NoSuchElementException e) {
+	    } catch (RegistryException e) {
+		logger.warn(Message.getMessage(Message.ERROR_EXCEPTION), e);
+	    }
+	    return false;
+	}
+
+	public String[] listSubkeys() throws RegistryException {
+	    return getLiveKey().listSubkeys();
+	}
+
+	public String[] listSubkeys(Pattern p) throws RegistryException {
+	    return getLiveKey().listSubkeys(p);
+	}
+
+	public IKey getSubkey(String name) throws NoSuchElementException, RegistryException {
+	    return getLiveKey().getSubkey(name);
+	}
+
+	public boolean hasValue(String name) {
+	    if (findValue(name) != null) {
+		return true;
+	    } else if (complete) {
+		return false;
+	    }
+	    try {
+		return getLiveKey().hasValue(name);
+	    } catch (NoSuchElementException e) {
+	    } catch (RegistryException e) {
+		logger.warn(Message.getMessage(Message.ERROR_EXCEPTION), e);
+	    }
+	    return false;
+	}
+
+	public IValue[] listValues() throws RegistryException {
+	    if (complete) {
+		return values.toArray(new IValue[values.size()]);
+	    }
+	    return getLiveKey().listValues();
+	}
+
+	public IValue[] listValues(Pattern p) throws RegistryException {
+	    if (complete) {
+		List<IValue> result = new ArrayList<IValue>();
+		for (IValue value : values) {
+		    if (p.matcher(value.getName()).find()) {
+			result.add(value);
+		    }
+		}
+		return result.toArray(new IValue[result.size()]);
+	    }
+	    return getLiveKey().listValues(p);
+	}
+
+	public IValue getValue(String name) throws NoSuchElementException, RegistryException {
+	    IValue value = findValue(name);
+	    if (value != null) {
+		return value;
+	    } else if (complete) {
+		throw new NoSuchElementException(name);
+	    }
+	    return getLiveKey().getValue(name);
+	}
+
+	// Internal
+
+	void addValue(IValue value) {
+	    values.add(value);
+	}
+
+	IValue findValue(String name) {
+	    if (name == null) {
+		name = "";
+	    }
+	    for (IValue value : values) {
+		try {
+		    if (value.getName().equalsIgnoreCase(name)) {
+			return value;
+		    }
+		} catch (RegistryException e) {
+		    logger.warn(Message.getMessage(Message.ERROR_EXCEPTION), e);
+		}
+	    }
+	    return null;
+	}
+
+	void setLiveKey(IKey live) {
+	    this.live = live;
+	}
+
+	// Private
+
+	private synchronized IKey getLiveKey() throws NoSuchElementException, RegistryException {
+	    if (live == null) {
+		IRegistry registry = session.getRegistry(view);
+		live = path.length() == 0 ? registry.getHive(hive) : registry.getKey(hive, path);
+	    }
+	    return live;
+	}
+    }
+
+    // Private
+
+    private static String encode(String s) {
+	return Base64.encodeBytes(s.getBytes(Strings.UTF8));
+    }
+
+    private static String getViewName(IWindowsSession.View view) {
+	switch(view) {
+	  case _32BIT:
+	    return "Registry32";
+	  case _64BIT:
+	  default:
+	    return "Registry64";
+	}
+    }
+
+    private static int indexOf(IWindowsSession.View[] views, String name) {
+	for (int i=0; i < views.length; i++) {
+	    if (getViewName(views[i]).equals(name)) {
+		return i;
+	    }
+	}
+	throw new NoSuchElementException(name);
+    }
+
+    /**
+     * Perform the lookups using the IRegistry for each view, for targets on which the module cannot open the views.
+     */
+    private List<Result> lookupViews(List<Request> requests, IWindowsSession.View[] views) throws RegistryException {
+	List<Result> results = new ArrayList<Result>();
+	for (Request request : requests) {
+	    for (IWindowsSession.View view : views) {
+		Result result = new Result(request, view);
+		try {
+		    IRegistry registry = session.getRegistry(view);
+		    IKey live = null;
+		    if (request.path.length() == 0) {
+			live = registry.getHive(request.hive);
+		    } else {
+			live = registry.getKey(request.hive, request.path);
+		    }
+		    Key key = new Key(request.hive, request.path, view, request.name == null);
+		    key.setLiveKey(live);
+		    if (request.name == null) {
+			for (IValue value : live.listValues()) {
+			    key.addValue(value);
+			}
+		    } else if (live.hasValue(request.name)) {
+			key.addValue(live.getValue(request.name));
+		    }
+		    result.key = key;
+		} catch (NoSuchElementException e) {
+		    // the key (or value) does not exist in the view
+		} catch (RegistryException e) {
+		    result.error = e.getMessage();
+		}
+		results.add(result);
+	    }
+	}
+	return results;
+    }
+
+    /**
+     * Get a runspace (for the native view) into which the module has been loaded.
+     */
+    private IRunspace getRunspace() throws PowershellException {
+	return ModuleLoader.getRunspace(session.getRunspacePool(), RegistryLookup.class, MODULE);
+    }
+}
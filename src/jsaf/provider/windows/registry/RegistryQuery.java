@@ -0,0 +1,562 @@
+// Copyright (C) 2026 Arctic Wolf Networks, Inc.  All rights reserved.
+// This software is licensed under the LGPL 3.0 license available at http://www.gnu.org/licenses/lgpl.txt
+
+package jsaf.provider.windows.registry;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import jsaf.Message;
+import jsaf.intf.util.ISearchable.Condition;
+import jsaf.intf.util.ISearchable.UnsupportedSearchConditionException;
+import jsaf.intf.util.ISearchable.UnsupportedSearchFieldException;
+import jsaf.intf.windows.registry.IRegistry;
+import jsaf.intf.windows.registry.IRegistry.RegCondition;
+import jsaf.util.Base64;
+import jsaf.util.Regex;
+import jsaf.util.Strings;
+
+/**
+ * A registry search, compiled from a list of IRegistry.RegCondition search conditions, which is shared by the registry
+ * searcher implementations.
+ *
+ * The conditions are interpreted as follows:
+ *  - FIELD_HIVE (TYPE_EQUALITY, an IRegistry.Hive) is required.
+ *  - FIELD_KEY with TYPE_EQUALITY specifies the key from which to search (the hive itself, if absent). With TYPE_PATTERN
+ *    it specifies a pattern that is matched against the paths of keys (beneath the hive), and with TYPE_SUBKEY_PATTERN
+ *    a pattern that is matched against the paths of keys relative to the key from which the search begins.
+ *  - FIELD_VALUE (TYPE_EQUALITY or TYPE_PATTERN) and FIELD_VALUE_BASE64 (TYPE_EQUALITY, a base64-encoded UTF-8 name)
+ *    restrict the results to keys having a matching value. Value names are compared case-insensitively, and the name
+ *    of a default value is "".
+ *  - FIELD_DEPTH limits the number of levels beneath the search key (or beneath a seed, for TYPE_PATTERN) at which
+ *    results can lie. The default is 0, or unlimited if a key pattern is specified.
+ *
+ * Traversal is seeded only at the literal key prefixes of the (left-anchored) alternations of a key pattern, and is
+ * pruned beneath keys at which no path can match the pattern. For walks performed on the target, where that test is not
+ * available, the patterns can be reduced to per-level prefix patterns (see Levels).
+ *
+ * @author David A. Solin
+ * @version %I% %G%
+ * @since 1.7.0
+ */
+class RegistryQuery {
+    private IRegistry.Hive hive;
+    private String root, valueName;
+    private Pattern keyPattern, subkeyPattern, valuePattern;
+    private int maxDepth = 0;
+    private List<String> seeds;
+
+    RegistryQuery(List<Condition> conditions) throws IllegalArgumentException {
+	boolean depthSet = false;
+	for (Condition condition : conditions) {
+	    switch(condition.getField()) {
+	      case Condition.FIELD_DEPTH:
+		maxDepth = ((Integer)condition.getValue()).intValue();
+		depthSet = true;
+		break;
+
+	      case RegCondition.FIELD_HIVE:
+		if (condition.getType() == Condition.TYPE_EQUALITY) {
+		    hive = (IRegistry.Hive)condition.getValue();
+		} else {
+		    throw new UnsupportedSearchConditionException(condition);
+		}
+		break;
+
+	      case RegCondition.FIELD_KEY:
+		switch(condition.getType()) {
+		  case Condition.TYPE_EQUALITY:
+		    root = HiveFile.trim((String)condition.getValue());
+		    break;
+		  case Condition.TYPE_PATTERN:
+		    keyPattern = (Pattern)condition.getValue();
+		    break;
+		  case RegCondition.TYPE_SUBKEY_PATTERN:
+		    subkeyPattern = (Pattern)condition.getValue();
+		    break;
+		  default:
+		    throw new UnsupportedSearchConditionException(condition);
+		}
+		break;
+
+	      case RegCondition.FIELD_VALUE:
+		switch(condition.getType()) {
+		  case Condition.TYPE_EQUALITY:
+		    valueName = (String)condition.getValue();
+		    break;
+		  case Condition.TYPE_PATTERN:
+		    valuePattern = (Pattern)condition.getValue();
+		    break;
+		  default:
+		    throw new UnsupportedSearchConditionException(condition);
+		}
+		break;
+
+	      case RegCondition.FIELD_VALUE_BASE64:
+		if (condition.getType() == Condition.TYPE_EQUALITY) {
+		    try {
+			valueName = new String(Base64.decode((String)condition.getValue()), Strings.UTF8);
+		    } catch (IOException e) {
+			throw new UnsupportedSearchConditionException(condition);
+		    }
+		} else {
+		    throw new UnsupportedSearchConditionException(condition);
+		}
+		break;
+
+	      default:
+		throw new UnsupportedSearchFieldException(condition);
+	    }
+	}
+	if (hive == null) {
+	    throw new IllegalArgumentException(Message.getMessage(Message.ERROR_REGISTRY_SEARCH_HIVE));
+	}
+	if (!depthSet && (keyPattern != null || subkeyPattern != null)) {
+	    maxDepth = Condition.DEPTH_UNLIMITED;
+	}
+	seeds = new ArrayList<String>();
+	if (keyPattern != null) {
+	    for (String alt : Regex.getAlternations(keyPattern)) {
+		String seed = getSeed(alt);
+		if (root == null || isAncestorOrSelf(root, seed)) {
+		    addSeed(seed);
+		} else if (isAncestorOrSelf(seed, root)) {
+		    addSeed(root);
+		}
+	    }
+	} else if (subkeyPattern != null) {
+	    String base = root == null ? "" : root;
+	    for (String alt : Regex.getAlternations(subkeyPattern)) {
+		addSeed(join(base, getSeed(alt)));
+	    }
+	} else {
+	    addSeed(root == null ? "" : root);
+	}
+    }
+
+    IRegistry.Hive getHive() {
+	return hive;
+    }
+
+    /**
+     * Get the paths of the keys from which traversal must begin. No seed lies beneath another.
+     */
+    List<String> getSeeds() {
+	return seeds;
+    }
+
+    /**
+     * Get the path relative to which TYPE_SUBKEY_PATTERN is matched ("" for the hive itself).
+     */
+    String getBase() {
+	return root == null ? "" : root;
+    }
+
+    Pattern getKeyPattern() {
+	return keyPattern;
+    }
+
+    Pattern getSubkeyPattern() {
+	return subkeyPattern;
+    }
+
+    /**
+     * Get the value name that a matching key must have, or null.
+     */
+    String getValueName() {
+	return valueName;
+    }
+
+    Pattern getValuePattern() {
+	return valuePattern;
+    }
+
+    int getMaxDepth() {
+	return maxDepth;
+    }
+
+    /**
+     * Get the level of a key (traversed from the specified seed) relative to the key from which depth is measured.
+     */
+    int getLevel(String seed, String path) {
+	String base = keyPattern == null ? getBase() : seed;
+	return countLevels(path) - countLevels(base);
+    }
+
+    /**
+     * Determine whether a key (traversed from the specified seed) satisfies the key conditions.
+     */
+    boolean matches(String seed, String path) {
+	if (maxDepth != Condition.DEPTH_UNLIMITED && getLevel(seed, path) > maxDepth) {
+	    return false;
+	}
+	return matchesPath(path);
+    }
+
+    /**
+     * Determine whether a key path satisfies the key pattern conditions, irrespective of depth.
+     */
+    boolean matchesPath(String path) {
+	if (root != null && !isAncestorOrSelf(root, path)) {
+	    return false;
+	} else if (keyPattern != null && !keyPattern.matcher(path).find()) {
+	    return false;
+	} else if (subkeyPattern != null) {
+	    String rel = relativize(path);
+	    if (rel.length() == 0 || !subkeyPattern.matcher(rel).find()) {
+		return false;
+	    }
+	}
+	return true;
+    }
+
+    /**
+     * Determine whether any key beneath the specified key (traversed from the specified seed) could satisfy the key
+     * conditions.
+     */
+    boolean descend(String seed, String path) {
+	if (maxDepth != Condition.DEPTH_UNLIMITED && getLevel(seed, path) >= maxDepth) {
+	    return false;
+	} else if (keyPattern != null && !mayMatchBelow(keyPattern, path)) {
+	    return false;
+	} else if (subkeyPattern != null && !mayMatchBelow(subkeyPattern, relativize(path))) {
+	    return false;
+	}
+	return true;
+    }
+
+    /**
+     * Get the per-level prefix patterns of the key pattern, or null if there is no key pattern or it cannot be reduced.
+     */
+    Levels getKeyLevels() {
+	return keyPattern == null ? null : Levels.getInstance(keyPattern);
+    }
+
+    /**
+     * Get the per-level prefix patterns of the subkey pattern (which apply to paths relative to the base), or null if
+     * there is no subkey pattern or it cannot be reduced.
+     */
+    Levels getSubkeyLevels() {
+	return subkeyPattern == null ? null : Levels.getInstance(subkeyPattern);
+    }
+
+    /**
+     * Determine whether the query restricts results to keys having a matching value.
+     */
+    boolean hasValueCondition() {
+	return valueName != null || valuePattern != null;
+    }
+
+    /**
+     * Determine whether a value name satisfies the value conditions.
+     */
+    boolean acceptValue(String name) {
+	if (name == null) {
+	    name = "";
+	}
+	if (valueName != null && !valueName.equalsIgnoreCase(name)) {
+	    return false;
+	} else if (valuePattern != null && !valuePattern.matcher(name).find()) {
+	    return false;
+	}
+	return true;
+    }
+
+    /**
+     * Append a key name to a path.
+     */
+    static String join(String path, String name) {
+	return path.length() == 0 ? name : new StringBuffer(path).append(IRegistry.DELIM_CH).append(name).toString();
+    }
+
+    /**
+     * Test whether the ancestor path is the same as, or an ancestor of, the path (case-insensitively).
+     */
+    static boolean isAncestorOrSelf(String ancestor, String path) {
+	if (ancestor.length() == 0) {
+	    return true;
+	} else if (!path.regionMatches(true, 0, ancestor, 0, ancestor.length())) {
+	    return false;
+	}
+	return path.length() == ancestor.length() || path.charAt(ancestor.length()) == IRegistry.DELIM_CH;
+    }
+
+    /**
+     * The prefix patterns that the paths of keys at each level must match, in order for a path pattern to match them or
+     * any of their descendants. They are derived from the left-anchored alternations of the pattern, by splitting each
+     * alternation at its (top-level, unquantified) delimiters into segments that each match exactly one key name. The
+     * splitting stops at the first segment that could match a delimiter; beneath that level, a path need only match the
+     * prefix of the alternation up to that segment.
+     */
+    static class Levels {
+	/**
+	 * Reduce a pattern to its per-level prefix patterns, or return null if any of its alternations is not left-anchored,
+	 * or could match a delimiter in its first segment.
+	 */
+	static Levels getInstance(Pattern p) {
+	    List<Alternation> alts = new ArrayList<Alternation>();
+	    int size = 0;
+	    boolean bounded = true;
+	    for (String alt : Regex.getAlternations(p)) {
+		if (!alt.startsWith("^")) {
+		    return null;
+		}
+		Alternation a = new Alternation(alt.substring(1));
+		if (a.segments.size() == 0) {
+		    return null;
+		}
+		alts.add(a);
+		if (a.isClosed()) {
+		    size = Math.max(size, a.segments.size());
+		} else {
+		    size = Math.max(size, a.segments.size() + 1);
+		    bounded = false;
+		}
+	    }
+	    List<String> patterns = new ArrayList<String>();
+	    for (int level=1; level <= size; level++) {
+		List<String> prefixes = new ArrayList<String>();
+		StringBuffer sb = new StringBuffer();
+		for (Alternation a : alts) {
+		    String prefix = a.getPrefix(level);
+		    if (prefix != null && !prefixes.contains(prefix)) {
+			prefixes.add(prefix);
+			if (sb.length() > 0) {
+			    sb.append("|");
+			}
+			sb.append("(?:").append(prefix).append(")");
+		    }
+		}
+		patterns.add(sb.toString());
+	    }
+	    return new Levels(patterns, bounded);
+	}
+
+	private List<String> patterns;
+	private boolean bounded;
+
+	private Levels(List<String> patterns, boolean bounded) {
+	    this.patterns = patterns;
+	    this.bounded = bounded;
+	}
+
+	/**
+	 * Get the patterns for levels 1 through N. If the levels are not bounded, the last pattern applies to all the
+	 * deeper levels too.
+	 */
+	List<String> getPatterns() {
+	    return patterns;
+	}
+
+	/**
+	 * Determine whether no path deeper than the number of patterns can match.
+	 */
+	boolean isBounded() {
+	    return bounded;
+	}
+    }
+
+    /**
+     * A left-anchored alternation (without its leading ^), split into segments.
+     */
+    static class Alternation {
+	List<String> segments;
+	boolean complete = false, anchored = false;
+
+	Alternation(String regex) {
+	    segments = new ArrayList<String>();
+	    int start = 0, len = regex.length();
+	    for (int i=0; i < len; i++) {
+		char ch = regex.charAt(i);
+		switch(ch) {
+		  case '\\':
+		    if (++i == len) {
+			return;
+		    }
+		    switch(regex.charAt(i)) {
+		      case '\\': // a delimiter
+			if (i + 1 < len && "*+?{".indexOf(regex.charAt(i + 1)) != -1) {
+			    return;
+			}
+			segments.add(regex.substring(start, i - 1));
+			start = i + 1;
+			break;
+		      case 'D':
+		      case 'S':
+		      case 'W':
+		      case 'P':
+		      case 'p':
+		      case 'Q':
+			return;
+		      default:
+			if (Character.isDigit(regex.charAt(i))) {
+			    return; // a back-reference
+			}
+			break;
+		    }
+		    break;
+
+		  case '[': {
+		    int end = i + 1;
+		    boolean negated = end < len && regex.charAt(end) == '^';
+		    if (negated) end++;
+		    if (end < len && regex.charAt(end) == ']') end++;
+		    boolean delim = false;
+		    char prev = 0;
+		    while (end < len && regex.charAt(end) != ']') {
+			char c = regex.charAt(end);
+			if (c == '[') {
+			    return; // a nested class
+			} else if (c == '\\') {
+			    if (++end == len || "DSWPpdswQ".indexOf(c = regex.charAt(end)) != -1) {
+				return;
+			    }
+			} else if (c == '-' && prev != 0 && end + 1 < len && regex.charAt(end + 1) != ']') {
+			    char hi = regex.charAt(++end);
+			    if (hi == '\\') {
+				if (++end == len) {
+				    return;
+				}
+				hi = regex.charAt(end);
+			    }
+			    if (prev <= '\\' && '\\' <= hi) {
+				delim = true;
+			    }
+			    c = 0;
+			}
+			if (c == '\\') {
+			    delim = true;
+			}
+			prev = c;
+			end++;
+		    }
+		    if (end == len || negated != delim) {
+			return; // the class could match a delimiter
+		    }
+		    i = end;
+		    break;
+		  }
+
+		  case '$':
+		    if (i == len - 1) {
+			segments.add(regex.substring(start, i));
+			complete = true;
+			anchored = true;
+		    }
+		    return;
+
+		  case '.':
+		  case '(':
+		  case ')':
+		  case '|':
+		  case '^':
+		    return;
+		}
+	    }
+	    segments.add(regex.substring(start));
+	    complete = true;
+	}
+
+	/**
+	 * Determine whether the alternation can only match paths with exactly as many levels as it has segments.
+	 */
+	boolean isClosed() {
+	    return complete && anchored;
+	}
+
+	/**
+	 * Get the pattern that a path at the specified level (counting from 1) must match, or null if none can.
+	 */
+	String getPrefix(int level) {
+	    int n = segments.size();
+	    if (level > n && isClosed()) {
+		return null;
+	    }
+	    StringBuffer sb = new StringBuffer("^");
+	    for (int i=0; i < Math.min(level, n); i++) {
+		if (i > 0) {
+		    sb.append("\\\\");
+		}
+		sb.append(segments.get(i));
+	    }
+	    if (level < n || isClosed()) {
+		sb.append("$");
+	    } else if (!complete) {
+		if (level == n) {
+		    sb.append("$");
+		} else {
+		    sb.append("\\\\");
+		}
+	    }
+	    return sb.toString();
+	}
+    }
+
+    // Private
+
+    /**
+     * Compute the deepest literal key from which a search for the specified (single-alternation) path pattern must
+     * begin, which is the hive itself ("") if the pattern is not left-anchored.
+     */
+    private static String getSeed(String regex) {
+	if (!regex.startsWith("^")) {
+	    return "";
+	}
+	String prefix = Regex.unescapeRegex(Regex.findLongestNonRegexPrefix(Pattern.compile(regex.substring(1))));
+	int ptr = prefix.lastIndexOf(IRegistry.DELIM_STR);
+	return ptr == -1 ? "" : prefix.substring(0, ptr);
+    }
+
+    private void addSeed(String seed) {
+	for (int i=seeds.size() - 1; i >= 0; i--) {
+	    String s = seeds.get(i);
+	    if (isAncestorOrSelf(s, seed)) {
+		return;
+	    } else if (isAncestorOrSelf(seed, s)) {
+		seeds.remove(i);
+	    }
+	}
+	seeds.add(seed);
+    }
+
+    /**
+     * Get the path of a key relative to the base, or "" if it does not lie beneath the base.
+     */
+    private String relativize(String path) {
+	String base = getBase();
+	if (base.length() == 0) {
+	    return path;
+	} else if (path.length() > base.length() && isAncestorOrSelf(base, path)) {
+	    return path.substring(base.length() + 1);
+	}
+	return "";
+    }
+
+    private static int countLevels(String path) {
+	if (path.length() == 0) {
+	    return 0;
+	}
+	int levels = 1;
+	for (int i=0; i < path.length(); i++) {
+	    if (path.charAt(i) == IRegistry.DELIM_CH) {
+		levels++;
+	    }
+	}
+	return levels;
+    }
+
+    /**
+     * Determine whether the pattern could match any path beneath the specified key. If matching the key path (plus a
+     * delimiter) never reached the end of the input, then no longer input can produce a match either.
+     */
+    private static boolean mayMatchBelow(Pattern p, String path) {
+	if (path.length() == 0 || !p.pattern().startsWith("^")) {
+	    return true;
+	}
+	Matcher m = p.matcher(path + IRegistry.DELIM_STR);
+	return m.lookingAt() || m.hitEnd();
+    }
+}
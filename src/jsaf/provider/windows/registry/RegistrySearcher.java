@@ -0,0 +1,241 @@
+// Copyright (C) 2026 Arctic Wolf Networks, Inc.  All rights reserved.
+// This software is licensed under the LGPL 3.0 license available at http://www.gnu.org/licenses/lgpl.txt
+
+package jsaf.provider.windows.registry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.cal10n.LocLogger;
+
+import jsaf.Message;
+import jsaf.intf.util.IDisposable;
+import jsaf.intf.util.ILoggable;
+import jsaf.intf.util.ISearchable;
+import jsaf.intf.util.ISearchable.Condition;
+import jsaf.intf.windows.registry.IKey;
+import jsaf.intf.windows.registry.IRegistry;
+import jsaf.intf.windows.registry.IValue;
+import jsaf.util.SearchResult;
+import jsaf.util.WorkStealingExecutor;
+
+/**
+ * A generic ISearchable for any IRegistry (e.g., an OfflineRegistry), which walks the key trees using IKey.listSubkeys,
+ * visiting sibling subtrees concurrently on a WorkStealingExecutor. Traversal begins only at the literal key prefixes
+ * of the search pattern, and keys that cannot lead to a match are never opened. See RegistryQuery for the supported
+ * search conditions.
+ *
+ * @author David A. Solin
+ * @version %I% %G%
+ * @since 1.7.0
+ */
+public class RegistrySearcher implements ISearchable<IKey>, ILoggable, IDisposable {
+    private IRegistry registry;
+    private LocLogger logger;
+    private int limit = UNLIMITED;
+    private int parallelism;
+    private WorkStealingExecutor executor;
+
+    /**
+     * Create a searcher for the specified registry.
+     *
+     * @param parallelism the number of keys that may be listed concurrently
+     */
+    public RegistrySearcher(IRegistry registry, int parallelism) {
+	if (parallelism < 1) {
+	    throw new IllegalArgumentException(Integer.toString(parallelism));
+	}
+	this.registry = registry;
+	this.parallelism = parallelism;
+	logger = registry.getLogger();
+    }
+
+    // Implement ISearchable<IKey>
+
+    public void setResultLimit(int limit) {
+	this.limit = limit;
+    }
+
+    public IResult<IKey> search(List<Condition> conditions) {
+	Walk walk = new Walk(conditions);
+	walk.start();
+	return walk.await();
+    }
+
+    public List<IResult<IKey>> searches(List<List<Condition>> conditionLists) {
+	List<Walk> walks = new ArrayList<Walk>();
+	for (List<Condition> conditions : conditionLists) {
+	    Walk walk = new Walk(conditions);
+	    walk.start();
+	    walks.add(walk);
+	}
+	List<IResult<IKey>> results = new ArrayList<IResult<IKey>>();
+	for (Walk walk : walks) {
+	    results.add(walk.await());
+	}
+	return results;
+    }
+
+    // Implement IDisposable
+
+    public synchronized void dispose() {
+	if (executor != null) {
+	    executor.dispose();
+	    executor = null;
+	}
+    }
+
+    // Implement ILoggable
+
+    public LocLogger getLogger() {
+	return logger;
+    }
+
+    public void setLogger(LocLogger logger) {
+	this.logger = logger;
+    }
+
+    // Private
+
+    private synchronized WorkStealingExecutor getExecutor() {
+	if (executor == null) {
+	    executor = new WorkStealingExecutor("RegistrySearcher", parallelism);
+	    executor.setLogger(logger);
+	}
+	return executor;
+    }
+
+    /**
+     * The state of a single search.
+     */
+    class Walk {
+	private RegistryQuery query;
+	private SearchResult<IKey> result;
+	private AtomicInteger pending;
+	private CountDownLatch done;
+
+	Walk(List<Condition> conditions) {
+	    query = new RegistryQuery(conditions);
+	    result = new SearchResult<IKey>(limit, 0, 0);
+	    pending = new AtomicInteger(0);
+	    done = new CountDownLatch(1);
+	}
+
+	void start() {
+	    pending.incrementAndGet();
+	    try {
+		IRegistry.Hive hive = query.getHive();
+		for (String seed : query.getSeeds()) {
+		    try {
+			IKey key = seed.length() == 0 ? registry.getHive(hive) : registry.getKey(hive, seed);
+			submit(key, seed);
+		    } catch (NoSuchElementException e) {
+		    } catch (RegistryException e) {
+			result.addError(Message.getMessage(Message.ERROR_IO, hive.getName() + IRegistry.DELIM_STR + seed,
+				e.getMessage()));
+		    }
+		}
+	    } finally {
+		finish();
+	    }
+	}
+
+	IResult<IKey> await() {
+	    try {
+		done.await();
+	    } catch (InterruptedException e) {
+		result.addError(Message.getMessage(Message.ERROR_EXCEPTION));
+	    }
+	    return result;
+	}
+
+	// Private
+
+	/**
+	 * Submit a key to the executor. The key is finished when the task completes, or if it is cancelled because the
+	 * executor has been disposed.
+	 */
+	private void submit(final IKey key, final String seed) {
+	    if (result.isFull()) {
+		return;
+	    }
+	    pending.incrementAndGet();
+	    FutureTask<Object> task = new FutureTask<Object>(new Runnable() {
+		public void run() {
+		    try {
+			visit(key, seed);
+		    } catch (RuntimeException e) {
+			logger.warn(Message.getMessage(Message.ERROR_EXCEPTION), e);
+		    }
+		}
+	    }, null) {
+		@Override
+		protected void done() {
+		    if (isCancelled()) {
+			result.addError(Message.getMessage(Message.ERROR_SEARCH_CANCELLED, key.toString()));
+		    }
+		    finish();
+		}
+	    };
+	    try {
+		getExecutor().execute(task);
+	    } catch (RejectedExecutionException e) {
+		task.cancel(false);
+	    }
+	}
+
+	private void finish() {
+	    if (pending.decrementAndGet() == 0) {
+		done.countDown();
+	    }
+	}
+
+	/**
+	 * Offer a key to the result, and submit those of its subkeys that could match or lead to a match.
+	 */
+	private void visit(IKey key, String seed) {
+	    if (result.isFull()) {
+		return;
+	    }
+	    String path = key.getPath();
+	    try {
+		if (query.matches(seed, path) && hasMatchingValue(key)) {
+		    result.add(key);
+		}
+		if (query.descend(seed, path)) {
+		    for (String name : key.listSubkeys()) {
+			if (result.isFull()) {
+			    return;
+			}
+			String child = RegistryQuery.join(path, name);
+			if (query.matches(seed, child) || query.descend(seed, child)) {
+			    try {
+				submit(key.getSubkey(name), seed);
+			    } catch (NoSuchElementException e) {
+			    }
+			}
+		    }
+		}
+	    } catch (RegistryException e) {
+		result.addError(Message.getMessage(Message.ERROR_IO, key.toString(), e.getMessage()));
+	    }
+	}
+
+	private boolean hasMatchingValue(IKey key) throws RegistryException {
+	    if (!query.hasValueCondition()) {
+		return true;
+	    }
+	    for (IValue value : key.listValues()) {
+		if (query.acceptValue(value.getName())) {
+		    return true;
+		}
+	    }
+	    return false;
+	}
+    }
+}
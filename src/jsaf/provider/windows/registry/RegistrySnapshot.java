@@ -0,0 +1,393 @@
+// Copyright (C) 2026 Arctic Wolf Networks, Inc.  All rights reserved.
+// This software is licensed under the LGPL 3.0 license available at http://www.gnu.org/licenses/lgpl.txt
+
+package jsaf.provider.windows.registry;
+
+import java.io.BufferedInputStream;
+import java.io.InputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+
+import org.slf4j.cal10n.LocLogger;
+
+import jsaf.Message;
+import jsaf.intf.io.IFile;
+import jsaf.intf.windows.powershell.IRunspace;
+import jsaf.intf.windows.registry.IKey;
+import jsaf.intf.windows.registry.IRegistry;
+import jsaf.intf.windows.registry.IValue;
+import jsaf.intf.windows.system.IWindowsSession;
+import jsaf.io.LittleEndian;
+import jsaf.io.Streams;
+import jsaf.io.TempArea;
+import jsaf.provider.windows.powershell.ModuleLoader;
+import jsaf.provider.windows.powershell.PowershellException;
+import jsaf.util.SafeCLI;
+import jsaf.util.Strings;
+
+/**
+ * An in-memory, read-only copy of a registry key tree, which is exported from the target in a single operation. The
+ * export runs a function (defined in RegistrySnapshot.psm1) that walks the tree and writes every key and value, with its
+ * type and raw data, to a gzip-compressed binary file in the session's TempArea. The file is then transferred once, and
+ * the tree is materialized from it.
+ *
+ * All subsequent getSubkey, listSubkeys, listValues and getValue calls are answered from memory. A snapshot's root key
+ * can be mounted in an OfflineRegistry to obtain an IRegistry.
+ *
+ * @author David A. Solin
+ * @version %I% %G%
+ * @since 1.7.0
+ */
+public class RegistrySnapshot {
+    static final String MODULE = "RegistrySnapshot.psm1";
+
+    private static final int TAG_END	= 0;
+    private static final int TAG_KEY	= 1;
+    private static final int TAG_VALUE	= 2;
+    private static final int TAG_ERROR	= 3;
+
+    /**
+     * The size of the blocks into which value data is read. Values larger than a quarter of a block get a buffer of
+     * their own.
+     */
+    private static final int BLOCK_SIZE = 65536;
+
+    /**
+     * Export the key tree beneath the specified hive and path, from the specified view of the session's registry.
+     */
+    public static RegistrySnapshot export(IWindowsSession session, IWindowsSession.View view, IRegistry.Hive hive,
+		String path) throws RegistryException {
+
+	String name = getRegistryName(hive);
+	LocLogger logger = session.getLogger();
+	TempArea area = TempArea.getInstance(session);
+	IFile temp = null;
+	try {
+	    temp = area.newFile("reg", ".gz");
+	    IRunspace runspace = getRunspace(session, view);
+	    StringBuffer cmd = new StringBuffer("Export-JsafRegistryTree -Hive ").append(name);
+	    cmd.append(" -Path '").append(SafeCLI.checkArgument(HiveFile.trim(path), session)).append("'");
+	    cmd.append(" -File '").append(temp.getPath()).append("'");
+	    long timeout = session.getTimeout(IWindowsSession.Timeout.XL);
+	    String count = runspace.invoke(cmd.toString(), timeout).trim();
+	    logger.debug(Message.STATUS_REGISTRY_SNAPSHOT, hive.getName() + IRegistry.DELIM_STR + HiveFile.trim(path), count);
+	    InputStream in = temp.getInputStream();
+	    try {
+		return new RegistrySnapshot(hive, path, in);
+	    } finally {
+		in.close();
+	    }
+	} catch (PowershellException e) {
+	    throw new RegistryException(e);
+	} catch (IOException e) {
+	    throw new RegistryException(e);
+	} finally {
+	    if (temp != null) {
+		area.release(temp);
+	    }
+	}
+    }
+
+    private IRegistry.Hive hive;
+    private Key root;
+    private List<String> errors;
+    private ByteBuffer block;
+
+    /**
+     * Materialize a snapshot from an export stream (i.e., the gzip-compressed output of Export-JsafRegistryTree).
+     *
+     * @param path the path beneath the hive of the key from which the tree was exported
+     */
+    public RegistrySnapshot(IRegistry.Hive hive, String path, InputStream in) throws IOException {
+	this.hive = hive;
+	path = HiveFile.trim(path);
+	errors = new ArrayList<String>();
+	int ptr = path.lastIndexOf(IRegistry.DELIM_STR);
+	root = new Key(path, path.length() == 0 ? hive.getName() : path.substring(ptr + 1));
+	read(new BufferedInputStream(new GZIPInputStream(in)));
+    }
+
+    /**
+     * Get the root key of the snapshot.
+     */
+    public Key getRoot() {
+	return root;
+    }
+
+    /**
+     * Get a key using its path relative to the root key of the snapshot.
+     */
+    public Key getKey(String path) throws NoSuchElementException {
+	Key key = root;
+	for (String segment : HiveFile.trim(path).split(IRegistry.ESCAPED_DELIM)) {
+	    if (segment.length() > 0) {
+		key = key.getSubkey(segment);
+	    }
+	}
+	return key;
+    }
+
+    /**
+     * Get the errors (i.e., keys that could not be read) that were encountered during the export.
+     */
+    public Collection<String> getErrors() {
+	return errors;
+    }
+
+    /**
+     * A key in a RegistrySnapshot.
+     */
+    public class Key implements IKey {
+	private String path, name;
+	private Map<String, Key> subkeys;
+	private List<IValue> values;
+
+	Key(String path, String name) {
+	    this.path = path;
+	    this.name = name;
+	}
+
+	// Implement IKey
+
+	@Override
+	public String toString() {
+	    return path.length() == 0 ? hive.getName() : hive.getName() + IRegistry.DELIM_STR + path;
+	}
+
+	public IRegistry.Hive getHive() {
+	    return hive;
+	}
+
+	public String getPath() {
+	    return path;
+	}
+
+	public String getName() {
+	    return name;
+	}
+
+	public boolean hasSubkey(String name) {
+	    return subkeys != null && subkeys.containsKey(name);
+	}
+
+	public String[] listSubkeys() {
+	    return listSubkeys(null);
+	}
+
+	public String[] listSubkeys(Pattern p) {
+	    List<String> names = new ArrayList<String>();
+	    if (subkeys != null) {
+		for (Key subkey : subkeys.values()) {
+		    if (p == null || p.matcher(subkey.name).find()) {
+			names.add(subkey.name);
+		    }
+		}
+	    }
+	    return names.toArray(new String[names.size()]);
+	}
+
+	public Key getSubkey(String name) throws NoSuchElementException {
+	    Key subkey = subkeys == null ? null : subkeys.get(name);
+	    if (subkey == null) {
+		throw new NoSuchElementException(name);
+	    }
+	    return subkey;
+	}
+
+	public boolean hasValue(String name) {
+	    return findValue(name) != null;
+	}
+
+	public IValue[] listValues() {
+	    return listValues(null);
+	}
+
+	public IValue[] listValues(Pattern p) {
+	    List<IValue> result = new ArrayList<IValue>();
+	    if (values != null) {
+		for (IValue value : values) {
+		    if (p == null || p.matcher(((RegistryValue)value).getName()).find()) {
+			result.add(value);
+		    }
+		}
+	    }
+	    return result.toArray(new IValue[result.size()]);
+	}
+
+	public IValue getValue(String name) throws NoSuchElementException {
+	    IValue value = findValue(name);
+	    if (value == null) {
+		throw new NoSuchElementException(name);
+	    }
+	    return value;
+	}
+
+	// Private
+
+	private IValue findValue(String name) {
+	    if (name == null) {
+		name = "";
+	    }
+	    if (values != null) {
+		for (IValue value : values) {
+		    if (((RegistryValue)value).getName().equalsIgnoreCase(name)) {
+			return value;
+		    }
+		}
+	    }
+	    return null;
+	}
+
+	private Key addSubkey(String name) {
+	    if (subkeys == null) {
+		subkeys = new TreeMap<String, Key>(String.CASE_INSENSITIVE_ORDER);
+	    }
+	    Key subkey = new Key(path.length() == 0 ? name : path + IRegistry.DELIM_STR + name, name);
+	    subkeys.put(name, subkey);
+	    return subkey;
+	}
+
+	private void addValue(IValue value) {
+	    if (values == null) {
+		values = new ArrayList<IValue>(4);
+	    }
+	    values.add(value);
+	}
+    }
+
+    // Internal
+
+    /**
+     * Get the name of the Microsoft.Win32.Registry field for the specified hive.
+     */
+    static String getRegistryName(IRegistry.Hive hive) throws RegistryException {
+	switch(hive) {
+	  case HKCR:
+	    return "ClassesRoot";
+	  case HKCU:
+	    return "CurrentUser";
+	  case HKLM:
+	    return "LocalMachine";
+	  case HKU:
+	    return "Users";
+	  case HKCC:
+	    return "CurrentConfig";
+	  default:
+	    throw new RegistryException(Message.getMessage(Message.ERROR_REGISTRY_HIVE, hive.getName()));
+	}
+    }
+
+    // Private
+
+    /**
+     * Get a runspace for the view, into which the module has been loaded.
+     */
+    private static IRunspace getRunspace(IWindowsSession session, IWindowsSession.View view) throws PowershellException {
+	return ModuleLoader.getRunspace(session.getRunspacePool(), view, RegistrySnapshot.class, MODULE);
+    }
+
+    /**
+     * Build the tree from the records of the export stream. Since keys are exported depth-first, the parent of each key
+     * is either the previous key or one of its ancestors.
+     */
+    private void read(InputStream in) throws IOException {
+	List<Key> stack = new ArrayList<Key>();
+	stack.add(root);
+	Key current = null;
+	int tag;
+	while ((tag = in.read()) != TAG_END) {
+	    switch(tag) {
+	      case TAG_KEY: {
+		String rel = readString(in);
+		if (rel.length() == 0) {
+		    current = root;
+		    break;
+		}
+		int depth = 1;
+		for (int i=0; i < rel.length(); i++) {
+		    if (rel.charAt(i) == IRegistry.DELIM_CH) {
+			depth++;
+		    }
+		}
+		while (stack.size() > depth) {
+		    stack.remove(stack.size() - 1);
+		}
+		Key parent = stack.get(stack.size() - 1);
+		current = parent.addSubkey(rel.substring(rel.lastIndexOf(IRegistry.DELIM_STR) + 1));
+		stack.add(current);
+		break;
+	      }
+
+	      case TAG_VALUE: {
+		String name = readString(in);
+		int type = LittleEndian.readInt(in);
+		ByteBuffer data = readData(in, LittleEndian.readInt(in));
+		if (current != null) {
+		    current.addValue(RegistryValue.newInstance(current, name, type, data));
+		}
+		break;
+	      }
+
+	      case TAG_ERROR: {
+		String rel = readString(in);
+		errors.add(new StringBuffer(rel).append(": ").append(readString(in)).toString());
+		break;
+	      }
+
+	      default:
+		throw new IOException(Message.getMessage(Message.ERROR_EOS));
+	    }
+	}
+	block = null;
+    }
+
+    /**
+     * Read the data of a value into the current block, and return a slice of the block containing it. Sharing blocks
+     * among values avoids the overhead of an array per value, which is considerable for a snapshot of a large tree.
+     */
+    private ByteBuffer readData(InputStream in, int len) throws IOException {
+	if (len < 0) {
+	    throw new IOException(Message.getMessage(Message.ERROR_EOS));
+	} else if (len > BLOCK_SIZE / 4) {
+	    byte[] buff = new byte[len];
+	    Streams.readFully(in, buff);
+	    return ByteBuffer.wrap(buff);
+	}
+	if (block == null || block.remaining() < len) {
+	    block = ByteBuffer.allocate(BLOCK_SIZE);
+	}
+	Streams.readFully(in, block.array(), block.position(), len);
+	ByteBuffer data = block.slice();
+	data.limit(len);
+	block.position(block.position() + len);
+	return data;
+    }
+
+    /**
+     * Read a string written by System.IO.BinaryWriter (a 7-bit encoded length, followed by UTF-8 bytes).
+     */
+    private static String readString(InputStream in) throws IOException {
+	int len = 0;
+	for (int shift=0; ; shift+=7) {
+	    int b = in.read();
+	    if (b == -1) {
+		throw new IOException(Message.getMessage(Message.ERROR_EOS));
+	    }
+	    len |= (b & 0x7F) << shift;
+	    if ((b & 0x80) == 0) {
+		break;
+	    }
+	}
+	byte[] buff = new byte[len];
+	Streams.readFully(in, buff);
+	return new String(buff, Strings.UTF8);
+    }
+}
@@ -0,0 +1,372 @@
+// Copyright (C) 2026 Arctic Wolf Networks, Inc.  All rights reserved.
+// This software is licensed under the LGPL 3.0 license available at http://www.gnu.org/licenses/lgpl.txt
+
+package jsaf.provider.windows.registry;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+
+import jsaf.intf.system.IEnvironment;
+import jsaf.intf.windows.registry.IBinaryValue;
+import jsaf.intf.windows.registry.IDwordBigEndianValue;
+import jsaf.intf.windows.registry.IDwordValue;
+import jsaf.intf.windows.registry.IExpandStringValue;
+import jsaf.intf.windows.registry.IFullResourceDescriptorValue;
+import jsaf.intf.windows.registry.IKey;
+import jsaf.intf.windows.registry.ILinkValue;
+import jsaf.intf.windows.registry.IMultiStringValue;
+import jsaf.intf.windows.registry.INoneValue;
+import jsaf.intf.windows.registry.IQwordValue;
+import jsaf.intf.windows.registry.IResourceListValue;
+import jsaf.intf.windows.registry.IResourceRequirementsListValue;
+import jsaf.intf.windows.registry.IStringValue;
+import jsaf.intf.windows.registry.IValue;
+import jsaf.io.LittleEndian;
+import jsaf.util.Bytes;
+
+/**
+ * Base class for IValue implementations whose data is decoded from the raw bytes of a registry value, as they are stored
+ * in a hive (i.e., strings are UTF-16LE, and integers are little-endian except for REG_DWORD_BIG_ENDIAN).
+ *
+ * A value holds its raw data as a ByteBuffer slice, which is not copied (so a value read from a memory-mapped HiveFile
+ * refers directly to the mapped hive bins), and decodes it each time it is accessed. The raw data of any value can be
+ * read without copying using getDataBuffer.
+ *
+ * @author David A. Solin
+ * @version %I% %G%
+ * @since 1.7.0
+ */
+public abstract class RegistryValue implements IValue {
+    private static final ByteBuffer EMPTY = ByteBuffer.allocate(0);
+
+    /**
+     * Create an IValue of the appropriate subtype for the specified type and raw data.
+     *
+     * @param name the value name, or null (or "") for the key's default value
+     */
+    public static IValue newInstance(IKey key, String name, Type type, byte[] data) {
+	return newInstance(key, name, type, data == null ? null : ByteBuffer.wrap(data));
+    }
+
+    /**
+     * Create an IValue of the appropriate subtype for the specified type and raw data, which are the bytes between the
+     * buffer's position and its limit. The value refers to (rather than copies) the data, which must not be modified
+     * subsequently.
+     *
+     * @param name the value name, or null (or "") for the key's default value
+     */
+    public static IValue newInstance(IKey key, String name, Type type, ByteBuffer data) {
+	if (name == null) {
+	    name = "";
+	}
+	data = data == null ? EMPTY : data.slice();
+	switch(type) {
+	  case REG_SZ:
+	    return new StringValue(key, name, data);
+	  case REG_EXPAND_SZ:
+	    return new ExpandStringValue(key, name, data);
+	  case REG_LINK:
+	    return new LinkValue(key, name, data);
+	  case REG_MULTI_SZ:
+	    return new MultiStringValue(key, name, data);
+	  case REG_DWORD:
+	    return new DwordValue(key, name, data);
+	  case REG_DWORD_BIG_ENDIAN:
+	    return new DwordBigEndianValue(key, name, data);
+	  case REG_QWORD:
+	    return new QwordValue(key, name, data);
+	  case REG_BINARY:
+	    return new BinaryValue(key, name, data);
+	  case REG_RESOURCE_LIST:
+	    return new ResourceListValue(key, name, data);
+	  case REG_FULL_RESOURCE_DESCRIPTOR:
+	    return new FullResourceDescriptorValue(key, name, data);
+	  case REG_RESOURCE_REQUIREMENTS_LIST:
+	    return new ResourceRequirementsListValue(key, name, data);
+	  case REG_NONE:
+	  default:
+	    return new NoneValue(key, name, data);
+	}
+    }
+
+    /**
+     * Create an IValue for a raw type ID, as stored in a hive. Values with unrecognized type IDs are treated as REG_NONE.
+     */
+    public static IValue newInstance(IKey key, String name, int typeId, byte[] data) {
+	return newInstance(key, name, typeId, data == null ? null : ByteBuffer.wrap(data));
+    }
+
+    /**
+     * Create an IValue for a raw type ID, as stored in a hive, referring to the data between the buffer's position and
+     * its limit.
+     */
+    public static IValue newInstance(IKey key, String name, int typeId, ByteBuffer data) {
+	Type type = Type.REG_NONE;
+	try {
+	    type = Type.fromId(typeId);
+	} catch (IllegalArgumentException e) {
+	}
+	return newInstance(key, name, type, data);
+    }
+
+    private IKey key;
+    private String name;
+    private Type type;
+    private ByteBuffer data;
+
+    protected RegistryValue(IKey key, String name, Type type, ByteBuffer data) {
+	this.key = key;
+	this.name = name;
+	this.type = type;
+	this.data = data;
+    }
+
+    /**
+     * Get a read-only, little-endian view of the raw data of the value, whose position is 0 and whose limit is the size
+     * of the data.
+     */
+    public ByteBuffer getDataBuffer() {
+	return data.asReadOnlyBuffer().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    // Implement IValue
+
+    public Type getType() {
+	return type;
+    }
+
+    public IKey getKey() {
+	return key;
+    }
+
+    public String getName() {
+	return name;
+    }
+
+    @Override
+    public String toString() {
+	StringBuffer sb = new StringBuffer("RegistryValue [Key=").append(key.toString());
+	sb.append(", Name=").append(name).append(", Type=").append(type.getName()).append(", Data=");
+	sb.append(dataString()).append("]");
+	return sb.toString();
+    }
+
+    // Internal
+
+    /**
+     * Get a String representation of the data, for toString.
+     */
+    abstract String dataString();
+
+    /**
+     * Copy the raw data into a new array.
+     */
+    byte[] getBytes() {
+	byte[] buff = new byte[data.limit()];
+	data.duplicate().get(buff);
+	return buff;
+    }
+
+    /**
+     * Decode the data as a UTF-16LE string, which ends at the first null character (if any).
+     */
+    String decodeString() {
+	return LittleEndian.getSzUTF16LEString(data, 0, data.limit());
+    }
+
+    /**
+     * Decode the data as a sequence of null-terminated UTF-16LE strings, which ends with an empty string (or the end of
+     * the data).
+     */
+    String[] decodeMultiString() {
+	List<String> list = new ArrayList<String>();
+	StringBuffer sb = new StringBuffer();
+	for (int i=0; i < data.limit() - 1; i+=2) {
+	    char ch = (char)(0xFFFF & LittleEndian.getShort(data, i));
+	    if (ch == 0) {
+		if (sb.length() == 0) {
+		    break;
+		}
+		list.add(sb.toString());
+		sb = new StringBuffer();
+	    } else {
+		sb.append(ch);
+	    }
+	}
+	if (sb.length() > 0) {
+	    list.add(sb.toString());
+	}
+	return list.toArray(new String[list.size()]);
+    }
+
+    /**
+     * Decode the data as an unsigned integer of up to len bytes.
+     */
+    BigInteger decodeUnsigned(int len, boolean bigEndian) {
+	byte[] buff = new byte[len + 1]; // leading 0 for a positive BigInteger
+	for (int i=0; i < len && i < data.limit(); i++) {
+	    buff[bigEndian ? i + 1 : len - i] = data.get(i);
+	}
+	return new BigInteger(buff);
+    }
+
+    static class StringValue extends RegistryValue implements IStringValue {
+	StringValue(IKey key, String name, ByteBuffer data) {
+	    super(key, name, Type.REG_SZ, data);
+	}
+
+	public String getData() {
+	    return decodeString();
+	}
+
+	String dataString() {
+	    return getData();
+	}
+    }
+
+    static class ExpandStringValue extends RegistryValue implements IExpandStringValue {
+	ExpandStringValue(IKey key, String name, ByteBuffer data) {
+	    super(key, name, Type.REG_EXPAND_SZ, data);
+	}
+
+	public String getData() {
+	    return decodeString();
+	}
+
+	public String getExpandedData(IEnvironment env) {
+	    return env.expand(getData());
+	}
+
+	String dataString() {
+	    return getData();
+	}
+    }
+
+    static class LinkValue extends RegistryValue implements ILinkValue {
+	LinkValue(IKey key, String name, ByteBuffer data) {
+	    super(key, name, Type.REG_LINK, data);
+	}
+
+	public String getData() {
+	    return decodeString();
+	}
+
+	String dataString() {
+	    return getData();
+	}
+    }
+
+    static class MultiStringValue extends RegistryValue implements IMultiStringValue {
+	MultiStringValue(IKey key, String name, ByteBuffer data) {
+	    super(key, name, Type.REG_MULTI_SZ, data);
+	}
+
+	public String[] getData() {
+	    return decodeMultiString();
+	}
+
+	String dataString() {
+	    String[] data = getData();
+	    StringBuffer sb = new StringBuffer("{");
+	    for (int i=0; i < data.length; i++) {
+		if (i > 0) {
+		    sb.append(", ");
+		}
+		sb.append(data[i]);
+	    }
+	    return sb.append("}").toString();
+	}
+    }
+
+    static class DwordValue extends RegistryValue implements IDwordValue {
+	DwordValue(IKey key, String name, ByteBuffer data) {
+	    super(key, name, Type.REG_DWORD, data);
+	}
+
+	public BigInteger getData() {
+	    return decodeUnsigned(4, false);
+	}
+
+	String dataString() {
+	    return getData().toString();
+	}
+    }
+
+    static class DwordBigEndianValue extends RegistryValue implements IDwordBigEndianValue {
+	DwordBigEndianValue(IKey key, String name, ByteBuffer data) {
+	    super(key, name, Type.REG_DWORD_BIG_ENDIAN, data);
+	}
+
+	public BigInteger getData() {
+	    return decodeUnsigned(4, true);
+	}
+
+	String dataString() {
+	    return getData().toString();
+	}
+    }
+
+    static class QwordValue extends RegistryValue implements IQwordValue {
+	QwordValue(IKey key, String name, ByteBuffer data) {
+	    super(key, name, Type.REG_QWORD, data);
+	}
+
+	public BigInteger getData() {
+	    return decodeUnsigned(8, false);
+	}
+
+	String dataString() {
+	    return getData().toString();
+	}
+    }
+
+    /**
+     * Base class for values whose data is exposed as raw bytes. Each call to getData returns a new copy of the data.
+     */
+    abstract static class RawValue extends RegistryValue {
+	RawValue(IKey key, String name, Type type, ByteBuffer data) {
+	    super(key, name, type, data);
+	}
+
+	public byte[] getData() {
+	    return getBytes();
+	}
+
+	String dataString() {
+	    return Bytes.toHexString(getBytes());
+	}
+    }
+
+    static class BinaryValue extends RawValue implements IBinaryValue {
+	BinaryValue(IKey key, String name, ByteBuffer data) {
+	    super(key, name, Type.REG_BINARY, data);
+	}
+    }
+
+    static class NoneValue extends RawValue implements INoneValue {
+	NoneValue(IKey key, String name, ByteBuffer data) {
+	    super(key, name, Type.REG_NONE, data);
+	}
+    }
+
+    static class ResourceListValue extends RawValue implements IResourceListValue {
+	ResourceListValue(IKey key, String name, ByteBuffer data) {
+	    super(key, name, Type.REG_RESOURCE_LIST, data);
+	}
+    }
+
+    static class FullResourceDescriptorValue extends RawValue implements IFullResourceDescriptorValue {
+	FullResourceDescriptorValue(IKey key, String name, ByteBuffer data) {
+	    super(key, name, Type.REG_FULL_RESOURCE_DESCRIPTOR, data);
+	}
+    }
+
+    static class ResourceRequirementsListValue extends RawValue implements IResourceRequirementsListValue {
+	ResourceRequirementsListValue(IKey key, String name, ByteBuffer data) {
+	    super(key, name, Type.REG_RESOURCE_REQUIREMENTS_LIST, data);
+	}
+    }
+}
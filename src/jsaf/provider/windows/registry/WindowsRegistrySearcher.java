@@ -0,0 +1,485 @@
+// Copyright (C) 2026 Arctic Wolf Networks, Inc.  All rights reserved.
+// This software is licensed under the LGPL 3.0 license available at http://www.gnu.org/licenses/lgpl.txt
+
+package jsaf.provider.windows.registry;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+import org.slf4j.cal10n.LocLogger;
+
+import jsaf.Message;
+import jsaf.intf.system.ISession;
+import jsaf.intf.util.IDisposable;
+import jsaf.intf.util.ILoggable;
+import jsaf.intf.util.IProperty;
+import jsaf.intf.util.ISearchable;
+import jsaf.intf.util.ISearchable.Condition;
+import jsaf.intf.windows.powershell.IRunspace;
+import jsaf.intf.windows.registry.IKey;
+import jsaf.intf.windows.registry.IRegistry;
+import jsaf.intf.windows.registry.IValue;
+import jsaf.intf.windows.system.IWindowsSession;
+import jsaf.provider.windows.powershell.ModuleLoader;
+import jsaf.provider.windows.powershell.PowershellException;
+import jsaf.util.Base64;
+import jsaf.util.Regex;
+import jsaf.util.SafeCLI;
+import jsaf.util.SearchResult;
+import jsaf.util.Strings;
+import jsaf.util.WorkStealingExecutor;
+
+/**
+ * An ISearchable for the registry of a Windows session, which walks the key trees on the target using a Powershell
+ * function that evaluates the key and value conditions there, so that only the paths of matching keys (rather than
+ * every key enumeration) are returned. The matching keys are then obtained from the session's IRegistry.
+ *
+ * The function is defined in a module (WindowsRegistrySearcher.psm1) that is loaded once into each runspace that is
+ * used. Traversal begins only at the literal key prefixes of the search pattern (see RegistryQuery). When there are
+ * fewer such seeds than IWindowsSession.PROP_REGISTRY_SEARCH_PARALLELISM, each seed is split into its (potentially
+ * matching) subkeys, and the independent subtrees are searched concurrently, in batches, using separate runspaces.
+ * The matches from each batch are added to the result as soon as the batch is complete, and no further batches are
+ * started once the result limit has been reached.
+ *
+ * The walk on the target is pruned using the per-level prefix patterns of the key patterns (see RegistryQuery.Levels).
+ * Patterns are converted using Regex.posix2Powershell and matched case-insensitively on the target; key paths, and the
+ * names of the values that satisfied the value conditions, are re-checked locally. Since the re-check can reject keys,
+ * the result limit is only applied on the target when there are no patterns. Each walk consumes no more than
+ * IWindowsSession.PROP_REGISTRY_SEARCH_MAX_CPU percent of a CPU on the target, and the whole search must complete within
+ * IWindowsSession.PROP_REGISTRY_SEARCH_TIMEOUT milliseconds.
+ *
+ * @author David A. Solin
+ * @version %I% %G%
+ * @since 1.7.0
+ */
+public class WindowsRegistrySearcher implements ISearchable<IKey>, ILoggable, IDisposable {
+    /**
+     * The default number of subtrees that are searched concurrently.
+     */
+    public static final int DEFAULT_PARALLELISM = 4;
+
+    static final String MODULE = "WindowsRegistrySearcher.psm1";
+
+    /**
+     * The number of batches into which the subtrees are divided, per concurrent search.
+     */
+    private static final int BATCHES_PER_WORKER = 4;
+
+    private IWindowsSession session;
+    private IWindowsSession.View view;
+    private IRegistry registry;
+    private IProperty props;
+    private LocLogger logger;
+    private int limit = UNLIMITED;
+    private int parallelism;
+    private WorkStealingExecutor executor;
+
+    /**
+     * Create a searcher for the specified view of the registry of a session.
+     */
+    public WindowsRegistrySearcher(IWindowsSession session, IWindowsSession.View view) {
+	this(session, view, session.getRegistry(view));
+    }
+
+    /**
+     * Create a searcher for the specified view of the registry of a session.
+     *
+     * @param registry the registry from which the matching keys are obtained, e.g., a CachingRegistry
+     */
+    public WindowsRegistrySearcher(IWindowsSession session, IWindowsSession.View view, IRegistry registry) {
+	this.session = session;
+	this.view = view;
+	this.registry = registry;
+	props = session.getProperties();
+	logger = session.getLogger();
+	parallelism = props.getIntProperty(IWindowsSession.PROP_REGISTRY_SEARCH_PARALLELISM);
+	if (parallelism <= 0) {
+	    parallelism = DEFAULT_PARALLELISM;
+	}
+    }
+
+    // Implement ISearchable<IKey>
+
+    public void setResultLimit(int limit) {
+	this.limit = limit;
+    }
+
+    public IResult<IKey> search(List<Condition> conditions) {
+	Query query = new Query(conditions);
+	query.start();
+	return query.await();
+    }
+
+    public List<IResult<IKey>> searches(List<List<Condition>> conditionLists) {
+	List<Query> queries = new ArrayList<Query>();
+	for (List<Condition> conditions : conditionLists) {
+	    Query query = new Query(conditions);
+	    query.start();
+	    queries.add(query);
+	}
+	List<IResult<IKey>> results = new ArrayList<IResult<IKey>>();
+	for (Query query : queries) {
+	    results.add(query.await());
+	}
+	return results;
+    }
+
+    // Implement IDisposable
+
+    public synchronized void dispose() {
+	if (executor != null) {
+	    executor.dispose();
+	    executor = null;
+	}
+    }
+
+    // Implement ILoggable
+
+    public LocLogger getLogger() {
+	return logger;
+    }
+
+    public void setLogger(LocLogger logger) {
+	this.logger = logger;
+    }
+
+    // Private
+
+    private synchronized WorkStealingExecutor getExecutor() {
+	if (executor == null) {
+	    executor = new WorkStealingExecutor("WindowsRegistrySearcher", parallelism);
+	    executor.setLogger(logger);
+	}
+	return executor;
+    }
+
+    /**
+     * Get a runspace for the view, into which the module has been loaded.
+     */
+    private IRunspace getRunspace() throws PowershellException {
+	return ModuleLoader.getRunspace(session.getRunspacePool(), view, WindowsRegistrySearcher.class, MODULE);
+    }
+
+    private String quote(String s) {
+	return new StringBuffer("'").append(SafeCLI.checkArgument(s, session)).append("'").toString();
+    }
+
+    private String quoteRegex(Pattern p) {
+	return quoteRegex(p.pattern());
+    }
+
+    private String quoteRegex(String regex) {
+	return new StringBuffer("'").append(Regex.posix2Powershell(regex).replace("'", "''")).append("'").toString();
+    }
+
+    private String quoteRegexes(List<String> regexes) {
+	StringBuffer sb = new StringBuffer();
+	for (String regex : regexes) {
+	    if (sb.length() > 0) {
+		sb.append(",");
+	    }
+	    sb.append(quoteRegex(regex));
+	}
+	return sb.toString();
+    }
+
+    /**
+     * A single search, compiled from a list of conditions.
+     */
+    class Query {
+	private RegistryQuery query;
+	private IRegistry.Hive hive;
+	private SearchResult<IKey> result;
+	private AtomicInteger pending;
+	private CountDownLatch done;
+	private long deadline;
+	private String options;
+
+	Query(List<Condition> conditions) {
+	    query = new RegistryQuery(conditions);
+	    hive = query.getHive();
+	    result = new SearchResult<IKey>(limit, 0, 0);
+	    pending = new AtomicInteger(0);
+	    done = new CountDownLatch(1);
+	}
+
+	void start() {
+	    long timeout = props.getLongProperty(IWindowsSession.PROP_REGISTRY_SEARCH_TIMEOUT);
+	    if (timeout <= 0) {
+		timeout = session.getTimeout(ISession.Timeout.XL);
+	    }
+	    deadline = System.currentTimeMillis() + timeout;
+	    pending.incrementAndGet();
+	    try {
+		options = getOptions();
+		List<String> seeds = query.getSeeds();
+		List<Root> roots = new ArrayList<Root>();
+		for (String seed : seeds) {
+		    if (seeds.size() < parallelism && query.descend(seed, seed)) {
+			split(seed, roots);
+		    } else {
+			roots.add(new Root(seed, query.getLevel(seed, seed)));
+		    }
+		}
+		int size = Math.max(1, (roots.size() + parallelism * BATCHES_PER_WORKER - 1) / (parallelism * BATCHES_PER_WORKER));
+		List<String> batch = new ArrayList<String>();
+		int level = 0;
+		for (Root root : roots) {
+		    if (batch.size() > 0 && (batch.size() == size || root.level != level)) {
+			submit(batch, level);
+			batch = new ArrayList<String>();
+		    }
+		    batch.add(root.path);
+		    level = root.level;
+		}
+		if (batch.size() > 0) {
+		    submit(batch, level);
+		}
+	    } catch (RegistryException e) {
+		result.addError(e.getMessage());
+	    } catch (IllegalArgumentException e) {
+		result.addError(e.getMessage());
+	    } finally {
+		finish();
+	    }
+	}
+
+	IResult<IKey> await() {
+	    try {
+		done.await();
+	    } catch (InterruptedException e) {
+		result.addError(Message.getMessage(Message.ERROR_EXCEPTION));
+	    }
+	    return result;
+	}
+
+	// Private
+
+	/**
+	 * Build the parameters of the Powershell function that are common to all the batches.
+	 */
+	private String getOptions() throws RegistryException {
+	    StringBuffer sb = new StringBuffer(" -Hive ").append(RegistrySnapshot.getRegistryName(hive));
+	    if (query.getKeyPattern() != null) {
+		sb.append(" -KeyPattern ").append(quoteRegex(query.getKeyPattern()));
+	    }
+	    if (query.getSubkeyPattern() != null) {
+		sb.append(" -Base ").append(quote(query.getBase()));
+		sb.append(" -SubkeyPattern ").append(quoteRegex(query.getSubkeyPattern()));
+	    }
+	    if (query.getValueName() != null) {
+		byte[] name = query.getValueName().getBytes(Strings.UTF8);
+		sb.append(" -MatchValueName -ValueName '").append(Base64.encodeBytes(name)).append("'");
+	    }
+	    if (query.getValuePattern() != null) {
+		sb.append(" -ValuePattern ").append(quoteRegex(query.getValuePattern()));
+	    }
+	    RegistryQuery.Levels levels = query.getKeyLevels();
+	    if (levels != null) {
+		sb.append(" -LevelPatterns ").append(quoteRegexes(levels.getPatterns()));
+		if (levels.isBounded()) {
+		    sb.append(" -Bounded");
+		}
+	    }
+	    levels = query.getSubkeyLevels();
+	    if (levels != null) {
+		sb.append(" -SubkeyLevelPatterns ").append(quoteRegexes(levels.getPatterns()));
+		if (levels.isBounded()) {
+		    sb.append(" -SubkeyBounded");
+		}
+	    }
+	    int maxDepth = query.getMaxDepth();
+	    sb.append(" -MaxDepth ").append(maxDepth == Condition.DEPTH_UNLIMITED ? -1 : maxDepth);
+	    sb.append(" -MaxCpu ").append(props.getIntProperty(IWindowsSession.PROP_REGISTRY_SEARCH_MAX_CPU));
+	    if (query.getKeyPattern() == null && query.getSubkeyPattern() == null && query.getValuePattern() == null) {
+		//
+		// Only when the local re-check cannot reject any of the keys found on the target
+		//
+		sb.append(" -Limit ").append(limit);
+	    }
+	    return sb.toString();
+	}
+
+	/**
+	 * Evaluate a seed key locally, and add the subkeys that could match or lead to a match as roots, so that the
+	 * subtrees beneath the seed can be searched concurrently.
+	 */
+	private void split(String seed, List<Root> roots) throws RegistryException {
+	    IKey key = null;
+	    try {
+		key = seed.length() == 0 ? registry.getHive(hive) : registry.getKey(hive, seed);
+	    } catch (NoSuchElementException e) {
+		return;
+	    }
+	    if (query.matches(seed, seed) && hasMatchingValue(key)) {
+		result.add(key);
+	    }
+	    for (String name : key.listSubkeys()) {
+		String child = RegistryQuery.join(seed, name);
+		if (query.matches(seed, child) || query.descend(seed, child)) {
+		    roots.add(new Root(child, query.getLevel(seed, child)));
+		}
+	    }
+	}
+
+	private boolean hasMatchingValue(IKey key) throws RegistryException {
+	    if (!query.hasValueCondition()) {
+		return true;
+	    }
+	    for (IValue value : key.listValues()) {
+		if (query.acceptValue(value.getName())) {
+		    return true;
+		}
+	    }
+	    return false;
+	}
+
+	/**
+	 * Submit a batch to the executor. The batch is finished when the task completes, or if it is cancelled because the
+	 * executor has been disposed.
+	 */
+	private void submit(final List<String> paths, final int level) {
+	    pending.incrementAndGet();
+	    FutureTask<Object> task = new FutureTask<Object>(new Runnable() {
+		public void run() {
+		    try {
+			search(paths, level);
+		    } catch (RuntimeException e) {
+			logger.warn(Message.getMessage(Message.ERROR_EXCEPTION), e);
+		    }
+		}
+	    }, null) {
+		@Override
+		protected void done() {
+		    if (isCancelled()) {
+			result.addError(Message.getMessage(Message.ERROR_SEARCH_CANCELLED, Query.this.toString(paths.get(0))));
+		    }
+		    finish();
+		}
+	    };
+	    try {
+		getExecutor().execute(task);
+	    } catch (RejectedExecutionException e) {
+		task.cancel(false);
+	    }
+	}
+
+	private void finish() {
+	    if (pending.decrementAndGet() == 0) {
+		done.countDown();
+	    }
+	}
+
+	/**
+	 * Search the subtrees beneath a batch of roots (at the same level), and add the matching keys to the result.
+	 */
+	private void search(List<String> paths, int level) {
+	    if (result.isFull()) {
+		return;
+	    }
+	    long timeout = deadline - System.currentTimeMillis();
+	    if (timeout <= 0) {
+		for (String path : paths) {
+		    result.addError(Message.getMessage(Message.ERROR_REGISTRY_SEARCH_TIMEOUT, toString(path)));
+		}
+		return;
+	    }
+	    StringBuffer cmd = new StringBuffer("Find-JsafRegistryKeys -Roots ");
+	    try {
+		for (int i=0; i < paths.size(); i++) {
+		    if (i > 0) {
+			cmd.append(",");
+		    }
+		    cmd.append(quote(paths.get(i)));
+		}
+	    } catch (IllegalArgumentException e) {
+		result.addError(e.getMessage());
+		return;
+	    }
+	    cmd.append(" -Level ").append(level).append(options);
+	    String data;
+	    try {
+		data = getRunspace().invoke(cmd.toString(), timeout);
+	    } catch (PowershellException e) {
+		result.addError(Message.getMessage(Message.ERROR_IO, toString(paths.get(0)), e.getMessage()));
+		return;
+	    }
+	    if (data == null) {
+		return;
+	    }
+	    List<String> matches = new ArrayList<String>();
+	    for (String line : data.split("\r?\n")) {
+		if (line.length() == 0) {
+		    continue;
+		} else if (line.startsWith("E\t")) {
+		    String[] fields = line.split("\t", 3);
+		    result.addError(Message.getMessage(Message.ERROR_IO, toString(fields[1]), fields.length > 2 ? fields[2] : ""));
+		    continue;
+		}
+		String path = line;
+		if (query.hasValueCondition()) {
+		    int ptr = line.indexOf("\t");
+		    if (ptr == -1 || !acceptValues(line.substring(0, ptr))) {
+			continue;
+		    }
+		    path = line.substring(ptr + 1);
+		}
+		if (query.matchesPath(path)) {
+		    matches.add(path);
+		}
+	    }
+	    if (matches.size() > 0) {
+		try {
+		    for (IKey key : registry.getKeys(hive, matches.toArray(new String[matches.size()]))) {
+			if (key != null && !result.add(key)) {
+			    break;
+			}
+		    }
+		} catch (RegistryException e) {
+		    result.addError(Message.getMessage(Message.ERROR_IO, toString(matches.get(0)), e.getMessage()));
+		}
+	    }
+	}
+
+	/**
+	 * Determine whether any of the (comma-separated, base64-encoded) value names returned by the target satisfies the
+	 * value conditions.
+	 */
+	private boolean acceptValues(String names) {
+	    for (String name : names.split(",", -1)) {
+		try {
+		    if (query.acceptValue(new String(Base64.decode(name), Strings.UTF8))) {
+			return true;
+		    }
+		} catch (IOException e) {
+		    logger.warn(Message.WARNING_COMMAND_OUTPUT, name);
+		}
+	    }
+	    return false;
+	}
+
+	private String toString(String path) {
+	    return path.length() == 0 ? hive.getName() : hive.getName() + IRegistry.DELIM_STR + path;
+	}
+    }
+
+    /**
+     * A key from which a batch search begins.
+     */
+    static class Root {
+	String path;
+	int level;
+
+	Root(String path, int level) {
+	    this.path = path;
+	    this.level = level;
+	}
+    }
+}
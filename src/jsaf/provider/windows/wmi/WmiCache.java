@@ -0,0 +1,229 @@
+// Copyright (C) 2026 Arctic Wolf Networks, Inc.  All rights reserved.
+// This software is licensed under the LGPL 3.0 license available at http://www.gnu.org/licenses/lgpl.txt
+
+package jsaf.provider.windows.wmi;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.WeakHashMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import org.slf4j.cal10n.LocLogger;
+
+import jsaf.Message;
+import jsaf.intf.util.IDisposable;
+import jsaf.intf.util.ILoggable;
+import jsaf.intf.windows.system.IWindowsSession;
+import jsaf.intf.windows.wmi.ISWbemObject;
+
+/**
+ * A session-level cache of WMI query results, keyed by namespace and normalized WQL (see getInstance). Results are
+ * retained for a limited time (IWindowsSession.PROP_WMI_CACHE_TTL), and the number of cached results is bounded
+ * (IWindowsSession.PROP_WMI_CACHE_SIZE); the least-recently used results are evicted first.
+ *
+ * The complete instance sets of frequently-queried classes (e.g., Win32_OperatingSystem or Win32_Service) can be
+ * retrieved in parallel (using the session's WmiPool) with the prefetch method, typically right after the session
+ * connects. Subsequent simple queries of a prefetched class (i.e., conjunctions of comparisons between properties and
+ * literals) are then answered by filtering the cached instances locally.
+ *
+ * @author David A. Solin
+ * @version %I% %G%
+ * @since 1.7.0
+ */
+public class WmiCache implements ILoggable, IDisposable {
+    /**
+     * The default maximum number of cached query results.
+     */
+    public static final int DEFAULT_SIZE = 64;
+
+    /**
+     * The default time (in milliseconds) for which a query result is retained.
+     */
+    public static final long DEFAULT_TTL = 300000L;
+
+    private static final Map<IWindowsSession, WmiCache> INSTANCES = new WeakHashMap<IWindowsSession, WmiCache>();
+
+    /**
+     * Get the WmiCache for the specified session, creating it if necessary.
+     */
+    public static WmiCache getInstance(IWindowsSession session) {
+	synchronized(INSTANCES) {
+	    WmiCache cache = INSTANCES.get(session);
+	    if (cache == null) {
+		cache = new WmiCache(session);
+		INSTANCES.put(session, cache);
+	    }
+	    return cache;
+	}
+    }
+
+    private WeakReference<IWindowsSession> ref;
+    private LocLogger logger;
+    private long ttl;
+    private Map<String, CacheEntry> entries;
+
+    /**
+     * Create a WmiCache for the specified session, sized and configured using the session's properties.
+     */
+    public WmiCache(IWindowsSession session) {
+	ref = new WeakReference<IWindowsSession>(session);
+	logger = session.getLogger();
+	int n = session.getProperties().getIntProperty(IWindowsSession.PROP_WMI_CACHE_SIZE);
+	final int size = n > 0 ? n : DEFAULT_SIZE;
+	long t = session.getProperties().getLongProperty(IWindowsSession.PROP_WMI_CACHE_TTL);
+	ttl = t == 0 ? DEFAULT_TTL : t;
+	entries = new LinkedHashMap<String, CacheEntry>(size, 0.75f, true) {
+	    @Override
+	    protected boolean removeEldestEntry(Map.Entry<String, CacheEntry> eldest) {
+		return size() > size;
+	    }
+	};
+    }
+
+    /**
+     * Execute a WQL query on the given namespace, answering it from the cache if possible.
+     *
+     * @throws NoSuchElementException if the specified namespace is not registered
+     * @throws WmiException if there was an error performing the query
+     */
+    public List<ISWbemObject> execQuery(String ns, String wql) throws NoSuchElementException, WmiException {
+	String id = toString(ns, wql);
+	List<WmiObject> objects = getFresh(id);
+	if (objects == null) {
+	    Wql.Select select = Wql.parse(wql);
+	    if (select != null) {
+		List<WmiObject> instances = getFresh(toString(ns, getInstancesQuery(select.getClassName())));
+		if (instances != null) {
+		    objects = select.evaluate(instances);
+		}
+	    }
+	}
+	if (objects == null) {
+	    objects = fetch(ns, wql);
+	    put(id, objects);
+	}
+	return Collections.<ISWbemObject>unmodifiableList(objects);
+    }
+
+    /**
+     * Retrieve the complete instance sets of the specified classes concurrently, and cache them. Classes that cannot be
+     * retrieved (or whose queries are cancelled because the session's WmiPool is disposed) are logged, and otherwise
+     * ignored.
+     */
+    public void prefetch(String ns, String... classNames) {
+	WmiPool pool = WmiPool.getInstance(getSession());
+	List<Future<List<ISWbemObject>>> futures = new ArrayList<Future<List<ISWbemObject>>>();
+	for (String className : classNames) {
+	    futures.add(pool.execQuery(ns, getInstancesQuery(className)));
+	}
+	for (int i=0; i < classNames.length; i++) {
+	    try {
+		List<WmiObject> objects = new ArrayList<WmiObject>();
+		for (ISWbemObject object : futures.get(i).get()) {
+		    objects.add((WmiObject)object);
+		}
+		put(toString(ns, getInstancesQuery(classNames[i])), objects);
+	    } catch (ExecutionException e) {
+		logger.warn(Message.WARNING_WMI_PREFETCH, classNames[i], e.getCause().getMessage());
+	    } catch (CancellationException e) {
+		// the session's WmiPool was disposed before the query could run
+		logger.warn(Message.WARNING_WMI_PREFETCH, classNames[i], e.toString());
+	    } catch (InterruptedException e) {
+		Thread.currentThread().interrupt();
+		return;
+	    }
+	}
+    }
+
+    /**
+     * Discard all the cached results.
+     */
+    public synchronized void clear() {
+	entries.clear();
+    }
+
+    // Implement IDisposable
+
+    public synchronized void dispose() {
+	entries.clear();
+    }
+
+    // Implement ILoggable
+
+    public LocLogger getLogger() {
+	return logger;
+    }
+
+    public void setLogger(LocLogger logger) {
+	this.logger = logger;
+    }
+
+    // Private
+
+    private static String getInstancesQuery(String className) {
+	return "SELECT * FROM " + className;
+    }
+
+    private static String toString(String ns, String wql) {
+	return new StringBuffer(ns.toLowerCase()).append(":").append(Wql.normalize(wql)).toString();
+    }
+
+    private IWindowsSession getSession() {
+	IWindowsSession session = ref.get();
+	if (session == null) {
+	    throw new IllegalStateException();
+	}
+	return session;
+    }
+
+    /**
+     * Get the cached result for a query, if it has not expired.
+     */
+    private synchronized List<WmiObject> getFresh(String id) {
+	CacheEntry entry = entries.get(id);
+	if (entry == null) {
+	    return null;
+	} else if (ttl > 0 && System.currentTimeMillis() - entry.loaded > ttl) {
+	    entries.remove(id);
+	    return null;
+	}
+	return entry.objects;
+    }
+
+    private synchronized void put(String id, List<WmiObject> objects) {
+	entries.put(id, new CacheEntry(objects));
+    }
+
+    private List<WmiObject> fetch(String ns, String wql) throws NoSuchElementException, WmiException {
+	final List<WmiObject> objects = new ArrayList<WmiObject>();
+	WmiStream stream = new WmiStream(getSession());
+	stream.setLogger(logger);
+	stream.execQuery(ns, wql, new WmiStream.IObjectHandler() {
+	    public boolean handle(ISWbemObject object) {
+		objects.add((WmiObject)object);
+		return true;
+	    }
+	});
+	return objects;
+    }
+
+    /**
+     * A cached query result.
+     */
+    static class CacheEntry {
+	List<WmiObject> objects;
+	long loaded;
+
+	CacheEntry(List<WmiObject> objects) {
+	    this.objects = objects;
+	    loaded = System.currentTimeMillis();
+	}
+    }
+}
@@ -0,0 +1,68 @@
+// Copyright (C) 2026 Arctic Wolf Networks, Inc.  All rights reserved.
+// This software is licensed under the LGPL 3.0 license available at http://www.gnu.org/licenses/lgpl.txt
+
+package jsaf.provider.windows.wmi;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import jsaf.intf.windows.wmi.ISWbemObject;
+import jsaf.intf.windows.wmi.ISWbemProperty;
+import jsaf.intf.windows.wmi.ISWbemPropertySet;
+
+/**
+ * An ISWbemObject (which is also its own ISWbemPropertySet) whose properties were transferred from the target.
+ *
+ * @author David A. Solin
+ * @version %I% %G%
+ * @since 1.7.0
+ */
+public class WmiObject implements ISWbemObject, ISWbemPropertySet {
+    private List<WmiProperty> properties;
+
+    public WmiObject() {
+	properties = new ArrayList<WmiProperty>();
+    }
+
+    public void addProperty(WmiProperty property) {
+	properties.add(property);
+    }
+
+    // Implement ISWbemObject
+
+    public ISWbemPropertySet getProperties() {
+	return this;
+    }
+
+    // Implement ISWbemPropertySet
+
+    public int getSize() {
+	return properties.size();
+    }
+
+    /**
+     * Get a property by its (case-insensitive) name.
+     *
+     * @return null if the object has no such property
+     */
+    public WmiProperty getItem(String itemName) {
+	for (WmiProperty property : properties) {
+	    if (property.getName().equalsIgnoreCase(itemName)) {
+		return property;
+	    }
+	}
+	return null;
+    }
+
+    // Implement Iterable<ISWbemProperty>
+
+    public Iterator<ISWbemProperty> iterator() {
+	return new ArrayList<ISWbemProperty>(properties).iterator();
+    }
+
+    @Override
+    public String toString() {
+	return properties.toString();
+    }
+}
@@ -0,0 +1,221 @@
+// Copyright (C) 2026 Arctic Wolf Networks, Inc.  All rights reserved.
+// This software is licensed under the LGPL 3.0 license available at http://www.gnu.org/licenses/lgpl.txt
+
+package jsaf.provider.windows.wmi;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.WeakHashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.slf4j.cal10n.LocLogger;
+
+import jsaf.JSAFSystem;
+import jsaf.intf.util.IDisposable;
+import jsaf.intf.util.ILoggable;
+import jsaf.intf.windows.system.IWindowsSession;
+import jsaf.intf.windows.wmi.ISWbemObject;
+import jsaf.util.WorkStealingExecutor;
+
+/**
+ * Executes WMI queries for a session concurrently, returning a Future for each query. Each namespace has its own bounded
+ * set of workers (IWindowsSession.PROP_WMI_POOL_SIZE), so a burst of queries in one namespace cannot delay queries in
+ * another. Each worker runs its queries using a WmiStream, in a runspace obtained from the session's IRunspacePool, which
+ * keeps its connections to the namespaces it has queried. Queries can only run in parallel to the extent that the pool
+ * provides distinct runspaces.
+ *
+ * Each query is subject to the session's WMI timeout (IWindowsSession.PROP_WMI_TIMEOUT). A query that fails completes
+ * its Future with an ExecutionException, whose cause is a NoSuchElementException (if the namespace does not exist) or a
+ * WmiException. A query that is still waiting for a worker when the pool is disposed (or that is submitted afterwards)
+ * is cancelled, so its Future throws a CancellationException.
+ *
+ * The workers are daemon threads, which are started when the first query is submitted in a namespace. They are stopped
+ * (cancelling any queued queries) when the pool is disposed, when the session is disconnected, or when the session is
+ * garbage-collected, whichever happens first; after a disconnect, new workers are started as needed.
+ *
+ * @author David A. Solin
+ * @version %I% %G%
+ * @since 1.7.0
+ */
+public class WmiPool implements ILoggable, IDisposable {
+    /**
+     * The default number of queries that may run concurrently in a namespace.
+     */
+    public static final int DEFAULT_SIZE = 4;
+
+    /**
+     * The interval (in milliseconds) at which the pool checks whether its session is still connected.
+     */
+    static final long CHECK_INTERVAL = 60000L;
+
+    private static final Map<IWindowsSession, WmiPool> INSTANCES = new WeakHashMap<IWindowsSession, WmiPool>();
+
+    /**
+     * Get the WmiPool for the specified session, creating it if necessary.
+     */
+    public static WmiPool getInstance(IWindowsSession session) {
+	synchronized(INSTANCES) {
+	    WmiPool pool = INSTANCES.get(session);
+	    if (pool == null) {
+		pool = new WmiPool(session);
+		INSTANCES.put(session, pool);
+	    }
+	    return pool;
+	}
+    }
+
+    private WeakReference<IWindowsSession> ref;
+    private LocLogger logger;
+    private int size;
+    private Map<String, WorkStealingExecutor> executors;
+    private Monitor monitor;
+    private boolean disposed = false;
+
+    /**
+     * Create a WmiPool for the specified session, sized using the session's properties.
+     */
+    public WmiPool(IWindowsSession session) {
+	ref = new WeakReference<IWindowsSession>(session);
+	logger = session.getLogger();
+	int n = session.getProperties().getIntProperty(IWindowsSession.PROP_WMI_POOL_SIZE);
+	size = n > 0 ? n : DEFAULT_SIZE;
+	executors = new HashMap<String, WorkStealingExecutor>();
+    }
+
+    /**
+     * Execute a WQL query on the given namespace, collecting all the resulting objects.
+     */
+    public Future<List<ISWbemObject>> execQuery(final String ns, final String wql) {
+	FutureTask<List<ISWbemObject>> task = new FutureTask<List<ISWbemObject>>(new Callable<List<ISWbemObject>>() {
+	    public List<ISWbemObject> call() throws NoSuchElementException, WmiException {
+		final List<ISWbemObject> objects = new ArrayList<ISWbemObject>();
+		getStream().execQuery(ns, wql, new WmiStream.IObjectHandler() {
+		    public boolean handle(ISWbemObject object) {
+			objects.add(object);
+			return true;
+		    }
+		});
+		return objects;
+	    }
+	});
+	submit(ns, task);
+	return task;
+    }
+
+    /**
+     * Execute a WQL query on the given namespace, handing each resulting object to the handler (which is called by a
+     * worker of the pool).
+     *
+     * @param properties the names of the properties required by the handler, or null for all properties
+     *
+     * @return a Future for the number of objects that were handled
+     */
+    public Future<Integer> execQuery(final String ns, final String wql, final String[] properties,
+		final WmiStream.IObjectHandler handler) {
+
+	FutureTask<Integer> task = new FutureTask<Integer>(new Callable<Integer>() {
+	    public Integer call() throws NoSuchElementException, WmiException {
+		return new Integer(getStream().execQuery(ns, wql, properties, handler));
+	    }
+	});
+	submit(ns, task);
+	return task;
+    }
+
+    // Implement IDisposable
+
+    /**
+     * Stop the workers, and cancel all the queries that have not yet started. Queries submitted afterwards are cancelled.
+     */
+    public synchronized void dispose() {
+	disposed = true;
+	release();
+    }
+
+    // Implement ILoggable
+
+    public LocLogger getLogger() {
+	return logger;
+    }
+
+    public void setLogger(LocLogger logger) {
+	this.logger = logger;
+    }
+
+    // Private
+
+    private WmiStream getStream() {
+	IWindowsSession session = ref.get();
+	if (session == null) {
+	    throw new IllegalStateException();
+	}
+	WmiStream stream = new WmiStream(session);
+	stream.setLogger(logger);
+	return stream;
+    }
+
+    /**
+     * Hand the task to the namespace's workers or, if the pool has been disposed, cancel it.
+     */
+    private void submit(String ns, FutureTask<?> task) {
+	try {
+	    getExecutor(ns).execute(task);
+	} catch (RejectedExecutionException e) {
+	    task.cancel(false);
+	}
+    }
+
+    private synchronized WorkStealingExecutor getExecutor(String ns) {
+	if (disposed) {
+	    throw new RejectedExecutionException();
+	}
+	String key = ns.toLowerCase();
+	WorkStealingExecutor executor = executors.get(key);
+	if (executor == null) {
+	    executor = new WorkStealingExecutor("WmiPool " + key, size);
+	    executor.setLogger(logger);
+	    executors.put(key, executor);
+	    if (monitor == null) {
+		monitor = new Monitor();
+		JSAFSystem.schedule(monitor, CHECK_INTERVAL, CHECK_INTERVAL);
+	    }
+	}
+	return executor;
+    }
+
+    /**
+     * Stop all the workers, cancelling their queued queries.
+     */
+    private synchronized void release() {
+	if (monitor != null) {
+	    JSAFSystem.cancelTask(monitor);
+	    monitor = null;
+	}
+	for (WorkStealingExecutor executor : executors.values()) {
+	    executor.dispose();
+	}
+	executors.clear();
+    }
+
+    /**
+     * Periodically checks the session, stopping the workers once it has been disconnected, and disposing the pool once it
+     * has been garbage-collected.
+     */
+    class Monitor implements Runnable {
+	public void run() {
+	    IWindowsSession session = ref.get();
+	    if (session == null) {
+		dispose();
+	    } else if (!session.isConnected()) {
+		release();
+	    }
+	}
+    }
+}
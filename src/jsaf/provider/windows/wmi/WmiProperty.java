@@ -0,0 +1,234 @@
+// Copyright (C) 2026 Arctic Wolf Networks, Inc.  All rights reserved.
+// This software is licensed under the LGPL 3.0 license available at http://www.gnu.org/licenses/lgpl.txt
+
+package jsaf.provider.windows.wmi;
+
+import java.math.BigInteger;
+import java.text.ParseException;
+
+import jsaf.Message;
+import jsaf.intf.windows.wmi.ISWbemProperty;
+import jsaf.provider.windows.Timestamp;
+
+/**
+ * An ISWbemProperty whose value was transferred from the target as text (see WmiStream). Values are converted to the
+ * requested type when they are accessed.
+ *
+ * @author David A. Solin
+ * @version %I% %G%
+ * @since 1.7.0
+ */
+public class WmiProperty implements ISWbemProperty {
+    /**
+     * The CIM type of a datetime property.
+     */
+    public static final int CIM_DATETIME = 101;
+
+    private String name;
+    private int cimType;
+    private boolean array;
+    private String[] values;
+
+    /**
+     * Create a property.
+     *
+     * @param cimType the CIM type of the property (a member of the WbemCimtypeEnum)
+     * @param values the values of the property (for a scalar, a single value), or null if it has no value
+     */
+    public WmiProperty(String name, int cimType, boolean array, String[] values) {
+	if (!array && values != null && values.length != 1) {
+	    throw new IllegalArgumentException(name);
+	}
+	this.name = name;
+	this.cimType = cimType;
+	this.array = array;
+	this.values = values;
+    }
+
+    /**
+     * Get the CIM type of the property.
+     */
+    public int getCimType() {
+	return cimType;
+    }
+
+    /**
+     * Returns whether the property is an array.
+     */
+    public boolean isArray() {
+	return array;
+    }
+
+    // Implement ISWbemProperty
+
+    public String getName() {
+	return name;
+    }
+
+    /**
+     * @return a String, a String[] (if the property is an array) or null
+     */
+    public Object getValue() {
+	if (values == null) {
+	    return null;
+	} else if (array) {
+	    return getValueAsArray();
+	} else {
+	    return values[0];
+	}
+    }
+
+    public Integer getValueAsInteger() throws WmiException {
+	return values == null ? null : new Integer(getInt());
+    }
+
+    public Long getValueAsLong() throws WmiException {
+	return values == null ? null : new Long(getLong());
+    }
+
+    public BigInteger getValueAsTimestamp() throws WmiException {
+	String s = getScalar("Timestamp");
+	if (s == null) {
+	    return null;
+	}
+	try {
+	    return Timestamp.toWindowsTimestamp(s);
+	} catch (ParseException e) {
+	    throw conversionError(s, "Timestamp");
+	} catch (NumberFormatException e) {
+	    throw conversionError(s, "Timestamp");
+	}
+    }
+
+    public Boolean getValueAsBoolean() throws WmiException {
+	return values == null ? null : Boolean.valueOf(getBoolean());
+    }
+
+    public String getValueAsString() throws WmiException {
+	return getScalar("String");
+    }
+
+    public String[] getValueAsArray() {
+	if (values == null) {
+	    return null;
+	}
+	String[] result = new String[values.length];
+	System.arraycopy(values, 0, result, 0, values.length);
+	return result;
+    }
+
+    /**
+     * Get the value of the property as an int, without boxing. Values of uint32 properties greater than Integer.MAX_VALUE
+     * wrap around, as do values of uint64 properties converted to an int.
+     *
+     * @throws WmiException if the property has no value, or if its value cannot be converted
+     */
+    public int getInt() throws WmiException {
+	return (int)getLong("int");
+    }
+
+    /**
+     * Get the value of the property as a long, without boxing. Values of uint64 properties greater than Long.MAX_VALUE
+     * wrap around.
+     *
+     * @throws WmiException if the property has no value, or if its value cannot be converted
+     */
+    public long getLong() throws WmiException {
+	return getLong("long");
+    }
+
+    /**
+     * Get the value of the property as a boolean, without boxing.
+     *
+     * @throws WmiException if the property has no value
+     */
+    public boolean getBoolean() throws WmiException {
+	return "true".equalsIgnoreCase(getRequired("boolean"));
+    }
+
+    /**
+     * Get the value of a datetime property as the number of milliseconds since 1970 (UTC).
+     *
+     * @throws WmiException if the property has no value, or if its value is not a valid datetime
+     */
+    public long getEpochMillis() throws WmiException {
+	String s = getRequired("datetime");
+	try {
+	    long micros = Timestamp.getEpochMicros(s);
+	    return micros >= 0 ? micros / 1000L : -((999L - micros) / 1000L);
+	} catch (NumberFormatException e) {
+	    throw conversionError(s, "datetime");
+	}
+    }
+
+    @Override
+    public String toString() {
+	StringBuffer sb = new StringBuffer(name).append("=");
+	if (values == null) {
+	    sb.append("null");
+	} else if (array) {
+	    sb.append("{");
+	    for (int i=0; i < values.length; i++) {
+		if (i > 0) {
+		    sb.append(", ");
+		}
+		sb.append(values[i]);
+	    }
+	    sb.append("}");
+	} else {
+	    sb.append(values[0]);
+	}
+	return sb.toString();
+    }
+
+    // Private
+
+    /**
+     * Get the value of a scalar property, or null if it has no value.
+     */
+    private String getScalar(String type) throws WmiException {
+	if (values == null) {
+	    return null;
+	} else if (array) {
+	    throw conversionError(toString(), type);
+	}
+	return values[0];
+    }
+
+    /**
+     * Get the value of a scalar property, which must not be null.
+     */
+    private String getRequired(String type) throws WmiException {
+	String s = getScalar(type);
+	if (s == null) {
+	    throw conversionError(null, type);
+	}
+	return s;
+    }
+
+    /**
+     * Parse the value of an integral property, allowing for unsigned 64-bit values (which wrap around).
+     */
+    private long getLong(String type) throws WmiException {
+	String s = getRequired(type);
+	int len = s.length();
+	boolean negative = len > 0 && s.charAt(0) == '-';
+	int i = negative ? 1 : 0;
+	if (i == len) {
+	    throw conversionError(s, type);
+	}
+	long n = 0;
+	for (; i < len; i++) {
+	    int digit = s.charAt(i) - '0';
+	    if (digit < 0 || digit > 9) {
+		throw conversionError(s, type);
+	    }
+	    n = 10 * n + digit;
+	}
+	return negative ? -n : n;
+    }
+
+    private WmiException conversionError(String value, String type) {
+	return new WmiException(Message.getMessage(Message.ERROR_WMI_VALUE, name, value, type));
+    }
+}
@@ -0,0 +1,242 @@
+// Copyright (C) 2026 Arctic Wolf Networks, Inc.  All rights reserved.
+// This software is licensed under the LGPL 3.0 license available at http://www.gnu.org/licenses/lgpl.txt
+
+package jsaf.provider.windows.wmi;
+
+import java.io.IOException;
+import java.util.NoSuchElementException;
+
+import org.slf4j.cal10n.LocLogger;
+
+import jsaf.Message;
+import jsaf.intf.util.ILoggable;
+import jsaf.intf.util.IProperty;
+import jsaf.intf.windows.powershell.IRunspace;
+import jsaf.intf.windows.system.IWindowsSession;
+import jsaf.intf.windows.wmi.ISWbemObject;
+import jsaf.provider.windows.powershell.ModuleLoader;
+import jsaf.provider.windows.powershell.PowershellException;
+import jsaf.util.Base64;
+import jsaf.util.Strings;
+
+/**
+ * Executes WQL queries on the target using a Powershell runspace, handing each resulting object to an IObjectHandler as
+ * it arrives. Queries are semi-synchronous and forward-only, so WMI never holds the whole result set, and the objects are
+ * transferred in batches of a bounded size (see IWindowsSession.PROP_WMI_BATCH_SIZE), so only one batch is ever held in
+ * memory. This makes it practical to process the results of queries such as SELECT * FROM CIM_DataFile, which are too
+ * large to materialize as an ISWbemObjectSet.
+ *
+ * When the caller declares the properties it needs, a SELECT * query is rewritten to retrieve only those properties.
+ *
+ * Each query must complete within IWindowsSession.PROP_WMI_TIMEOUT milliseconds (or, if that is unset, the session's L
+ * timeout), including the time taken by the handler. The target keeps a connection to each namespace that has been
+ * queried in a runspace, so subsequent queries of the namespace in the same runspace do not reconnect.
+ *
+ * @author David A. Solin
+ * @version %I% %G%
+ * @since 1.7.0
+ */
+public class WmiStream implements ILoggable {
+    /**
+     * The default number of objects that are transferred from the target at a time.
+     */
+    public static final int DEFAULT_BATCH_SIZE = 256;
+
+    static final String MODULE = "WmiStream.psm1";
+
+    /**
+     * An interface for processing the objects returned by a query.
+     */
+    public interface IObjectHandler {
+	/**
+	 * Handle an object. The object is not retained by the WmiStream.
+	 *
+	 * @return true to continue the enumeration, false to stop it
+	 */
+	boolean handle(ISWbemObject object) throws WmiException;
+    }
+
+    private IWindowsSession session;
+    private LocLogger logger;
+    private int batchSize;
+    private long timeout;
+
+    /**
+     * Create a WmiStream for the specified session.
+     */
+    public WmiStream(IWindowsSession session) {
+	this.session = session;
+	logger = session.getLogger();
+	IProperty props = session.getProperties();
+	batchSize = props.getIntProperty(IWindowsSession.PROP_WMI_BATCH_SIZE);
+	if (batchSize <= 0) {
+	    batchSize = DEFAULT_BATCH_SIZE;
+	}
+	timeout = props.getLongProperty(IWindowsSession.PROP_WMI_TIMEOUT);
+	if (timeout <= 0) {
+	    timeout = session.getTimeout(IWindowsSession.Timeout.L);
+	}
+    }
+
+    /**
+     * Execute a WQL query on the given namespace, handing every property of each resulting object to the handler.
+     *
+     * @return the number of objects that were handled
+     */
+    public int execQuery(String ns, String wql, IObjectHandler handler) throws NoSuchElementException, WmiException {
+	return execQuery(ns, wql, null, handler);
+    }
+
+    /**
+     * Execute a WQL query on the given namespace, handing each resulting object to the handler.
+     *
+     * @param properties the names of the properties required by the handler, or null for all properties
+     *
+     * @return the number of objects that were handled
+     *
+     * @throws NoSuchElementException if the specified namespace is not registered
+     * @throws WmiException if there was an error performing the query, or if the handler throws one
+     */
+    public int execQuery(String ns, String wql, String[] properties, IObjectHandler handler)
+		throws NoSuchElementException, WmiException {
+
+	String query = Wql.project(wql, properties);
+	long deadline = System.currentTimeMillis() + timeout;
+	try {
+	    IRunspace runspace = getRunspace();
+	    StringBuffer cmd = new StringBuffer("Open-JsafWmiQuery -Namespace ").append(encode(ns));
+	    cmd.append(" -Query ").append(encode(query)).append(" -BatchSize ").append(batchSize);
+	    String cursor = runspace.invoke(cmd.toString(), getRemaining(deadline, query)).trim();
+	    if ("N".equals(cursor)) {
+		throw new NoSuchElementException(ns);
+	    }
+	    int count = 0;
+	    boolean open = true;
+	    try {
+		StringBuffer read = new StringBuffer("Read-JsafWmiObjects -Cursor ").append(cursor);
+		read.append(" -Count ").append(batchSize);
+		while (open) {
+		    String data = runspace.invoke(read.toString(), getRemaining(deadline, query));
+		    WmiObject obj = null;
+		    for (String line : (data == null ? "" : data).split("\r?\n")) {
+			if (line.length() == 0) {
+			    continue;
+			}
+			switch(line.charAt(0)) {
+			  case 'O':
+			    if (obj != null) {
+				count++;
+				if (!handler.handle(obj)) {
+				    return count;
+				}
+			    }
+			    obj = new WmiObject();
+			    break;
+			  case 'P':
+			    if (obj == null) {
+				throw new WmiException(Message.getMessage(Message.ERROR_IO, query, line));
+			    }
+			    obj.addProperty(decode(line));
+			    break;
+			  case '.':
+			    open = false;
+			    break;
+			  case 'E':
+			    open = false;
+			    throw new WmiException(line.substring(Math.min(2, line.length())));
+			  default:
+			    throw new WmiException(Message.getMessage(Message.ERROR_IO, query, line));
+			}
+		    }
+		    if (obj != null) {
+			count++;
+			if (!handler.handle(obj)) {
+			    return count;
+			}
+		    }
+		}
+		return count;
+	    } finally {
+		if (open) {
+		    try {
+			runspace.invoke("Close-JsafWmiQuery -Cursor " + cursor, timeout);
+		    } catch (PowershellException e) {
+			logger.warn(Message.getMessage(Message.ERROR_EXCEPTION), e);
+		    }
+		}
+	    }
+	} catch (PowershellException e) {
+	    throw new WmiException(e);
+	}
+    }
+
+    // Implement ILoggable
+
+    public LocLogger getLogger() {
+	return logger;
+    }
+
+    public void setLogger(LocLogger logger) {
+	this.logger = logger;
+    }
+
+    // Internal
+
+    /**
+     * Decode a property line of the output of Read-JsafWmiObjects.
+     */
+    static WmiProperty decode(String line) throws WmiException {
+	String[] fields = line.split("\t", -1);
+	try {
+	    String name = fields[1];
+	    int cimType = Integer.parseInt(fields[2]);
+	    switch(fields[3].charAt(0)) {
+	      case 'N':
+		return new WmiProperty(name, cimType, false, null);
+	      case 'S':
+		return new WmiProperty(name, cimType, false, new String[] {decodeValue(fields[4])});
+	      case 'A': {
+		String[] values = new String[fields.length - 4];
+		for (int i=0; i < values.length; i++) {
+		    values[i] = decodeValue(fields[i + 4]);
+		}
+		return new WmiProperty(name, cimType, true, values);
+	      }
+	    }
+	} catch (IOException e) {
+	} catch (RuntimeException e) {
+	}
+	throw new WmiException(Message.getMessage(Message.ERROR_EOS));
+    }
+
+    // Private
+
+    /**
+     * Get the time remaining before the deadline of a query.
+     *
+     * @throws WmiException if the deadline has passed
+     */
+    private static long getRemaining(long deadline, String query) throws WmiException {
+	long remaining = deadline - System.currentTimeMillis();
+	if (remaining <= 0) {
+	    throw new WmiException(Message.getMessage(Message.ERROR_WMI_TIMEOUT, query));
+	}
+	return remaining;
+    }
+
+    private static String encode(String s) {
+	return Base64.encodeBytes(s.getBytes(Strings.UTF8));
+    }
+
+    private static String decodeValue(String s) throws IOException {
+	return new String(Base64.decode(s), Strings.UTF8);
+    }
+
+    /**
+     * Get a runspace into which the module has been loaded. A query's cursor lives in the runspace, so the same runspace
+     * is used for every batch.
+     */
+    private IRunspace getRunspace() throws PowershellException {
+	return ModuleLoader.getRunspace(session.getRunspacePool(), WmiStream.class, MODULE);
+    }
+}
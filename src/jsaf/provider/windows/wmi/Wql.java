@@ -0,0 +1,381 @@
+// Copyright (C) 2026 Arctic Wolf Networks, Inc.  All rights reserved.
+// This software is licensed under the LGPL 3.0 license available at http://www.gnu.org/licenses/lgpl.txt
+
+package jsaf.provider.windows.wmi;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import jsaf.Message;
+
+/**
+ * Utilities for rewriting, normalizing and (for simple queries) locally evaluating WQL queries.
+ *
+ * @author David A. Solin
+ * @version %I% %G%
+ * @since 1.7.0
+ */
+class Wql {
+    private static final Pattern SELECT_ALL = Pattern.compile("^\\s*SELECT\\s+\\*\\s+FROM\\s+", Pattern.CASE_INSENSITIVE);
+    private static final Pattern IDENTIFIER = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
+    private static final Pattern NUMBER = Pattern.compile("-?[0-9]+(\\.[0-9]+)?");
+
+    /**
+     * Rewrite a SELECT * query so that it retrieves only the specified properties, which spares the provider from
+     * computing (and the target from transmitting) any others. Queries that already specify their properties, and queries
+     * for which no properties are specified, are returned unchanged.
+     *
+     * @throws IllegalArgumentException if a property name is not a valid WQL identifier
+     */
+    static String project(String wql, String[] properties) throws IllegalArgumentException {
+	if (properties == null || properties.length == 0) {
+	    return wql;
+	}
+	Matcher m = SELECT_ALL.matcher(wql);
+	if (!m.find()) {
+	    return wql;
+	}
+	StringBuffer sb = new StringBuffer("SELECT ");
+	for (int i=0; i < properties.length; i++) {
+	    if (!IDENTIFIER.matcher(properties[i]).matches()) {
+		throw new IllegalArgumentException(Message.getMessage(Message.ERROR_WMI_PROPERTY, properties[i]));
+	    }
+	    if (i > 0) {
+		sb.append(",");
+	    }
+	    sb.append(properties[i]);
+	}
+	return sb.append(" FROM ").append(wql.substring(m.end())).toString();
+    }
+
+    /**
+     * Normalize a query, so that equivalent queries can be recognized: outside of string literals, runs of whitespace are
+     * reduced to a single space (or removed, next to punctuation), and letters are converted to lower-case.
+     */
+    static String normalize(String wql) {
+	StringBuffer sb = new StringBuffer();
+	char quote = 0;
+	boolean space = false;
+	for (int i=0; i < wql.length(); i++) {
+	    char ch = wql.charAt(i);
+	    if (quote != 0) {
+		sb.append(ch);
+		if (ch == '\\' && i + 1 < wql.length()) {
+		    sb.append(wql.charAt(++i));
+		} else if (ch == quote) {
+		    quote = 0;
+		}
+	    } else if (Character.isWhitespace(ch)) {
+		space = true;
+	    } else {
+		if (space && sb.length() > 0 && isWordChar(sb.charAt(sb.length() - 1)) && isWordChar(ch)) {
+		    sb.append(' ');
+		}
+		space = false;
+		if (ch == '\'' || ch == '"') {
+		    quote = ch;
+		}
+		sb.append(Character.toLowerCase(ch));
+	    }
+	}
+	return sb.toString();
+    }
+
+    /**
+     * Parse a simple query, i.e., one of the form SELECT (* | prop[, prop...]) FROM class [WHERE cond [AND cond...]],
+     * where each cond compares a property to a literal (using =, &lt;&gt;, !=, &lt;, &gt;, &lt;= or &gt;=), or is of the
+     * form prop IS [NOT] NULL.
+     *
+     * @return null if the query is not simple
+     */
+    static Select parse(String wql) {
+	List<String> tokens = tokenize(wql);
+	if (tokens == null) {
+	    return null;
+	}
+	int i = 0;
+	if (!"SELECT".equalsIgnoreCase(get(tokens, i++))) {
+	    return null;
+	}
+	List<String> properties = null;
+	if ("*".equals(get(tokens, i))) {
+	    i++;
+	} else {
+	    properties = new ArrayList<String>();
+	    while (true) {
+		String property = get(tokens, i++);
+		if (!isIdentifier(property)) {
+		    return null;
+		}
+		properties.add(property);
+		if (!",".equals(get(tokens, i))) {
+		    break;
+		}
+		i++;
+	    }
+	}
+	if (!"FROM".equalsIgnoreCase(get(tokens, i++))) {
+	    return null;
+	}
+	String className = get(tokens, i++);
+	if (!isIdentifier(className)) {
+	    return null;
+	}
+	List<Condition> conditions = new ArrayList<Condition>();
+	if (i < tokens.size()) {
+	    if (!"WHERE".equalsIgnoreCase(get(tokens, i++))) {
+		return null;
+	    }
+	    while (true) {
+		String property = get(tokens, i++);
+		String op = get(tokens, i++);
+		if (!isIdentifier(property) || op == null) {
+		    return null;
+		}
+		if ("IS".equalsIgnoreCase(op)) {
+		    boolean not = "NOT".equalsIgnoreCase(get(tokens, i));
+		    if (not) {
+			i++;
+		    }
+		    if (!"NULL".equalsIgnoreCase(get(tokens, i++))) {
+			return null;
+		    }
+		    conditions.add(new Condition(property, not ? "<>" : "=", null));
+		} else if (isOperator(op)) {
+		    String literal = get(tokens, i++);
+		    if (literal == null || isOperator(literal) || (!isLiteral(literal) && !isKeywordLiteral(literal))) {
+			return null;
+		    }
+		    conditions.add(new Condition(property, op, literal));
+		} else {
+		    return null;
+		}
+		if (!"AND".equalsIgnoreCase(get(tokens, i))) {
+		    break;
+		}
+		i++;
+	    }
+	}
+	if (i != tokens.size()) {
+	    return null;
+	}
+	return new Select(properties == null ? null : properties.toArray(new String[properties.size()]), className, conditions);
+    }
+
+    /**
+     * A parsed simple query.
+     */
+    static class Select {
+	private String[] properties;
+	private String className;
+	private List<Condition> conditions;
+
+	Select(String[] properties, String className, List<Condition> conditions) {
+	    this.properties = properties;
+	    this.className = className;
+	    this.conditions = conditions;
+	}
+
+	String getClassName() {
+	    return className;
+	}
+
+	/**
+	 * Evaluate the query against a complete set of the instances of the class (i.e., the result of SELECT * FROM class).
+	 *
+	 * @return the matching objects, projected onto the selected properties, or null if the query cannot be evaluated
+	 *         locally (e.g., because it refers to a property that the objects lack, or compares an array)
+	 */
+	List<WmiObject> evaluate(List<WmiObject> instances) {
+	    List<WmiObject> result = new ArrayList<WmiObject>();
+	    for (WmiObject obj : instances) {
+		boolean match = true;
+		for (Condition condition : conditions) {
+		    WmiProperty property = obj.getItem(condition.property);
+		    if (property == null || property.isArray()) {
+			return null;
+		    }
+		    Boolean b = condition.test(property);
+		    if (b == null) {
+			return null;
+		    } else if (!b.booleanValue()) {
+			match = false;
+			break;
+		    }
+		}
+		if (match) {
+		    if (properties == null) {
+			result.add(obj);
+		    } else {
+			WmiObject projection = new WmiObject();
+			for (String name : properties) {
+			    WmiProperty property = obj.getItem(name);
+			    if (property == null) {
+				return null;
+			    }
+			    projection.addProperty(property);
+			}
+			result.add(projection);
+		    }
+		}
+	    }
+	    return result;
+	}
+    }
+
+    /**
+     * A comparison of a property with a literal value.
+     */
+    static class Condition {
+	private String property, op, literal;
+
+	/**
+	 * @param literal the literal token (including any quotes), or null to test for a null property value
+	 */
+	Condition(String property, String op, String literal) {
+	    this.property = property;
+	    this.op = op;
+	    this.literal = literal;
+	}
+
+	/**
+	 * Test a (scalar) property.
+	 *
+	 * @return null if the comparison cannot be evaluated locally
+	 */
+	Boolean test(WmiProperty prop) {
+	    String value = (String)prop.getValue();
+	    if (literal == null || "NULL".equalsIgnoreCase(literal)) {
+		if (literal != null && !"=".equals(op) && !"<>".equals(op) && !"!=".equals(op)) {
+		    return null;
+		}
+		return Boolean.valueOf(value == null == "=".equals(op));
+	    } else if (value == null) {
+		return Boolean.FALSE;
+	    }
+	    int cmp;
+	    if (isLiteral(literal) && (literal.charAt(0) == '\'' || literal.charAt(0) == '"')) {
+		if (prop.getCimType() == WmiProperty.CIM_DATETIME && !isEquality(op)) {
+		    return null;
+		}
+		cmp = value.compareToIgnoreCase(unquote(literal));
+	    } else if ("TRUE".equalsIgnoreCase(literal) || "FALSE".equalsIgnoreCase(literal)) {
+		if (!isEquality(op)) {
+		    return null;
+		}
+		cmp = Boolean.valueOf(value).booleanValue() == "TRUE".equalsIgnoreCase(literal) ? 0 : 1;
+	    } else {
+		try {
+		    cmp = new BigDecimal(value).compareTo(new BigDecimal(literal));
+		} catch (NumberFormatException e) {
+		    return null;
+		}
+	    }
+	    if ("=".equals(op)) {
+		return Boolean.valueOf(cmp == 0);
+	    } else if ("<>".equals(op) || "!=".equals(op)) {
+		return Boolean.valueOf(cmp != 0);
+	    } else if ("<".equals(op)) {
+		return Boolean.valueOf(cmp < 0);
+	    } else if (">".equals(op)) {
+		return Boolean.valueOf(cmp > 0);
+	    } else if ("<=".equals(op)) {
+		return Boolean.valueOf(cmp <= 0);
+	    } else {
+		return Boolean.valueOf(cmp >= 0);
+	    }
+	}
+    }
+
+    // Private
+
+    /**
+     * Split a query into identifiers, literals, operators and punctuation.
+     *
+     * @return null if the query contains a character that cannot occur in a simple query
+     */
+    private static List<String> tokenize(String wql) {
+	List<String> tokens = new ArrayList<String>();
+	int len = wql.length();
+	for (int i=0; i < len; ) {
+	    char ch = wql.charAt(i);
+	    int start = i;
+	    if (Character.isWhitespace(ch)) {
+		i++;
+		continue;
+	    } else if (ch == '\'' || ch == '"') {
+		for (i++; i < len && wql.charAt(i) != ch; i++) {
+		    if (wql.charAt(i) == '\\') {
+			i++;
+		    }
+		}
+		if (i >= len) {
+		    return null;
+		}
+		i++;
+	    } else if (isWordChar(ch) || ch == '-') {
+		for (i++; i < len && (isWordChar(wql.charAt(i)) || wql.charAt(i) == '.'); i++) {
+		}
+	    } else if (ch == '<' || ch == '>' || ch == '!') {
+		i++;
+		if (i < len && (wql.charAt(i) == '=' || (ch == '<' && wql.charAt(i) == '>'))) {
+		    i++;
+		}
+	    } else if (ch == '=' || ch == ',' || ch == '*') {
+		i++;
+	    } else {
+		return null;
+	    }
+	    tokens.add(wql.substring(start, i));
+	}
+	return tokens;
+    }
+
+    private static String get(List<String> tokens, int i) {
+	return i < tokens.size() ? tokens.get(i) : null;
+    }
+
+    private static boolean isWordChar(char ch) {
+	return Character.isLetterOrDigit(ch) || ch == '_';
+    }
+
+    private static boolean isIdentifier(String token) {
+	return token != null && IDENTIFIER.matcher(token).matches();
+    }
+
+    private static boolean isOperator(String token) {
+	return "=".equals(token) || "<>".equals(token) || "!=".equals(token) || "<".equals(token) || ">".equals(token) ||
+	       "<=".equals(token) || ">=".equals(token);
+    }
+
+    private static boolean isEquality(String op) {
+	return "=".equals(op) || "<>".equals(op) || "!=".equals(op);
+    }
+
+    private static boolean isLiteral(String token) {
+	char ch = token.charAt(0);
+	return ch == '\'' || ch == '"' || NUMBER.matcher(token).matches();
+    }
+
+    private static boolean isKeywordLiteral(String token) {
+	return "TRUE".equalsIgnoreCase(token) || "FALSE".equalsIgnoreCase(token) || "NULL".equalsIgnoreCase(token);
+    }
+
+    /**
+     * Remove the quotes and backslash escapes from a string literal.
+     */
+    private static String unquote(String literal) {
+	StringBuffer sb = new StringBuffer();
+	for (int i=1; i < literal.length() - 1; i++) {
+	    char ch = literal.charAt(i);
+	    if (ch == '\\' && i + 1 < literal.length() - 1) {
+		ch = literal.charAt(++i);
+	    }
+	    sb.append(ch);
+	}
+	return sb.toString();
+    }
+}
@@ -120,6 +120,15 @@ public class Checksum {
         return digest.digest();
     }
 
+    /**
+     * Get a new MessageDigest for the specified algorithm, for computing a checksum incrementally.
+     *
+     * @since 1.7.0
+     */
+    public static MessageDigest getMessageDigest(Algorithm algorithm) {
+	return getDigest(algorithm);
+    }
+
     // Private
 
     /**
@@ -35,6 +35,7 @@ import jsaf.io.LineIterator;
 import jsaf.io.PerishableReader;
 import jsaf.io.SimpleReader;
 import jsaf.io.Streams;
+import jsaf.io.TempArea;
 import jsaf.io.TruncatedInputStream;
 import jsaf.io.XMLFilterStream;
 import jsaf.provider.SessionException;
@@ -357,7 +358,8 @@ public class SafeCLI {
      * there will be a large volume of output from the command, so it will redirect the output to a file, transfer the file
      * locally (if sys is not a local session), and then return an iterator that reads lines from the local file.
      *
-     * When the end of the iterator is reached, the local file is deleted.
+     * When the end of the iterator is reached, the local file is deleted. The remote file is created in the session's
+     * TempArea, and released as soon as its contents have been copied (or the command has failed).
      *
      * @since 1.0.1
      */
@@ -421,8 +423,11 @@ public class SafeCLI {
 		FileMonitor mon = new FileMonitor(sys.getFilesystem());
 		JSAFSystem.schedule(mon, 15000, 15000);
 		int retries = sys.getProperties().getIntProperty(IComputerSystem.PROP_EXEC_RETRIES);
+		TempArea area = TempArea.getInstance(sys);
+		IFile remoteTemp = null;
+		boolean release = true;
 		try {
-		    IFile remoteTemp = sys.getFilesystem().createTempFile("cmd", ".out", null);
+		    remoteTemp = area.newFile("cmd", ".out");
 		    String tempPath = remoteTemp.getPath();
 		    mon.setPath(tempPath);
 		    String redirected;
@@ -449,6 +454,7 @@ public class SafeCLI {
 			    //
 			    // output was redirected to a local file that we can use directly as the cache
 			    //
+			    release = false;
 			    return new LineIterator(new File(tempPath));
 			} else {
 			    //
@@ -457,7 +463,6 @@ public class SafeCLI {
 			    File localTemp = File.createTempFile("cmd", null, sys.getWorkspace());
 			    localTemp.deleteOnExit();
 			    Streams.copy(remoteTemp.getInputStream(), new FileOutputStream(localTemp), true);
-			    remoteTemp.delete();
 			    return new LineIterator(localTemp);
 			}
 		    }
@@ -469,6 +474,9 @@ public class SafeCLI {
 		    }
 		} finally {
 		    JSAFSystem.cancelTask(mon);
+		    if (remoteTemp != null && release) {
+			area.release(remoteTemp);
+		    }
 		}
 	    } else {
 		//
@@ -0,0 +1,162 @@
+// Copyright (C) 2026 Arctic Wolf Networks, Inc.  All rights reserved.
+// This software is licensed under the LGPL 3.0 license available at http://www.gnu.org/licenses/lgpl.txt
+
+package jsaf.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+
+import org.slf4j.cal10n.LocLogger;
+
+import jsaf.Message;
+import jsaf.intf.util.IDisposable;
+import jsaf.intf.util.ISearchable;
+
+/**
+ * A thread-safe ISearchable.IResult implementation, which can be populated concurrently by multiple search workers. The
+ * number of error and warning messages retained is capped (a cap of 0 means no limit), but hasErrors and hasWarnings
+ * continue to report true after a cap has been reached.
+ *
+ * A result whose items were stored in a SpillableCollection should be disposed once it is no longer needed, so that the
+ * collection's temporary file is deleted.
+ *
+ * @author David A. Solin
+ * @version %I% %G%
+ * @since 1.7.0
+ */
+public class SearchResult<T> implements ISearchable.IResult<T>, IDisposable {
+    private Collection<T> items;
+    private Collection<String> errors, warnings;
+    private int maxErrors, maxWarnings, limit;
+    private boolean errored, warned;
+    private LocLogger logger;
+
+    /**
+     * Create an empty result with no result limit and no message caps.
+     */
+    public SearchResult() {
+	this(ISearchable.UNLIMITED, 0, 0);
+    }
+
+    /**
+     * Create an empty result.
+     *
+     * @param limit the maximum number of items the result should accept, or ISearchable.UNLIMITED
+     * @param maxErrors the maximum number of error messages to keep, or 0 for no limit
+     * @param maxWarnings the maximum number of warning messages to keep, or 0 for no limit
+     */
+    public SearchResult(int limit, int maxErrors, int maxWarnings) {
+	this(new ArrayList<T>(), limit, maxErrors, maxWarnings);
+    }
+
+    /**
+     * Create an empty result, whose items will be stored in the specified (empty) Collection; for example, a
+     * SpillableCollection.
+     *
+     * @param items the Collection to which items will be added
+     *
+     * @see SpillableCollection
+     */
+    public SearchResult(Collection<T> items, int limit, int maxErrors, int maxWarnings) {
+	this.items = items;
+	this.limit = limit;
+	this.maxErrors = maxErrors;
+	this.maxWarnings = maxWarnings;
+	errors = new ArrayList<String>();
+	warnings = new ArrayList<String>();
+	logger = Message.getLogger();
+    }
+
+    /**
+     * Add an item to the result.
+     *
+     * @return false if the item was not added, because the result limit has been reached
+     */
+    public synchronized boolean add(T item) {
+	if (isFull()) {
+	    return false;
+	}
+	items.add(item);
+	return true;
+    }
+
+    /**
+     * Returns true if the result limit has been reached.
+     */
+    public synchronized boolean isFull() {
+	return limit != ISearchable.UNLIMITED && items.size() >= limit;
+    }
+
+    /**
+     * Get the number of items in the result.
+     */
+    public synchronized int size() {
+	return items.size();
+    }
+
+    /**
+     * Record an error message.
+     */
+    public synchronized void addError(String message) {
+	errored = true;
+	if (maxErrors <= 0 || errors.size() < maxErrors) {
+	    errors.add(message);
+	}
+    }
+
+    /**
+     * Record a warning message.
+     */
+    public synchronized void addWarning(String message) {
+	warned = true;
+	if (maxWarnings <= 0 || warnings.size() < maxWarnings) {
+	    warnings.add(message);
+	}
+    }
+
+    // Implement ISearchable.IResult<T>
+
+    public synchronized Collection<T> get() {
+	return Collections.unmodifiableCollection(items);
+    }
+
+    public synchronized boolean hasErrors() {
+	return errored;
+    }
+
+    public synchronized Collection<String> getErrors() {
+	return Collections.unmodifiableCollection(errors);
+    }
+
+    public synchronized boolean hasWarnings() {
+	return warned;
+    }
+
+    public synchronized Collection<String> getWarnings() {
+	return Collections.unmodifiableCollection(warnings);
+    }
+
+    // Implement IDisposable
+
+    /**
+     * Discard the items, deleting the temporary file of a SpillableCollection.
+     */
+    public synchronized void dispose() {
+	if (items instanceof SpillableCollection) {
+	    ((SpillableCollection<T>)items).dispose();
+	} else {
+	    items.clear();
+	}
+    }
+
+    // Implement ILoggable
+
+    public LocLogger getLogger() {
+	return logger;
+    }
+
+    public void setLogger(LocLogger logger) {
+	this.logger = logger;
+    }
+}
@@ -0,0 +1,225 @@
+// Copyright (C) 2026 Arctic Wolf Networks, Inc.  All rights reserved.
+// This software is licensed under the LGPL 3.0 license available at http://www.gnu.org/licenses/lgpl.txt
+
+package jsaf.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * An append-only Collection that holds up to a threshold number of items in memory, and serializes any further items to
+ * a temporary file using a Codec. The spilled items are deserialized (one at a time) during iteration, so a very large
+ * collection can be built and traversed within a bounded heap.
+ *
+ * If the temporary file cannot be written, items are once again kept in memory. Iteration order is always the order in
+ * which the items were added. The temporary file is deleted when the collection is disposed (or finalized).
+ *
+ * @author David A. Solin
+ * @version %I% %G%
+ * @since 1.7.0
+ */
+public class SpillableCollection<T> extends AbstractCollection<T> {
+    /**
+     * An interface for serializing items to (and from) the temporary file.
+     */
+    public interface Codec<T> {
+	/**
+	 * Serialize the item.
+	 */
+	void write(T item, DataOutput out) throws IOException;
+
+	/**
+	 * Deserialize an item that was serialized using the write method.
+	 */
+	T read(DataInput in) throws IOException;
+    }
+
+    private int threshold;
+    private Codec<T> codec;
+    private File dir, file;
+    private List<T> head, tail;
+    private DataOutputStream out;
+    private int spilled;
+    private boolean failed;
+
+    /**
+     * Create an empty collection.
+     *
+     * @param threshold the number of items to keep in memory before spilling (0 to never spill)
+     * @param codec the codec used to serialize spilled items
+     * @param dir the directory in which to create the temporary file, or null for the system default
+     */
+    public SpillableCollection(int threshold, Codec<T> codec, File dir) {
+	this.threshold = threshold;
+	this.codec = codec;
+	this.dir = dir;
+	head = new ArrayList<T>();
+	tail = new ArrayList<T>();
+    }
+
+    /**
+     * Returns true if items have been spilled to a temporary file.
+     */
+    public synchronized boolean isSpilled() {
+	return spilled > 0;
+    }
+
+    /**
+     * Close and delete the temporary file (if any) and discard all the items.
+     */
+    public synchronized void dispose() {
+	if (out != null) {
+	    try {
+		out.close();
+	    } catch (IOException e) {
+	    }
+	    out = null;
+	}
+	if (file != null) {
+	    if (file.delete()) {
+		file = null;
+	    }
+	}
+	head.clear();
+	tail.clear();
+	spilled = 0;
+    }
+
+    @Override
+    protected void finalize() {
+	dispose();
+    }
+
+    @Override
+    public synchronized boolean add(T item) {
+	if (threshold <= 0 || head.size() < threshold) {
+	    head.add(item);
+	} else if (failed) {
+	    tail.add(item);
+	} else {
+	    try {
+		if (out == null) {
+		    file = File.createTempFile("spill", ".dat", dir);
+		    file.deleteOnExit();
+		    out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+		}
+		codec.write(item, out);
+		spilled++;
+	    } catch (IOException e) {
+		//
+		// Any partially-written record lies beyond the last counted one, so it will never be read.
+		//
+		failed = true;
+		tail.add(item);
+	    }
+	}
+	return true;
+    }
+
+    @Override
+    public synchronized int size() {
+	return head.size() + spilled + tail.size();
+    }
+
+    @Override
+    public synchronized Iterator<T> iterator() {
+	if (out != null) {
+	    try {
+		out.flush();
+	    } catch (IOException e) {
+		throw new RuntimeException(e);
+	    }
+	}
+	return new SpillIterator(head.size(), spilled, tail.size());
+    }
+
+    // Private
+
+    /**
+     * An iterator over the items that were present when it was created.
+     */
+    class SpillIterator implements Iterator<T> {
+	private int headSize, spillSize, tailSize, index;
+	private DataInputStream in;
+
+	SpillIterator(int headSize, int spillSize, int tailSize) {
+	    this.headSize = headSize;
+	    this.spillSize = spillSize;
+	    this.tailSize = tailSize;
+	    index = 0;
+	}
+
+	public boolean hasNext() {
+	    return index < headSize + spillSize + tailSize;
+	}
+
+	public T next() throws NoSuchElementException {
+	    if (!hasNext()) {
+		throw new NoSuchElementException();
+	    }
+	    int i = index++;
+	    if (i < headSize) {
+		synchronized(SpillableCollection.this) {
+		    return head.get(i);
+		}
+	    } else if (i < headSize + spillSize) {
+		try {
+		    if (in == null) {
+			File f;
+			synchronized(SpillableCollection.this) {
+			    f = file;
+			}
+			if (f == null) {
+			    throw new IllegalStateException("disposed");
+			}
+			in = new DataInputStream(new BufferedInputStream(new FileInputStream(f)));
+		    }
+		    T item = codec.read(in);
+		    if (i == headSize + spillSize - 1) {
+			close();
+		    }
+		    return item;
+		} catch (IOException e) {
+		    close();
+		    throw new RuntimeException(e);
+		}
+	    } else {
+		synchronized(SpillableCollection.this) {
+		    return tail.get(i - headSize - spillSize);
+		}
+	    }
+	}
+
+	public void remove() {
+	    throw new UnsupportedOperationException();
+	}
+
+	@Override
+	protected void finalize() {
+	    close();
+	}
+
+	private void close() {
+	    if (in != null) {
+		try {
+		    in.close();
+		} catch (IOException e) {
+		}
+		in = null;
+	    }
+	}
+    }
+}
@@ -0,0 +1,190 @@
+// Copyright (C) 2026 Arctic Wolf Networks, Inc.  All rights reserved.
+// This software is licensed under the LGPL 3.0 license available at http://www.gnu.org/licenses/lgpl.txt
+
+package jsaf.util;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.cal10n.LocLogger;
+
+import jsaf.Message;
+import jsaf.intf.util.IDisposable;
+
+/**
+ * A fixed-size pool of daemon worker threads, each with its own task deque. Tasks submitted from a worker thread are
+ * pushed onto that worker's own deque and popped LIFO (so a recursive traversal proceeds depth-first and stays cache-
+ * friendly), while idle workers steal the oldest tasks from the other workers' deques. Tasks submitted from any other
+ * thread are distributed round-robin.
+ *
+ * This serves the same purpose as java.util.concurrent.ForkJoinPool, which is not available on every JVM supported by
+ * jSAF.
+ *
+ * When the executor is disposed, tasks that have not yet started are removed from the deques; those that are Futures
+ * (e.g., FutureTasks) are cancelled, so that anything waiting for them is released. Callers that must be notified about
+ * tasks that will never run should therefore submit Futures.
+ *
+ * @author David A. Solin
+ * @version %I% %G%
+ * @since 1.7.0
+ */
+public class WorkStealingExecutor implements Executor, IDisposable {
+    private static final AtomicInteger COUNTER = new AtomicInteger(0);
+
+    private final Worker[] workers;
+    private final Object lock = new Object();
+    private final AtomicInteger queued = new AtomicInteger(0);
+    private int idle = 0, next = 0;
+    private volatile boolean shutdown = false;
+    private LocLogger logger;
+
+    /**
+     * Create a new executor with the specified number of worker threads.
+     */
+    public WorkStealingExecutor(String name, int parallelism) {
+	if (parallelism < 1) {
+	    throw new IllegalArgumentException(Integer.toString(parallelism));
+	}
+	logger = Message.getLogger();
+	workers = new Worker[parallelism];
+	int id = COUNTER.getAndIncrement();
+	for (int i=0; i < parallelism; i++) {
+	    workers[i] = new Worker(new StringBuffer(name).append(" ").append(id).append("-").append(i).toString());
+	}
+	for (Worker worker : workers) {
+	    worker.start();
+	}
+    }
+
+    /**
+     * Get the number of worker threads.
+     */
+    public int getParallelism() {
+	return workers.length;
+    }
+
+    // Implement Executor
+
+    public void execute(Runnable task) {
+	if (shutdown) {
+	    throw new RejectedExecutionException();
+	}
+	Thread current = Thread.currentThread();
+	Worker target = null;
+	if (current instanceof Worker && ((Worker)current).owner() == this) {
+	    target = (Worker)current;
+	} else {
+	    synchronized(lock) {
+		target = workers[next++ % workers.length];
+	    }
+	}
+	target.deque.addLast(task);
+	queued.incrementAndGet();
+	if (shutdown && target.deque.removeLastOccurrence(task)) {
+	    // lost a race with dispose
+	    queued.decrementAndGet();
+	    cancel(task);
+	    return;
+	}
+	synchronized(lock) {
+	    if (idle > 0) {
+		lock.notify();
+	    }
+	}
+    }
+
+    // Implement IDisposable
+
+    public void dispose() {
+	shutdown = true;
+	synchronized(lock) {
+	    lock.notifyAll();
+	}
+	for (Worker worker : workers) {
+	    Runnable task = null;
+	    while ((task = worker.deque.pollFirst()) != null) {
+		queued.decrementAndGet();
+		cancel(task);
+	    }
+	}
+    }
+
+    // Implement ILoggable
+
+    public LocLogger getLogger() {
+	return logger;
+    }
+
+    public void setLogger(LocLogger logger) {
+	this.logger = logger;
+    }
+
+    // Private
+
+    private void cancel(Runnable task) {
+	if (task instanceof Future) {
+	    ((Future<?>)task).cancel(false);
+	}
+    }
+
+    private Runnable steal(Worker thief) {
+	int offset = (int)(thief.getId() % workers.length);
+	for (int i=0; i < workers.length; i++) {
+	    Worker victim = workers[(offset + i) % workers.length];
+	    if (victim != thief) {
+		Runnable task = victim.deque.pollFirst();
+		if (task != null) {
+		    return task;
+		}
+	    }
+	}
+	return null;
+    }
+
+    class Worker extends Thread {
+	LinkedBlockingDeque<Runnable> deque;
+
+	Worker(String name) {
+	    super(name);
+	    setDaemon(true);
+	    deque = new LinkedBlockingDeque<Runnable>();
+	}
+
+	WorkStealingExecutor owner() {
+	    return WorkStealingExecutor.this;
+	}
+
+	@Override
+	public void run() {
+	    while (!shutdown) {
+		Runnable task = deque.pollLast();
+		if (task == null) {
+		    task = steal(this);
+		}
+		if (task == null) {
+		    synchronized(lock) {
+			if (queued.get() == 0 && !shutdown) {
+			    idle++;
+			    try {
+				lock.wait(100L);
+			    } catch (InterruptedException e) {
+			    } finally {
+				idle--;
+			    }
+			}
+		    }
+		} else {
+		    queued.decrementAndGet();
+		    try {
+			task.run();
+		    } catch (Throwable t) {
+			logger.warn(Message.getMessage(Message.ERROR_EXCEPTION), t);
+		    }
+		}
+	    }
+	}
+    }
+}